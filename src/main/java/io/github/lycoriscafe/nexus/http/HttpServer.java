@@ -16,11 +16,14 @@
 
 package io.github.lycoriscafe.nexus.http;
 
+import io.github.lycoriscafe.nexus.http.engine.ContentMemoryBudget;
 import io.github.lycoriscafe.nexus.http.engine.RequestConsumer;
+import io.github.lycoriscafe.nexus.http.engine.TempFileManager;
 import io.github.lycoriscafe.nexus.http.helper.Database;
 import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
 import io.github.lycoriscafe.nexus.http.helper.configuration.PropertiesProcessor;
 import io.github.lycoriscafe.nexus.http.helper.configuration.ThreadType;
+import io.github.lycoriscafe.nexus.http.helper.scanners.ClasspathScanner;
 import io.github.lycoriscafe.nexus.http.helper.scanners.EndpointScanner;
 import io.github.lycoriscafe.nexus.http.helper.scanners.FileScanner;
 import io.github.lycoriscafe.nexus.http.helper.scanners.ScannerException;
@@ -53,6 +56,8 @@ public sealed class HttpServer permits HttpsServer {
     ServerSocket serverSocket;
     ExecutorService executorService;
     final Database database;
+    final ContentMemoryBudget contentMemoryBudget;
+    final TempFileManager tempFileManager;
 
     public HttpServer() throws IOException, ScannerException, SQLException {
         this(PropertiesProcessor.process(true));
@@ -93,8 +98,11 @@ public sealed class HttpServer permits HttpsServer {
         }
 
         database = new Database(serverConfiguration);
+        contentMemoryBudget = new ContentMemoryBudget(serverConfiguration);
+        tempFileManager = new TempFileManager(serverConfiguration);
         EndpointScanner.scan(serverConfiguration, database);
         FileScanner.scan(serverConfiguration, database);
+        ClasspathScanner.scan(serverConfiguration, database);
     }
 
     /**
@@ -139,7 +147,8 @@ public sealed class HttpServer permits HttpsServer {
                 serverThread.setName("Nexus-HTTP@" + serverSocket.getLocalPort());
                 LogFormatter.log(logger.atInfo(), "Server initialized @ " + serverSocket.getLocalSocketAddress());
                 while (!serverSocket.isClosed()) {
-                    executorService.execute(new RequestConsumer(serverConfiguration, database, serverSocket.accept()));
+                    executorService.execute(new RequestConsumer(serverConfiguration, database, contentMemoryBudget, tempFileManager,
+                            serverSocket.accept()));
                 }
             } catch (IOException e) {
                 throw new RuntimeException(e);
@@ -148,6 +157,45 @@ public sealed class HttpServer permits HttpsServer {
         return this;
     }
 
+    /**
+     * Get the count of request content bytes currently kept in memory (reserved from the {@code contentMemoryBudget}). This can be exported as a
+     * metric to monitor the memory pressure of the incoming content.
+     *
+     * @return Request content bytes in memory
+     * @see HttpServerConfiguration#setContentMemoryBudget(long)
+     * @see HttpServer
+     * @since v1.0.6
+     */
+    public long getContentMemoryUsage() {
+        return contentMemoryBudget.getUsed();
+    }
+
+    /**
+     * Get the count of temporary files currently in use by the requests (spooled content, compressed responses, ...). This can be exported as a
+     * metric together with the {@code getTempFileSpaceUsage()}.
+     *
+     * @return Live temporary file count
+     * @see #getTempFileSpaceUsage()
+     * @see HttpServer
+     * @since v1.0.6
+     */
+    public int getTempFileCount() {
+        return tempFileManager.getCount();
+    }
+
+    /**
+     * Get the count of bytes currently written into the temporary files of the requests (reserved from the {@code maxTempFileSpace}).
+     *
+     * @return Temporary file bytes in use
+     * @see HttpServerConfiguration#setMaxTempFileSpace(long)
+     * @see #getTempFileCount()
+     * @see HttpServer
+     * @since v1.0.6
+     */
+    public long getTempFileSpaceUsage() {
+        return tempFileManager.getUsed();
+    }
+
     /**
      * Shutdown HTTP server.
      *
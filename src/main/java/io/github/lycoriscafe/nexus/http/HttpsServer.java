@@ -17,6 +17,7 @@
 package io.github.lycoriscafe.nexus.http;
 
 import io.github.lycoriscafe.nexus.http.engine.RequestConsumer;
+import io.github.lycoriscafe.nexus.http.engine.TlsSocket;
 import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
 import io.github.lycoriscafe.nexus.http.helper.configuration.HttpsServerConfiguration;
 import io.github.lycoriscafe.nexus.http.helper.configuration.PropertiesProcessor;
@@ -28,6 +29,8 @@ import org.slf4j.LoggerFactory;
 import javax.net.ssl.*;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.security.*;
 import java.security.cert.CertificateException;
 import java.sql.SQLException;
@@ -84,17 +87,16 @@ public final class HttpsServer extends HttpServer {
         executorService = initializeExecutorService(serverConfiguration);
         serverThread = Thread.ofPlatform().start(() -> {
             try {
-                SSLServerSocketFactory sslServerSocketFactory = initializeSslContext().getServerSocketFactory();
-                SSLServerSocket sslServerSocket = (SSLServerSocket) (serverConfiguration.getInetAddress() == null ?
-                        sslServerSocketFactory.createServerSocket(serverConfiguration.getPort(), serverConfiguration.getBacklog()) :
-                        sslServerSocketFactory.createServerSocket(serverConfiguration.getPort(), serverConfiguration.getBacklog(),
-                                serverConfiguration.getInetAddress()));
-                sslServerSocket.setEnabledProtocols(serverConfiguration.getTlsVersions());
-                serverSocket = sslServerSocket;
+                SSLContext sslContext = initializeSslContext();
+                serverSocket = serverConfiguration.getInetAddress() == null ?
+                        new ServerSocket(serverConfiguration.getPort(), serverConfiguration.getBacklog()) :
+                        new ServerSocket(serverConfiguration.getPort(), serverConfiguration.getBacklog(), serverConfiguration.getInetAddress());
                 serverThread.setName("Nexus-HTTP@" + serverSocket.getLocalPort());
                 LogFormatter.log(logger.atInfo(), "Server initialized @ " + serverSocket.getLocalSocketAddress());
                 while (!serverSocket.isClosed()) {
-                    executorService.execute(new RequestConsumer(serverConfiguration, database, serverSocket.accept()));
+                    Socket socket = serverSocket.accept();
+                    executorService.execute(new RequestConsumer(serverConfiguration, database, contentMemoryBudget, tempFileManager,
+                            new TlsSocket(socket, createSslEngine(sslContext))));
                 }
             } catch (IOException | UnrecoverableKeyException | CertificateException | KeyStoreException |
                      NoSuchAlgorithmException | KeyManagementException e) {
@@ -104,6 +106,26 @@ public final class HttpsServer extends HttpServer {
         return this;
     }
 
+    /**
+     * Create a server mode {@code SSLEngine} for an accepted connection, with the configured TLS versions and the ALPN protocols.
+     *
+     * @param sslContext Initialized {@code SSLContext}
+     * @return New {@code SSLEngine}
+     * @see TlsSocket
+     * @see HttpsServer
+     * @since v1.0.6
+     */
+    private SSLEngine createSslEngine(final SSLContext sslContext) {
+        SSLEngine sslEngine = sslContext.createSSLEngine();
+        sslEngine.setUseClientMode(false);
+        sslEngine.setEnabledProtocols(serverConfiguration.getTlsVersions());
+        // HTTP/2 is preferred when the client offers it
+        SSLParameters sslParameters = sslEngine.getSSLParameters();
+        sslParameters.setApplicationProtocols(serverConfiguration.isHttp2() ? new String[]{"h2", "http/1.1"} : new String[]{"http/1.1"});
+        sslEngine.setSSLParameters(sslParameters);
+        return sslEngine;
+    }
+
     /**
      * Initialize SSL Context and other related Key Stores.
      *
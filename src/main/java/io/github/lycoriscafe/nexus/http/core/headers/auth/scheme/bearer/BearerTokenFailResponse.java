@@ -17,6 +17,7 @@
 package io.github.lycoriscafe.nexus.http.core.headers.auth.scheme.bearer;
 
 import io.github.lycoriscafe.nexus.http.core.headers.content.Content;
+import io.github.lycoriscafe.nexus.http.core.headers.content.JsonWriter;
 import io.github.lycoriscafe.nexus.http.core.statusCodes.HttpStatusCode;
 import io.github.lycoriscafe.nexus.http.engine.reqResManager.httpRes.HttpResponse;
 import io.github.lycoriscafe.nexus.http.engine.RequestConsumer;
@@ -130,8 +131,22 @@ public final class BearerTokenFailResponse implements BearerTokenResponse {
     public HttpResponse parse(long requestId,
                               RequestConsumer requestConsumer) {
         return new HttpResponse(requestId, requestConsumer).setStatusCode(HttpStatusCode.BAD_REQUEST)
-                .setContent(new Content("application/json", "{\"error\":\"" + error.getValue() + "\"" +
-                        (getErrorDescription() != null ? ",\"error_description\":\"" + getErrorDescription() + "\"" : "") +
-                        (getErrorUri() != null ? "\"error_uri\":\"" + getErrorUri() + "\"" : "") + "}"));
+                .setContent(new Content("application/json", toJson()));
+    }
+
+    /**
+     * Write the error response parameters as JSON.
+     *
+     * @return UTF-8 bytes of the JSON object
+     * @see BearerTokenFailResponse
+     * @since v1.0.6
+     */
+    private byte[] toJson() {
+        return JsonWriter.write(json -> {
+            json.beginObject().name("error").value(error.getValue());
+            if (getErrorDescription() != null) json.name("error_description").value(getErrorDescription());
+            if (getErrorUri() != null) json.name("error_uri").value(getErrorUri());
+            json.endObject();
+        });
     }
 }
@@ -18,6 +18,7 @@ package io.github.lycoriscafe.nexus.http.core.headers.auth.scheme.bearer;
 
 import io.github.lycoriscafe.nexus.http.core.headers.cache.CacheControl;
 import io.github.lycoriscafe.nexus.http.core.headers.content.Content;
+import io.github.lycoriscafe.nexus.http.core.headers.content.JsonWriter;
 import io.github.lycoriscafe.nexus.http.engine.reqResManager.httpRes.HttpResponse;
 import io.github.lycoriscafe.nexus.http.engine.RequestConsumer;
 
@@ -159,9 +160,23 @@ public final class BearerTokenSuccessResponse implements BearerTokenResponse {
                               final RequestConsumer requestConsumer) {
         return new HttpResponse(requestId, requestConsumer)
                 .setCashControl(new CacheControl().setNoStore(true))
-                .setContent(new Content("application/json", "{\"access_token\":\"" + getBearerToken() + "\"," +
-                        "\"token_type\":\"Bearer\"" + ((getExpiresIn() != null) ? ",\"expires_in\":" + getExpiresIn() : "") +
-                        (getRefreshToken() != null ? ",\"refresh_token\":\"" + getRefreshToken() + "\"" : "") +
-                        (getScope() != null ? ",\"scope\":\"" + getScope() + "\"" : "") + "}"));
+                .setContent(new Content("application/json", toJson()));
+    }
+
+    /**
+     * Write the token response parameters as JSON.
+     *
+     * @return UTF-8 bytes of the JSON object
+     * @see BearerTokenSuccessResponse
+     * @since v1.0.6
+     */
+    private byte[] toJson() {
+        return JsonWriter.write(json -> {
+            json.beginObject().name("access_token").value(getBearerToken()).name("token_type").value("Bearer");
+            if (getExpiresIn() != null) json.name("expires_in").value(getExpiresIn());
+            if (getRefreshToken() != null) json.name("refresh_token").value(getRefreshToken());
+            if (getScope() != null) json.name("scope").value(getScope());
+            json.endObject();
+        });
     }
 }
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of the content I/O buffers. Heap {@code byte[]} buffers are kept in three size classes ({@code 4 KiB}, {@code 64 KiB}, {@code 1 MiB}) in
+ * striped lock-free lists, so the connection threads rarely touch the same list. Buffers are sized by what the operation needs (not by the
+ * {@code maxChunkSize}), so a small response does not allocate a large buffer.
+ * <p>
+ * Direct {@code ByteBuffer} slabs for the off-heap request content are kept in power-of-two size classes (from {@code 16 KiB} to {@code 1 GiB}),
+ * so the buffered content does not create garbage in the Java heap.
+ * <p>
+ * If the debug logging is enabled, every buffer taken is tracked until it is released (by any thread), and the buffers taken by a connection
+ * thread and not released at the end of the connection are logged as leaks along with the stack trace that took them.
+ *
+ * @apiNote This class is public but not useful for the API users. Only used for in-API tasks.
+ * @see HttpServerConfiguration#setOffHeapContent(boolean)
+ * @see io.github.lycoriscafe.nexus.http.engine.RequestConsumer#acquireDirectBuffer(int) RequestConsumer.acquireDirectBuffer(int)
+ * @since v1.0.6
+ */
+public final class BufferPool {
+    private static final Logger logger = LoggerFactory.getLogger(BufferPool.class);
+
+    /**
+     * Small size class ({@code 4 KiB}).
+     */
+    public static final int SMALL = 4_096;
+    /**
+     * Medium size class ({@code 64 KiB}).
+     */
+    public static final int MEDIUM = 65_536;
+    /**
+     * Large size class ({@code 1 MiB}).
+     */
+    public static final int LARGE = 1_048_576;
+
+    private static final int[] SIZES = {SMALL, MEDIUM, LARGE};
+    // maximum count of free buffers kept for each size class (4 MiB, 16 MiB, 16 MiB)
+    private static final int[] MAX_POOLED = {1_024, 256, 16};
+    private static final int STRIPES = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+
+    private static final Pool<byte[]> heap = new Pool<>();
+
+    private static final int DIRECT_MIN_SHIFT = 14;
+    private static final int DIRECT_MAX_SHIFT = 30;
+    // maximum bytes of free direct slabs kept in the pool
+    private static final long MAX_POOLED_DIRECT_BYTES = 67_108_864L;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final ConcurrentLinkedQueue<ByteBuffer>[] direct = new ConcurrentLinkedQueue[DIRECT_MAX_SHIFT - DIRECT_MIN_SHIFT + 1];
+    private static final AtomicLong pooledDirectBytes = new AtomicLong(0L);
+
+    static {
+        for (int i = 0; i < direct.length; i++) {
+            direct[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    private static final boolean leakDetection = logger.isDebugEnabled();
+    // buffers are released by other threads too (like the parallel deflate workers), so they are tracked by identity in one map
+    private static final Map<Object, Origin> acquired = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private BufferPool() {}
+
+    /**
+     * Take a heap buffer of the smallest size class that fits the given size (the large size class for larger sizes). I/O loops should use the
+     * buffer length, that can be larger or smaller than the given size.
+     *
+     * @param size Preferred buffer size
+     * @return Heap buffer
+     * @see #release(byte[])
+     * @see BufferPool
+     * @since v1.0.6
+     */
+    public static byte[] acquire(final int size) {
+        int sizeClass = sizeClass(size);
+        byte[] buffer = heap.poll(sizeClass);
+        if (buffer == null) buffer = new byte[SIZES[sizeClass]];
+        track(buffer);
+        return buffer;
+    }
+
+    /**
+     * Return a heap buffer to the pool. Buffers not from the pool, and buffers beyond the pool size are left to the garbage collector.
+     *
+     * @param buffer Heap buffer taken by {@code acquire(int)}
+     * @see #acquire(int)
+     * @see BufferPool
+     * @since v1.0.6
+     */
+    public static void release(final byte[] buffer) {
+        if (buffer == null) return;
+        untrack(buffer);
+        int sizeClass = exactSizeClass(buffer.length);
+        if (sizeClass != -1) heap.offer(sizeClass, buffer);
+    }
+
+    /**
+     * Take a direct buffer of the smallest power-of-two slab that fits the given capacity (or allocate a new one). The limit of the returned buffer
+     * is set to the given capacity.
+     *
+     * @param capacity Required capacity
+     * @return Direct buffer
+     * @see #releaseDirect(ByteBuffer)
+     * @see BufferPool
+     * @since v1.0.6
+     */
+    public static ByteBuffer acquireDirect(final int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity cannot be less than 0");
+        int shift = Math.max(DIRECT_MIN_SHIFT, 32 - Integer.numberOfLeadingZeros(Math.max(1, capacity) - 1));
+        ByteBuffer buffer;
+        if (shift > DIRECT_MAX_SHIFT) {
+            buffer = ByteBuffer.allocateDirect(capacity);
+        } else {
+            buffer = direct[shift - DIRECT_MIN_SHIFT].poll();
+            if (buffer == null) {
+                buffer = ByteBuffer.allocateDirect(1 << shift);
+            } else {
+                pooledDirectBytes.addAndGet(-buffer.capacity());
+            }
+        }
+        track(buffer);
+        return buffer.clear().limit(capacity);
+    }
+
+    /**
+     * Return a direct buffer to the pool. Buffers not from the pool, and buffers beyond the pool size are left to the garbage collector.
+     *
+     * @param buffer Direct buffer taken by {@code acquireDirect(int)}
+     * @see #acquireDirect(int)
+     * @see BufferPool
+     * @since v1.0.6
+     */
+    public static void releaseDirect(final ByteBuffer buffer) {
+        if (buffer == null) return;
+        untrack(buffer);
+        int capacity = buffer.capacity();
+        if (!buffer.isDirect() || Integer.bitCount(capacity) != 1 || capacity < (1 << DIRECT_MIN_SHIFT) || capacity > (1 << DIRECT_MAX_SHIFT)) return;
+        if (pooledDirectBytes.addAndGet(capacity) > MAX_POOLED_DIRECT_BYTES) {
+            pooledDirectBytes.addAndGet(-capacity);
+            return;
+        }
+        direct[Integer.numberOfTrailingZeros(capacity) - DIRECT_MIN_SHIFT].offer(buffer);
+    }
+
+    /**
+     * Log the buffers taken by the current thread and not released yet as leaks, and stop tracking them. Does nothing if the debug logging is
+     * disabled.
+     *
+     * @see BufferPool
+     * @since v1.0.6
+     */
+    public static void checkLeaks() {
+        if (!leakDetection) return;
+        Thread thread = Thread.currentThread();
+        List<Throwable> leaks = new ArrayList<>();
+        synchronized (acquired) {
+            Iterator<Origin> origins = acquired.values().iterator();
+            while (origins.hasNext()) {
+                Origin origin = origins.next();
+                if (origin.thread() != thread) continue;
+                leaks.add(origin.stackTrace());
+                origins.remove();
+            }
+        }
+        for (Throwable stackTrace : leaks) {
+            logger.atDebug().setCause(stackTrace).log("NEXUS-HTTP :: Buffer not released to the pool");
+        }
+    }
+
+    /**
+     * Get the smallest size class that fits the given size, or the large size class.
+     *
+     * @param size Preferred buffer size
+     * @return Index of the size class
+     * @see BufferPool
+     * @since v1.0.6
+     */
+    private static int sizeClass(final int size) {
+        if (size < 0) throw new IllegalArgumentException("size cannot be less than 0");
+        for (int i = 0; i < SIZES.length - 1; i++) {
+            if (size <= SIZES[i]) return i;
+        }
+        return SIZES.length - 1;
+    }
+
+    /**
+     * Get the size class of a buffer capacity.
+     *
+     * @param size Buffer capacity
+     * @return Index of the size class, or -1 if the capacity is not a size class
+     * @see BufferPool
+     * @since v1.0.6
+     */
+    private static int exactSizeClass(final int size) {
+        for (int i = 0; i < SIZES.length; i++) {
+            if (size == SIZES[i]) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Remember where a buffer is taken, if the leak detection is enabled.
+     *
+     * @param buffer Taken buffer
+     * @see #checkLeaks()
+     * @since v1.0.6
+     */
+    private static void track(final Object buffer) {
+        if (leakDetection) acquired.put(buffer, new Origin(Thread.currentThread(), new Throwable("buffer taken here")));
+    }
+
+    /**
+     * Forget a released buffer, if the leak detection is enabled.
+     *
+     * @param buffer Released buffer
+     * @see #checkLeaks()
+     * @since v1.0.6
+     */
+    private static void untrack(final Object buffer) {
+        if (leakDetection) acquired.remove(buffer);
+    }
+
+    /**
+     * Where a tracked buffer is taken.
+     *
+     * @param thread     Thread that took the buffer
+     * @param stackTrace Stack trace that took the buffer
+     * @see #checkLeaks()
+     * @since v1.0.6
+     */
+    private record Origin(Thread thread, Throwable stackTrace) {}
+
+    /**
+     * Striped free lists of a buffer type.
+     *
+     * @param <T> Buffer type
+     * @see BufferPool
+     * @since v1.0.6
+     */
+    private static final class Pool<T> {
+        private final ConcurrentLinkedQueue<T>[][] stripes;
+        private final AtomicInteger[] counts;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Pool() {
+            stripes = new ConcurrentLinkedQueue[SIZES.length][STRIPES];
+            counts = new AtomicInteger[SIZES.length];
+            for (int i = 0; i < SIZES.length; i++) {
+                counts[i] = new AtomicInteger();
+                for (int j = 0; j < STRIPES; j++) {
+                    stripes[i][j] = new ConcurrentLinkedQueue<>();
+                }
+            }
+        }
+
+        /**
+         * Take a free buffer of a size class.
+         *
+         * @param sizeClass Index of the size class
+         * @return Free buffer, or null if there is no free buffer
+         * @since v1.0.6
+         */
+        private T poll(final int sizeClass) {
+            if (counts[sizeClass].get() == 0) return null;
+            int stripe = stripe();
+            // own stripe first, then the others (connections move between threads)
+            for (int i = 0; i < STRIPES; i++) {
+                T buffer = stripes[sizeClass][(stripe + i) & (STRIPES - 1)].poll();
+                if (buffer != null) {
+                    counts[sizeClass].decrementAndGet();
+                    return buffer;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Keep a free buffer of a size class, unless the size class is full.
+         *
+         * @param sizeClass Index of the size class
+         * @param buffer    Free buffer
+         * @since v1.0.6
+         */
+        private void offer(final int sizeClass,
+                           final T buffer) {
+            if (counts[sizeClass].incrementAndGet() > MAX_POOLED[sizeClass]) {
+                counts[sizeClass].decrementAndGet();
+                return;
+            }
+            stripes[sizeClass][stripe()].offer(buffer);
+        }
+
+        /**
+         * Get the stripe of the current thread.
+         *
+         * @return Index of the stripe
+         * @since v1.0.6
+         */
+        private static int stripe() {
+            return (int) Thread.currentThread().threadId() & (STRIPES - 1);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * {@code InputStream} of the remaining bytes of a {@code ByteBuffer}. The position of the given buffer is not changed.
+ *
+ * @apiNote This class is public but not useful for the API users. Only used for in-API tasks.
+ * @see Content#getDataBuffer()
+ * @see MultipartFormData#getInputStream()
+ * @since v1.0.6
+ */
+public final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer byteBuffer;
+
+    /**
+     * Create an instance of {@code ByteBufferInputStream}.
+     *
+     * @param byteBuffer Source buffer
+     * @see ByteBufferInputStream
+     * @since v1.0.6
+     */
+    public ByteBufferInputStream(final ByteBuffer byteBuffer) {
+        this.byteBuffer = Objects.requireNonNull(byteBuffer).duplicate();
+    }
+
+    @Override
+    public int read() {
+        return byteBuffer.hasRemaining() ? byteBuffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(final byte[] b,
+                    final int off,
+                    final int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) return 0;
+        if (!byteBuffer.hasRemaining()) return -1;
+        int c = Math.min(len, byteBuffer.remaining());
+        byteBuffer.get(b, off, c);
+        return c;
+    }
+
+    @Override
+    public long skip(final long n) {
+        int c = (int) Math.max(0L, Math.min(n, byteBuffer.remaining()));
+        byteBuffer.position(byteBuffer.position() + c);
+        return c;
+    }
+
+    @Override
+    public int available() {
+        return byteBuffer.remaining();
+    }
+}
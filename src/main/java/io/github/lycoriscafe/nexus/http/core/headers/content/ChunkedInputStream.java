@@ -0,0 +1,180 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * Request body stream for the {@code Transfer-Encoding: chunked} content. Decodes the chunks on the fly from the socket input stream, so the content
+ * never needs to be stored before processing. Chunk extensions and trailer fields are read and discarded (the trailer section is limited to the
+ * {@code maxHeaderSize}). Reading stops exactly at the end of the last CRLF of the chunked content. Closing this stream does not close the socket.
+ *
+ * @apiNote This class is public but not useful for the API users. Only used for in-API tasks.
+ * @see FixedLengthInputStream
+ * @see Content
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc9112#name-chunked-transfer-coding">HTTP/1.1 (rfc9112) - 7.1. Chunked Transfer Coding</a>
+ * @since v1.0.6
+ */
+public final class ChunkedInputStream extends InputStream {
+    private final InputStream inputStream;
+    private final long maxContentLength;
+    private final int maxHeaderSize;
+
+    private long chunkRemaining = 0L;
+    private long totalLength = 0L;
+    private boolean finished = false;
+    // invalid or too large content fails every later read, so the rest of the content cannot be read past the limits
+    private IOException failure;
+
+    /**
+     * Create an instance of {@code ChunkedInputStream}.
+     *
+     * @param inputStream      Socket input stream
+     * @param maxContentLength Maximum decoded content length
+     * @param maxHeaderSize    Maximum length of a chunk size line, and of the whole trailer section
+     * @see ChunkedInputStream
+     * @since v1.0.6
+     */
+    public ChunkedInputStream(final InputStream inputStream,
+                              final long maxContentLength,
+                              final int maxHeaderSize) {
+        this.inputStream = Objects.requireNonNull(inputStream);
+        this.maxContentLength = maxContentLength;
+        this.maxHeaderSize = maxHeaderSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextChunk()) return -1;
+        int b = inputStream.read();
+        if (b == -1) throw new EOFException("connection closed before the end of chunk");
+        chunkRemaining--;
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b,
+                    final int off,
+                    final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) return 0;
+        if (!nextChunk()) return -1;
+        int c = inputStream.read(b, off, (int) Math.min(len, chunkRemaining));
+        if (c == -1) throw new EOFException("connection closed before the end of chunk");
+        chunkRemaining -= c;
+        return c;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return finished ? 0 : (int) Math.min(inputStream.available(), chunkRemaining);
+    }
+
+    /**
+     * Does nothing. The socket input stream is owned by the connection.
+     */
+    @Override
+    public void close() {}
+
+    /**
+     * Move to the next chunk if the current chunk is fully read.
+     *
+     * @return Is there more data to read?
+     * @throws IOException Error while reading data or invalid chunked content ({@code ContentTooLargeException} if the maximum content length
+     *                     exceeded)
+     * @see ChunkedInputStream
+     * @since v1.0.6
+     */
+    private boolean nextChunk() throws IOException {
+        if (failure != null) throw failure;
+        if (finished) return false;
+        if (chunkRemaining > 0) return true;
+        try {
+            return readChunkHeader();
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Read the next chunk size line (or the last chunk and the trailer section).
+     *
+     * @return Is there more data to read?
+     * @throws IOException Error while reading data or invalid chunked content ({@code ContentTooLargeException} if the maximum content length
+     *                     exceeded)
+     * @see #nextChunk()
+     * @see ChunkedInputStream
+     * @since v1.0.6
+     */
+    private boolean readChunkHeader() throws IOException {
+        // CRLF after the previous chunk data
+        if (totalLength > 0 && !readLine().isEmpty()) throw new IOException("invalid chunk terminator");
+
+        String line = readLine();
+        int extension = line.indexOf(';');
+        String size = (extension == -1 ? line : line.substring(0, extension)).trim();
+        long chunkSize;
+        try {
+            chunkSize = Long.parseLong(size, 16);
+        } catch (NumberFormatException e) {
+            throw new IOException("invalid chunk size");
+        }
+        if (chunkSize < 0) throw new IOException("invalid chunk size");
+
+        if (chunkSize == 0) {
+            // trailer section ends with an empty line
+            long trailerLength = 0L;
+            for (String field = readLine(); !field.isEmpty(); field = readLine()) {
+                trailerLength += field.length() + 2;
+                if (trailerLength > maxHeaderSize) throw new IOException("chunked content trailer section too large");
+            }
+            finished = true;
+            return false;
+        }
+
+        if (chunkSize > maxContentLength - totalLength) throw new ContentTooLargeException("max chunked size exceeded");
+        chunkRemaining = chunkSize;
+        totalLength += chunkSize;
+        return true;
+    }
+
+    /**
+     * Read a CRLF terminated line from the socket input stream.
+     *
+     * @return Line without the CRLF
+     * @throws IOException Error while reading data or line too long
+     * @see ChunkedInputStream
+     * @since v1.0.6
+     */
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            int b = inputStream.read();
+            if (b == -1) throw new EOFException("connection closed before the end of chunked content");
+            if (b == '\r') {
+                if (inputStream.read() != '\n') throw new IOException("invalid line terminator in chunked content");
+                return line.toString();
+            }
+            if (line.length() == maxHeaderSize) throw new IOException("chunked content line too long");
+            line.append((char) b);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Response body stream for the {@code Transfer-Encoding: chunked} content. Written data is collected in a pooled buffer that has room for the chunk
+ * size line before the data and the CRLF after it, so every chunk (size line, data and CRLF) is sent to the socket output stream with one write.
+ * A chunk is sent when the buffer is full (at most {@code maxChunkSize} bytes of data) or on {@code flush()}. Call {@code finish()} to send the
+ * last chunk. Closing this stream does not close the socket.
+ *
+ * @apiNote This class is public but not useful for the API users. Only used for in-API tasks.
+ * @see ChunkedInputStream
+ * @see io.github.lycoriscafe.nexus.http.helper.configuration.ChunkFlushPolicy ChunkFlushPolicy
+ * @see Content.WriteOperations
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc9112#name-chunked-transfer-coding">HTTP/1.1 (rfc9112) - 7.1. Chunked Transfer Coding</a>
+ * @since v1.0.6
+ */
+public final class ChunkedOutputStream extends OutputStream {
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    // 8 hex digits (int) and CRLF before the data, CRLF and the last chunk after the data
+    private static final int HEADER_SIZE = 10;
+    private static final int TRAILER_SIZE = 2 + LAST_CHUNK.length;
+
+    private final OutputStream outputStream;
+    private final int capacity;
+    private byte[] buffer;
+    private int position = HEADER_SIZE;
+    private boolean finished = false;
+
+    /**
+     * Create an instance of {@code ChunkedOutputStream}.
+     *
+     * @param outputStream Socket output stream
+     * @param maxChunkSize Maximum size of a chunk
+     * @see ChunkedOutputStream
+     * @since v1.0.6
+     */
+    public ChunkedOutputStream(final OutputStream outputStream,
+                               final int maxChunkSize) {
+        if (maxChunkSize < 1) throw new IllegalArgumentException("max chunk size cannot be less than 1");
+        this.outputStream = Objects.requireNonNull(outputStream);
+        buffer = BufferPool.acquire(BufferPool.MEDIUM);
+        capacity = Math.min(maxChunkSize, buffer.length - HEADER_SIZE - TRAILER_SIZE);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b,
+                      final int off,
+                      final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (finished) throw new IOException("chunked content already finished");
+        int offset = off;
+        while (offset < off + len) {
+            int c = Math.min(capacity - (position - HEADER_SIZE), off + len - offset);
+            System.arraycopy(b, offset, buffer, position, c);
+            position += c;
+            offset += c;
+            if (position - HEADER_SIZE == capacity) writeChunk(false);
+        }
+    }
+
+    /**
+     * Send the collected data as a chunk, and flush the socket output stream.
+     *
+     * @throws IOException Error while writing data to the socket output stream
+     */
+    @Override
+    public void flush() throws IOException {
+        if (!finished && position > HEADER_SIZE) writeChunk(false);
+        outputStream.flush();
+    }
+
+    /**
+     * Send the collected data and the last chunk (without trailer fields), and return the buffer to the pool. Further writes are not allowed.
+     *
+     * @throws IOException Error while writing data to the socket output stream
+     * @see ChunkedOutputStream
+     * @since v1.0.6
+     */
+    public void finish() throws IOException {
+        if (finished) return;
+        writeChunk(true);
+        finished = true;
+        release();
+    }
+
+    /**
+     * Return the buffer to the pool. Does not close the socket output stream, which is owned by the connection.
+     */
+    @Override
+    public void close() {
+        finished = true;
+        release();
+    }
+
+    /**
+     * Encode the size line in front of the collected data and the CRLF after it, and send them with one write. The last chunk is appended if
+     * requested.
+     *
+     * @param last Append the last chunk?
+     * @throws IOException Error while writing data to the socket output stream
+     * @see ChunkedOutputStream
+     * @since v1.0.6
+     */
+    private void writeChunk(final boolean last) throws IOException {
+        int length = position - HEADER_SIZE;
+        int start = HEADER_SIZE;
+        int end = position;
+        if (length > 0) {
+            buffer[--start] = '\n';
+            buffer[--start] = '\r';
+            int size = length;
+            do {
+                buffer[--start] = HEX[size & 0xf];
+                size >>>= 4;
+            } while (size != 0);
+            buffer[end++] = '\r';
+            buffer[end++] = '\n';
+        }
+        if (last) {
+            System.arraycopy(LAST_CHUNK, 0, buffer, end, LAST_CHUNK.length);
+            end += LAST_CHUNK.length;
+        }
+        if (end > start) outputStream.write(buffer, start, end - start);
+        position = HEADER_SIZE;
+    }
+
+    /**
+     * Return the buffer to the pool.
+     *
+     * @see ChunkedOutputStream
+     * @since v1.0.6
+     */
+    private void release() {
+        BufferPool.release(buffer);
+        buffer = null;
+    }
+}
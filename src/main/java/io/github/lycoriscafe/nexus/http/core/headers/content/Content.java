@@ -18,19 +18,21 @@ package io.github.lycoriscafe.nexus.http.core.headers.content;
 
 import io.github.lycoriscafe.nexus.http.core.statusCodes.HttpStatusCode;
 import io.github.lycoriscafe.nexus.http.engine.RequestConsumer;
+import io.github.lycoriscafe.nexus.http.helper.configuration.ChunkFlushPolicy;
 import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
 import java.util.Objects;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * HTTP request/response content.
@@ -43,13 +45,15 @@ import java.util.zip.GZIPOutputStream;
  *     }
  * </pre>
  *
- * @apiNote This version of API only supports {@code Transfer-Encoding} <b>chunked</b> and {@code Content-Encoding} <b>gzip</b> for incoming and
- * outgoing content related encodings. {@code Content negotiation}, {@code Conditional requests} and {@code Range requests} are not yet supported by
+ * @apiNote This version of API only supports {@code Transfer-Encoding} <b>chunked</b> and {@code Content-Encoding} <b>gzip</b>/<b>deflate</b> for
+ * incoming and outgoing content related encodings. Outgoing content is compressed by the {@code Accept-Encoding} of the request (see
+ * {@code HttpServerConfiguration.setResponseCompression(boolean)}). {@code Conditional requests} and {@code Range requests} are not yet supported by
  * the server itself, but the API users can implement it appropriately in their code.
  * @see #Content(String, Path)
  * @see #Content(String, byte[])
  * @see #Content(String, String)
  * @see #Content(String, InputStream)
+ * @see #Content(String, ContentWriter)
  * @see <a href="https://datatracker.ietf.org/doc/html/rfc9110#name-representation-data-and-met">HTTP Semantics (rfc9110) - 8. Representation Data and
  * Metadata</a>
  * @since v1.0.0
@@ -61,6 +65,9 @@ public final class Content {
     private String downloadName;
     private boolean transferEncodingChunked;
     private boolean contentEncodingGzipped;
+    private boolean preCompressed;
+    private boolean detached;
+    private ContentDigest contentDigest;
     private final Object data;
 
     /**
@@ -160,6 +167,28 @@ public final class Content {
         setTransferEncodingChunked(true);
     }
 
+    /**
+     * Create an instance of {@code Content} by providing {@code ContentWriter} as data. The writer is called with a stream bound to the connection
+     * after the headers are sent, so generated content does not need to be materialized or piped.
+     * <pre>
+     *     {@code
+     *     // Example code
+     *     var content = new Content("application/json", outputStream -> someReport.writeTo(outputStream));
+     *     }
+     * </pre>
+     *
+     * @param contentType {@code Content-Type} of the provided data
+     * @param data        {@code ContentWriter} of data
+     * @see ContentWriter
+     * @see Content
+     * @since v1.0.6
+     */
+    public Content(final String contentType,
+                   final ContentWriter data) {
+        this(contentType, (Object) data);
+        setTransferEncodingChunked(true);
+    }
+
     /**
      * Get the provided content type.
      *
@@ -232,15 +261,45 @@ public final class Content {
     }
 
     /**
-     * Set {@code Content-Encoding} to <b>gzip</b>.
+     * Mark the content to be written on its own thread instead of the connection thread (long-lived streams). The connection is closed after the
+     * content, since its thread is already released.
+     *
+     * @param detached Write on its own thread?
+     * @return Same {@code Content} instance
+     * @see EventEmitter#getContent()
+     * @see Content
+     * @since v1.0.6
+     */
+    Content setDetached(final boolean detached) {
+        this.detached = detached;
+        return this;
+    }
+
+    /**
+     * Get is the content written on its own thread instead of the connection thread.
+     *
+     * @return Detached status
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see #setDetached(boolean)
+     * @see Content
+     * @since v1.0.6
+     */
+    public boolean isDetached() {
+        return detached;
+    }
+
+    /**
+     * Set {@code Content-Encoding} to <b>gzip</b>, regardless of the {@code Accept-Encoding} of the request. The data is compressed while it is
+     * written, with {@code Transfer-Encoding: chunked}. Usually this is not needed, since the response content is compressed by the
+     * {@code Accept-Encoding} of the request.
      *
      * @param contentEncodingGzipped Set/Unset {@code Content-Encoding} to <b>gzip</b>
      * @return Same {@code Content} instance
+     * @see HttpServerConfiguration#setResponseCompression(boolean)
      * @see Content
      * @since v1.0.0
      */
     public Content setContentEncodingGzipped(final boolean contentEncodingGzipped) {
-        if (data instanceof InputStream) throw new IllegalStateException("input stream with gzip not yet supported");
         this.contentEncodingGzipped = contentEncodingGzipped;
         return this;
     }
@@ -258,15 +317,38 @@ public final class Content {
     }
 
     /**
-     * Set content data
+     * Mark the provided data as already compressed with the {@code Content-Encoding} (like a pre-compressed asset). When this is set, the server only
+     * sends the {@code Content-Encoding} header and writes the data as it is.
+     * <pre>
+     *     {@code
+     *     // Example code
+     *     var content = new Content("text/css", Paths.get("styles.css.gz"))
+     *          .setContentEncodingGzipped(true)
+     *          .setPreCompressed(true);
+     *     }
+     * </pre>
      *
-     * @param data Content data
-     * @apiNote This method is only for the in-API tasks.
+     * @param preCompressed Is the data already compressed?
+     * @return Same {@code Content} instance
+     * @see #setContentEncodingGzipped(boolean)
      * @see Content
-     * @since v1.0.0
+     * @since v1.0.6
      */
-    private void setData(final Object data) {
-        Objects.requireNonNull(data);
+    public Content setPreCompressed(final boolean preCompressed) {
+        this.preCompressed = preCompressed;
+        return this;
+    }
+
+    /**
+     * Get is the provided data already compressed.
+     *
+     * @return Pre-compressed status
+     * @see #setPreCompressed(boolean)
+     * @see Content
+     * @since v1.0.6
+     */
+    public boolean isPreCompressed() {
+        return preCompressed;
     }
 
     /**
@@ -278,12 +360,19 @@ public final class Content {
      * <ul>
      *  <li>{@code multipart/form-data}, the data should be cast to {@code List} of {@code MultipartFormData>}.</li>
      *  <li>{@code application/x-www-form-urlencoded}, the data should cast to {@code UrlEncodedData}.</li>
-     *  <li>{@code Transfer-Encoding: chunked}, the data should cast to {@code Path}.</li>
+     *  <li>{@code Transfer-Encoding: chunked} or {@code Content-Encoding: gzip}, the data should cast to {@code byte[]} if it is not larger than
+     *  the {@code contentMemoryThreshold}, or else to {@code Path}.</li>
+     *  <li>endpoints annotated with {@code @StreamContent}, the data should cast to {@code InputStream}.</li>
      *  <li>Others should cast to {@code byte[]}.</li>
      * </ul>
+     * For the endpoints annotated with {@code @SinkContent}, content written into a sink is {@code ContentSink}. If the {@code offHeapContent}
+     * enabled, in-memory content is a read-only {@code ByteBuffer} instead of {@code byte[]}. Content that does not
+     * fit into the content memory budget is {@code Path}. Temporary files are released after the request is processed, so move or copy them in the
+     * endpoint method to keep them.
      * @see #getContentType()
      * @see MultipartFormData
      * @see UrlEncodedData
+     * @see StreamContent
      * @see Path
      * @see Content
      * @since v1.0.0
@@ -292,6 +381,58 @@ public final class Content {
         return data;
     }
 
+    /**
+     * Get a read-only view of the in-memory content data. Works for both the {@code byte[]} content and the off-heap content, so API users can read
+     * the content without knowing where it is stored.
+     *
+     * @return Read-only {@code ByteBuffer} of the content, or null if the content is not in memory ({@code Path}, {@code InputStream}, ...)
+     * @apiNote Off-heap content ({@code offHeapContent}) is returned to the pool after the request is processed. Do not keep the buffer after the
+     * endpoint method returns.
+     * @see #getData()
+     * @see io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration#setOffHeapContent(boolean)
+     * HttpServerConfiguration.setOffHeapContent(boolean)
+     * @see Content
+     * @since v1.0.6
+     */
+    public ByteBuffer getDataBuffer() {
+        return switch (data) {
+            case ByteBuffer byteBuffer -> byteBuffer.asReadOnlyBuffer();
+            case byte[] bytes -> ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+            default -> null;
+        };
+    }
+
+    /**
+     * Set the digests computed while the request content was read.
+     *
+     * @param contentDigest Computed {@code ContentDigest}
+     * @return Same {@code Content} instance
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see #getContentDigest()
+     * @see Content
+     * @since v1.0.6
+     */
+    public Content setContentDigest(final ContentDigest contentDigest) {
+        this.contentDigest = contentDigest;
+        return this;
+    }
+
+    /**
+     * Get the digests computed while the request content was read. Digests are computed for the configured {@code contentDigestAlgorithms} and
+     * for the {@code Content-Digest}, {@code Digest}, and {@code Content-MD5} request headers (which are already verified).
+     *
+     * @return Computed {@code ContentDigest}, or null if no digest computed
+     * @apiNote For the endpoints annotated with {@code @StreamContent}, digests are only available after the content stream is fully read.
+     * @see ContentDigest
+     * @see io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration#setContentDigestAlgorithms(ContentDigest.Algorithm...)
+     * HttpServerConfiguration.setContentDigestAlgorithms(ContentDigest.Algorithm...)
+     * @see Content
+     * @since v1.0.6
+     */
+    public ContentDigest getContentDigest() {
+        return contentDigest;
+    }
+
     /**
      * Used for read content data from socket connection.
      *
@@ -308,7 +449,9 @@ public final class Content {
          * @param contentType     {@code Content-Type}
          * @param contentLength   {@code Content-Length}
          * @param chunked         {@code Transfer-Encoding} chunked?
-         * @param gzipped         {@code Content-Encoding} gzipped?
+         * @param contentEncoding {@code Content-Encoding} (gzip, deflate), or null
+         * @param contentLimit    Maximum content length of the endpoint, or null for the server-wide limits
+         * @param contentDigest   Digests to compute and verify, or null
          * @return New instance of {@code Content}
          * @throws IOException Error while reading data from the socket input stream
          * @see io.github.lycoriscafe.nexus.http.engine.reqResManager.httpReq.HttpRequest HttpRequest
@@ -321,117 +464,305 @@ public final class Content {
                                       final String contentType,
                                       final Integer contentLength,
                                       final boolean chunked,
-                                      final boolean gzipped) throws IOException {
-            Object data = null;
-            if (chunked) {
-                data = Files.createTempFile(Paths.get(requestConsumer.getHttpServerConfiguration().getTempDirectory()), "nexus-content-", null);
-                if (!readChunked(requestId, (Path) data, requestConsumer)) return null;
-            }
-
-            if (gzipped) data = readGzip(Objects.requireNonNullElseGet(data, () -> new byte[contentLength]), requestConsumer);
+                                      final String contentEncoding,
+                                      final Integer contentLimit,
+                                      final ContentDigest contentDigest) throws IOException {
+            boolean plain = !chunked && contentEncoding == null;
+            // if the content memory budget is exhausted, the content is read into a temporary file instead
+            boolean inMemory = !plain || requestConsumer.reserveContentMemory(contentLength);
+            if (plain && inMemory) {
+                InputStream inputStream = requestConsumer.getSocket().getInputStream();
+                if (requestConsumer.getHttpServerConfiguration().isOffHeapContent()) {
+                    ByteBuffer byteBuffer = requestConsumer.acquireDirectBuffer(contentLength);
+                    byte[] buffer = requestConsumer.getContentBuffer();
+                    while (byteBuffer.hasRemaining()) {
+                        int c = inputStream.read(buffer, 0, Math.min(buffer.length, byteBuffer.remaining()));
+                        if (c == -1) {
+                            requestConsumer.dropConnection(requestId, HttpStatusCode.BAD_REQUEST, "connection error", logger);
+                            return null;
+                        }
+                        byteBuffer.put(buffer, 0, c);
+                        if (contentDigest != null) contentDigest.update(buffer, 0, c);
+                    }
+                    if (!verify(requestId, requestConsumer, contentDigest)) return null;
+                    return new Content(contentType, byteBuffer.flip().asReadOnlyBuffer());
+                }
 
-            if (data == null) {
                 byte[] buffer = new byte[contentLength];
-                int c = requestConsumer.getSocket().getInputStream().readNBytes(buffer, 0, contentLength);
+                int c = inputStream.readNBytes(buffer, 0, contentLength);
                 if (c != contentLength) {
                     requestConsumer.dropConnection(requestId, HttpStatusCode.BAD_REQUEST, "connection error", logger);
                     return null;
                 }
-                data = buffer;
+                if (contentDigest != null) contentDigest.update(buffer, 0, contentLength);
+                if (!verify(requestId, requestConsumer, contentDigest)) return null;
+                return new Content(contentType, buffer);
             }
 
-            return new Content(contentType, data);
+            InputStream framedInputStream = openFramedStream(requestConsumer, contentLength, chunked, contentLimit, contentDigest);
+            try {
+                InputStream decodedInputStream = openDecodedStream(requestConsumer, framedInputStream, contentEncoding, contentLimit);
+                Object data = inMemory && requestConsumer.getHttpServerConfiguration().isOffHeapContent() ?
+                        spoolDirect(decodedInputStream, requestConsumer) : spool(decodedInputStream, requestConsumer, inMemory);
+                // decoded content may end before the framing (like the last chunk and trailers)
+                framedInputStream.transferTo(OutputStream.nullOutputStream());
+                return new Content(contentType, data);
+            } catch (IOException e) {
+                requestConsumer.dropConnection(requestId, e instanceof ContentTooLargeException ? HttpStatusCode.CONTENT_TOO_LARGE :
+                        HttpStatusCode.BAD_REQUEST, e instanceof ContentTooLargeException || e instanceof ContentDigestException ? e.getMessage() :
+                        "content cannot process", logger);
+                return null;
+            }
         }
 
         /**
-         * Read chunked content from the socket input stream.
+         * Processor for incoming content of the endpoints annotated with {@code @SinkContent}. The decoded content is written into the sink
+         * directly, without keeping it in memory or in a temporary file.
          *
          * @param requestId       {@code HttpRequest} id
-         * @param path            {@code Path} that going to store the chunked content
          * @param requestConsumer {@code RequestConsumer} bound to the {@code HttpRequest}
-         * @return Read process success or fail status
+         * @param contentType     {@code Content-Type}
+         * @param contentLength   {@code Content-Length}
+         * @param chunked         {@code Transfer-Encoding} chunked?
+         * @param contentEncoding {@code Content-Encoding} (gzip, deflate), or null
+         * @param contentLimit    Maximum content length of the endpoint, or null for the server-wide limits
+         * @param contentDigest   Digests to compute and verify, or null
+         * @param contentSink     Sink provided by the endpoint
+         * @return New instance of {@code Content} with the {@code ContentSink} as data
          * @throws IOException Error while reading data from the socket input stream
-         * @see io.github.lycoriscafe.nexus.http.engine.reqResManager.httpReq.HttpRequest HttpRequest
-         * @see RequestConsumer
-         * @see Path
-         * @since v1.0.0
+         * @see SinkContent
+         * @see ContentSink
+         * @since v1.0.6
+         */
+        public static Content processToSink(final long requestId,
+                                            final RequestConsumer requestConsumer,
+                                            final String contentType,
+                                            final Integer contentLength,
+                                            final boolean chunked,
+                                            final String contentEncoding,
+                                            final Integer contentLimit,
+                                            final ContentDigest contentDigest,
+                                            final ContentSink contentSink) throws IOException {
+            try {
+                contentSink.open();
+            } catch (IOException e) {
+                requestConsumer.dropConnection(requestId, HttpStatusCode.INTERNAL_SERVER_ERROR, "content sink cannot open", logger);
+                return null;
+            }
+
+            InputStream framedInputStream = openFramedStream(requestConsumer, contentLength, chunked, contentLimit, contentDigest);
+            try {
+                try {
+                    contentSink.transferFrom(openDecodedStream(requestConsumer, framedInputStream, contentEncoding, contentLimit),
+                            requestConsumer.getContentBuffer());
+                } finally {
+                    contentSink.close();
+                }
+                framedInputStream.transferTo(OutputStream.nullOutputStream());
+                return new Content(contentType, contentSink);
+            } catch (IOException e) {
+                requestConsumer.dropConnection(requestId, e instanceof ContentTooLargeException ? HttpStatusCode.CONTENT_TOO_LARGE :
+                        HttpStatusCode.BAD_REQUEST, e instanceof ContentTooLargeException || e instanceof ContentDigestException ? e.getMessage() :
+                        "content cannot process", logger);
+                return null;
+            }
+        }
+
+        /**
+         * Open a stream of the content bytes remaining in the connection with the {@code Content-Length} or {@code Transfer-Encoding: chunked}
+         * framing removed.
+         *
+         * @param requestConsumer {@code RequestConsumer} bound to the {@code HttpRequest}
+         * @param contentLength   {@code Content-Length}
+         * @param chunked         {@code Transfer-Encoding} chunked?
+         * @param contentLimit    Maximum content length of the endpoint, or null for the server-wide {@code maxChunkedContentLength}
+         * @param contentDigest   Digests to compute and verify at the end of the stream, or null
+         * @return Framed content stream
+         * @throws IOException Error while getting the socket input stream
+         * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+         * @see ChunkedInputStream
+         * @see FixedLengthInputStream
+         * @see ContentDigest#wrap(InputStream)
+         * @since v1.0.6
          */
-        private static boolean readChunked(final long requestId,
-                                           final Path path,
-                                           final RequestConsumer requestConsumer) throws IOException {
+        public static InputStream openFramedStream(final RequestConsumer requestConsumer,
+                                                   final Integer contentLength,
+                                                   final boolean chunked,
+                                                   final Integer contentLimit,
+                                                   final ContentDigest contentDigest) throws IOException {
             InputStream inputStream = requestConsumer.getSocket().getInputStream();
-            int totalChunkSize = 0;
+            InputStream framedInputStream = chunked ? new ChunkedInputStream(inputStream, contentLimit == null ?
+                    requestConsumer.getHttpServerConfiguration().getMaxChunkedContentLength() : contentLimit,
+                    requestConsumer.getHttpServerConfiguration().getMaxHeaderSize()) : new FixedLengthInputStream(inputStream, contentLength);
+            return contentDigest == null ? framedInputStream : contentDigest.wrap(framedInputStream);
+        }
+
+        /**
+         * Wrap the framed content stream to decode the {@code Content-Encoding} (gzip, deflate), if any.
+         *
+         * @param requestConsumer   {@code RequestConsumer} bound to the {@code HttpRequest}
+         * @param framedInputStream Framed content stream
+         * @param contentEncoding   {@code Content-Encoding} (gzip, deflate), or null
+         * @param contentLimit      Maximum content length of the endpoint, or null for the server-wide {@code maxDecodedContentLength}
+         * @return Decoded content stream (the framed content stream itself if no encoding)
+         * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+         * @see InflatingInputStream
+         * @since v1.0.6
+         */
+        public static InputStream openDecodedStream(final RequestConsumer requestConsumer,
+                                                    final InputStream framedInputStream,
+                                                    final String contentEncoding,
+                                                    final Integer contentLimit) {
+            if (contentEncoding == null) return framedInputStream;
+            HttpServerConfiguration configuration = requestConsumer.getHttpServerConfiguration();
+            return new InflatingInputStream(framedInputStream, contentEncoding,
+                    contentLimit == null ? configuration.getMaxDecodedContentLength() : contentLimit, configuration.getMaxContentEncodingRatio());
+        }
+
+        /**
+         * Verify the digests of the content read directly from the socket input stream.
+         *
+         * @param requestId       {@code HttpRequest} id
+         * @param requestConsumer {@code RequestConsumer} bound to the {@code HttpRequest}
+         * @param contentDigest   Digests to verify, or null
+         * @return Verification success or fail status
+         * @see ContentDigest#verify()
+         * @since v1.0.6
+         */
+        private static boolean verify(final long requestId,
+                                      final RequestConsumer requestConsumer,
+                                      final ContentDigest contentDigest) {
+            if (contentDigest == null) return true;
+            try {
+                contentDigest.verify();
+                return true;
+            } catch (ContentDigestException e) {
+                requestConsumer.dropConnection(requestId, HttpStatusCode.BAD_REQUEST, e.getMessage(), logger);
+                return false;
+            }
+        }
+
+        /**
+         * Read the content into memory, and move it into a temporary file only if it grows larger than the {@code contentMemoryThreshold} (or the
+         * content memory budget is exhausted). The temporary file is written through a single {@code FileChannel}.
+         *
+         * @param inputStream     Decoded content stream
+         * @param requestConsumer {@code RequestConsumer} bound to the {@code HttpRequest}
+         * @param inMemory        Can the content be kept in memory? If not, the content is written into a temporary file directly.
+         * @return {@code byte[]} or {@code Path} of the content
+         * @throws IOException Error while reading data or writing the temporary file
+         * @see HttpServerConfiguration#setContentMemoryThreshold(int)
+         * @see RequestConsumer#getContentBuffer()
+         * @see RequestConsumer#reserveContentMemory(long)
+         * @since v1.0.6
+         */
+        private static Object spool(final InputStream inputStream,
+                                    final RequestConsumer requestConsumer,
+                                    final boolean inMemory) throws IOException {
+            int threshold = inMemory ? requestConsumer.getHttpServerConfiguration().getContentMemoryThreshold() : 0;
+            byte[] memory = new byte[0];
+            int size = 0;
 
             while (true) {
-                String line = requestConsumer.readLine();
-                if (line == null) {
-                    requestConsumer.dropConnection(requestId, HttpStatusCode.BAD_REQUEST, "content cannot process", logger);
-                    return false;
+                if (size == memory.length) {
+                    if (size == threshold) break;
+                    int length = (int) Math.min(threshold, Math.max(8192L, size * 2L));
+                    if (!requestConsumer.reserveContentMemory(length - size)) break;
+                    memory = Arrays.copyOf(memory, length);
                 }
+                int c = inputStream.read(memory, size, memory.length - size);
+                if (c == -1) return size == memory.length ? memory : Arrays.copyOf(memory, size);
+                size += c;
+            }
 
-                int chunkSize = Integer.parseInt(line, 16);
-                if (chunkSize == 0) break;
-                totalChunkSize += chunkSize;
-                if (totalChunkSize > requestConsumer.getHttpServerConfiguration().getMaxChunkedContentLength()) {
-                    requestConsumer.dropConnection(requestId, HttpStatusCode.CONTENT_TOO_LARGE, "max chunked size exceeded", logger);
-                    return false;
-                }
+            // threshold (or budget) reached, check whether there is more content before creating the file
+            byte[] buffer = requestConsumer.getContentBuffer();
+            int c = inputStream.read(buffer);
+            if (c == -1) return memory;
+            return spill(inputStream, requestConsumer, ByteBuffer.wrap(memory, 0, size), c);
+        }
 
-                while (true) {
-                    if (chunkSize <= requestConsumer.getHttpServerConfiguration().getMaxChunkSize()) {
-                        Files.write(path, inputStream.readNBytes(chunkSize), StandardOpenOption.APPEND);
-                        break;
-                    } else {
-                        Files.write(path, inputStream.readNBytes(requestConsumer.getHttpServerConfiguration()
-                                .getMaxChunkSize()), StandardOpenOption.APPEND);
-                        chunkSize -= requestConsumer.getHttpServerConfiguration().getMaxChunkSize();
+        /**
+         * Off-heap variant of the {@code spool()}. The content is read into pooled direct buffers (grown by the power of two up to the
+         * {@code contentMemoryThreshold}), and the result is a read-only {@code ByteBuffer}.
+         *
+         * @param inputStream     Decoded content stream
+         * @param requestConsumer {@code RequestConsumer} bound to the {@code HttpRequest}
+         * @return Read-only {@code ByteBuffer} or {@code Path} of the content
+         * @throws IOException Error while reading data or writing the temporary file
+         * @see #spool(InputStream, RequestConsumer, boolean)
+         * @see RequestConsumer#acquireDirectBuffer(int)
+         * @since v1.0.6
+         */
+        private static Object spoolDirect(final InputStream inputStream,
+                                          final RequestConsumer requestConsumer) throws IOException {
+            int threshold = requestConsumer.getHttpServerConfiguration().getContentMemoryThreshold();
+            byte[] buffer = requestConsumer.getContentBuffer();
+            ByteBuffer memory = ByteBuffer.allocate(0);
+            int reserved = 0;
+            int c;
+            while ((c = inputStream.read(buffer)) != -1) {
+                if (memory.remaining() < c) {
+                    int size = memory.position();
+                    int length = (int) Math.min(threshold, Math.max(16_384L, Math.max(size + c, size * 2L)));
+                    if (size + c > length || !requestConsumer.reserveContentMemory(length - reserved)) {
+                        return spill(inputStream, requestConsumer, memory.flip(), c);
                     }
+                    reserved = length;
+                    ByteBuffer grown = requestConsumer.acquireDirectBuffer(length);
+                    grown.put(memory.flip());
+                    if (memory.isDirect()) requestConsumer.releaseDirectBuffer(memory);
+                    memory = grown;
                 }
+                memory.put(buffer, 0, c);
+            }
+            return memory.flip().asReadOnlyBuffer();
+        }
 
-                long c = inputStream.skip(2);
-                if (c != 2) {
-                    requestConsumer.dropConnection(requestId, HttpStatusCode.BAD_REQUEST, "invalid chunked content", logger);
-                    return false;
-                }
+        /**
+         * Move the content into a temporary file through a single {@code FileChannel}. The in-memory part is written first, then the bytes in the
+         * content buffer, and then the rest of the stream.
+         *
+         * @param inputStream     Decoded content stream
+         * @param requestConsumer {@code RequestConsumer} bound to the {@code HttpRequest}
+         * @param memory          In-memory part of the content
+         * @param c               Count of bytes in the content buffer
+         * @return {@code Path} of the content
+         * @throws IOException Error while reading data or writing the temporary file
+         * @see RequestConsumer#getContentBuffer()
+         * @since v1.0.6
+         */
+        private static Path spill(final InputStream inputStream,
+                                  final RequestConsumer requestConsumer,
+                                  final ByteBuffer memory,
+                                  int c) throws IOException {
+            byte[] buffer = requestConsumer.getContentBuffer();
+            Path path = requestConsumer.createTempFile("nexus-content-");
+            try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                writeFully(requestConsumer, fileChannel, memory);
+                do {
+                    writeFully(requestConsumer, fileChannel, ByteBuffer.wrap(buffer, 0, c));
+                } while ((c = inputStream.read(buffer)) != -1);
             }
-            return true;
+            return path;
         }
 
         /**
-         * Decompress gzip content.
+         * Write all remaining bytes of the buffer into the channel of a temporary file.
          *
-         * @param content         Received content
          * @param requestConsumer {@code RequestConsumer} bound to the {@code HttpRequest}
-         * @return Type of decompressed data
-         * @throws IOException Error while decompressing data
-         * @see RequestConsumer
-         * @see io.github.lycoriscafe.nexus.http.engine.reqResManager.httpReq.HttpRequest HttpRequest
-         * @since v1.0.0
+         * @param fileChannel     Destination
+         * @param byteBuffer      Source
+         * @throws IOException Error while writing data ({@code ContentTooLargeException} if the {@code maxTempFileSpace} exhausted)
+         * @see RequestConsumer#reserveTempFileSpace(long)
+         * @since v1.0.6
          */
-        private static Object readGzip(final Object content,
-                                       final RequestConsumer requestConsumer) throws IOException {
-            switch (content) {
-                case Path path -> {
-                    Path temp = Files.createTempFile(Paths.get(requestConsumer.getHttpServerConfiguration()
-                            .getTempDirectory()), "nexus-content-", null);
-                    try (var gzipInputStream = new GZIPInputStream(new FileInputStream(path.toFile()), requestConsumer.getHttpServerConfiguration()
-                            .getMaxChunkSize());
-                         var fileOutputStream = new FileOutputStream(temp.toFile())) {
-                        int c;
-                        byte[] buffer = new byte[requestConsumer.getHttpServerConfiguration().getMaxChunkSize()];
-                        while ((c = gzipInputStream.read(buffer)) != -1) {
-                            fileOutputStream.write(buffer, 0, c);
-                        }
-                    }
-                    return temp;
-                }
-                case byte[] bytes -> {
-                    try (var gzipInputStream = new GZIPInputStream(requestConsumer.getSocket()
-                            .getInputStream(), requestConsumer.getHttpServerConfiguration().getMaxChunkSize())) {
-                        return gzipInputStream.read(bytes);
-                    }
-                }
-                default -> throw new IllegalStateException("Unexpected value: " + content);
+        private static void writeFully(final RequestConsumer requestConsumer,
+                                       final FileChannel fileChannel,
+                                       final ByteBuffer byteBuffer) throws IOException {
+            if (!requestConsumer.reserveTempFileSpace(byteBuffer.remaining())) throw new ContentTooLargeException("temp file space exhausted");
+            while (byteBuffer.hasRemaining()) {
+                fileChannel.write(byteBuffer);
             }
         }
     }
@@ -444,22 +775,45 @@ public final class Content {
      * @since v1.0.0
      */
     public static class WriteOperations {
-        // TODO content encoding (gzip) has bugs
+        /**
+         * Negotiate the {@code Content-Encoding} applied while writing the content of a response. The result belongs to the response (not to the
+         * {@code Content}, that can be shared by responses), and is passed to both {@code processOutgoingContent} and {@code writeContent}.
+         *
+         * @param requestConsumer {@code RequestConsumer} of the response
+         * @param content         {@code Content} of the response, or null
+         * @param acceptEncoding  {@code Accept-Encoding} of the request, or null
+         * @return <b>gzip</b>, <b>deflate</b>, or null if the data is written as it is
+         * @throws IOException Error while reading the content size
+         * @see #processOutgoingContent(RequestConsumer, Content, String)
+         * @see #writeContent(RequestConsumer, Content, String)
+         * @see HttpServerConfiguration#setResponseCompression(boolean)
+         * @see Content
+         * @since v1.0.6
+         */
+        public static String negotiateOutgoingContentEncoding(final RequestConsumer requestConsumer,
+                                                              final Content content,
+                                                              final String acceptEncoding) throws IOException {
+            if (content == null) return null;
+            if (content.isContentEncodingGzipped()) return content.isPreCompressed() ? null : "gzip";
+            return isNegotiable(requestConsumer.getHttpServerConfiguration(), content) ? negotiateContentEncoding(acceptEncoding) : null;
+        }
 
         /**
-         * Process headers and data (like gzip) to send along with the {@code HttpResponse}.
+         * Process headers of the content to send along with the {@code HttpResponse}.
          *
-         * @param httpServerConfiguration {@code HttpServerConfiguration}
-         * @param content                 {@code Content} that need to be processed
+         * @param requestConsumer {@code RequestConsumer} of the response
+         * @param content         {@code Content} that need to be processed
+         * @param contentEncoding {@code Content-Encoding} negotiated for the response, or null
          * @return HTTP content-related headers
          * @throws IOException Error while processing content
+         * @see #negotiateOutgoingContentEncoding(RequestConsumer, Content, String)
          * @see io.github.lycoriscafe.nexus.http.engine.reqResManager.httpRes.HttpResponse HttpResponse
-         * @see io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration HttpServerConfiguration
          * @see Content
          * @since v1.0.0
          */
-        public static String processOutgoingContent(final HttpServerConfiguration httpServerConfiguration,
-                                                    final Content content) throws IOException {
+        public static String processOutgoingContent(final RequestConsumer requestConsumer,
+                                                    final Content content,
+                                                    final String contentEncoding) throws IOException {
             if (content == null) return "Content-Length: 0\r\n";
 
             StringBuilder result = new StringBuilder();
@@ -467,39 +821,19 @@ public final class Content {
 
             if (content.isContentEncodingGzipped()) {
                 result.append("Content-Encoding: ").append("gzip").append("\r\n");
-                // InputStream gzip should be implemented
-                switch (content.getData()) {
-                    case Path path -> {
-                        Path temp = Files.createTempFile(Paths.get(httpServerConfiguration.getTempDirectory()), "nexus-content-", null);
-                        try (var fileInputStream = new FileInputStream(path.toFile());
-                             var fileOutputStream = new FileOutputStream(temp.toFile());
-                             var gzipOutputStream = new GZIPOutputStream(fileOutputStream, httpServerConfiguration.getMaxChunkSize())) {
-                            int c;
-                            byte[] buffer = new byte[httpServerConfiguration.getMaxChunkSize()];
-                            while ((c = fileInputStream.read(buffer)) != -1) {
-                                gzipOutputStream.write(buffer, 0, c);
-                            }
-                            gzipOutputStream.flush();
-                            content.setData(temp);
-                        }
-                    }
-                    case byte[] bytes -> {
-                        try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-                             GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream, httpServerConfiguration.getMaxChunkSize())) {
-                            gzipOutputStream.write(bytes);
-                            gzipOutputStream.flush();
-                            content.setData(byteArrayOutputStream.toByteArray());
-                        }
-                    }
-                    default -> throw new IllegalStateException("Unexpected value: " + content.getData());
-                }
+                if (content.isPreCompressed()) result.append("Vary: ").append("Accept-Encoding").append("\r\n");
+            } else if (isNegotiable(requestConsumer.getHttpServerConfiguration(), content)) {
+                result.append("Vary: ").append("Accept-Encoding").append("\r\n");
+                if (contentEncoding != null) result.append("Content-Encoding: ").append(contentEncoding).append("\r\n");
             }
 
-            if (!content.isTransferEncodingChunked()) {
+            if (!content.isTransferEncodingChunked() && contentEncoding == null) {
                 switch (content.getData()) {
                     case Path path -> result.append("Content-Length: ").append(Files.size(path)).append("\r\n");
                     case byte[] bytes -> result.append("Content-Length: ").append(bytes.length).append("\r\n");
+                    case ByteBuffer byteBuffer -> result.append("Content-Length: ").append(byteBuffer.remaining()).append("\r\n");
                     case InputStream ignored -> {}
+                    case ContentWriter ignored -> {}
                     default -> throw new IllegalStateException("Unexpected value: " + content.getData());
                 }
             } else {
@@ -514,41 +848,270 @@ public final class Content {
         }
 
         /**
-         * Write pre-processed content data to the socket output stream.
+         * Write pre-processed content data to the socket output stream. Compressed content is compressed on the fly into the chunked output.
          *
          * @param requestConsumer {@code RequestConsumer}
          * @param content         Pre-processed {@code Content}
+         * @param contentEncoding {@code Content-Encoding} negotiated for the response, or null
          * @throws IOException Error while writing data to the socket output stream
-         * @see #processOutgoingContent(HttpServerConfiguration, Content)
+         * @see #negotiateOutgoingContentEncoding(RequestConsumer, Content, String)
+         * @see #processOutgoingContent(RequestConsumer, Content, String)
+         * @see ChunkedOutputStream
+         * @see DeflatingOutputStream
+         * @see ParallelDeflatingOutputStream
+         * @see ReadAheadInputStream
+         * @see ContentWriter
          * @see RequestConsumer
          * @see Content
          * @since v1.0.0
          */
         public static void writeContent(final RequestConsumer requestConsumer,
-                                        final Content content) throws IOException {
-            try (InputStream inputStream = switch (content.getData()) {
-                case Path path -> new FileInputStream(path.toFile());
-                case byte[] bytes -> new ByteArrayInputStream(bytes);
-                case InputStream stream -> stream;
-                default -> throw new IllegalStateException("Unexpected value: " + content.getData());
-            }) {
-                int c;
-                byte[] buffer = new byte[requestConsumer.getHttpServerConfiguration().getMaxChunkSize()];
-                while ((c = inputStream.read(buffer)) != -1) {
-                    if (content.isTransferEncodingChunked()) {
-                        requestConsumer.getSocket().getOutputStream().write((Integer.toHexString(c) + "\r\n").getBytes(StandardCharsets.UTF_8));
+                                        final Content content,
+                                        final String contentEncoding) throws IOException {
+            OutputStream socketOutputStream = requestConsumer.getSocket().getOutputStream();
+            HttpServerConfiguration httpServerConfiguration = requestConsumer.getHttpServerConfiguration();
+            int maxChunkSize = httpServerConfiguration.getMaxChunkSize();
+            long size = getSize(content);
+
+            ChunkedOutputStream chunkedOutputStream = content.isTransferEncodingChunked() || contentEncoding != null ?
+                    new ChunkedOutputStream(socketOutputStream, maxChunkSize) : null;
+            DeflatingOutputStream deflatingOutputStream = null;
+            ParallelDeflatingOutputStream parallelDeflatingOutputStream = null;
+            if (contentEncoding != null) {
+                if (size >= httpServerConfiguration.getParallelCompressionMinSize() && ParallelDeflatingOutputStream.isAvailable()) {
+                    parallelDeflatingOutputStream = new ParallelDeflatingOutputStream(chunkedOutputStream, contentEncoding);
+                } else {
+                    deflatingOutputStream = new DeflatingOutputStream(chunkedOutputStream, contentEncoding);
+                }
+            }
+            OutputStream outputStream = deflatingOutputStream != null ? deflatingOutputStream :
+                    parallelDeflatingOutputStream != null ? parallelDeflatingOutputStream :
+                            chunkedOutputStream != null ? chunkedOutputStream : socketOutputStream;
+
+            try {
+                switch (content.getData()) {
+                    // in-memory data is written as is, without copying into a buffer
+                    case byte[] bytes -> outputStream.write(bytes);
+                    case ByteBuffer byteBuffer when byteBuffer.hasArray() ->
+                            outputStream.write(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), byteBuffer.remaining());
+                    // writer data is produced on the connection thread, flushed by the writer itself
+                    case ContentWriter contentWriter -> {
+                        try (ContentWriterOutputStream writerOutputStream = new ContentWriterOutputStream(outputStream)) {
+                            contentWriter.write(writerOutputStream);
+                        } catch (RuntimeException e) {
+                            throw new IOException("cannot write the content - " + e.getMessage(), e);
+                        }
+                    }
+                    default -> {
+                        // stream data can be produced live, so reads are sent by the chunk flush policy
+                        boolean live = content.getData() instanceof InputStream;
+                        long unflushed = 0L;
+                        long lastFlush = System.nanoTime();
+                        int bufferSize = (int) Math.min(maxChunkSize, size == -1L ? Long.MAX_VALUE : size);
+                        byte[] buffer = BufferPool.acquire(bufferSize);
+                        InputStream source = switch (content.getData()) {
+                            case Path path -> new FileInputStream(path.toFile());
+                            case ByteBuffer byteBuffer -> new ByteBufferInputStream(byteBuffer);
+                            case InputStream stream -> stream;
+                            default -> throw new IllegalStateException("Unexpected value: " + content.getData());
+                        };
+                        // direct buffers are already in memory, only files and streams are read ahead
+                        int readAheadBuffers = content.getData() instanceof ByteBuffer ? 0 : httpServerConfiguration.getReadAheadBuffers();
+                        try (InputStream inputStream = readAheadBuffers == 0 ? source :
+                                new ReadAheadInputStream(source, readAheadBuffers, bufferSize)) {
+                            int c;
+                            while ((c = inputStream.read(buffer, 0, Math.min(buffer.length, maxChunkSize))) != -1) {
+                                outputStream.write(buffer, 0, c);
+                                if (!live) continue;
+                                unflushed += c;
+                                if (isFlushDue(httpServerConfiguration, unflushed, lastFlush, inputStream)) {
+                                    outputStream.flush();
+                                    unflushed = 0L;
+                                    lastFlush = System.nanoTime();
+                                }
+                            }
+                        } finally {
+                            BufferPool.release(buffer);
+                        }
                     }
-                    requestConsumer.getSocket().getOutputStream().write(buffer, 0, c);
-                    if (content.isTransferEncodingChunked()) {
-                        requestConsumer.getSocket().getOutputStream().write("\r\n".getBytes(StandardCharsets.UTF_8));
+                }
+                if (deflatingOutputStream != null) deflatingOutputStream.finish();
+                if (parallelDeflatingOutputStream != null) parallelDeflatingOutputStream.finish();
+                if (chunkedOutputStream != null) chunkedOutputStream.finish();
+            } finally {
+                if (deflatingOutputStream != null) deflatingOutputStream.close();
+                if (parallelDeflatingOutputStream != null) parallelDeflatingOutputStream.close();
+                if (chunkedOutputStream != null) chunkedOutputStream.close();
+            }
+            socketOutputStream.flush();
+        }
+
+        /**
+         * Check the {@code chunkFlushPolicy} for sending the collected data of the live content.
+         *
+         * @param httpServerConfiguration {@code HttpServerConfiguration} bound to the server
+         * @param unflushed               Count of bytes written since the previous send
+         * @param lastFlush               {@code System.nanoTime()} of the previous send
+         * @param inputStream             Live content stream
+         * @return Should send the collected data?
+         * @throws IOException Error while checking the available data
+         * @see HttpServerConfiguration#setChunkFlushPolicy(ChunkFlushPolicy)
+         * @since v1.0.6
+         */
+        private static boolean isFlushDue(final HttpServerConfiguration httpServerConfiguration,
+                                          final long unflushed,
+                                          final long lastFlush,
+                                          final InputStream inputStream) throws IOException {
+            return switch (httpServerConfiguration.getChunkFlushPolicy()) {
+                case EVERY_CHUNK -> true;
+                case SIZE -> unflushed >= httpServerConfiguration.getChunkFlushSize();
+                // the next read may block, so the collected data is not held while the stream waits for more data
+                case INTERVAL -> System.nanoTime() - lastFlush >= httpServerConfiguration.getChunkFlushInterval() * 1_000_000L
+                        || inputStream.available() == 0;
+            };
+        }
+
+        /**
+         * Check the content can be compressed by the {@code Accept-Encoding} of the request (compression is enabled, the content is not
+         * pre-compressed, the {@code Content-Type} is compressible, and the content is not smaller than the {@code compressionMinSize}).
+         *
+         * @param httpServerConfiguration {@code HttpServerConfiguration} bound to the server
+         * @param content                 {@code Content} of the response
+         * @return Is the {@code Content-Encoding} negotiable?
+         * @throws IOException Error while reading the content size
+         * @see #negotiateOutgoingContentEncoding(RequestConsumer, Content, String)
+         * @since v1.0.6
+         */
+        private static boolean isNegotiable(final HttpServerConfiguration httpServerConfiguration,
+                                            final Content content) throws IOException {
+            if (!httpServerConfiguration.isResponseCompression() || content.isPreCompressed()
+                    || !isCompressible(httpServerConfiguration, content.getContentType())) return false;
+            long size = getSize(content);
+            return size == -1L || size >= httpServerConfiguration.getCompressionMinSize();
+        }
+
+        /**
+         * Get the size of the content data.
+         *
+         * @param content {@code Content}
+         * @return Size of the content data, or -1 if the size is not known ({@code InputStream})
+         * @throws IOException Error while reading the file size
+         * @see Content
+         * @since v1.0.6
+         */
+        private static long getSize(final Content content) throws IOException {
+            return switch (content.getData()) {
+                case Path path -> Files.size(path);
+                case byte[] bytes -> bytes.length;
+                case ByteBuffer byteBuffer -> byteBuffer.remaining();
+                default -> -1L;
+            };
+        }
+
+        /**
+         * Choose the {@code Content-Encoding} by the {@code Accept-Encoding} of the request. When both are equally acceptable, <b>gzip</b> is
+         * preferred.
+         *
+         * @param acceptEncoding {@code Accept-Encoding} of the request, or null
+         * @return <b>gzip</b>, <b>deflate</b>, or null if none of them is acceptable
+         * @see #negotiateOutgoingContentEncoding(RequestConsumer, Content, String)
+         * @see <a href="https://datatracker.ietf.org/doc/html/rfc9110#name-accept-encoding">HTTP Semantics (rfc9110) - 12.5.3. Accept-Encoding</a>
+         * @since v1.0.6
+         */
+        private static String negotiateContentEncoding(final String acceptEncoding) {
+            double[] qualities = getQualities(acceptEncoding);
+            if (qualities[0] <= 0 && qualities[1] <= 0) return null;
+            return qualities[0] >= qualities[1] ? "gzip" : "deflate";
+        }
+
+        /**
+         * Check a {@code Content-Encoding} is acceptable by the {@code Accept-Encoding} of the request (its quality value is not 0). Used for
+         * the contents that are only available in one encoding, like the pre-compressed resources.
+         *
+         * @param acceptEncoding  {@code Accept-Encoding} of the request, or null
+         * @param contentEncoding <b>gzip</b> or <b>deflate</b>
+         * @return Is the {@code Content-Encoding} acceptable?
+         * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+         * @see #negotiateOutgoingContentEncoding(RequestConsumer, Content, String)
+         * @see <a href="https://datatracker.ietf.org/doc/html/rfc9110#name-accept-encoding">HTTP Semantics (rfc9110) - 12.5.3. Accept-Encoding</a>
+         * @since v1.0.6
+         */
+        public static boolean isAcceptable(final String acceptEncoding,
+                                           final String contentEncoding) {
+            double[] qualities = getQualities(acceptEncoding);
+            return switch (Objects.requireNonNull(contentEncoding)) {
+                case "gzip" -> qualities[0] > 0;
+                case "deflate" -> qualities[1] > 0;
+                default -> throw new IllegalArgumentException("unsupported content encoding - " + contentEncoding);
+            };
+        }
+
+        /**
+         * Parse the quality values of <b>gzip</b> and <b>deflate</b> from the {@code Accept-Encoding} of the request. Codings without their own
+         * quality value take the quality value of <b>*</b>.
+         *
+         * @param acceptEncoding {@code Accept-Encoding} of the request, or null
+         * @return Quality values of <b>gzip</b> and <b>deflate</b> (negative if not acceptable at all)
+         * @see #negotiateContentEncoding(String)
+         * @see #isAcceptable(String, String)
+         * @since v1.0.6
+         */
+        private static double[] getQualities(final String acceptEncoding) {
+            if (acceptEncoding == null) return new double[]{-1.0, -1.0};
+            double gzip = -1.0;
+            double deflate = -1.0;
+            double any = -1.0;
+            for (String value : acceptEncoding.split(",", 0)) {
+                String[] parts = value.split(";", 2);
+                double quality = 1.0;
+                if (parts.length == 2) {
+                    String[] parameter = parts[1].split("=", 2);
+                    if (parameter.length != 2 || !parameter[0].trim().equalsIgnoreCase("q")) continue;
+                    try {
+                        quality = Double.parseDouble(parameter[1].trim());
+                    } catch (NumberFormatException e) {
+                        continue;
                     }
-                    requestConsumer.getSocket().getOutputStream().flush();
                 }
-                if (content.isTransferEncodingChunked()) {
-                    requestConsumer.getSocket().getOutputStream().write("0\r\n\r\n".getBytes(StandardCharsets.UTF_8));
-                    requestConsumer.getSocket().getOutputStream().flush();
+                switch (parts[0].trim().toLowerCase(Locale.US)) {
+                    case "gzip", "x-gzip" -> gzip = quality;
+                    case "deflate" -> deflate = quality;
+                    case "*" -> any = quality;
+                    default -> {}
+                }
+            }
+            if (gzip < 0) gzip = any;
+            if (deflate < 0) deflate = any;
+            return new double[]{gzip, deflate};
+        }
+
+        /**
+         * Check the {@code Content-Type} (without parameters) against the {@code compressibleContentTypes}. {@code text/event-stream} is never
+         * compressed.
+         *
+         * @param httpServerConfiguration {@code HttpServerConfiguration} bound to the server
+         * @param contentType             {@code Content-Type} of the content
+         * @return Is the content compressible?
+         * @see HttpServerConfiguration#setCompressibleContentTypes(String...)
+         * @see EventEmitter
+         * @since v1.0.6
+         */
+        private static boolean isCompressible(final HttpServerConfiguration httpServerConfiguration,
+                                              final String contentType) {
+            int parameters = contentType.indexOf(';');
+            String type = (parameters == -1 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase(Locale.US);
+            // events are encoded once for all subscribers and sent as they come, compressing would buffer them per connection
+            if (type.equals("text/event-stream")) return false;
+            for (String compressible : httpServerConfiguration.getCompressibleContentTypes()) {
+                int wildcard = compressible.indexOf('*');
+                if (wildcard == -1) {
+                    if (type.equals(compressible)) return true;
+                } else if (type.length() >= compressible.length() - 1 && type.startsWith(compressible.substring(0, wildcard))
+                        && type.endsWith(compressible.substring(wildcard + 1))) {
+                    return true;
                 }
             }
+            return false;
         }
     }
 }
@@ -0,0 +1,359 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import io.github.lycoriscafe.nexus.http.core.headers.Header;
+import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+/**
+ * Digests of the incoming content, computed while the content streams in, so the integrity checks need no extra pass over the stored content.
+ * Digests are computed over the content with the {@code Transfer-Encoding} framing removed, but before the {@code Content-Encoding} is decoded
+ * (as the headers define them). If the request has a {@code Content-Digest}, {@code Digest}, or {@code Content-MD5} header with a supported
+ * algorithm, the content is verified against it and rejected with {@code 400 Bad Request} on mismatch.
+ * <pre>
+ *     {@code
+ *     // Example code
+ *     ContentDigest contentDigest = request.getContent().getContentDigest();
+ *     byte[] sha256 = contentDigest == null ? null : contentDigest.get(ContentDigest.Algorithm.SHA_256);
+ *     }
+ * </pre>
+ *
+ * @see HttpServerConfiguration#setContentDigestAlgorithms(Algorithm...)
+ * @see Content#getContentDigest()
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc9530">Digest Fields (rfc9530)</a>
+ * @since v1.0.6
+ */
+public final class ContentDigest {
+    private final Map<Algorithm, Object> digesters = new EnumMap<>(Algorithm.class);
+    private final Map<Algorithm, byte[]> expected = new EnumMap<>(Algorithm.class);
+    private final Map<Algorithm, byte[]> values = new EnumMap<>(Algorithm.class);
+    private boolean finished = false;
+
+    /**
+     * Create an instance of {@code ContentDigest}.
+     *
+     * @param algorithms Algorithms to compute
+     * @param expected   Expected digests from the request headers
+     * @see ContentDigest
+     * @since v1.0.6
+     */
+    private ContentDigest(final Set<Algorithm> algorithms,
+                          final Map<Algorithm, byte[]> expected) {
+        this.expected.putAll(expected);
+        for (Algorithm algorithm : algorithms) digesters.put(algorithm, algorithm.newDigester());
+        for (Algorithm algorithm : expected.keySet()) digesters.computeIfAbsent(algorithm, Algorithm::newDigester);
+    }
+
+    /**
+     * Create a {@code ContentDigest} for the request content. The configured algorithms and the algorithms of the digest headers are computed.
+     *
+     * @param headers    Request headers
+     * @param algorithms Algorithms to compute (the {@code contentDigestAlgorithms})
+     * @return New instance of {@code ContentDigest}, or null if there is nothing to compute
+     * @throws IllegalArgumentException Invalid digest header value
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see ContentDigest
+     * @since v1.0.6
+     */
+    public static ContentDigest of(final List<Header> headers,
+                                   final Set<Algorithm> algorithms) {
+        Objects.requireNonNull(headers);
+        Objects.requireNonNull(algorithms);
+        Map<Algorithm, byte[]> expected = new EnumMap<>(Algorithm.class);
+        for (Header header : headers) {
+            switch (header.getName().toLowerCase(Locale.US)) {
+                // sha-256=:base64:, sha-512=:base64:
+                case "content-digest" -> parse(header.getValue(), true, expected);
+                // SHA-256=base64,MD5=base64
+                case "digest" -> parse(header.getValue(), false, expected);
+                case "content-md5" -> expected.put(Algorithm.MD5, Base64.getDecoder().decode(header.getValue().trim()));
+                default -> {}
+            }
+        }
+        if (algorithms.isEmpty() && expected.isEmpty()) return null;
+        return new ContentDigest(algorithms, expected);
+    }
+
+    /**
+     * Parse the {@code Content-Digest} or {@code Digest} header value. Unsupported algorithms are ignored.
+     *
+     * @param value      Header value
+     * @param structured Is the value a structured field dictionary ({@code Content-Digest})?
+     * @param expected   Destination of the parsed digests
+     * @throws IllegalArgumentException Invalid header value
+     * @see #of(List, Set)
+     * @since v1.0.6
+     */
+    private static void parse(final String value,
+                              final boolean structured,
+                              final Map<Algorithm, byte[]> expected) {
+        for (String member : value.split(",", 0)) {
+            String[] parts = member.trim().split("=", 2);
+            if (parts.length != 2) throw new IllegalArgumentException("invalid digest - " + member);
+            Algorithm algorithm = Algorithm.of(parts[0].trim());
+            if (algorithm == null) continue;
+
+            String digest = parts[1].trim();
+            if (structured) {
+                if (digest.length() < 2 || digest.charAt(0) != ':' || digest.charAt(digest.length() - 1) != ':') {
+                    throw new IllegalArgumentException("invalid digest - " + member);
+                }
+                digest = digest.substring(1, digest.length() - 1);
+            }
+            expected.put(algorithm, Base64.getDecoder().decode(digest));
+        }
+    }
+
+    /**
+     * Update the digests with content bytes.
+     *
+     * @param bytes  Content bytes
+     * @param offset Offset of the bytes
+     * @param length Count of the bytes
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see ContentDigest
+     * @since v1.0.6
+     */
+    public void update(final byte[] bytes,
+                       final int offset,
+                       final int length) {
+        if (finished) throw new IllegalStateException("content digest already finished");
+        for (Object digester : digesters.values()) {
+            switch (digester) {
+                case MessageDigest messageDigest -> messageDigest.update(bytes, offset, length);
+                case Checksum checksum -> checksum.update(bytes, offset, length);
+                default -> throw new IllegalStateException("Unexpected value: " + digester);
+            }
+        }
+    }
+
+    /**
+     * Finish the digests and verify them against the digests of the request headers.
+     *
+     * @throws ContentDigestException Digest mismatch
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see ContentDigest
+     * @since v1.0.6
+     */
+    public void verify() throws ContentDigestException {
+        if (!finished) {
+            finished = true;
+            for (Map.Entry<Algorithm, Object> entry : digesters.entrySet()) {
+                values.put(entry.getKey(), switch (entry.getValue()) {
+                    case MessageDigest messageDigest -> messageDigest.digest();
+                    case Checksum checksum -> {
+                        long value = checksum.getValue();
+                        yield new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+                    }
+                    default -> throw new IllegalStateException("Unexpected value: " + entry.getValue());
+                });
+            }
+        }
+        for (Map.Entry<Algorithm, byte[]> entry : expected.entrySet()) {
+            if (!MessageDigest.isEqual(entry.getValue(), values.get(entry.getKey()))) {
+                throw new ContentDigestException(entry.getKey().getName() + " content digest mismatch");
+            }
+        }
+    }
+
+    /**
+     * Wrap a content stream to update the digests while reading, and verify them at the end of the stream.
+     *
+     * @param inputStream Framed content stream
+     * @return Digesting content stream
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see ContentDigest
+     * @since v1.0.6
+     */
+    public InputStream wrap(final InputStream inputStream) {
+        Objects.requireNonNull(inputStream);
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+            }
+
+            @Override
+            public int read(final byte[] b,
+                            final int off,
+                            final int len) throws IOException {
+                // verify again at every read after the end, so a swallowed mismatch (like by FileChannel.transferFrom) is thrown again
+                if (finished) {
+                    verify();
+                    return -1;
+                }
+                int c = inputStream.read(b, off, len);
+                if (c == -1) {
+                    verify();
+                } else {
+                    update(b, off, c);
+                }
+                return c;
+            }
+
+            @Override
+            public int available() throws IOException {
+                return finished ? 0 : inputStream.available();
+            }
+
+            @Override
+            public void close() throws IOException {
+                inputStream.close();
+            }
+        };
+    }
+
+    /**
+     * Get the computed digest of an algorithm.
+     *
+     * @param algorithm Digest algorithm
+     * @return Digest bytes, or null if the algorithm is not computed
+     * @throws IllegalStateException Content is not fully read yet
+     * @see ContentDigest
+     * @since v1.0.6
+     */
+    public byte[] get(final Algorithm algorithm) {
+        if (!finished) throw new IllegalStateException("content digest not finished");
+        byte[] value = values.get(Objects.requireNonNull(algorithm));
+        return value == null ? null : value.clone();
+    }
+
+    /**
+     * Get the computed algorithms.
+     *
+     * @return Computed algorithms
+     * @see ContentDigest
+     * @since v1.0.6
+     */
+    public Set<Algorithm> getAlgorithms() {
+        return Collections.unmodifiableSet(digesters.keySet());
+    }
+
+    /**
+     * Get is there a digest of the request headers to verify the content against. Digests of unsupported algorithms are ignored, so a digest
+     * header with only unsupported algorithms is not verifiable.
+     *
+     * @return Verifiable status
+     * @see #isVerified()
+     * @see ContentDigest
+     * @since v1.0.6
+     */
+    public boolean isVerifiable() {
+        return !expected.isEmpty();
+    }
+
+    /**
+     * Get is the content verified against a digest of the request headers.
+     *
+     * @return Verified status
+     * @see ContentDigest
+     * @since v1.0.6
+     */
+    public boolean isVerified() {
+        return finished && !expected.isEmpty();
+    }
+
+    /**
+     * Get the computed digests as a {@code Content-Digest} header value (like {@code sha-256=:base64:}).
+     *
+     * @return {@code Content-Digest} header value
+     * @throws IllegalStateException Content is not fully read yet
+     * @see ContentDigest
+     * @since v1.0.6
+     */
+    @Override
+    public String toString() {
+        if (!finished) throw new IllegalStateException("content digest not finished");
+        StringJoiner joiner = new StringJoiner(", ");
+        values.forEach((algorithm, value) -> joiner.add(algorithm.getName() + "=:" + Base64.getEncoder().encodeToString(value) + ":"));
+        return joiner.toString();
+    }
+
+    /**
+     * Supported content digest algorithms.
+     *
+     * @see ContentDigest
+     * @see <a href="https://www.iana.org/assignments/http-digest-hash-alg/http-digest-hash-alg.xhtml">HTTP Digest Algorithm Values</a>
+     * @since v1.0.6
+     */
+    public enum Algorithm {
+        SHA_256("sha-256", "SHA-256"),
+        SHA_512("sha-512", "SHA-512"),
+        MD5("md5", "MD5"),
+        CRC32C("crc32c", null);
+
+        private final String name;
+        private final String messageDigest;
+
+        Algorithm(final String name,
+                  final String messageDigest) {
+            this.name = name;
+            this.messageDigest = messageDigest;
+        }
+
+        /**
+         * Get the algorithm name used in the digest headers.
+         *
+         * @return Algorithm name
+         * @see Algorithm
+         * @since v1.0.6
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the {@code Algorithm} of a digest header algorithm name (case-insensitive).
+         *
+         * @param name Algorithm name
+         * @return {@code Algorithm}, or null if not supported
+         * @see Algorithm
+         * @since v1.0.6
+         */
+        public static Algorithm of(final String name) {
+            for (Algorithm algorithm : values()) {
+                if (algorithm.name.equalsIgnoreCase(name)) return algorithm;
+            }
+            return null;
+        }
+
+        /**
+         * Create a new digester ({@code MessageDigest} or {@code Checksum}) of the algorithm.
+         *
+         * @return New digester
+         * @see Algorithm
+         * @since v1.0.6
+         */
+        private Object newDigester() {
+            if (messageDigest == null) return new CRC32C();
+            try {
+                return MessageDigest.getInstance(messageDigest);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.lang.annotation.*;
+
+/**
+ * Set the maximum request content length (in {@code bytes}) of the annotated endpoint. This replaces the server-wide {@code maxContentLength},
+ * {@code maxChunkedContentLength}, and {@code maxDecodedContentLength} for the endpoint, so small endpoints can use a lower limit (and large upload
+ * endpoints a higher limit) than the rest of the server. A {@code Content-Length} larger than the limit is rejected with HTTP error
+ * {@code 413 Content Too Large} before any content is read. This annotation can only be used with HTTP request methods {@code POST}, {@code PATCH},
+ * and {@code PUT}.
+ *
+ * <pre>
+ *     {@code
+ *     @POST("/login")
+ *     @ContentLimit(4096)
+ *     public static HttpResponse login(HttpPostRequest request,
+ *                                      HttpResponse response) {
+ *         // ...
+ *         return response;
+ *     }
+ *     }
+ * </pre>
+ *
+ * @apiNote The limit is resolved while scanning the endpoints.
+ * @see Content
+ * @see io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration#setMaxContentLength(int)
+ * HttpServerConfiguration.setMaxContentLength(int)
+ * @since v1.0.6
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ContentLimit {
+    int value();
+}
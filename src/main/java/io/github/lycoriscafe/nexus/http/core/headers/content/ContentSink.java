@@ -0,0 +1,220 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import io.github.lycoriscafe.nexus.http.engine.reqResManager.httpReq.HttpPostRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Destination of the request content (or a {@code multipart/form-data} file part) for the endpoints annotated with {@code @SinkContent}. A sink is
+ * either a target {@code Path} (created or truncated, written and closed by the server), or a {@code WritableByteChannel} (written, but not closed
+ * by the server). After the content is written, {@code Content.getData()} (or {@code MultipartFormData.getSink()}) gives this sink with the count
+ * of written bytes.
+ *
+ * @see SinkContent
+ * @see Provider
+ * @since v1.0.6
+ */
+public final class ContentSink {
+    private static final ClassValue<Provider> providers = new ClassValue<>() {
+        @Override
+        protected Provider computeValue(final Class<?> type) {
+            try {
+                return (Provider) type.getConstructor().newInstance();
+            } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("cannot create content sink provider - " + type.getName(), e);
+            }
+        }
+    };
+
+    private final Path path;
+    private final WritableByteChannel channel;
+    private long size = 0L;
+    private WritableByteChannel target;
+
+    /**
+     * @param path    Target file
+     * @param channel Target channel
+     * @see ContentSink
+     * @since v1.0.6
+     */
+    private ContentSink(final Path path,
+                        final WritableByteChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * Create a sink that writes into the given file. The file is created, or truncated if it exists.
+     *
+     * @param path Target file
+     * @return New instance of {@code ContentSink}
+     * @see ContentSink
+     * @since v1.0.6
+     */
+    public static ContentSink of(final Path path) {
+        return new ContentSink(Objects.requireNonNull(path), null);
+    }
+
+    /**
+     * Create a sink that writes into the given channel. The channel is not closed by the server.
+     *
+     * @param channel Target channel
+     * @return New instance of {@code ContentSink}
+     * @see ContentSink
+     * @since v1.0.6
+     */
+    public static ContentSink of(final WritableByteChannel channel) {
+        return new ContentSink(null, Objects.requireNonNull(channel));
+    }
+
+    /**
+     * Get the target file.
+     *
+     * @return Target file, or null if the sink is a channel
+     * @see ContentSink
+     * @since v1.0.6
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Get the target channel.
+     *
+     * @return Target channel, or null if the sink is a file
+     * @see ContentSink
+     * @since v1.0.6
+     */
+    public WritableByteChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Get the count of bytes written into the sink.
+     *
+     * @return Written bytes
+     * @see ContentSink
+     * @since v1.0.6
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Open the target for writing. A target file is created, or truncated if it exists.
+     *
+     * @throws IOException Error while opening the target file
+     * @see ContentSink
+     * @since v1.0.6
+     */
+    void open() throws IOException {
+        target = path == null ? channel : FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Write all remaining bytes of the buffer into the target.
+     *
+     * @param byteBuffer Source
+     * @throws IOException Error while writing data
+     * @see ContentSink
+     * @since v1.0.6
+     */
+    void write(final ByteBuffer byteBuffer) throws IOException {
+        while (byteBuffer.hasRemaining()) {
+            size += target.write(byteBuffer);
+        }
+    }
+
+    /**
+     * Write the whole stream into the target. The stream is read with an explicit loop (not {@code FileChannel.transferFrom()}, that hides the
+     * errors of the stream after some bytes are copied), so the content length limits of the stream always fail the request.
+     *
+     * @param inputStream Decoded content stream
+     * @param buffer      Reusable read buffer
+     * @throws IOException Error while reading or writing data
+     * @see ContentSink
+     * @since v1.0.6
+     */
+    void transferFrom(final InputStream inputStream,
+                      final byte[] buffer) throws IOException {
+        int c;
+        while ((c = inputStream.read(buffer)) != -1) {
+            write(ByteBuffer.wrap(buffer, 0, c));
+        }
+    }
+
+    /**
+     * Close a target file. Target channels are left open for the API users.
+     *
+     * @throws IOException Error while closing the target file
+     * @see ContentSink
+     * @since v1.0.6
+     */
+    void close() throws IOException {
+        if (path != null && target != null) target.close();
+        target = null;
+    }
+
+    /**
+     * Get the shared instance of a {@code Provider} class.
+     *
+     * @param type {@code Provider} class
+     * @return Shared {@code Provider} instance
+     * @throws IllegalStateException Provider class cannot be instantiated
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see SinkContent
+     * @see ContentSink
+     * @since v1.0.6
+     */
+    public static Provider getProvider(final Class<? extends Provider> type) {
+        return providers.get(type);
+    }
+
+    /**
+     * Provider of the content sinks. Called before the content is read, so the request line, headers, and parameters are available.
+     *
+     * @see SinkContent
+     * @see ContentSink
+     * @since v1.0.6
+     */
+    @FunctionalInterface
+    public interface Provider {
+        /**
+         * Open a sink for the request content, or for a {@code multipart/form-data} file part.
+         *
+         * @param request Request of the content
+         * @param part    File part with its headers (content is not yet available), or null for the whole content
+         * @return Sink of the content, or null to process the content as usual
+         * @throws IOException Error while opening the sink
+         * @see ContentSink
+         * @since v1.0.6
+         */
+        ContentSink open(HttpPostRequest request,
+                         MultipartFormData part) throws IOException;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.io.IOException;
+
+/**
+ * Throw when the incoming content exceeds a configured size limit while reading. Content readers answer this with
+ * {@code 413 Content Too Large} instead of {@code 400 Bad Request}.
+ *
+ * @see ChunkedInputStream
+ * @see InflatingInputStream
+ * @since v1.0.6
+ */
+public class ContentTooLargeException extends IOException {
+    /**
+     * Content too large exception.
+     *
+     * @param message Exception message to throw
+     * @see ContentTooLargeException
+     * @since v1.0.6
+     */
+    public ContentTooLargeException(String message) {
+        super(message);
+    }
+}
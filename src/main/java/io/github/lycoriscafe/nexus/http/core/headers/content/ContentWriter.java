@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+/**
+ * Producer of the response content that writes directly to the connection. The writer is called after the status line and the headers are sent, in
+ * the order of the pipelined responses, and the written data is sent with {@code Transfer-Encoding: chunked} (compressed if negotiated). Writes
+ * block while the client is slow (backpressure), so large generated content is sent in constant memory. {@code flush()} sends the collected data
+ * as a chunk immediately. The given stream must not be used after the writer returns, and closing it does not close the connection.
+ * <pre>
+ *     {@code
+ *     // Example code
+ *     var content = new Content("text/csv", outputStream -> {
+ *         for (var row : someRows) {
+ *             outputStream.write(row.toCsv().getBytes(StandardCharsets.UTF_8));
+ *         }
+ *     });
+ *     }
+ * </pre>
+ *
+ * @apiNote Errors thrown after the headers are sent cannot change the status code, so the connection is closed without the last chunk and the
+ * client sees an incomplete response.
+ * @see Content#Content(String, ContentWriter)
+ * @see ChannelWriter
+ * @since v1.0.6
+ */
+@FunctionalInterface
+public interface ContentWriter {
+    /**
+     * Write the content.
+     *
+     * @param outputStream Output stream bound to the connection
+     * @throws IOException Error while writing data
+     * @see ContentWriter
+     * @since v1.0.6
+     */
+    void write(OutputStream outputStream) throws IOException;
+
+    /**
+     * Create a {@code ContentWriter} that writes through a {@code WritableByteChannel}.
+     * <pre>
+     *     {@code
+     *     // Example code
+     *     var content = new Content("application/octet-stream", ContentWriter.of(channel -> {
+     *         channel.write(someByteBuffer);
+     *     }));
+     *     }
+     * </pre>
+     *
+     * @param channelWriter Channel based writer
+     * @return New {@code ContentWriter}
+     * @see ChannelWriter
+     * @see ContentWriter
+     * @since v1.0.6
+     */
+    static ContentWriter of(final ChannelWriter channelWriter) {
+        Objects.requireNonNull(channelWriter);
+        return outputStream -> channelWriter.write(Channels.newChannel(outputStream));
+    }
+
+    /**
+     * Channel based producer of the response content.
+     *
+     * @see ContentWriter#of(ChannelWriter)
+     * @since v1.0.6
+     */
+    @FunctionalInterface
+    interface ChannelWriter {
+        /**
+         * Write the content.
+         *
+         * @param channel Channel bound to the connection
+         * @throws IOException Error while writing data
+         * @see ChannelWriter
+         * @since v1.0.6
+         */
+        void write(WritableByteChannel channel) throws IOException;
+    }
+}
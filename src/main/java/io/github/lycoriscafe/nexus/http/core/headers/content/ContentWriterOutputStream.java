@@ -0,0 +1,80 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Output stream given to a {@code ContentWriter}. Passes the data to the response content stream (chunked, and compressed if negotiated), but
+ * closing it only ends the writer's access, so the writer cannot close the connection or write after it returns.
+ *
+ * @apiNote This class is public but not useful for the API users. Only used for in-API tasks.
+ * @see ContentWriter
+ * @see Content.WriteOperations
+ * @since v1.0.6
+ */
+public final class ContentWriterOutputStream extends OutputStream {
+    private final OutputStream outputStream;
+    private boolean closed = false;
+
+    /**
+     * Create an instance of {@code ContentWriterOutputStream}.
+     *
+     * @param outputStream Response content stream
+     * @see ContentWriterOutputStream
+     * @since v1.0.6
+     */
+    public ContentWriterOutputStream(final OutputStream outputStream) {
+        this.outputStream = Objects.requireNonNull(outputStream);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (closed) throw new IOException("content writer already finished");
+        outputStream.write(b);
+    }
+
+    @Override
+    public void write(final byte[] b,
+                      final int off,
+                      final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (closed) throw new IOException("content writer already finished");
+        outputStream.write(b, off, len);
+    }
+
+    /**
+     * Send the collected data to the client.
+     *
+     * @throws IOException Error while writing data
+     */
+    @Override
+    public void flush() throws IOException {
+        if (closed) throw new IOException("content writer already finished");
+        outputStream.flush();
+    }
+
+    /**
+     * End the writer's access to the response content stream. Does not close the response content stream.
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
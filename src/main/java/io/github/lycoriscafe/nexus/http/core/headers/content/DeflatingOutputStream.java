@@ -0,0 +1,217 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Response content stream for the {@code Content-Encoding: gzip} and {@code Content-Encoding: deflate} content. Compresses on the fly into the
+ * given output stream (usually a {@code ChunkedOutputStream}), using pooled {@code Deflater} instances and a pooled output buffer, so compressed
+ * responses need neither a temporary file nor a copy of the whole content in memory. Call {@code finish()} to write the end of the compressed
+ * content. Closing this stream does not close the given output stream.
+ *
+ * @apiNote This class is public but not useful for the API users. Only used for in-API tasks.
+ * @see InflatingInputStream
+ * @see ChunkedOutputStream
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc1952">GZIP file format specification (rfc1952)</a>
+ * @since v1.0.6
+ */
+public final class DeflatingOutputStream extends OutputStream {
+    private static final int POOL_SIZE = 64;
+    static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private static final BlockingQueue<Deflater> rawDeflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final BlockingQueue<Deflater> zlibDeflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private final OutputStream outputStream;
+    private final boolean gzip;
+    private final CRC32 crc32 = new CRC32();
+
+    private Deflater deflater;
+    private byte[] buffer;
+    private boolean started = false;
+    private boolean finished = false;
+
+    /**
+     * Create an instance of {@code DeflatingOutputStream}.
+     *
+     * @param outputStream    Output stream for the compressed content
+     * @param contentEncoding {@code Content-Encoding} ({@code gzip} or {@code deflate})
+     * @see DeflatingOutputStream
+     * @since v1.0.6
+     */
+    public DeflatingOutputStream(final OutputStream outputStream,
+                                 final String contentEncoding) {
+        this.outputStream = Objects.requireNonNull(outputStream);
+        gzip = switch (Objects.requireNonNull(contentEncoding)) {
+            case "gzip" -> true;
+            case "deflate" -> false;
+            default -> throw new IllegalArgumentException("unsupported content encoding - " + contentEncoding);
+        };
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b,
+                      final int off,
+                      final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (finished) throw new IOException("compressed content already finished");
+        if (len == 0) return;
+        if (!started) start();
+
+        if (gzip) crc32.update(b, off, len);
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+    }
+
+    /**
+     * Write the compressed bytes of everything written so far ({@code SYNC_FLUSH}), and flush the given output stream. Frequent flushes reduce the
+     * compression ratio.
+     *
+     * @throws IOException Error while writing data
+     */
+    @Override
+    public void flush() throws IOException {
+        if (started && !finished) {
+            int c;
+            do {
+                c = deflate(Deflater.SYNC_FLUSH);
+            } while (c == buffer.length);
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Write the remaining compressed bytes and the gzip trailer, and return the {@code Deflater} and the buffer to the pools. Further writes are not
+     * allowed. Does not close the given output stream.
+     *
+     * @throws IOException Error while writing data
+     * @see DeflatingOutputStream
+     * @since v1.0.6
+     */
+    public void finish() throws IOException {
+        if (finished) return;
+        if (!started) start();
+
+        deflater.finish();
+        while (!deflater.finished()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+        if (gzip) {
+            long crc = crc32.getValue();
+            long size = deflater.getBytesRead();
+            outputStream.write(new byte[]{(byte) crc, (byte) (crc >> 8), (byte) (crc >> 16), (byte) (crc >> 24),
+                    (byte) size, (byte) (size >> 8), (byte) (size >> 16), (byte) (size >> 24)});
+        }
+        finished = true;
+        release();
+    }
+
+    /**
+     * Return the {@code Deflater} and the buffer to the pools, without finishing the compressed content. Closing this stream does not close the
+     * given output stream.
+     */
+    @Override
+    public void close() {
+        release();
+    }
+
+    /**
+     * Take a {@code Deflater} from the pool, or create a new one if the pool is empty.
+     *
+     * @param raw Raw deflate data (without the zlib wrapper)?
+     * @return {@code Deflater}
+     * @see ParallelDeflatingOutputStream
+     * @since v1.0.6
+     */
+    static Deflater acquireDeflater(final boolean raw) {
+        Deflater deflater = (raw ? rawDeflaters : zlibDeflaters).poll();
+        return deflater == null ? new Deflater(Deflater.DEFAULT_COMPRESSION, raw) : deflater;
+    }
+
+    /**
+     * Reset a {@code Deflater} and return it to the pool. If the pool is full, the {@code Deflater} is ended.
+     *
+     * @param deflater {@code Deflater} taken by {@code acquireDeflater(boolean)}
+     * @param raw      Raw deflate data (without the zlib wrapper)?
+     * @see ParallelDeflatingOutputStream
+     * @since v1.0.6
+     */
+    static void releaseDeflater(final Deflater deflater,
+                                final boolean raw) {
+        deflater.reset();
+        if (!(raw ? rawDeflaters : zlibDeflaters).offer(deflater)) deflater.end();
+    }
+
+    /**
+     * Write the gzip header and take a {@code Deflater} and a buffer from the pools.
+     *
+     * @throws IOException Error while writing data
+     * @see DeflatingOutputStream
+     * @since v1.0.6
+     */
+    private void start() throws IOException {
+        if (gzip) outputStream.write(GZIP_HEADER);
+        deflater = acquireDeflater(gzip);
+        buffer = BufferPool.acquire(BufferPool.MEDIUM);
+        started = true;
+    }
+
+    /**
+     * Compress into the buffer and write the compressed bytes.
+     *
+     * @param flush {@code Deflater} flush mode
+     * @return Count of compressed bytes written
+     * @throws IOException Error while writing data
+     * @see DeflatingOutputStream
+     * @since v1.0.6
+     */
+    private int deflate(final int flush) throws IOException {
+        int c = deflater.deflate(buffer, 0, buffer.length, flush);
+        if (c > 0) outputStream.write(buffer, 0, c);
+        return c;
+    }
+
+    /**
+     * Return the {@code Deflater} and the buffer to the pools.
+     *
+     * @see DeflatingOutputStream
+     * @since v1.0.6
+     */
+    private void release() {
+        if (deflater != null) {
+            releaseDeflater(deflater, gzip);
+            deflater = null;
+        }
+        BufferPool.release(buffer);
+        buffer = null;
+        finished = true;
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-sent events stream of a single connection. Events sent from any thread are encoded and put into a bounded queue, and a virtual thread of
+ * the stream writes them to the client (it parks while the queue is empty). The connection thread is released once the response headers are sent,
+ * so open streams do not take the slots of the {@code maxIncomingConnections}. Events already in the queue are written together with a single
+ * flush. When the stream is idle for the heartbeat interval, a comment line is sent to
+ * keep proxies from closing the connection and to detect the disconnected clients.
+ * <pre>
+ *     {@code
+ *     // Example code
+ *     @GET("/events")
+ *     public static HttpResponse events(HttpGetRequest request, HttpResponse response) {
+ *         var emitter = new EventEmitter();
+ *         someService.onUpdate(update -> emitter.send(new ServerSentEvent(update)));
+ *         return response.setCashControl(new CacheControl().setNoCache(true)).setContent(emitter.getContent());
+ *     }
+ *     }
+ * </pre>
+ *
+ * @apiNote The connection is closed when the stream ends, since its thread is already released ({@code EventSource} clients reconnect), and no
+ * more requests are read from it. A stream of an asynchronous endpoint is written on the thread that completes the response instead, since later
+ * requests of the connection may be already read. On HTTP/2, the stream is sent on the thread of the HTTP/2 stream, and the connection stays
+ * open. {@code text/event-stream} content is never compressed.
+ * @see EventHub
+ * @see ServerSentEvent
+ * @see <a href="https://html.spec.whatwg.org/multipage/server-sent-events.html">HTML Living Standard - 9.2 Server-sent events</a>
+ * @since v1.0.6
+ */
+public final class EventEmitter {
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+    // wakes up the writer when the emitter is closed
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final long heartbeatInterval;
+    private final EventHub hub;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicLong dropped = new AtomicLong(0L);
+    private volatile boolean closed = false;
+    private volatile boolean overflowed = false;
+
+    /**
+     * Create an instance of {@code EventEmitter} with a queue of 64 events, the {@code DROP} overflow policy, and a 15-second heartbeat.
+     *
+     * @see EventEmitter
+     * @since v1.0.6
+     */
+    public EventEmitter() {
+        this(64, OverflowPolicy.DROP, 15_000L);
+    }
+
+    /**
+     * Create an instance of {@code EventEmitter}.
+     *
+     * @param queueCapacity     Maximum count of events waiting to be written
+     * @param overflowPolicy    What to do when the queue is full (slow client)
+     * @param heartbeatInterval Idle time before a heartbeat in milliseconds, or 0 to disable heartbeats
+     * @see EventEmitter
+     * @since v1.0.6
+     */
+    public EventEmitter(final int queueCapacity,
+                        final OverflowPolicy overflowPolicy,
+                        final long heartbeatInterval) {
+        this(queueCapacity, overflowPolicy, heartbeatInterval, null);
+    }
+
+    /**
+     * Create an instance of {@code EventEmitter} subscribed to a hub.
+     *
+     * @param queueCapacity     Maximum count of events waiting to be written
+     * @param overflowPolicy    What to do when the queue is full (slow client)
+     * @param heartbeatInterval Idle time before a heartbeat in milliseconds, or 0 to disable heartbeats
+     * @param hub               Hub of the emitter, or null
+     * @see EventHub#subscribe()
+     * @since v1.0.6
+     */
+    EventEmitter(final int queueCapacity,
+                 final OverflowPolicy overflowPolicy,
+                 final long heartbeatInterval,
+                 final EventHub hub) {
+        if (queueCapacity < 1) throw new IllegalArgumentException("queue capacity cannot be less than 1");
+        if (heartbeatInterval < 0) throw new IllegalArgumentException("heartbeat interval cannot be less than 0");
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+        this.heartbeatInterval = heartbeatInterval;
+        this.hub = hub;
+    }
+
+    /**
+     * Get the {@code text/event-stream} content of this emitter, to set on the {@code HttpResponse}.
+     *
+     * @return New {@code Content} that streams the events
+     * @see EventEmitter
+     * @since v1.0.6
+     */
+    public Content getContent() {
+        return new Content("text/event-stream", this::stream).setDetached(true);
+    }
+
+    /**
+     * Send an event to the client.
+     *
+     * @param event Event to send
+     * @return Is the event queued? (false if the emitter is closed, or the event is dropped by the overflow policy)
+     * @see EventEmitter
+     * @since v1.0.6
+     */
+    public boolean send(final ServerSentEvent event) {
+        return offer(Objects.requireNonNull(event).encode());
+    }
+
+    /**
+     * Close the stream after the queued events are written. The response ends normally.
+     *
+     * @see EventEmitter
+     * @since v1.0.6
+     */
+    public void close() {
+        if (closed) return;
+        closed = true;
+        if (hub != null) hub.remove(this);
+        queue.offer(END);
+    }
+
+    /**
+     * Get is the emitter closed (by the API user, the overflow policy, or a disconnected client).
+     *
+     * @return Emitter closed status
+     * @see EventEmitter
+     * @since v1.0.6
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Get the count of events dropped because the queue was full.
+     *
+     * @return Count of dropped events
+     * @see OverflowPolicy
+     * @see EventEmitter
+     * @since v1.0.6
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Queue an encoded event. Encoded events may be shared between emitters, so they are never modified.
+     *
+     * @param event Encoded event
+     * @return Is the event queued?
+     * @see EventHub#broadcast(ServerSentEvent)
+     * @since v1.0.6
+     */
+    boolean offer(final byte[] event) {
+        if (closed) return false;
+        if (queue.offer(event)) return true;
+        dropped.incrementAndGet();
+        if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+            overflowed = true;
+            close();
+        }
+        return false;
+    }
+
+    /**
+     * Write the queued events to the client until the emitter is closed.
+     *
+     * @param outputStream Response content stream
+     * @throws IOException Error while writing data, or the client is disconnected by the overflow policy
+     * @see EventEmitter
+     * @since v1.0.6
+     */
+    private void stream(final OutputStream outputStream) throws IOException {
+        if (!started.compareAndSet(false, true)) throw new IOException("event stream already started");
+        if (hub != null) hub.start(this);
+        try {
+            while (true) {
+                byte[] event = heartbeatInterval == 0 ? queue.take() : queue.poll(heartbeatInterval, TimeUnit.MILLISECONDS);
+                // failing the response closes the connection, so the client does not miss the dropped events silently
+                if (overflowed) throw new IOException("event stream client too slow");
+                if (event == null) {
+                    outputStream.write(HEARTBEAT);
+                } else {
+                    do {
+                        outputStream.write(event);
+                    } while ((event = queue.poll()) != null);
+                }
+                outputStream.flush();
+                if (closed && queue.isEmpty()) return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("event stream interrupted");
+        } finally {
+            closed = true;
+            if (hub != null) hub.remove(this);
+            queue.clear();
+        }
+    }
+
+    /**
+     * What to do with an event when the queue of a slow client is full.
+     *
+     * @see EventEmitter
+     * @since v1.0.6
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drop the event for this client, and keep the stream.
+         */
+        DROP,
+        /**
+         * Close the connection of this client. Clients reconnect with the {@code Last-Event-ID} of the last received event.
+         */
+        DISCONNECT
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Broadcast hub of the server-sent events. A broadcast event is encoded once, and the same bytes are queued to every subscriber without blocking,
+ * so a slow client only affects its own queue (by the {@code OverflowPolicy} of the hub). Closed and disconnected subscribers are removed
+ * automatically. Until its stream starts, a subscriber is only weakly held by the hub, so a subscriber whose content is never written (like the
+ * endpoint failed after subscribing, or the response could not be sent) is removed once it is garbage collected.
+ * <pre>
+ *     {@code
+ *     // Example code
+ *     static final EventHub prices = new EventHub();
+ *
+ *     @GET("/prices")
+ *     public static HttpResponse prices(HttpGetRequest request, HttpResponse response) {
+ *         return response.setCashControl(new CacheControl().setNoCache(true)).setContent(prices.subscribe().getContent());
+ *     }
+ *
+ *     // somewhere else
+ *     prices.broadcast(new ServerSentEvent("{\"price\":42}").setEvent("price"));
+ *     }
+ * </pre>
+ *
+ * @see EventEmitter
+ * @see ServerSentEvent
+ * @since v1.0.6
+ */
+public final class EventHub {
+    private final Set<EventEmitter> subscribers = ConcurrentHashMap.newKeySet();
+    // subscribers whose stream is not started yet, held weakly until the content is written
+    private final Map<EventEmitter, Boolean> pending = Collections.synchronizedMap(new WeakHashMap<>());
+    private final int queueCapacity;
+    private final EventEmitter.OverflowPolicy overflowPolicy;
+    private final long heartbeatInterval;
+
+    /**
+     * Create an instance of {@code EventHub} with a queue of 64 events per subscriber, the {@code DROP} overflow policy, and a 15-second heartbeat.
+     *
+     * @see EventHub
+     * @since v1.0.6
+     */
+    public EventHub() {
+        this(64, EventEmitter.OverflowPolicy.DROP, 15_000L);
+    }
+
+    /**
+     * Create an instance of {@code EventHub}.
+     *
+     * @param queueCapacity     Maximum count of events waiting to be written, per subscriber
+     * @param overflowPolicy    What to do when the queue of a subscriber is full (slow client)
+     * @param heartbeatInterval Idle time before a heartbeat in milliseconds, or 0 to disable heartbeats
+     * @see EventHub
+     * @since v1.0.6
+     */
+    public EventHub(final int queueCapacity,
+                    final EventEmitter.OverflowPolicy overflowPolicy,
+                    final long heartbeatInterval) {
+        if (queueCapacity < 1) throw new IllegalArgumentException("queue capacity cannot be less than 1");
+        if (heartbeatInterval < 0) throw new IllegalArgumentException("heartbeat interval cannot be less than 0");
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    /**
+     * Create a new subscriber. Set the content of the subscriber on the {@code HttpResponse}. The subscriber can also receive its own events with
+     * {@code EventEmitter.send(ServerSentEvent)}.
+     *
+     * @return New {@code EventEmitter} subscribed to this hub
+     * @see EventEmitter#getContent()
+     * @see EventHub
+     * @since v1.0.6
+     */
+    public EventEmitter subscribe() {
+        EventEmitter emitter = new EventEmitter(queueCapacity, overflowPolicy, heartbeatInterval, this);
+        pending.put(emitter, Boolean.TRUE);
+        return emitter;
+    }
+
+    /**
+     * Send an event to all subscribers.
+     *
+     * @param event Event to send
+     * @return Count of subscribers the event is queued for
+     * @see EventHub
+     * @since v1.0.6
+     */
+    public int broadcast(final ServerSentEvent event) {
+        byte[] encoded = Objects.requireNonNull(event).encode();
+        int count = 0;
+        for (EventEmitter subscriber : subscribers) {
+            if (subscriber.offer(encoded)) count++;
+        }
+        for (EventEmitter subscriber : getPending()) {
+            if (subscriber.offer(encoded)) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Get the count of the current subscribers.
+     *
+     * @return Count of subscribers
+     * @see EventHub
+     * @since v1.0.6
+     */
+    public int getSubscriberCount() {
+        return subscribers.size() + pending.size();
+    }
+
+    /**
+     * Close all subscribers after their queued events are written.
+     *
+     * @see EventEmitter#close()
+     * @see EventHub
+     * @since v1.0.6
+     */
+    public void close() {
+        for (EventEmitter subscriber : subscribers) {
+            subscriber.close();
+        }
+        for (EventEmitter subscriber : getPending()) {
+            subscriber.close();
+        }
+    }
+
+    /**
+     * Hold a subscriber strongly once its stream is started.
+     *
+     * @param emitter Started subscriber
+     * @see EventEmitter
+     * @since v1.0.6
+     */
+    void start(final EventEmitter emitter) {
+        if (pending.remove(emitter) != null) subscribers.add(emitter);
+    }
+
+    /**
+     * Remove a closed subscriber.
+     *
+     * @param emitter Closed subscriber
+     * @see EventEmitter
+     * @since v1.0.6
+     */
+    void remove(final EventEmitter emitter) {
+        pending.remove(emitter);
+        subscribers.remove(emitter);
+    }
+
+    /**
+     * Get a snapshot of the subscribers whose stream is not started yet.
+     *
+     * @return Not started subscribers
+     * @see EventHub
+     * @since v1.0.6
+     */
+    private List<EventEmitter> getPending() {
+        synchronized (pending) {
+            return List.copyOf(pending.keySet());
+        }
+    }
+}
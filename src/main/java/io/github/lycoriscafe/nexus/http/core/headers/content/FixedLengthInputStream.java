@@ -0,0 +1,96 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * Request body stream for the {@code Content-Length} delimited content. Reads at most {@code Content-Length} bytes from the socket input stream and
+ * never reads beyond it, so the next pipelined request stays untouched. Closing this stream does not close the socket.
+ *
+ * @apiNote This class is public but not useful for the API users. Only used for in-API tasks.
+ * @see ChunkedInputStream
+ * @see Content
+ * @since v1.0.6
+ */
+public final class FixedLengthInputStream extends InputStream {
+    private final InputStream inputStream;
+    private long remaining;
+
+    /**
+     * Create an instance of {@code FixedLengthInputStream}.
+     *
+     * @param inputStream   Socket input stream
+     * @param contentLength {@code Content-Length}
+     * @see FixedLengthInputStream
+     * @since v1.0.6
+     */
+    public FixedLengthInputStream(final InputStream inputStream,
+                                  final long contentLength) {
+        if (contentLength < 0) throw new IllegalArgumentException("content length cannot be less than 0");
+        this.inputStream = Objects.requireNonNull(inputStream);
+        remaining = contentLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining == 0) return -1;
+        int b = inputStream.read();
+        if (b == -1) throw new EOFException("connection closed before the end of content");
+        remaining--;
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b,
+                    final int off,
+                    final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) return 0;
+        if (remaining == 0) return -1;
+        int c = inputStream.read(b, off, (int) Math.min(len, remaining));
+        if (c == -1) throw new EOFException("connection closed before the end of content");
+        remaining -= c;
+        return c;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        long skipped = 0;
+        byte[] buffer = new byte[(int) Math.min(8192, Math.max(1, Math.min(n, remaining)))];
+        while (skipped < n && remaining > 0) {
+            int c = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (c == -1) break;
+            skipped += c;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(inputStream.available(), remaining);
+    }
+
+    /**
+     * Does nothing. The socket input stream is owned by the connection.
+     */
+    @Override
+    public void close() {}
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Request content stream for the {@code Content-Encoding: gzip} and {@code Content-Encoding: deflate} content. Decompresses on the fly from the
+ * framed content stream, using pooled {@code Inflater} instances. The decompressed size is limited by the {@code maxDecodedContentLength}, and the
+ * expansion ratio by the {@code maxContentEncodingRatio}, so small compressed requests cannot expand into large amounts of memory or disk.
+ * Concatenated gzip members are decoded as one content, and any other data after the compressed content is rejected.
+ *
+ * @apiNote This class is public but not useful for the API users. Only used for in-API tasks.
+ * @see HttpServerConfiguration#setMaxDecodedContentLength(int)
+ * @see HttpServerConfiguration#setMaxContentEncodingRatio(int)
+ * @see ChunkedInputStream
+ * @see FixedLengthInputStream
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc1952">GZIP file format specification (rfc1952)</a>
+ * @since v1.0.6
+ */
+public final class InflatingInputStream extends InputStream {
+    private static final int BUFFER_SIZE = BufferPool.MEDIUM;
+    private static final int POOL_SIZE = 64;
+    // decompressed size allowed before the expansion ratio is checked (small content can be highly compressible)
+    private static final int RATIO_GRACE_LENGTH = 1_048_576;
+
+    private static final BlockingQueue<Inflater> rawInflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final BlockingQueue<Inflater> zlibInflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private final InputStream inputStream;
+    private final boolean gzip;
+    private final long maxDecodedLength;
+    private final int maxRatio;
+    private byte[] buffer = BufferPool.acquire(BUFFER_SIZE);
+    private final CRC32 crc32 = new CRC32();
+
+    private Inflater inflater;
+    private boolean raw;
+    private int position = 0;
+    private int limit = 0;
+    private long compressedLength = 0L;
+    private long decodedLength = 0L;
+    // decompressed length of the current gzip member, for the ISIZE of its trailer
+    private long memberLength = 0L;
+    private boolean finished = false;
+
+    /**
+     * Create an instance of {@code InflatingInputStream} with the given limits.
+     *
+     * @param inputStream      Framed content stream
+     * @param contentEncoding  {@code Content-Encoding} ({@code gzip} or {@code deflate})
+     * @param maxDecodedLength Maximum decompressed content length
+     * @param maxRatio         Maximum expansion ratio (decompressed length / compressed length)
+     * @see InflatingInputStream
+     * @since v1.0.6
+     */
+    public InflatingInputStream(final InputStream inputStream,
+                                final String contentEncoding,
+                                final long maxDecodedLength,
+                                final int maxRatio) {
+        this.inputStream = Objects.requireNonNull(inputStream);
+        gzip = switch (Objects.requireNonNull(contentEncoding)) {
+            case "gzip" -> true;
+            case "deflate" -> false;
+            default -> throw new IllegalArgumentException("unsupported content encoding - " + contentEncoding);
+        };
+        this.maxDecodedLength = maxDecodedLength;
+        this.maxRatio = maxRatio;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b,
+                    final int off,
+                    final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (finished) return -1;
+        if (buffer == null) throw new IOException("stream closed");
+        if (len == 0) return 0;
+
+        try {
+            if (inflater == null) start();
+            while (true) {
+                int c = inflater.inflate(b, off, len);
+                if (c > 0) {
+                    decodedLength += c;
+                    memberLength += c;
+                    if (gzip) crc32.update(b, off, c);
+                    if (decodedLength > maxDecodedLength) throw new ContentTooLargeException("max decoded content length exceeded");
+                    if (decodedLength > RATIO_GRACE_LENGTH && decodedLength / Math.max(1L, compressedLength) > maxRatio) {
+                        throw new ContentTooLargeException("max content encoding ratio exceeded");
+                    }
+                    return c;
+                }
+
+                if (inflater.finished()) {
+                    if (!finish()) return -1;
+                    continue;
+                }
+                if (inflater.needsDictionary()) throw new ZipException("preset dictionary not supported");
+                if (inflater.needsInput()) {
+                    if (!fill()) throw new EOFException("unexpected end of compressed content");
+                    inflater.setInput(buffer, position, limit - position);
+                    position = limit;
+                }
+            }
+        } catch (DataFormatException e) {
+            release();
+            releaseBuffer();
+            throw new ZipException("invalid compressed content - " + e.getMessage());
+        } catch (IOException e) {
+            release();
+            releaseBuffer();
+            throw e;
+        }
+    }
+
+    /**
+     * Return the {@code Inflater} and the buffer to the pools. Closing this stream does not close the framed content stream.
+     */
+    @Override
+    public void close() {
+        release();
+        releaseBuffer();
+    }
+
+    /**
+     * Read the gzip header (or detect the zlib wrapper of deflate) and take an {@code Inflater} from the pool.
+     *
+     * @throws IOException Error while reading data or invalid header
+     * @see InflatingInputStream
+     * @since v1.0.6
+     */
+    private void start() throws IOException {
+        if (gzip) {
+            if (readByte() != 0x1f || readByte() != 0x8b) throw new ZipException("not in gzip format");
+            if (readByte() != 8) throw new ZipException("unsupported gzip compression method");
+            int flags = readByte();
+            for (int i = 0; i < 6; i++) readByte(); // MTIME, XFL, OS
+            if ((flags & 4) != 0) skipBytes(readByte() | (readByte() << 8)); // FEXTRA
+            if ((flags & 8) != 0) while (readByte() != 0) {} // FNAME
+            if ((flags & 16) != 0) while (readByte() != 0) {} // FCOMMENT
+            if ((flags & 2) != 0) skipBytes(2); // FHCRC
+            raw = true;
+        } else {
+            // "deflate" is zlib wrapped (rfc9110), but some clients send raw deflate data
+            while (limit - position < 2) {
+                if (!fill()) throw new EOFException("unexpected end of compressed content");
+            }
+            int cmf = buffer[position] & 0xff;
+            int flg = buffer[position + 1] & 0xff;
+            raw = (cmf & 0x0f) != 8 || ((cmf << 8) | flg) % 31 != 0;
+        }
+
+        inflater = (raw ? rawInflaters : zlibInflaters).poll();
+        if (inflater == null) inflater = new Inflater(raw);
+        inflater.setInput(buffer, position, limit - position);
+        position = limit;
+    }
+
+    /**
+     * Verify the gzip trailer and return the {@code Inflater} to the pool. If more data follows, it is started as the next gzip member
+     * (rfc1952 - 2.2. File format), or rejected for the deflate content.
+     *
+     * @return Is the next gzip member started?
+     * @throws IOException Error while reading data, invalid trailer, or invalid data after the compressed content
+     * @see InflatingInputStream
+     * @since v1.0.6
+     */
+    private boolean finish() throws IOException {
+        position = limit - inflater.getRemaining();
+        release();
+        if (gzip) {
+            long crc = readByte() | (readByte() << 8) | (readByte() << 16) | ((long) readByte() << 24);
+            long size = readByte() | (readByte() << 8) | (readByte() << 16) | ((long) readByte() << 24);
+            if (crc != crc32.getValue() || size != (memberLength & 0xffffffffL)) throw new ZipException("corrupt gzip trailer");
+        }
+
+        if (position < limit || fill()) {
+            if (!gzip) throw new ZipException("unexpected data after the compressed content");
+            crc32.reset();
+            memberLength = 0L;
+            start();
+            return true;
+        }
+        finished = true;
+        releaseBuffer();
+        return false;
+    }
+
+    /**
+     * Return the buffer to the pool.
+     *
+     * @see InflatingInputStream
+     * @since v1.0.6
+     */
+    private void releaseBuffer() {
+        BufferPool.release(buffer);
+        buffer = null;
+    }
+
+    /**
+     * Reset the {@code Inflater} and return it to the pool. If the pool is full, the {@code Inflater} is ended.
+     *
+     * @see InflatingInputStream
+     * @since v1.0.6
+     */
+    private void release() {
+        if (inflater == null) return;
+        inflater.reset();
+        if (!(raw ? rawInflaters : zlibInflaters).offer(inflater)) inflater.end();
+        inflater = null;
+    }
+
+    /**
+     * Read more compressed bytes from the framed content stream. Unread bytes are discarded, so only call this when the buffer is consumed.
+     *
+     * @return Is more data read?
+     * @throws IOException Error while reading data
+     * @see InflatingInputStream
+     * @since v1.0.6
+     */
+    private boolean fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        int c = inputStream.read(buffer, limit, buffer.length - limit);
+        if (c == -1) return false;
+        limit += c;
+        compressedLength += c;
+        return true;
+    }
+
+    /**
+     * Read a single compressed (header/trailer) byte.
+     *
+     * @return Read byte
+     * @throws IOException Error while reading data
+     * @see InflatingInputStream
+     * @since v1.0.6
+     */
+    private int readByte() throws IOException {
+        if (position == limit && !fill()) throw new EOFException("unexpected end of compressed content");
+        return buffer[position++] & 0xff;
+    }
+
+    /**
+     * Skip the given count of compressed (header) bytes.
+     *
+     * @param count Count of bytes
+     * @throws IOException Error while reading data
+     * @see InflatingInputStream
+     * @since v1.0.6
+     */
+    private void skipBytes(final int count) throws IOException {
+        for (int i = 0; i < count; i++) readByte();
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.io.IOException;
+
+/**
+ * Throw when the JSON content is malformed, or does not have the expected structure (an expected token or a value out of range).
+ *
+ * @see JsonReader
+ * @since v1.0.6
+ */
+public class JsonException extends IOException {
+    /**
+     * JSON exception.
+     *
+     * @param message Exception message to throw
+     * @see JsonException
+     * @since v1.0.6
+     */
+    public JsonException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,723 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Streaming (pull) JSON parser. Reads UTF-8 JSON from the request content through a pooled buffer, token by token, so the document is never
+ * materialized as a {@code String} or a tree. Strict (rfc8259): comments, single quotes, trailing commas, and data after the top-level value are
+ * malformed. Close the reader to return the buffer to the pool.
+ * <pre>
+ *     {@code
+ *     // Example code
+ *     try (var json = JsonReader.of(request.getContent())) {
+ *         json.beginObject();
+ *         while (json.hasNext()) {
+ *             switch (json.nextName()) {
+ *                 case "id" -> id = json.nextLong();
+ *                 case "name" -> name = json.nextString();
+ *                 default -> json.skipValue();
+ *             }
+ *         }
+ *         json.endObject();
+ *     }
+ *     }
+ * </pre>
+ *
+ * @apiNote Malformed or unexpected content throws {@code JsonException}, which is an {@code IOException}.
+ * @see JsonWriter
+ * @see JsonException
+ * @see StreamContent
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc8259">The JavaScript Object Notation (JSON) Data Interchange Format (rfc8259)</a>
+ * @since v1.0.6
+ */
+public final class JsonReader implements Closeable {
+    private static final int MAX_DEPTH = 512;
+
+    private static final byte EMPTY_DOCUMENT = 0;
+    private static final byte NONEMPTY_DOCUMENT = 1;
+    private static final byte EMPTY_ARRAY = 2;
+    private static final byte NONEMPTY_ARRAY = 3;
+    private static final byte EMPTY_OBJECT = 4;
+    private static final byte NONEMPTY_OBJECT = 5;
+    private static final byte DANGLING_NAME = 6;
+
+    private final InputStream inputStream;
+    private byte[] buffer = BufferPool.acquire(BufferPool.SMALL);
+    private int position = 0;
+    private int limit = 0;
+    private long offset = 0L;
+    private byte[] scopes = new byte[16];
+    private int depth = 1;
+
+    private Token peeked;
+    private boolean peekedBoolean;
+    // text of the peeked number, reused for every number and string
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * Create an instance of {@code JsonReader}.
+     *
+     * @param inputStream UTF-8 JSON stream
+     * @see #of(Content)
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public JsonReader(final InputStream inputStream) {
+        this.inputStream = Objects.requireNonNull(inputStream);
+    }
+
+    /**
+     * Create an instance of {@code JsonReader} over the request content, wherever it is stored.
+     *
+     * @param content Request content ({@code byte[]}, {@code ByteBuffer}, {@code Path}, or {@code InputStream} data)
+     * @return New instance of {@code JsonReader}
+     * @throws IOException Error while opening the content file
+     * @throws IllegalArgumentException Content data is not raw data (parsed form data, a sink, ...)
+     * @see Content#getData()
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public static JsonReader of(final Content content) throws IOException {
+        return new JsonReader(switch (Objects.requireNonNull(content).getData()) {
+            case byte[] bytes -> new ByteArrayInputStream(bytes);
+            case ByteBuffer byteBuffer -> new ByteBufferInputStream(byteBuffer);
+            case Path path -> Files.newInputStream(path);
+            case InputStream stream -> stream;
+            default -> throw new IllegalArgumentException("content data is not raw data - " + content.getData().getClass().getName());
+        });
+    }
+
+    /**
+     * Get the type of the next token, without consuming it.
+     *
+     * @return Type of the next token
+     * @throws IOException Error while reading data or malformed content
+     * @see Token
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public Token peek() throws IOException {
+        if (peeked != null) return peeked;
+        if (buffer == null) throw new IOException("reader closed");
+
+        int c;
+        switch (scopes[depth - 1]) {
+            case EMPTY_DOCUMENT -> scopes[depth - 1] = NONEMPTY_DOCUMENT;
+            case NONEMPTY_DOCUMENT -> {
+                if (nextNonWhitespace() != -1) throw malformed("data after the top-level value");
+                return peeked = Token.END_DOCUMENT;
+            }
+            case EMPTY_ARRAY -> {
+                scopes[depth - 1] = NONEMPTY_ARRAY;
+                if (peekNonWhitespace() == ']') {
+                    position++;
+                    return peeked = Token.END_ARRAY;
+                }
+            }
+            case NONEMPTY_ARRAY -> {
+                c = nextNonWhitespace();
+                if (c == ']') return peeked = Token.END_ARRAY;
+                if (c != ',') throw malformed("',' or ']' expected");
+            }
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                c = nextNonWhitespace();
+                if (c == '}') return peeked = Token.END_OBJECT;
+                if (scopes[depth - 1] == NONEMPTY_OBJECT) {
+                    if (c != ',') throw malformed("',' or '}' expected");
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') throw malformed("name expected");
+                scopes[depth - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            }
+            case DANGLING_NAME -> {
+                if (nextNonWhitespace() != ':') throw malformed("':' expected");
+                scopes[depth - 1] = NONEMPTY_OBJECT;
+            }
+            default -> throw new IllegalStateException("Unexpected value: " + scopes[depth - 1]);
+        }
+
+        c = nextNonWhitespace();
+        return peeked = switch (c) {
+            case '{' -> Token.BEGIN_OBJECT;
+            case '[' -> Token.BEGIN_ARRAY;
+            case '"' -> Token.STRING;
+            case 't' -> {
+                readLiteral("rue");
+                peekedBoolean = true;
+                yield Token.BOOLEAN;
+            }
+            case 'f' -> {
+                readLiteral("alse");
+                peekedBoolean = false;
+                yield Token.BOOLEAN;
+            }
+            case 'n' -> {
+                readLiteral("ull");
+                yield Token.NULL;
+            }
+            case '-', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> {
+                readNumber(c);
+                yield Token.NUMBER;
+            }
+            case -1 -> throw malformed("unexpected end of content");
+            default -> throw malformed("value expected");
+        };
+    }
+
+    /**
+     * Check the current object or array has more members or elements.
+     *
+     * @return Has more members or elements?
+     * @throws IOException Error while reading data or malformed content
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    /**
+     * Consume the beginning of an object.
+     *
+     * @throws IOException Error while reading data, malformed content, or the next token is not {@code BEGIN_OBJECT}
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    /**
+     * Consume the end of the current object.
+     *
+     * @throws IOException Error while reading data, malformed content, or the next token is not {@code END_OBJECT}
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    /**
+     * Consume the beginning of an array.
+     *
+     * @throws IOException Error while reading data, malformed content, or the next token is not {@code BEGIN_ARRAY}
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    /**
+     * Consume the end of the current array.
+     *
+     * @throws IOException Error while reading data, malformed content, or the next token is not {@code END_ARRAY}
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    /**
+     * Consume the name of the next member of the current object.
+     *
+     * @return Member name
+     * @throws IOException Error while reading data, malformed content, or the next token is not {@code NAME}
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        readString();
+        return text.toString();
+    }
+
+    /**
+     * Consume a string value. Number values are returned as their text.
+     *
+     * @return String value
+     * @throws IOException Error while reading data, malformed content, or the next token is not {@code STRING} or {@code NUMBER}
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public String nextString() throws IOException {
+        if (peek() == Token.NUMBER) {
+            peeked = null;
+            return text.toString();
+        }
+        expect(Token.STRING);
+        readString();
+        return text.toString();
+    }
+
+    /**
+     * Consume a boolean value.
+     *
+     * @return Boolean value
+     * @throws IOException Error while reading data, malformed content, or the next token is not {@code BOOLEAN}
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        return peekedBoolean;
+    }
+
+    /**
+     * Consume a null value.
+     *
+     * @throws IOException Error while reading data, malformed content, or the next token is not {@code NULL}
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+    }
+
+    /**
+     * Consume a number value as {@code long}.
+     *
+     * @return Number value
+     * @throws IOException Error while reading data, malformed content, the next token is not {@code NUMBER}, or the number is not an integer in the
+     *                     {@code long} range
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public long nextLong() throws IOException {
+        expect(Token.NUMBER);
+        long value = 0L;
+        int length = text.length();
+        boolean negative = text.charAt(0) == '-';
+        for (int i = negative ? 1 : 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') throw malformed("integer expected - " + text);
+            int digit = c - '0';
+            // accumulate negatively, so Long.MIN_VALUE fits
+            if (value < (Long.MIN_VALUE + digit) / 10) throw malformed("integer out of range - " + text);
+            value = value * 10 - digit;
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) throw malformed("integer out of range - " + text);
+            value = -value;
+        }
+        return value;
+    }
+
+    /**
+     * Consume a number value as {@code int}.
+     *
+     * @return Number value
+     * @throws IOException Error while reading data, malformed content, the next token is not {@code NUMBER}, or the number is not an integer in the
+     *                     {@code int} range
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw malformed("integer out of range - " + value);
+        return (int) value;
+    }
+
+    /**
+     * Consume a number value as {@code double}.
+     *
+     * @return Number value
+     * @throws IOException Error while reading data, malformed content, or the next token is not {@code NUMBER}
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public double nextDouble() throws IOException {
+        expect(Token.NUMBER);
+        return Double.parseDouble(text.toString());
+    }
+
+    /**
+     * Skip the next value, including all nested values of an object or an array. If the next token is a member name, the name and its value are
+     * skipped.
+     *
+     * @throws IOException Error while reading data, malformed content, or the next token is the end of an object, an array, or the document
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    public void skipValue() throws IOException {
+        if (peek() == Token.NAME) nextName();
+        int nested = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT -> {
+                    beginObject();
+                    nested++;
+                }
+                case BEGIN_ARRAY -> {
+                    beginArray();
+                    nested++;
+                }
+                case END_OBJECT -> {
+                    if (nested == 0) throw malformed("value expected");
+                    endObject();
+                    nested--;
+                }
+                case END_ARRAY -> {
+                    if (nested == 0) throw malformed("value expected");
+                    endArray();
+                    nested--;
+                }
+                case NAME -> nextName();
+                case STRING -> nextString();
+                case END_DOCUMENT -> throw malformed("value expected");
+                default -> peeked = null;
+            }
+        } while (nested > 0);
+    }
+
+    /**
+     * Return the buffer to the pool and close the JSON stream. The request content stream ({@code @StreamContent}) is owned by the connection, so
+     * closing it does not close the connection.
+     *
+     * @throws IOException Error while closing the JSON stream
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) return;
+        BufferPool.release(buffer);
+        buffer = null;
+        inputStream.close();
+    }
+
+    /**
+     * Consume the peeked token if it is the expected type.
+     *
+     * @param token Expected type
+     * @throws IOException Error while reading data, malformed content, or the next token is not the expected type
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    private void expect(final Token token) throws IOException {
+        Token actual = peek();
+        if (actual != token) throw malformed(token + " expected but was " + actual);
+        peeked = null;
+    }
+
+    /**
+     * Enter a nested object or array.
+     *
+     * @param scope Scope of the nested value
+     * @throws JsonException Maximum nesting depth exceeded
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    private void push(final byte scope) throws JsonException {
+        if (depth == MAX_DEPTH) throw malformed("max nesting depth exceeded");
+        if (depth == scopes.length) scopes = Arrays.copyOf(scopes, scopes.length * 2);
+        scopes[depth++] = scope;
+    }
+
+    /**
+     * Read the rest of a string (after the opening quote) into the text, decoding escapes and UTF-8.
+     *
+     * @throws IOException Error while reading data or malformed content
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    private void readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            // copy the plain ASCII run directly from the buffer
+            int start = position;
+            while (position < limit) {
+                byte b = buffer[position];
+                if (b == '"' || b == '\\' || b < 0x20) break;
+                position++;
+            }
+            for (int i = start; i < position; i++) {
+                text.append((char) buffer[i]);
+            }
+
+            int c = read();
+            switch (c) {
+                case -1 -> throw malformed("unterminated string");
+                case '"' -> {
+                    return;
+                }
+                case '\\' -> readEscape();
+                default -> {
+                    if (c < 0x20) throw malformed("control character in string");
+                    readUtf8(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read an escape sequence (after the backslash) into the text.
+     *
+     * @throws IOException Error while reading data or malformed content
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    private void readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"', '\\', '/' -> text.append((char) c);
+            case 'b' -> text.append('\b');
+            case 'f' -> text.append('\f');
+            case 'n' -> text.append('\n');
+            case 'r' -> text.append('\r');
+            case 't' -> text.append('\t');
+            case 'u' -> {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit == -1) throw malformed("invalid unicode escape");
+                    value = (value << 4) | digit;
+                }
+                text.append((char) value);
+            }
+            default -> throw malformed("invalid escape sequence");
+        }
+    }
+
+    /**
+     * Decode a multibyte UTF-8 sequence into the text.
+     *
+     * @param first First byte of the sequence
+     * @throws IOException Error while reading data or malformed content
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    private void readUtf8(final int first) throws IOException {
+        int count;
+        int codePoint;
+        if ((first & 0xe0) == 0xc0) {
+            count = 1;
+            codePoint = first & 0x1f;
+        } else if ((first & 0xf0) == 0xe0) {
+            count = 2;
+            codePoint = first & 0x0f;
+        } else if ((first & 0xf8) == 0xf0) {
+            count = 3;
+            codePoint = first & 0x07;
+        } else {
+            throw malformed("invalid UTF-8");
+        }
+        for (int i = 0; i < count; i++) {
+            int b = read();
+            if ((b & 0xc0) != 0x80) throw malformed("invalid UTF-8");
+            codePoint = (codePoint << 6) | (b & 0x3f);
+        }
+        // reject overlong encodings, surrogates and out of range code points
+        if (codePoint < (count == 1 ? 0x80 : count == 2 ? 0x800 : 0x10000) || Character.isSurrogate((char) codePoint) && count == 2
+                || codePoint > Character.MAX_CODE_POINT) {
+            throw malformed("invalid UTF-8");
+        }
+        text.appendCodePoint(codePoint);
+    }
+
+    /**
+     * Read a number into the text and validate its grammar.
+     *
+     * @param first First character of the number
+     * @throws IOException Error while reading data or malformed content
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    private void readNumber(final int first) throws IOException {
+        text.setLength(0);
+        text.append((char) first);
+        int c = first;
+        if (first == '-') {
+            c = read();
+            if (c < '0' || c > '9') throw malformed("invalid number");
+            text.append((char) c);
+        }
+        // no leading zeros
+        if (c != '0') appendDigits();
+
+        int next = peekByte();
+        if (next >= '0' && next <= '9') throw malformed("invalid number");
+        if (next == '.') {
+            appendNext();
+            if (appendDigits() == 0) throw malformed("invalid number");
+            next = peekByte();
+        }
+        if (next == 'e' || next == 'E') {
+            appendNext();
+            int sign = peekByte();
+            if (sign == '+' || sign == '-') appendNext();
+            if (appendDigits() == 0) throw malformed("invalid number");
+        }
+    }
+
+    /**
+     * Append the following digits to the text.
+     *
+     * @return Count of appended digits
+     * @throws IOException Error while reading data
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    private int appendDigits() throws IOException {
+        int count = 0;
+        int c;
+        while ((c = peekByte()) >= '0' && c <= '9') {
+            appendNext();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Append the next byte to the text.
+     *
+     * @throws IOException Error while reading data
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    private void appendNext() throws IOException {
+        int c = read();
+        if (c != -1) text.append((char) c);
+    }
+
+    /**
+     * Read the rest of a literal ({@code true}, {@code false}, {@code null}).
+     *
+     * @param rest Expected rest of the literal
+     * @throws IOException Error while reading data or malformed content
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    private void readLiteral(final String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (read() != rest.charAt(i)) throw malformed("invalid literal");
+        }
+        int c = peekByte();
+        if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) throw malformed("invalid literal");
+    }
+
+    /**
+     * Skip whitespace and read the next byte.
+     *
+     * @return Next non-whitespace byte, or -1 at the end of the content
+     * @throws IOException Error while reading data
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    private int nextNonWhitespace() throws IOException {
+        int c = peekNonWhitespace();
+        if (c != -1) position++;
+        return c;
+    }
+
+    /**
+     * Skip whitespace and get the next byte, without consuming it.
+     *
+     * @return Next non-whitespace byte, or -1 at the end of the content
+     * @throws IOException Error while reading data
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    private int peekNonWhitespace() throws IOException {
+        while (true) {
+            int c = peekByte();
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return c;
+            position++;
+        }
+    }
+
+    /**
+     * Read the next byte.
+     *
+     * @return Next byte, or -1 at the end of the content
+     * @throws IOException Error while reading data
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    private int read() throws IOException {
+        int c = peekByte();
+        if (c != -1) position++;
+        return c;
+    }
+
+    /**
+     * Get the next byte, without consuming it.
+     *
+     * @return Next byte, or -1 at the end of the content
+     * @throws IOException Error while reading data
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    private int peekByte() throws IOException {
+        if (position == limit) {
+            offset += limit;
+            position = 0;
+            limit = 0;
+            int c = inputStream.read(buffer, 0, buffer.length);
+            if (c == -1) return -1;
+            limit = c;
+        }
+        return buffer[position] & 0xff;
+    }
+
+    /**
+     * Create an exception for malformed content, with the offset of the error.
+     *
+     * @param message Exception message
+     * @return New {@code JsonException}
+     * @see JsonReader
+     * @since v1.0.6
+     */
+    private JsonException malformed(final String message) {
+        return new JsonException("malformed JSON at offset " + (offset + position) + " - " + message);
+    }
+
+    /**
+     * Token types of the JSON content.
+     *
+     * @see #peek()
+     * @since v1.0.6
+     */
+    public enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+    }
+}
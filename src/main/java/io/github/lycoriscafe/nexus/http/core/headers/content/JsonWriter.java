@@ -0,0 +1,593 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Streaming JSON generator. Strings and numbers are encoded as UTF-8 directly into a pooled buffer, which is written to the given output stream when
+ * it is full, so no intermediate {@code String} of the document is built. Written without whitespace. Close the writer to write the remaining data
+ * and return the buffer to the pool.
+ * <pre>
+ *     {@code
+ *     // Example code
+ *     var content = new Content("application/json", outputStream -> {
+ *         try (var json = new JsonWriter(outputStream)) {
+ *             json.beginObject().name("users").beginArray();
+ *             for (var user : someUsers) {
+ *                 json.beginObject().name("id").value(user.id()).name("name").value(user.name()).endObject();
+ *             }
+ *             json.endArray().endObject();
+ *         }
+ *     });
+ *     }
+ * </pre>
+ * Small documents can be written into memory instead, and sent with a {@code Content-Length}.
+ * <pre>
+ *     {@code
+ *     // Example code
+ *     var content = new Content("application/json", JsonWriter.write(json -> json.beginObject().name("status").value("ok").endObject()));
+ *     }
+ * </pre>
+ *
+ * @see JsonReader
+ * @see ContentWriter
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc8259">The JavaScript Object Notation (JSON) Data Interchange Format (rfc8259)</a>
+ * @since v1.0.6
+ */
+public final class JsonWriter implements Closeable, Flushable {
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_DEPTH = 512;
+    // longest encoding of a single char (a unicode escape), a surrogate pair takes 4 bytes
+    private static final int MAX_CHAR_SIZE = 6;
+
+    private static final byte EMPTY_DOCUMENT = 0;
+    private static final byte NONEMPTY_DOCUMENT = 1;
+    private static final byte EMPTY_ARRAY = 2;
+    private static final byte NONEMPTY_ARRAY = 3;
+    private static final byte EMPTY_OBJECT = 4;
+    private static final byte NONEMPTY_OBJECT = 5;
+    private static final byte DANGLING_NAME = 6;
+
+    private final OutputStream outputStream;
+    private byte[] buffer;
+    private int position = 0;
+    private byte[] scopes = new byte[16];
+    private int depth = 1;
+
+    /**
+     * Create an instance of {@code JsonWriter} that writes into the given output stream.
+     *
+     * @param outputStream Output stream of the document
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    public JsonWriter(final OutputStream outputStream) {
+        this.outputStream = Objects.requireNonNull(outputStream);
+        buffer = BufferPool.acquire(BufferPool.SMALL);
+    }
+
+    /**
+     * Create an instance of {@code JsonWriter} that writes into memory. Get the document with {@code toByteArray()}.
+     *
+     * @see #toByteArray()
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    public JsonWriter() {
+        outputStream = null;
+        buffer = new byte[128];
+    }
+
+    /**
+     * Begin a JSON object.
+     *
+     * @return Same {@code JsonWriter} instance
+     * @throws IOException Error while writing data
+     * @see #endObject()
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    public JsonWriter beginObject() throws IOException {
+        beforeValue();
+        push(EMPTY_OBJECT);
+        writeByte('{');
+        return this;
+    }
+
+    /**
+     * End the current JSON object.
+     *
+     * @return Same {@code JsonWriter} instance
+     * @throws IOException Error while writing data
+     * @see #beginObject()
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    public JsonWriter endObject() throws IOException {
+        byte scope = scopes[depth - 1];
+        if (scope != EMPTY_OBJECT && scope != NONEMPTY_OBJECT) throw new IllegalStateException("not in an object, or a value expected");
+        depth--;
+        writeByte('}');
+        return this;
+    }
+
+    /**
+     * Begin a JSON array.
+     *
+     * @return Same {@code JsonWriter} instance
+     * @throws IOException Error while writing data
+     * @see #endArray()
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    public JsonWriter beginArray() throws IOException {
+        beforeValue();
+        push(EMPTY_ARRAY);
+        writeByte('[');
+        return this;
+    }
+
+    /**
+     * End the current JSON array.
+     *
+     * @return Same {@code JsonWriter} instance
+     * @throws IOException Error while writing data
+     * @see #beginArray()
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    public JsonWriter endArray() throws IOException {
+        byte scope = scopes[depth - 1];
+        if (scope != EMPTY_ARRAY && scope != NONEMPTY_ARRAY) throw new IllegalStateException("not in an array");
+        depth--;
+        writeByte(']');
+        return this;
+    }
+
+    /**
+     * Write the name of the next member of the current object.
+     *
+     * @param name Member name
+     * @return Same {@code JsonWriter} instance
+     * @throws IOException Error while writing data
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    public JsonWriter name(final String name) throws IOException {
+        Objects.requireNonNull(name);
+        switch (scopes[depth - 1]) {
+            case EMPTY_OBJECT -> {}
+            case NONEMPTY_OBJECT -> writeByte(',');
+            default -> throw new IllegalStateException("not in an object, or a value expected");
+        }
+        scopes[depth - 1] = DANGLING_NAME;
+        writeString(name);
+        writeByte(':');
+        return this;
+    }
+
+    /**
+     * Write a string value.
+     *
+     * @param value String value, or null
+     * @return Same {@code JsonWriter} instance
+     * @throws IOException Error while writing data
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    public JsonWriter value(final String value) throws IOException {
+        if (value == null) return nullValue();
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    /**
+     * Write a number value.
+     *
+     * @param value Number value
+     * @return Same {@code JsonWriter} instance
+     * @throws IOException Error while writing data
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    public JsonWriter value(final long value) throws IOException {
+        beforeValue();
+        ensure(20);
+        if (value == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return this;
+        }
+
+        long remaining = value;
+        if (remaining < 0) {
+            buffer[position++] = '-';
+            remaining = -remaining;
+        }
+        int length = 1;
+        for (long i = remaining; i >= 10; i /= 10) length++;
+        for (int i = position + length - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        position += length;
+        return this;
+    }
+
+    /**
+     * Write a number value.
+     *
+     * @param value Number value
+     * @return Same {@code JsonWriter} instance
+     * @throws IOException Error while writing data
+     * @throws IllegalArgumentException Value is {@code NaN} or infinite (not allowed in JSON)
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    public JsonWriter value(final double value) throws IOException {
+        if (!Double.isFinite(value)) throw new IllegalArgumentException("number cannot be NaN or infinite - " + value);
+        beforeValue();
+        writeAscii(Double.toString(value));
+        return this;
+    }
+
+    /**
+     * Write a number value.
+     *
+     * @param value Number value, or null
+     * @return Same {@code JsonWriter} instance
+     * @throws IOException Error while writing data
+     * @throws IllegalArgumentException Value is {@code NaN} or infinite (not allowed in JSON)
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    public JsonWriter value(final Number value) throws IOException {
+        return switch (value) {
+            case null -> nullValue();
+            case Long l -> value(l.longValue());
+            case Integer i -> value(i.longValue());
+            case Short s -> value(s.longValue());
+            case Byte b -> value(b.longValue());
+            case Double d -> value(d.doubleValue());
+            case Float f -> value(f.doubleValue());
+            default -> {
+                String text = value.toString();
+                if (text.equals("NaN") || text.endsWith("Infinity")) throw new IllegalArgumentException("number cannot be NaN or infinite - " + text);
+                beforeValue();
+                writeAscii(text);
+                yield this;
+            }
+        };
+    }
+
+    /**
+     * Write a boolean value.
+     *
+     * @param value Boolean value
+     * @return Same {@code JsonWriter} instance
+     * @throws IOException Error while writing data
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    public JsonWriter value(final boolean value) throws IOException {
+        beforeValue();
+        writeBytes(value ? TRUE : FALSE);
+        return this;
+    }
+
+    /**
+     * Write a null value.
+     *
+     * @return Same {@code JsonWriter} instance
+     * @throws IOException Error while writing data
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        writeBytes(NULL);
+        return this;
+    }
+
+    /**
+     * Get the document written into memory.
+     *
+     * @return UTF-8 bytes of the document
+     * @throws IllegalStateException Writer is bound to an output stream, or the document is not complete
+     * @see #JsonWriter()
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    public byte[] toByteArray() {
+        if (outputStream != null) throw new IllegalStateException("writer is bound to an output stream");
+        if (depth != 1 || scopes[0] != NONEMPTY_DOCUMENT) throw new IllegalStateException("incomplete document");
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * Write a document into memory and get it. The in-memory writer does not fail on I/O, so this does not throw {@code IOException}.
+     *
+     * @param document Writes the document
+     * @return UTF-8 bytes of the document
+     * @throws IllegalStateException The document is not complete
+     * @see #toByteArray()
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    public static byte[] write(final Document document) {
+        Objects.requireNonNull(document);
+        JsonWriter json = new JsonWriter();
+        try {
+            document.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return json.toByteArray();
+    }
+
+    /**
+     * Write the buffered data to the output stream, and flush it. For a {@code ContentWriter} stream, this sends the data to the client.
+     *
+     * @throws IOException Error while writing data
+     */
+    @Override
+    public void flush() throws IOException {
+        if (outputStream == null) return;
+        if (buffer == null) throw new IOException("writer closed");
+        drain();
+        outputStream.flush();
+    }
+
+    /**
+     * Write the buffered data to the output stream and return the buffer to the pool. Does not close the output stream, and does not check the
+     * document is complete.
+     *
+     * @throws IOException Error while writing data
+     */
+    @Override
+    public void close() throws IOException {
+        if (outputStream == null || buffer == null) return;
+        try {
+            drain();
+        } finally {
+            BufferPool.release(buffer);
+            buffer = null;
+        }
+    }
+
+    /**
+     * Check a value is allowed at the current position, and write the separator before it.
+     *
+     * @throws IOException Error while writing data
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    private void beforeValue() throws IOException {
+        switch (scopes[depth - 1]) {
+            case EMPTY_DOCUMENT -> scopes[depth - 1] = NONEMPTY_DOCUMENT;
+            case EMPTY_ARRAY -> scopes[depth - 1] = NONEMPTY_ARRAY;
+            case NONEMPTY_ARRAY -> writeByte(',');
+            case DANGLING_NAME -> scopes[depth - 1] = NONEMPTY_OBJECT;
+            case NONEMPTY_DOCUMENT -> throw new IllegalStateException("document already has a top-level value");
+            default -> throw new IllegalStateException("name expected");
+        }
+    }
+
+    /**
+     * Enter a nested object or array.
+     *
+     * @param scope Scope of the nested value
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    private void push(final byte scope) {
+        if (depth == MAX_DEPTH) throw new IllegalStateException("max nesting depth exceeded");
+        if (depth == scopes.length) scopes = Arrays.copyOf(scopes, scopes.length * 2);
+        scopes[depth++] = scope;
+    }
+
+    /**
+     * Write a quoted and escaped string. Lone surrogates are written as {@code ?}, as {@code String.getBytes(UTF_8)} does.
+     *
+     * @param value String
+     * @throws IOException Error while writing data
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    private void writeString(final String value) throws IOException {
+        writeByte('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (position + MAX_CHAR_SIZE > buffer.length) ensure(MAX_CHAR_SIZE);
+            if (c < 0x80) {
+                switch (c) {
+                    case '"', '\\' -> {
+                        buffer[position++] = '\\';
+                        buffer[position++] = (byte) c;
+                    }
+                    case '\n' -> escape('n');
+                    case '\r' -> escape('r');
+                    case '\t' -> escape('t');
+                    case '\b' -> escape('b');
+                    case '\f' -> escape('f');
+                    default -> {
+                        if (c < 0x20) {
+                            escapeUnicode(c);
+                        } else {
+                            buffer[position++] = (byte) c;
+                        }
+                    }
+                }
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xc0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3f));
+            } else if (c == 0x2028 || c == 0x2029) {
+                // valid in JSON, but line terminators in JavaScript
+                escapeUnicode(c);
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[position++] = (byte) (0xf0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3f));
+                } else {
+                    buffer[position++] = '?';
+                }
+            } else {
+                buffer[position++] = (byte) (0xe0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buffer[position++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        writeByte('"');
+    }
+
+    /**
+     * Write a two character escape sequence. Room must be ensured by the caller.
+     *
+     * @param c Escape character
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    private void escape(final char c) {
+        buffer[position++] = '\\';
+        buffer[position++] = (byte) c;
+    }
+
+    /**
+     * Write a unicode escape sequence. Room must be ensured by the caller.
+     *
+     * @param c Escaped character
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    private void escapeUnicode(final char c) {
+        buffer[position++] = '\\';
+        buffer[position++] = 'u';
+        buffer[position++] = HEX[(c >> 12) & 0xf];
+        buffer[position++] = HEX[(c >> 8) & 0xf];
+        buffer[position++] = HEX[(c >> 4) & 0xf];
+        buffer[position++] = HEX[c & 0xf];
+    }
+
+    /**
+     * Write a single byte.
+     *
+     * @param b Byte
+     * @throws IOException Error while writing data
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    private void writeByte(final int b) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) b;
+    }
+
+    /**
+     * Write the given bytes.
+     *
+     * @param bytes Bytes
+     * @throws IOException Error while writing data
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    private void writeBytes(final byte[] bytes) throws IOException {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * Write an ASCII text (number), without escaping.
+     *
+     * @param text ASCII text
+     * @throws IOException Error while writing data
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    private void writeAscii(final String text) throws IOException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if (position == buffer.length) ensure(1);
+            buffer[position++] = (byte) text.charAt(i);
+        }
+    }
+
+    /**
+     * Make room for the given count of bytes in the buffer, by writing the buffered data to the output stream (or by growing the buffer in memory).
+     *
+     * @param count Count of bytes
+     * @throws IOException Error while writing data
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    private void ensure(final int count) throws IOException {
+        if (buffer == null) throw new IOException("writer closed");
+        if (position + count <= buffer.length) return;
+        if (outputStream == null) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + count));
+        } else {
+            drain();
+        }
+    }
+
+    /**
+     * Write the buffered data to the output stream.
+     *
+     * @throws IOException Error while writing data
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    private void drain() throws IOException {
+        if (position == 0) return;
+        outputStream.write(buffer, 0, position);
+        position = 0;
+    }
+
+    /**
+     * Writer of an in-memory document.
+     *
+     * @see #write(Document)
+     * @see JsonWriter
+     * @since v1.0.6
+     */
+    @FunctionalInterface
+    public interface Document {
+        /**
+         * Write the document.
+         *
+         * @param json In-memory {@code JsonWriter}
+         * @throws IOException Error while writing data
+         * @see JsonWriter
+         * @since v1.0.6
+         */
+        void write(JsonWriter json) throws IOException;
+    }
+}
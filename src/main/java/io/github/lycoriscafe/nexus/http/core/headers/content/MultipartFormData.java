@@ -17,17 +17,24 @@
 package io.github.lycoriscafe.nexus.http.core.headers.content;
 
 import io.github.lycoriscafe.nexus.http.core.statusCodes.HttpStatusCode;
+import io.github.lycoriscafe.nexus.http.engine.reqResManager.httpReq.HttpPostRequest;
 import io.github.lycoriscafe.nexus.http.engine.reqResManager.httpReq.HttpRequest;
 import io.github.lycoriscafe.nexus.http.engine.RequestConsumer;
+import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
 import io.github.lycoriscafe.nexus.http.helper.util.NonDuplicateList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 /**
@@ -40,14 +47,23 @@ import java.util.*;
  *     if (content.getContentType().equals("multipart/form-data")) {
  *         List<MultipartFormData> formDataList = (List<MultipartFormData>) content.getData();
  *         for (MultipartFormData formData : formDataList) {
- *              // ...
+ *              if (formData.isSpooled()) {
+ *                  Path upload = formData.getPath();
+ *                  // ...
+ *              } else {
+ *                  ByteBuffer field = formData.getDataBuffer();
+ *                  // ...
+ *              }
  *         }
  *     }
  *     }
  * </pre>
+ * The content is parsed in a single pass while reading from the socket. Parts up to {@code multipartMemoryThreshold} are kept in memory as slices of
+ * one shared buffer, and larger parts are spooled into temporary files.
  *
  * @see Content
  * @see Content#getData()
+ * @see HttpServerConfiguration#setMultipartMemoryThreshold(int)
  * @see <a href="https://datatracker.ietf.org/doc/rfc7578">Returning Values from Forms: multipart/form-data (rfc7578)</a>
  * @since v1.0.0
  */
@@ -58,7 +74,11 @@ public final class MultipartFormData {
     private String fileName;
     private String contentType;
     private Map<String, String> parameters;
+    private ByteBuffer dataBuffer;
     private byte[] data;
+    private Path path;
+    private ContentSink sink;
+    private long size;
 
     /**
      * Get the name of the form-data part.
@@ -155,22 +175,104 @@ public final class MultipartFormData {
      * Get content of the form data part.
      *
      * @return Content of the form data part
+     * @throws UncheckedIOException Error while reading the spooled part
+     * @apiNote For spooled parts this reads the whole temporary file into memory. Use {@link #getPath()} or {@link #getInputStream()} for large
+     * uploads, and {@link #getDataBuffer()} to access in-memory parts without copying.
+     * @see #isSpooled()
      * @see MultipartFormData
      * @since v1.0.0
      */
     public byte[] getData() {
+        if (data == null) {
+            if (path != null) {
+                try {
+                    return Files.readAllBytes(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            if (dataBuffer == null) throw new IllegalStateException("content written into the sink channel");
+            data = new byte[dataBuffer.remaining()];
+            dataBuffer.duplicate().get(data);
+        }
         return data;
     }
 
     /**
-     * Set the content of the form data part.
+     * Get content of the in-memory form data part as a read-only slice of the shared request buffer. This is null for spooled parts.
      *
-     * @param data Content of the form data part
+     * @return Read-only content buffer
+     * @apiNote If the {@code offHeapContent} enabled, the buffer is returned to the pool after the request is processed. Do not keep it after the
+     * endpoint method returns.
+     * @see #isSpooled()
      * @see MultipartFormData
-     * @since v1.0.0
+     * @since v1.0.6
+     */
+    public ByteBuffer getDataBuffer() {
+        return dataBuffer == null ? null : dataBuffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Get the temporary file location of the spooled form data part. This is null for in-memory parts.
+     *
+     * @return Temporary file location
+     * @apiNote The temporary file is released after the request is processed. Move or copy the file in the endpoint method to keep it.
+     * @see #isSpooled()
+     * @see HttpServerConfiguration#setTempDirectory(String)
+     * @see MultipartFormData
+     * @since v1.0.6
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Get the sink that the form data part content is written into, for the endpoints annotated with {@code @SinkContent}.
+     *
+     * @return Sink of the content, or null if the part is not written into a sink
+     * @see SinkContent
+     * @see MultipartFormData
+     * @since v1.0.6
+     */
+    public ContentSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Get is the content of the form data part larger than the {@code multipartMemoryThreshold} and stored in a temporary file.
+     *
+     * @return Spooled status
+     * @see HttpServerConfiguration#setMultipartMemoryThreshold(int)
+     * @see MultipartFormData
+     * @since v1.0.6
      */
-    private void setData(final byte[] data) {
-        this.data = Objects.requireNonNull(data);
+    public boolean isSpooled() {
+        return path != null;
+    }
+
+    /**
+     * Get the content size of the form data part in {@code bytes}.
+     *
+     * @return Content size
+     * @see MultipartFormData
+     * @since v1.0.6
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Open an {@code InputStream} of the form data part content. Works for both in-memory and spooled parts.
+     *
+     * @return New {@code InputStream} of the content
+     * @throws IOException Error while opening the spooled part
+     * @see MultipartFormData
+     * @since v1.0.6
+     */
+    public InputStream getInputStream() throws IOException {
+        if (path != null) return Files.newInputStream(path);
+        if (dataBuffer == null) throw new IllegalStateException("content written into the sink channel");
+        return new ByteBufferInputStream(dataBuffer);
     }
 
     /**
@@ -181,7 +283,11 @@ public final class MultipartFormData {
      * @param boundary        Form data boundary
      * @param contentLength   {@code Content-Length}
      * @param chunked         {@code Transfer-Encoding} chunked?
-     * @param gzipped         {@code Content-Encoding} gzipped?
+     * @param contentEncoding {@code Content-Encoding} (gzip, deflate), or null
+     * @param contentLimit    Maximum content length of the endpoint, or null for the server-wide limits
+     * @param contentDigest   Digests to compute and verify, or null
+     * @param request         {@code HttpRequest} of the content
+     * @param sinkProvider    {@code ContentSink.Provider} of the endpoint ({@code @SinkContent}), or null
      * @return New instance of {@code Content}
      * @throws IOException Error while reading data from the socket input stream
      * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
@@ -195,184 +301,458 @@ public final class MultipartFormData {
                                   final String boundary,
                                   final Integer contentLength,
                                   final boolean chunked,
-                                  final boolean gzipped) throws IOException {
-        if (chunked) {
-            requestConsumer.dropConnection(requestId, HttpStatusCode.BAD_REQUEST, "transfer encoding not supported for multipart/form-data", logger);
+                                  final String contentEncoding,
+                                  final Integer contentLimit,
+                                  final ContentDigest contentDigest,
+                                  final HttpPostRequest request,
+                                  final ContentSink.Provider sinkProvider) throws IOException {
+        InputStream body = Content.ReadOperations.openFramedStream(requestConsumer, contentLength, chunked, contentLimit, contentDigest);
+        Parser parser = new Parser(boundary, requestConsumer, request, sinkProvider);
+        try {
+            List<MultipartFormData> formData = parser.parse(Content.ReadOperations.openDecodedStream(requestConsumer, body, contentEncoding,
+                    contentLimit));
+            // discard the epilogue, so the next request on the connection starts at the right position
+            body.transferTo(OutputStream.nullOutputStream());
+            return new Content("multipart/form-data", formData);
+        } catch (IOException e) {
+            parser.discard();
+            if (e instanceof ContentTooLargeException) {
+                requestConsumer.dropConnection(requestId, HttpStatusCode.CONTENT_TOO_LARGE, e.getMessage(), logger);
+            } else if (e instanceof ContentDigestException) {
+                requestConsumer.dropConnection(requestId, HttpStatusCode.BAD_REQUEST, e.getMessage(), logger);
+            } else {
+                invalidFormSegment(requestConsumer, requestId);
+            }
             return null;
+        } finally {
+            parser.releaseBuffer();
         }
+    }
 
-        Content content = Content.ReadOperations.process(requestId, requestConsumer, "multipart/form-data", contentLength, false, gzipped);
-        if (content == null) return null;
-
-        ByteArrayInputStream inputStream = new ByteArrayInputStream((byte[]) content.getData());
-        List<MultipartFormData> formData = new NonDuplicateList<>();
+    /**
+     * Send {@code 400 Bad Request} if the form data is invalid.
+     *
+     * @param requestConsumer {@code RequestConsumer} bound to the HTTP request
+     * @param requestId       Request id bound to the HTTP request
+     * @see #process(long, RequestConsumer, String, Integer, boolean, String, Integer, ContentDigest, HttpPostRequest, ContentSink.Provider)
+     * @since v1.0.0
+     */
+    private static void invalidFormSegment(final RequestConsumer requestConsumer,
+                                           final long requestId) {
+        requestConsumer.dropConnection(requestId, HttpStatusCode.BAD_REQUEST, "Invalid form segment", logger);
+    }
 
-        // remove the first boundary
-        var firstBoundary = readLine(inputStream, boundary.getBytes(StandardCharsets.UTF_8));
-        if (firstBoundary == null || firstBoundary.size() != 0) {
-            System.out.println("1");
-            invalidFormSegment(requestConsumer, requestId);
-            return null;
+    /**
+     * Single-pass {@code multipart/form-data} parser. Boundaries are searched with Boyer-Moore-Horspool over a fixed buffer, so the memory used for
+     * parsing does not depend on the content length.
+     *
+     * @see MultipartFormData
+     * @since v1.0.6
+     */
+    private static final class Parser {
+        private static final int BUFFER_SIZE = 16_384;
+
+        private final RequestConsumer requestConsumer;
+        private final HttpServerConfiguration configuration;
+        private final HttpPostRequest request;
+        private final ContentSink.Provider sinkProvider;
+        private ContentSink openSink;
+        private final byte[] delimiter;
+        private final int[] skipTable = new int[256];
+        private final byte[] buffer;
+        private FileChannel spoolChannel;
+
+        private InputStream inputStream;
+        private int position = 0;
+        private int limit = 0;
+
+        // shared store of the in-memory parts (direct buffer if the offHeapContent enabled)
+        private ByteBuffer store = ByteBuffer.allocate(0);
+        private int storeSize = 0;
+
+        /**
+         * @param boundary        Form data boundary (with the leading {@code --})
+         * @param requestConsumer {@code RequestConsumer} bound to the {@code HttpRequest}
+         * @param request         {@code HttpRequest} of the content
+         * @param sinkProvider    {@code ContentSink.Provider} of the file parts, or null
+         * @see Parser
+         * @since v1.0.6
+         */
+        private Parser(final String boundary,
+                       final RequestConsumer requestConsumer,
+                       final HttpPostRequest request,
+                       final ContentSink.Provider sinkProvider) {
+            this.requestConsumer = requestConsumer;
+            this.request = request;
+            this.sinkProvider = sinkProvider;
+            configuration = requestConsumer.getHttpServerConfiguration();
+            delimiter = ("\r\n" + boundary).getBytes(StandardCharsets.UTF_8);
+
+            Arrays.fill(skipTable, delimiter.length);
+            for (int i = 0; i < delimiter.length - 1; i++) {
+                skipTable[delimiter[i] & 0xff] = delimiter.length - 1 - i;
+            }
+            int bufferSize = Math.max(BUFFER_SIZE, Math.max(delimiter.length * 2, configuration.getMaxHeaderSize() + 2));
+            buffer = bufferSize <= BufferPool.LARGE ? BufferPool.acquire(bufferSize) : new byte[bufferSize];
         }
 
-        MainLoop:
-        while (true) {
-            MultipartFormData data = null;
+        /**
+         * Parse the whole content into form data parts.
+         *
+         * @param inputStream Decoded content stream
+         * @return Parsed form data parts
+         * @throws IOException Error while reading data or invalid form data
+         * @see Parser
+         * @since v1.0.6
+         */
+        private List<MultipartFormData> parse(final InputStream inputStream) throws IOException {
+            this.inputStream = inputStream;
+
+            // the first boundary does not have a leading CRLF, so pretend it does and skip the preamble
+            buffer[limit++] = '\r';
+            buffer[limit++] = '\n';
+            if (!readUntilDelimiter(null)) throw new IOException("form data boundary not found");
+
+            List<MultipartFormData> formData = new NonDuplicateList<>();
+            List<int[]> slices = new ArrayList<>();
+            while (true) {
+                if (!require(2)) throw new IOException("unexpected end of form data");
+                if (buffer[position] == '-' && buffer[position + 1] == '-') break;
+
+                // optional transport padding after the boundary
+                while (buffer[position] == ' ' || buffer[position] == '\t') {
+                    position++;
+                    if (!require(2)) throw new IOException("unexpected end of form data");
+                }
+                if (buffer[position] != '\r' || buffer[position + 1] != '\n') throw new IOException("invalid form data boundary");
+                position += 2;
 
-            // check if it's the end of form data
-            var choiceLine = readLine(inputStream, null);
-            if (choiceLine == null) {
-                System.out.println("2");
-                invalidFormSegment(requestConsumer, requestId);
-                return null;
+                MultipartFormData part = readHeaders();
+                PartWriter partWriter = new PartWriter(sinkProvider == null || part.getFileName() == null ? null :
+                        sinkProvider.open(request, part));
+                if (!readUntilDelimiter(partWriter)) throw new IOException("unexpected end of form data");
+                partWriter.finish(part);
+
+                formData.add(part);
+                slices.add(part.path == null && part.sink == null ? new int[]{partWriter.offset, (int) part.size} : null);
             }
-            switch (choiceLine.toString(StandardCharsets.UTF_8)) {
-                case "--" -> {break MainLoop;}
-                case "\r\n" -> {}
-                default -> {
-                    System.out.println("3");
-                    invalidFormSegment(requestConsumer, requestId);
-                    return null;
-                }
+
+            for (int i = 0; i < formData.size(); i++) {
+                int[] slice = slices.get(i);
+                if (slice != null) formData.get(i).dataBuffer = store.slice(slice[0], slice[1]);
             }
+            return formData;
+        }
 
-            // read content disposition
-            var contentDisposition = readLine(inputStream, "\r\n".getBytes(StandardCharsets.UTF_8));
-            if (contentDisposition == null) {
-                System.out.println("4");
-                invalidFormSegment(requestConsumer, requestId);
-                return null;
+        /**
+         * Return the parser buffer to the pool.
+         *
+         * @see Parser
+         * @since v1.0.6
+         */
+        private void releaseBuffer() {
+            BufferPool.release(buffer);
+        }
+
+        /**
+         * Close the open files of a failed parse. Spooled files are released with the request.
+         *
+         * @see Parser
+         * @since v1.0.6
+         */
+        private void discard() {
+            try {
+                if (spoolChannel != null) spoolChannel.close();
+                if (openSink != null) openSink.close();
+            } catch (IOException e) {
+                logger.atDebug().log("NEXUS-HTTP :: Cannot close spooled form data - " + e.getMessage());
             }
-            String[] contentDispositionParts = contentDisposition.toString(StandardCharsets.UTF_8).split(":", 2);
-            if (!contentDispositionParts[0].equalsIgnoreCase("content-disposition") || contentDispositionParts.length != 2) {
-                System.out.println("5");
-                invalidFormSegment(requestConsumer, requestId);
-                return null;
+        }
+
+        /**
+         * Read part headers until the empty line and build the form data part.
+         *
+         * @return Form data part with metadata
+         * @throws IOException Error while reading data or invalid part headers
+         * @see Parser
+         * @since v1.0.6
+         */
+        private MultipartFormData readHeaders() throws IOException {
+            MultipartFormData part = new MultipartFormData();
+            int count = 0;
+            while (true) {
+                String line = readLine();
+                if (line.isEmpty()) break;
+                if (++count > configuration.getMaxHeadersPerRequest()) throw new IOException("too many form data headers");
+
+                String[] headerParts = line.split(":", 2);
+                if (headerParts.length != 2) throw new IOException("invalid form data header");
+                switch (headerParts[0].trim().toLowerCase(Locale.US)) {
+                    case "content-disposition" -> readContentDisposition(part, headerParts[1]);
+                    case "content-type" -> part.setContentType(headerParts[1].trim());
+                    default -> {}
+                }
             }
-            String[] formMetadata = contentDispositionParts[1].split(";", 0);
-            if (!formMetadata[0].trim().equalsIgnoreCase("form-data") || formMetadata.length < 2) {
-                System.out.println("6");
-                invalidFormSegment(requestConsumer, requestId);
-                return null;
+            if (part.getName() == null) throw new IOException("form data name not found");
+            return part;
+        }
+
+        /**
+         * Read {@code Content-Disposition} header value of a part. Quoted parameter values may contain {@code ;}.
+         *
+         * @param part  Form data part
+         * @param value Header value
+         * @throws IOException Invalid header value
+         * @see Parser
+         * @since v1.0.6
+         */
+        private static void readContentDisposition(final MultipartFormData part,
+                                                   final String value) throws IOException {
+            List<String> tokens = new ArrayList<>();
+            StringBuilder token = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (quoted && c == '\\' && i + 1 < value.length()) {
+                    token.append(value.charAt(++i));
+                } else if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == ';' && !quoted) {
+                    tokens.add(token.toString().trim());
+                    token.setLength(0);
+                } else {
+                    token.append(c);
+                }
             }
-            for (int i = 1; i < formMetadata.length; i++) {
-                String[] dataParts = formMetadata[i].split("=", 2);
-                if (dataParts.length != 2) {
-                    System.out.println("7");
-                    invalidFormSegment(requestConsumer, requestId);
-                    return null;
+            tokens.add(token.toString().trim());
+
+            if (!tokens.getFirst().equalsIgnoreCase("form-data")) throw new IOException("invalid content disposition");
+            for (int i = 1; i < tokens.size(); i++) {
+                if (tokens.get(i).isEmpty()) continue;
+                String[] dataParts = tokens.get(i).split("=", 2);
+                if (dataParts.length != 2) throw new IOException("invalid content disposition parameter");
+                switch (dataParts[0].trim().toLowerCase(Locale.US)) {
+                    case "name" -> part.setName(dataParts[1].trim());
+                    case "filename" -> part.setFileName(dataParts[1].trim());
+                    default -> part.addParameter(dataParts[0].trim(), dataParts[1].trim());
                 }
-                switch (dataParts[0].trim()) {
-                    case "name" -> {
-                        data = new MultipartFormData();
-                        data.setName(dataParts[1].trim().replaceAll("\"", ""));
-                    }
-                    case "filename" -> {
-                        if (data == null) {
-                            System.out.println("8");
-                            invalidFormSegment(requestConsumer, requestId);
-                            return null;
-                        }
-                        data.setFileName(dataParts[1].trim().replaceAll("\"", ""));
-
-                        // read content type
-                        var contentType = readLine(inputStream, "\r\n".getBytes(StandardCharsets.UTF_8));
-                        if (contentType == null) {
-                            System.out.println("9");
-                            invalidFormSegment(requestConsumer, requestId);
-                            return null;
-                        }
-                        String[] contentTypeParts = contentType.toString(StandardCharsets.UTF_8).split(":", 2);
-                        if (!contentTypeParts[0].equalsIgnoreCase("content-type") || contentTypeParts.length != 2) {
-                            System.out.println("10");
-                            invalidFormSegment(requestConsumer, requestId);
-                            return null;
-                        }
-                        data.setContentType(contentTypeParts[1].trim());
-                    }
-                    default -> {
-                        if (data == null) {
-                            System.out.println("11");
-                            invalidFormSegment(requestConsumer, requestId);
-                            return null;
-                        }
-                        data.addParameter(dataParts[0].trim(), dataParts[1].trim().replaceAll("\"", ""));
+            }
+        }
+
+        /**
+         * Read a CRLF terminated line from the buffer.
+         *
+         * @return Line without CRLF
+         * @throws IOException Error while reading data or line too long
+         * @see Parser
+         * @since v1.0.6
+         */
+        private String readLine() throws IOException {
+            int scanned = 0;
+            while (true) {
+                for (int i = position + scanned; i < limit - 1; i++) {
+                    if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                        String line = new String(buffer, position, i - position, StandardCharsets.UTF_8);
+                        position = i + 2;
+                        return line;
                     }
                 }
+                if (limit - position > configuration.getMaxHeaderSize()) throw new IOException("form data header too large");
+                scanned = Math.max(0, limit - position - 1);
+                if (!fill()) throw new IOException("unexpected end of form data");
             }
+        }
 
-            // read empty line between form fields and data
-            var emptyLine = readLine(inputStream, "\r\n".getBytes(StandardCharsets.UTF_8));
-            if (emptyLine == null || emptyLine.size() != 0) {
-                System.out.println("12");
-                invalidFormSegment(requestConsumer, requestId);
-                return null;
+        /**
+         * Pass the bytes up to the next delimiter to the writer, and move the position after the delimiter.
+         *
+         * @param partWriter Destination of bytes. If null, bytes are discarded.
+         * @return Is the delimiter found?
+         * @throws IOException Error while reading or writing data
+         * @see Parser
+         * @since v1.0.6
+         */
+        private boolean readUntilDelimiter(final PartWriter partWriter) throws IOException {
+            while (true) {
+                int index = indexOfDelimiter();
+                if (index != -1) {
+                    if (partWriter != null) partWriter.write(buffer, position, index - position);
+                    position = index + delimiter.length;
+                    return true;
+                }
+
+                // keep the tail that may contain the beginning of the delimiter
+                int safe = Math.max(position, limit - delimiter.length + 1);
+                if (partWriter != null) partWriter.write(buffer, position, safe - position);
+                position = safe;
+                if (!fill()) return false;
             }
+        }
 
-            // read form data
-            var contentData = readLine(inputStream, ("\r\n" + boundary).getBytes(StandardCharsets.UTF_8));
-            if (contentData == null) {
-                System.out.println("13");
-                invalidFormSegment(requestConsumer, requestId);
-                return null;
+        /**
+         * Boyer-Moore-Horspool search of the delimiter within the unread bytes of the buffer.
+         *
+         * @return Index of the delimiter, or {@code -1}
+         * @see Parser
+         * @since v1.0.6
+         */
+        private int indexOfDelimiter() {
+            int last = delimiter.length - 1;
+            int i = position;
+            while (i + last < limit) {
+                int j = last;
+                while (buffer[i + j] == delimiter[j]) {
+                    if (j == 0) return i;
+                    j--;
+                }
+                i += skipTable[buffer[i + last] & 0xff];
             }
-            data.setData(contentData.toByteArray());
+            return -1;
+        }
 
-            formData.add(data);
+        /**
+         * Make sure at least the given count of unread bytes are in the buffer.
+         *
+         * @param count Required bytes
+         * @return Is the required bytes available?
+         * @throws IOException Error while reading data
+         * @see Parser
+         * @since v1.0.6
+         */
+        private boolean require(final int count) throws IOException {
+            while (limit - position < count) {
+                if (!fill()) return false;
+            }
+            return true;
         }
 
-        return new Content("multipart/form-data", formData);
-    }
+        /**
+         * Move unread bytes to the beginning of the buffer and read more data.
+         *
+         * @return Is more data read?
+         * @throws IOException Error while reading data
+         * @see Parser
+         * @since v1.0.6
+         */
+        private boolean fill() throws IOException {
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                limit -= position;
+                position = 0;
+            }
+            if (limit == buffer.length) throw new IOException("form data buffer overflow");
+            int c = inputStream.read(buffer, limit, buffer.length - limit);
+            if (c == -1) return false;
+            limit += c;
+            return true;
+        }
 
-    /**
-     * Send {@code 400 Bad Request} if the form data ins invalid.
-     *
-     * @param requestConsumer {@code RequestConsumer} bound to the HTTP request
-     * @param requestId       Request id bound to the HTTP request
-     * @see #process(long, RequestConsumer, String, Integer, boolean, boolean)
-     * @since v1.0.0
-     */
-    private static void invalidFormSegment(final RequestConsumer requestConsumer,
-                                           final long requestId) {
-        requestConsumer.dropConnection(requestId, HttpStatusCode.BAD_REQUEST, "Invalid form segment", logger);
-    }
+        /**
+         * Make sure the shared store of the in-memory parts has space for the given count of bytes. Growth is reserved from the content memory
+         * budget.
+         *
+         * @param length Count of bytes
+         * @return Is the space available? If not, the content memory budget is exhausted.
+         * @see RequestConsumer#reserveContentMemory(long)
+         * @see Parser
+         * @since v1.0.6
+         */
+        private boolean ensureStore(final int length) {
+            if (storeSize + length <= store.limit()) return true;
+            int capacity = Math.max(storeSize + length, Math.max(store.limit() * 2, 1024));
+            if (!requestConsumer.reserveContentMemory(capacity - store.limit())) return false;
+            ByteBuffer grown = configuration.isOffHeapContent() ? requestConsumer.acquireDirectBuffer(capacity) : ByteBuffer.allocate(capacity);
+            grown.put(0, store, 0, storeSize);
+            if (store.isDirect()) requestConsumer.releaseDirectBuffer(store);
+            store = grown;
+            return true;
+        }
 
-    /**
-     * Read line of bytes into a {@code ByteArrayOutputStream} and return. The end of the line will be the delimiter.
-     *
-     * @param inputStream Data source
-     * @param delimiter Point that should terminate the reading bytes
-     * @return If completed a line of data, instance of {@code ByteArrayInputStream}. Else, null.
-     * @throws IOException Error while reading data from the input stream
-     * @see RequestConsumer
-     * @see MultipartFormData
-     * @since v1.0.0
-     */
-    private static ByteArrayOutputStream readLine(final InputStream inputStream,
-                                                  final byte[] delimiter) throws IOException {
-        if (delimiter == null) {
-            var tempByteArray = new ByteArrayOutputStream();
-            tempByteArray.write(inputStream.readNBytes(2));
-            return tempByteArray;
+        /**
+         * Append bytes to the shared store of the in-memory parts. Space must be ensured before.
+         *
+         * @param bytes  Source
+         * @param offset Source offset
+         * @param length Count of bytes
+         * @see #ensureStore(int)
+         * @see Parser
+         * @since v1.0.6
+         */
+        private void storeBytes(final byte[] bytes,
+                                final int offset,
+                                final int length) {
+            store.put(storeSize, bytes, offset, length);
+            storeSize += length;
         }
 
-        byte[] terminatePoint = new byte[delimiter.length];
-        var byteArrayOutputStream = new ByteArrayOutputStream();
+        /**
+         * Writer of a single part content. Bytes go to the shared store until the part gets larger than the {@code multipartMemoryThreshold} (or
+         * the content memory budget is exhausted), and then the part is moved into a temporary file. Parts with a sink are written into the sink
+         * directly.
+         *
+         * @see Parser
+         * @since v1.0.6
+         */
+        private final class PartWriter {
+            private final int offset = storeSize;
+            private final ContentSink sink;
+            private long size = 0L;
+            private Path path;
+
+            private PartWriter(final ContentSink sink) throws IOException {
+                this.sink = sink;
+                if (sink != null) {
+                    openSink = sink;
+                    sink.open();
+                }
+            }
+
+            private void write(final byte[] bytes,
+                               final int off,
+                               final int length) throws IOException {
+                if (length == 0) return;
+                size += length;
+                if (sink != null) {
+                    sink.write(ByteBuffer.wrap(bytes, off, length));
+                    return;
+                }
+                if (path == null && (size > configuration.getMultipartMemoryThreshold() || !ensureStore(length))) {
+                    path = requestConsumer.createTempFile("nexus-form-data-");
+                    spoolChannel = FileChannel.open(path, StandardOpenOption.WRITE);
+                    writeFully(store.slice(offset, storeSize - offset));
+                    storeSize = offset;
+                }
 
-        int c = inputStream.read(terminatePoint, 0, delimiter.length);
-        if (c != delimiter.length) return null;
+                if (path != null) {
+                    writeFully(ByteBuffer.wrap(bytes, off, length));
+                } else {
+                    storeBytes(bytes, off, length);
+                }
+            }
 
-        while (!Arrays.equals(delimiter, terminatePoint)) {
-            int b = inputStream.read();
-            if (b == -1) return null;
+            private void writeFully(final ByteBuffer byteBuffer) throws IOException {
+                if (!requestConsumer.reserveTempFileSpace(byteBuffer.remaining())) throw new ContentTooLargeException("temp file space exhausted");
+                while (byteBuffer.hasRemaining()) {
+                    spoolChannel.write(byteBuffer);
+                }
+            }
 
-            byteArrayOutputStream.write(terminatePoint[0]);
-            for (int i = 0; i < terminatePoint.length; i++) {
-                if (i != terminatePoint.length - 1) terminatePoint[i] = terminatePoint[i + 1];
+            private void finish(final MultipartFormData part) throws IOException {
+                if (sink != null) {
+                    sink.close();
+                    openSink = null;
+                    part.sink = sink;
+                    part.path = sink.getPath();
+                    part.size = size;
+                    return;
+                }
+                if (path != null) {
+                    spoolChannel.close();
+                    spoolChannel = null;
+                }
+                part.path = path;
+                part.size = size;
             }
-            terminatePoint[terminatePoint.length - 1] = (byte) b;
         }
-
-        return byteArrayOutputStream;
     }
 }
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+import java.util.zip.Deflater;
+
+/**
+ * Multi-core variant of the {@code DeflatingOutputStream} for large response content (pigz style). The content is split into {@code 1 MiB}
+ * blocks, which are compressed concurrently on the common {@code ForkJoinPool}. Every block is primed with the last {@code 32 KiB} of the
+ * previous block as the dictionary and ends with a {@code SYNC_FLUSH}, so the compressed blocks written in order form one ordinary gzip (or zlib)
+ * stream. The count of blocks in flight is bounded by the pool parallelism.
+ *
+ * @apiNote This class is public but not useful for the API users. Only used for in-API tasks.
+ * @see DeflatingOutputStream
+ * @see HttpServerConfiguration#setParallelCompressionMinSize(long)
+ * @see <a href="https://zlib.net/pigz/">pigz - parallel implementation of gzip</a>
+ * @since v1.0.6
+ */
+public final class ParallelDeflatingOutputStream extends OutputStream {
+    private static final int BLOCK_SIZE = BufferPool.LARGE;
+    private static final int DICTIONARY_SIZE = 32_768;
+    private static final byte[] ZLIB_HEADER = {0x78, (byte) 0x9c};
+
+    private final OutputStream outputStream;
+    private final boolean gzip;
+    private final Checksum checksum;
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+    private final int maxPending = Math.max(2, pool.getParallelism() * 2);
+    private final Deque<Block> pending = new ArrayDeque<>();
+    private final byte[] dictionary = new byte[DICTIONARY_SIZE];
+
+    private byte[] block;
+    private int position = 0;
+    private int dictionaryLength = 0;
+    private long length = 0L;
+    private boolean started = false;
+    private boolean finished = false;
+
+    /**
+     * Create an instance of {@code ParallelDeflatingOutputStream}.
+     *
+     * @param outputStream    Output stream for the compressed content
+     * @param contentEncoding {@code Content-Encoding} ({@code gzip} or {@code deflate})
+     * @see ParallelDeflatingOutputStream
+     * @since v1.0.6
+     */
+    public ParallelDeflatingOutputStream(final OutputStream outputStream,
+                                         final String contentEncoding) {
+        this.outputStream = Objects.requireNonNull(outputStream);
+        gzip = switch (Objects.requireNonNull(contentEncoding)) {
+            case "gzip" -> true;
+            case "deflate" -> false;
+            default -> throw new IllegalArgumentException("unsupported content encoding - " + contentEncoding);
+        };
+        checksum = gzip ? new CRC32() : new Adler32();
+    }
+
+    /**
+     * Get is the parallel compression useful on this machine (more than one core for the common {@code ForkJoinPool}).
+     *
+     * @return Parallel compression availability
+     * @see ParallelDeflatingOutputStream
+     * @since v1.0.6
+     */
+    public static boolean isAvailable() {
+        return ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b,
+                      final int off,
+                      final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (finished) throw new IOException("compressed content already finished");
+        if (!started) start();
+
+        int offset = off;
+        while (offset < off + len) {
+            int c = Math.min(BLOCK_SIZE - position, off + len - offset);
+            System.arraycopy(b, offset, block, position, c);
+            position += c;
+            offset += c;
+            if (position == BLOCK_SIZE) submit(false);
+        }
+    }
+
+    /**
+     * Compress the buffered part of the current block, write all compressed blocks, and flush the given output stream. Frequent flushes reduce the
+     * compression ratio and the parallelism.
+     *
+     * @throws IOException Error while writing data
+     */
+    @Override
+    public void flush() throws IOException {
+        if (started && !finished) {
+            if (position > 0) submit(false);
+            while (!pending.isEmpty()) {
+                writeBlock();
+            }
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Compress the remaining content, write all compressed blocks and the trailer, and return the buffers to the pool. Further writes are not
+     * allowed. Does not close the given output stream.
+     *
+     * @throws IOException Error while writing data
+     * @see ParallelDeflatingOutputStream
+     * @since v1.0.6
+     */
+    public void finish() throws IOException {
+        if (finished) return;
+        if (!started) start();
+
+        submit(true);
+        while (!pending.isEmpty()) {
+            writeBlock();
+        }
+        long value = checksum.getValue();
+        if (gzip) {
+            outputStream.write(new byte[]{(byte) value, (byte) (value >> 8), (byte) (value >> 16), (byte) (value >> 24),
+                    (byte) length, (byte) (length >> 8), (byte) (length >> 16), (byte) (length >> 24)});
+        } else {
+            outputStream.write(new byte[]{(byte) (value >> 24), (byte) (value >> 16), (byte) (value >> 8), (byte) value});
+        }
+        finished = true;
+    }
+
+    /**
+     * Wait for the blocks in flight and return the buffers to the pool, without finishing the compressed content. Closing this stream does not close
+     * the given output stream.
+     */
+    @Override
+    public void close() {
+        finished = true;
+        while (!pending.isEmpty()) {
+            Block pendingBlock = pending.poll();
+            try {
+                pendingBlock.result().join();
+            } catch (CompletionException ignored) {
+                // the content is already failed
+            }
+            BufferPool.release(pendingBlock.input());
+        }
+        BufferPool.release(block);
+        block = null;
+    }
+
+    /**
+     * Write the gzip (or zlib) header and take the first block buffer from the pool.
+     *
+     * @throws IOException Error while writing data
+     * @see ParallelDeflatingOutputStream
+     * @since v1.0.6
+     */
+    private void start() throws IOException {
+        outputStream.write(gzip ? DeflatingOutputStream.GZIP_HEADER : ZLIB_HEADER);
+        block = BufferPool.acquire(BLOCK_SIZE);
+        started = true;
+    }
+
+    /**
+     * Send the current block to the pool for compression, and update the checksum and the dictionary for the next block. If too many blocks are in
+     * flight, the oldest one is written first.
+     *
+     * @param last Is this the last block?
+     * @throws IOException Error while writing data
+     * @see ParallelDeflatingOutputStream
+     * @since v1.0.6
+     */
+    private void submit(final boolean last) throws IOException {
+        byte[] input = block;
+        int inputLength = position;
+        byte[] blockDictionary = dictionaryLength == 0 ? null : Arrays.copyOf(dictionary, dictionaryLength);
+        checksum.update(input, 0, inputLength);
+        length += inputLength;
+
+        // dictionary of the next block is the last 32 KiB of the content so far
+        if (inputLength >= DICTIONARY_SIZE) {
+            System.arraycopy(input, inputLength - DICTIONARY_SIZE, dictionary, 0, DICTIONARY_SIZE);
+            dictionaryLength = DICTIONARY_SIZE;
+        } else if (inputLength > 0) {
+            int keep = Math.min(dictionaryLength, DICTIONARY_SIZE - inputLength);
+            System.arraycopy(dictionary, dictionaryLength - keep, dictionary, 0, keep);
+            System.arraycopy(input, 0, dictionary, keep, inputLength);
+            dictionaryLength = keep + inputLength;
+        }
+
+        pending.add(new Block(input, CompletableFuture.supplyAsync(() -> deflate(input, inputLength, blockDictionary, last), pool)));
+        block = last ? null : BufferPool.acquire(BLOCK_SIZE);
+        position = 0;
+        if (pending.size() >= maxPending) writeBlock();
+    }
+
+    /**
+     * Wait for the oldest block in flight, write its compressed bytes and return its buffer to the pool.
+     *
+     * @throws IOException Error while writing data or compressing the block
+     * @see ParallelDeflatingOutputStream
+     * @since v1.0.6
+     */
+    private void writeBlock() throws IOException {
+        Block pendingBlock = pending.poll();
+        try {
+            outputStream.write(pendingBlock.result().join());
+        } catch (CompletionException e) {
+            throw new IOException("cannot compress content block - " + e.getCause().getMessage());
+        } finally {
+            BufferPool.release(pendingBlock.input());
+        }
+    }
+
+    /**
+     * Compress a block into raw deflate data. Blocks other than the last end with a {@code SYNC_FLUSH}, so the next block starts at a byte
+     * boundary.
+     *
+     * @param input       Block content
+     * @param inputLength Length of the block content
+     * @param dictionary  Last {@code 32 KiB} of the previous content, or null for the first block
+     * @param last        Is this the last block?
+     * @return Compressed bytes
+     * @see ParallelDeflatingOutputStream
+     * @since v1.0.6
+     */
+    private static byte[] deflate(final byte[] input,
+                                  final int inputLength,
+                                  final byte[] dictionary,
+                                  final boolean last) {
+        Deflater deflater = DeflatingOutputStream.acquireDeflater(true);
+        try {
+            if (dictionary != null) deflater.setDictionary(dictionary);
+            deflater.setInput(input, 0, inputLength);
+            if (last) deflater.finish();
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(inputLength / 2 + 64);
+            byte[] buffer = BufferPool.acquire(BufferPool.MEDIUM);
+            try {
+                while (true) {
+                    int c = deflater.deflate(buffer, 0, buffer.length, last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, c);
+                    if (last ? deflater.finished() : c < buffer.length) break;
+                }
+            } finally {
+                BufferPool.release(buffer);
+            }
+            return compressed.toByteArray();
+        } finally {
+            DeflatingOutputStream.releaseDeflater(deflater, true);
+        }
+    }
+
+    /**
+     * Block in flight.
+     *
+     * @param input  Block content buffer (returned to the pool after the block is written)
+     * @param result Compressed bytes of the block
+     * @see ParallelDeflatingOutputStream
+     * @since v1.0.6
+     */
+    private record Block(byte[] input, CompletableFuture<byte[]> result) {}
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Read-ahead stream for the response content. A producer virtual thread reads the source stream into a small ring of pooled buffers while the
+ * connection thread drains them into the socket, so reading the source (a slow disk or a network-backed stream) and writing the socket overlap.
+ * Closing this stream stops the producer and closes the source stream.
+ *
+ * @apiNote This class is public but not useful for the API users. Only used for in-API tasks.
+ * @see HttpServerConfiguration#setReadAheadBuffers(int)
+ * @see Content.WriteOperations
+ * @since v1.0.6
+ */
+public final class ReadAheadInputStream extends InputStream {
+    private static final Segment END = new Segment(null, -1);
+    // maximum time to wait for a producer blocked in the source stream when closing
+    private static final long CLOSE_TIMEOUT = 1_000L;
+
+    private final InputStream inputStream;
+    private final byte[][] buffers;
+    private final BlockingQueue<byte[]> free;
+    private final BlockingQueue<Segment> filled;
+    private final Thread producer;
+    private volatile IOException failure;
+
+    private Segment current;
+    private int position = 0;
+    private boolean closed = false;
+
+    /**
+     * Create an instance of {@code ReadAheadInputStream} and start reading the source stream.
+     *
+     * @param inputStream Source stream
+     * @param count       Count of buffers in the ring
+     * @param size        Preferred size of a buffer
+     * @see ReadAheadInputStream
+     * @since v1.0.6
+     */
+    public ReadAheadInputStream(final InputStream inputStream,
+                                final int count,
+                                final int size) {
+        if (count < 1) throw new IllegalArgumentException("buffer count cannot be less than 1");
+        this.inputStream = Objects.requireNonNull(inputStream);
+        buffers = new byte[count][];
+        free = new ArrayBlockingQueue<>(count);
+        filled = new ArrayBlockingQueue<>(count + 1);
+        for (int i = 0; i < count; i++) {
+            buffers[i] = BufferPool.acquire(size);
+            free.add(buffers[i]);
+        }
+        producer = Thread.ofVirtual().name("ReadAhead@" + Thread.currentThread().getName()).start(this::produce);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b,
+                    final int off,
+                    final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (closed) throw new IOException("stream closed");
+        if (len == 0) return 0;
+
+        if (current == null || (current != END && position == current.length())) {
+            if (current != null) free.add(current.buffer());
+            try {
+                current = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for the content");
+            }
+            position = 0;
+        }
+        if (current == END) {
+            if (failure != null) throw failure;
+            return -1;
+        }
+
+        int c = Math.min(len, current.length() - position);
+        System.arraycopy(current.buffer(), position, b, off, c);
+        position += c;
+        return c;
+    }
+
+    @Override
+    public int available() {
+        return current == null || current == END ? 0 : current.length() - position;
+    }
+
+    /**
+     * Stop the producer, close the source stream and return the buffers to the pool. The producer is stopped first, so the source stream is not
+     * closed while it is read by the producer. If the producer does not stop in time (blocked in the source stream), the source stream is closed
+     * anyway and the buffers are left to the garbage collector instead.
+     *
+     * @throws IOException Error while closing the source stream
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        producer.interrupt();
+        boolean stopped;
+        try {
+            stopped = producer.join(Duration.ofMillis(CLOSE_TIMEOUT));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped = false;
+        }
+        try {
+            inputStream.close();
+        } finally {
+            if (stopped) {
+                for (byte[] buffer : buffers) {
+                    BufferPool.release(buffer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Producer loop. Reads the source stream into free buffers until the end of the stream, an error, or an interrupt.
+     *
+     * @see ReadAheadInputStream
+     * @since v1.0.6
+     */
+    private void produce() {
+        try {
+            while (true) {
+                byte[] buffer = free.take();
+                int c = inputStream.read(buffer, 0, buffer.length);
+                if (c == -1) break;
+                filled.put(new Segment(buffer, c));
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = new IOException("cannot read the content - " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            return;
+        }
+        filled.add(END);
+    }
+
+    /**
+     * Filled part of a buffer.
+     *
+     * @param buffer Buffer
+     * @param length Count of bytes read into the buffer, or -1 for the end of the stream
+     * @see ReadAheadInputStream
+     * @since v1.0.6
+     */
+    private record Segment(byte[] buffer, int length) {}
+}
@@ -0,0 +1,479 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import io.github.lycoriscafe.nexus.http.core.headers.Header;
+import io.github.lycoriscafe.nexus.http.core.headers.cache.CacheControl;
+import io.github.lycoriscafe.nexus.http.core.statusCodes.HttpStatusCode;
+import io.github.lycoriscafe.nexus.http.engine.reqResManager.httpReq.HttpPatchRequest;
+import io.github.lycoriscafe.nexus.http.engine.reqResManager.httpReq.HttpRequest;
+import io.github.lycoriscafe.nexus.http.engine.reqResManager.httpRes.HttpResponse;
+import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resumable uploads with offset-based {@code PATCH} requests. An upload is created with its total length, and then the content is appended in
+ * segments, each one at the current offset of the upload. If a segment is interrupted, the bytes already written are kept, so the client asks the
+ * current offset with a {@code HEAD} request and resends only the missing bytes. Segments are written into a preallocated file with positioned
+ * {@code FileChannel} writes. Abandoned uploads, and complete uploads that are not removed, are expired and their files are deleted.
+ * <pre>
+ *     {@code
+ *     // Example code
+ *     static final ResumableUploads uploads = new ResumableUploads(Paths.get("uploads"), Duration.ofHours(24), 10_737_418_240L);
+ *
+ *     @POST("/uploads")
+ *     public static HttpResponse create(HttpPostRequest request, HttpResponse response) {
+ *         return uploads.create(request, response); // Upload-Length: <total length>
+ *     }
+ *
+ *     @HEAD("/uploads")
+ *     public static HttpResponse offset(HttpHeadRequest request, HttpResponse response) {
+ *         return uploads.head(request, response); // ?uploadId=<id>
+ *     }
+ *
+ *     @PATCH("/uploads")
+ *     @StreamContent
+ *     public static HttpResponse append(HttpPatchRequest request, HttpResponse response) {
+ *         uploads.append(request, response); // ?uploadId=<id>, Upload-Offset: <offset>, Content-Type: application/offset+octet-stream
+ *         ResumableUploads.Upload upload = uploads.get(request.getParameters().get("uploadId"));
+ *         if (upload != null && upload.isComplete()) {
+ *             // move uploads.remove(upload.getId()).getPath() to its place
+ *         }
+ *         return response;
+ *     }
+ *     }
+ * </pre>
+ *
+ * @apiNote The {@code PATCH} endpoint must be annotated with {@code @StreamContent}. Segments are still limited by the {@code maxContentLength}
+ * (or the {@code @ContentLimit} of the endpoint). If a segment has a {@code Content-Digest}, {@code Digest}, or {@code Content-MD5} header, the
+ * segment is only accepted after it is verified, otherwise the written bytes are accepted as they arrive.
+ * @see StreamContent
+ * @see ContentDigest
+ * @since v1.0.6
+ */
+public final class ResumableUploads {
+    private static final Logger logger = LoggerFactory.getLogger(ResumableUploads.class);
+    private static final SecureRandom random = new SecureRandom();
+    // uploads are checked for expiration at most once in this period
+    private static final long SWEEP_INTERVAL = 60_000L;
+
+    /**
+     * {@code Content-Type} of the {@code PATCH} request segments.
+     */
+    public static final String SEGMENT_CONTENT_TYPE = "application/offset+octet-stream";
+    /**
+     * Request parameter of the upload id.
+     */
+    public static final String ID_PARAMETER = "uploadId";
+
+    private final Path directory;
+    private final long expiration;
+    private final long maxUploadLength;
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+    private volatile long nextSweep = 0L;
+
+    /**
+     * Create an instance of {@code ResumableUploads}, that keeps the uploads in the temporary directory of the server.
+     *
+     * @param httpServerConfiguration {@code HttpServerConfiguration} of the server
+     * @param expiration              Time after the last activity that an upload is expired
+     * @param maxUploadLength         Maximum total length of an upload
+     * @see ResumableUploads
+     * @since v1.0.6
+     */
+    public ResumableUploads(final HttpServerConfiguration httpServerConfiguration,
+                            final Duration expiration,
+                            final long maxUploadLength) {
+        this(Paths.get(httpServerConfiguration.getTempDirectory()), expiration, maxUploadLength);
+    }
+
+    /**
+     * Create an instance of {@code ResumableUploads}.
+     *
+     * @param directory       Directory of the upload files
+     * @param expiration      Time after the last activity that an upload is expired
+     * @param maxUploadLength Maximum total length of an upload
+     * @see ResumableUploads
+     * @since v1.0.6
+     */
+    public ResumableUploads(final Path directory,
+                            final Duration expiration,
+                            final long maxUploadLength) {
+        this.directory = Objects.requireNonNull(directory);
+        if (Objects.requireNonNull(expiration).isNegative() || expiration.isZero()) {
+            throw new IllegalArgumentException("expiration must be greater than 0");
+        }
+        if (maxUploadLength < 1) throw new IllegalArgumentException("max upload length cannot be less than 1");
+        this.expiration = expiration.toMillis();
+        this.maxUploadLength = maxUploadLength;
+    }
+
+    /**
+     * Create an upload. The total length is read from the {@code Upload-Length} request header. Responds {@code 201 Created} with the
+     * {@code Upload-Id}, {@code Upload-Offset}, and {@code Location} (the request endpoint with the {@code uploadId} parameter) headers.
+     *
+     * @param request  Request of the upload creation
+     * @param response Response to fill
+     * @return Same {@code HttpResponse} instance
+     * @see ResumableUploads
+     * @since v1.0.6
+     */
+    public HttpResponse create(final HttpRequest request,
+                               final HttpResponse response) {
+        Objects.requireNonNull(request);
+        Objects.requireNonNull(response);
+        sweep();
+
+        long length;
+        try {
+            length = Long.parseLong(Objects.requireNonNull(getHeader(request, "upload-length")).trim());
+            if (length < 0) throw new NumberFormatException();
+        } catch (NullPointerException | NumberFormatException e) {
+            return response.setStatusCode(HttpStatusCode.BAD_REQUEST);
+        }
+        if (length > maxUploadLength) return response.setStatusCode(HttpStatusCode.CONTENT_TOO_LARGE);
+
+        Upload upload;
+        try {
+            Files.createDirectories(directory);
+            upload = new Upload(newId(), Files.createTempFile(directory, "nexus-upload-", null), length);
+            if (length > 0) {
+                // preallocate, so segments are written at their offsets without growing the file
+                try (FileChannel fileChannel = FileChannel.open(upload.path, StandardOpenOption.WRITE)) {
+                    fileChannel.write(ByteBuffer.allocate(1), length - 1);
+                }
+            }
+        } catch (IOException e) {
+            logger.atError().log("NEXUS-HTTP :: Cannot create upload file - " + e.getMessage());
+            return response.setStatusCode(HttpStatusCode.INTERNAL_SERVER_ERROR);
+        }
+        uploads.put(upload.id, upload);
+
+        return addUploadHeaders(response.setStatusCode(HttpStatusCode.CREATED), upload)
+                .addHeader(new Header("Location", request.getEndpoint() + "?" + ID_PARAMETER + "=" + upload.id));
+    }
+
+    /**
+     * Answer the current offset of an upload with the {@code Upload-Offset} and {@code Upload-Length} headers. Responds {@code 404 Not Found}
+     * if the upload is not available (unknown, expired, or removed).
+     *
+     * @param request  Request with the {@code uploadId} parameter
+     * @param response Response to fill
+     * @return Same {@code HttpResponse} instance
+     * @see ResumableUploads
+     * @since v1.0.6
+     */
+    public HttpResponse head(final HttpRequest request,
+                             final HttpResponse response) {
+        Objects.requireNonNull(response);
+        sweep();
+        Upload upload = getUpload(Objects.requireNonNull(request));
+        if (upload == null) return response.setStatusCode(HttpStatusCode.NOT_FOUND);
+        upload.lastAccess = System.currentTimeMillis();
+        return addUploadHeaders(response.setStatusCode(HttpStatusCode.OK), upload);
+    }
+
+    /**
+     * Append a segment to an upload. The {@code Upload-Offset} request header must match the current offset of the upload. Responds
+     * {@code 204 No Content} with the new {@code Upload-Offset}.
+     * <ul>
+     *     <li>{@code 404 Not Found} - upload is not available</li>
+     *     <li>{@code 409 Conflict} - offset mismatch, or another segment of the upload is in progress</li>
+     *     <li>{@code 415 Unsupported Media Type} - segment is not {@code application/offset+octet-stream}</li>
+     *     <li>{@code 413 Content Too Large} - segment exceeds the upload length</li>
+     *     <li>{@code 400 Bad Request} - segment is interrupted, or its digest does not match</li>
+     *     <li>{@code 400 Bad Request} - segment has a digest header of only unsupported algorithms (it cannot be verified, so it is rejected
+     *     instead of accepted unchecked)</li>
+     * </ul>
+     *
+     * @param request  {@code @StreamContent} request with the {@code uploadId} parameter
+     * @param response Response to fill
+     * @return Same {@code HttpResponse} instance
+     * @see ResumableUploads
+     * @since v1.0.6
+     */
+    public HttpResponse append(final HttpPatchRequest request,
+                               final HttpResponse response) {
+        Objects.requireNonNull(response);
+        sweep();
+        Upload upload = getUpload(Objects.requireNonNull(request));
+        if (upload == null) return response.setStatusCode(HttpStatusCode.NOT_FOUND);
+        if (request.getContent() == null || !(request.getContent().getData() instanceof InputStream inputStream) ||
+                !request.getContent().getContentType().startsWith(SEGMENT_CONTENT_TYPE)) {
+            return response.setStatusCode(HttpStatusCode.UNSUPPORTED_MEDIA_TYPE);
+        }
+        if (!upload.lock.tryLock()) return response.setStatusCode(HttpStatusCode.CONFLICT);
+
+        try {
+            if (!uploads.containsKey(upload.id)) return response.setStatusCode(HttpStatusCode.NOT_FOUND);
+            upload.lastAccess = System.currentTimeMillis();
+            try {
+                String offset = getHeader(request, "upload-offset");
+                if (offset == null || Long.parseLong(offset.trim()) != upload.offset) {
+                    return addUploadHeaders(response.setStatusCode(HttpStatusCode.CONFLICT), upload);
+                }
+            } catch (NumberFormatException e) {
+                return response.setStatusCode(HttpStatusCode.BAD_REQUEST);
+            }
+
+            // segments with a digest are accepted only after verification, others are accepted as the bytes are written
+            ContentDigest contentDigest = request.getContent().getContentDigest();
+            boolean verified = contentDigest != null && contentDigest.isVerifiable();
+            if (!verified && (getHeader(request, "content-digest") != null || getHeader(request, "digest") != null)) {
+                return addUploadHeaders(response.setStatusCode(HttpStatusCode.BAD_REQUEST), upload);
+            }
+            long position = upload.offset;
+            HttpStatusCode statusCode = HttpStatusCode.NO_CONTENT;
+            try (FileChannel fileChannel = FileChannel.open(upload.path, StandardOpenOption.WRITE)) {
+                byte[] buffer = request.getRequestConsumer().getContentBuffer();
+                int c;
+                while ((c = inputStream.read(buffer, 0, (int) Math.min(buffer.length, Math.max(1L, upload.length - position)))) != -1) {
+                    if (position + c > upload.length) {
+                        statusCode = HttpStatusCode.CONTENT_TOO_LARGE;
+                        break;
+                    }
+                    ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, c);
+                    while (byteBuffer.hasRemaining()) {
+                        position += fileChannel.write(byteBuffer, position);
+                    }
+                    if (!verified) upload.offset = position;
+                }
+                if (verified && statusCode == HttpStatusCode.NO_CONTENT) upload.offset = position;
+            } catch (IOException e) {
+                statusCode = e instanceof ContentTooLargeException ? HttpStatusCode.CONTENT_TOO_LARGE : HttpStatusCode.BAD_REQUEST;
+                logger.atDebug().log("NEXUS-HTTP :: Upload segment interrupted - " + e.getMessage());
+            }
+            upload.lastAccess = System.currentTimeMillis();
+            return addUploadHeaders(response.setStatusCode(statusCode), upload);
+        } finally {
+            upload.lock.unlock();
+        }
+    }
+
+    /**
+     * Get an upload.
+     *
+     * @param id Upload id
+     * @return {@code Upload}, or null if the upload is not available
+     * @see ResumableUploads
+     * @since v1.0.6
+     */
+    public Upload get(final String id) {
+        return id == null ? null : uploads.get(id);
+    }
+
+    /**
+     * Stop tracking an upload. The upload file is kept, so the API users can move a complete upload to its place (or delete it). Complete uploads
+     * that are not removed are expired after the expiration time, like the incomplete ones.
+     *
+     * @param id Upload id
+     * @return Removed {@code Upload}, or null if the upload is not available
+     * @see ResumableUploads
+     * @since v1.0.6
+     */
+    public Upload remove(final String id) {
+        return id == null ? null : uploads.remove(id);
+    }
+
+    /**
+     * Expire the uploads (complete or not) without activity during the expiration time, and delete their files. Called on every request of the
+     * uploads, at most once a minute.
+     *
+     * @see ResumableUploads
+     * @since v1.0.6
+     */
+    public void expire() {
+        long now = System.currentTimeMillis();
+        nextSweep = now + Math.min(expiration, SWEEP_INTERVAL);
+        for (Upload upload : uploads.values()) {
+            if (now - upload.lastAccess < expiration || !upload.lock.tryLock()) continue;
+            try {
+                uploads.remove(upload.id);
+                Files.deleteIfExists(upload.path);
+            } catch (IOException e) {
+                logger.atDebug().log("NEXUS-HTTP :: Cannot delete expired upload - " + e.getMessage());
+            } finally {
+                upload.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Expire uploads if the sweep interval passed.
+     *
+     * @see #expire()
+     * @since v1.0.6
+     */
+    private void sweep() {
+        if (System.currentTimeMillis() >= nextSweep) expire();
+    }
+
+    /**
+     * Get the upload of the {@code uploadId} request parameter.
+     *
+     * @param request Request of the upload
+     * @return {@code Upload}, or null if the upload is not available
+     * @see ResumableUploads
+     * @since v1.0.6
+     */
+    private Upload getUpload(final HttpRequest request) {
+        return request.getParameters() == null ? null : get(request.getParameters().get(ID_PARAMETER));
+    }
+
+    /**
+     * Get a request header value (case-insensitive).
+     *
+     * @param request Request
+     * @param name    Lowercase header name
+     * @return Header value, or null if not available
+     * @see ResumableUploads
+     * @since v1.0.6
+     */
+    private static String getHeader(final HttpRequest request,
+                                    final String name) {
+        for (Header header : request.getHeaders()) {
+            if (header.getName().toLowerCase(Locale.US).equals(name)) return header.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Add the upload state headers to a response.
+     *
+     * @param response Response
+     * @param upload   {@code Upload}
+     * @return Same {@code HttpResponse} instance
+     * @see ResumableUploads
+     * @since v1.0.6
+     */
+    private static HttpResponse addUploadHeaders(final HttpResponse response,
+                                                 final Upload upload) {
+        return response.addHeader(new Header("Upload-Id", upload.id))
+                .addHeader(new Header("Upload-Offset", String.valueOf(upload.offset)))
+                .addHeader(new Header("Upload-Length", String.valueOf(upload.length)))
+                .setCashControl(new CacheControl().setNoStore(true));
+    }
+
+    /**
+     * Create a new random upload id.
+     *
+     * @return Upload id
+     * @see ResumableUploads
+     * @since v1.0.6
+     */
+    private static String newId() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * A resumable upload.
+     *
+     * @see ResumableUploads
+     * @since v1.0.6
+     */
+    public static final class Upload {
+        private final String id;
+        private final Path path;
+        private final long length;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long offset = 0L;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private Upload(final String id,
+                       final Path path,
+                       final long length) {
+            this.id = id;
+            this.path = path;
+            this.length = length;
+        }
+
+        /**
+         * Get the upload id.
+         *
+         * @return Upload id
+         * @see Upload
+         * @since v1.0.6
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Get the upload file.
+         *
+         * @return {@code Path} of the upload file
+         * @see Upload
+         * @since v1.0.6
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * Get the total length of the upload.
+         *
+         * @return Upload length
+         * @see Upload
+         * @since v1.0.6
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * Get the count of bytes received so far.
+         *
+         * @return Upload offset
+         * @see Upload
+         * @since v1.0.6
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * Get is the all bytes of the upload received.
+         *
+         * @return Upload complete status
+         * @see Upload
+         * @since v1.0.6
+         */
+        public boolean isComplete() {
+            return offset == length;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Event of a {@code text/event-stream} response.
+ * <pre>
+ *     {@code
+ *     // Example code
+ *     var event = new ServerSentEvent("{\"price\":42}").setEvent("price").setId("1024");
+ *     }
+ * </pre>
+ *
+ * @see EventEmitter
+ * @see EventHub
+ * @see <a href="https://html.spec.whatwg.org/multipage/server-sent-events.html">HTML Living Standard - 9.2 Server-sent events</a>
+ * @since v1.0.6
+ */
+public final class ServerSentEvent {
+    private final String data;
+    private String event;
+    private String id;
+    private Long retry;
+
+    /**
+     * Create an instance of {@code ServerSentEvent}.
+     *
+     * @param data Event data (multiple lines are allowed)
+     * @see ServerSentEvent
+     * @since v1.0.6
+     */
+    public ServerSentEvent(final String data) {
+        this.data = Objects.requireNonNull(data);
+    }
+
+    /**
+     * Get the event data.
+     *
+     * @return Event data
+     * @see ServerSentEvent
+     * @since v1.0.6
+     */
+    public String getData() {
+        return data;
+    }
+
+    /**
+     * Set the event type. Clients listen to the typed events with {@code addEventListener(type, ...)}, and to the untyped events with
+     * {@code onmessage}.
+     *
+     * @param event Event type
+     * @return Same {@code ServerSentEvent} instance
+     * @throws IllegalArgumentException Event type contains a line break
+     * @see ServerSentEvent
+     * @since v1.0.6
+     */
+    public ServerSentEvent setEvent(final String event) {
+        this.event = requireSingleLine(event, "event type");
+        return this;
+    }
+
+    /**
+     * Get the event type.
+     *
+     * @return Event type
+     * @see #setEvent(String)
+     * @see ServerSentEvent
+     * @since v1.0.6
+     */
+    public String getEvent() {
+        return event;
+    }
+
+    /**
+     * Set the event id. Reconnecting clients send the last received id in the {@code Last-Event-ID} request header.
+     *
+     * @param id Event id
+     * @return Same {@code ServerSentEvent} instance
+     * @throws IllegalArgumentException Event id contains a line break or a {@code NULL} character
+     * @see ServerSentEvent
+     * @since v1.0.6
+     */
+    public ServerSentEvent setId(final String id) {
+        if (requireSingleLine(id, "event id").indexOf('\0') != -1) throw new IllegalArgumentException("event id cannot contain NULL");
+        this.id = id;
+        return this;
+    }
+
+    /**
+     * Get the event id.
+     *
+     * @return Event id
+     * @see #setId(String)
+     * @see ServerSentEvent
+     * @since v1.0.6
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Set the reconnection time of the client.
+     *
+     * @param retry Reconnection time in milliseconds
+     * @return Same {@code ServerSentEvent} instance
+     * @throws IllegalArgumentException Reconnection time is less than 0
+     * @see ServerSentEvent
+     * @since v1.0.6
+     */
+    public ServerSentEvent setRetry(final long retry) {
+        if (retry < 0) throw new IllegalArgumentException("retry cannot be less than 0");
+        this.retry = retry;
+        return this;
+    }
+
+    /**
+     * Get the reconnection time of the client.
+     *
+     * @return Reconnection time in milliseconds
+     * @see #setRetry(long)
+     * @see ServerSentEvent
+     * @since v1.0.6
+     */
+    public Long getRetry() {
+        return retry;
+    }
+
+    /**
+     * Encode the event in the {@code text/event-stream} format. Every line of the data becomes a {@code data} field.
+     *
+     * @return UTF-8 bytes of the event
+     * @see ServerSentEvent
+     * @since v1.0.6
+     */
+    byte[] encode() {
+        StringBuilder result = new StringBuilder(data.length() + 32);
+        if (event != null) result.append("event: ").append(event).append('\n');
+        if (id != null) result.append("id: ").append(id).append('\n');
+        if (retry != null) result.append("retry: ").append(retry).append('\n');
+
+        int start = 0;
+        int length = data.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i == length ? '\n' : data.charAt(i);
+            if (c != '\r' && c != '\n') continue;
+            result.append("data: ").append(data, start, i).append('\n');
+            if (c == '\r' && i + 1 < length && data.charAt(i + 1) == '\n') i++;
+            start = i + 1;
+        }
+        return result.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Check the given field value does not contain a line break.
+     *
+     * @param value Field value
+     * @param name  Field name for the exception message
+     * @return Given field value
+     * @see ServerSentEvent
+     * @since v1.0.6
+     */
+    private static String requireSingleLine(final String value,
+                                            final String name) {
+        Objects.requireNonNull(value);
+        if (value.indexOf('\n') != -1 || value.indexOf('\r') != -1) throw new IllegalArgumentException(name + " cannot contain line breaks");
+        return value;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.lang.annotation.*;
+
+/**
+ * Mark annotated endpoint writes the request content directly into a sink provided by the given {@code ContentSink.Provider}, before the endpoint
+ * method is called. The provider is asked for a sink of the whole content, or for {@code multipart/form-data} content, for a sink of each file part
+ * (parts with a {@code filename}). Content (or parts) without a sink is processed as usual. The {@code Transfer-Encoding: chunked} framing and the
+ * {@code Content-Encoding} (gzip, deflate) are removed on the fly, so the content is written only once. This annotation can only be used with HTTP
+ * request methods {@code POST}, {@code PATCH}, and {@code PUT}.
+ *
+ * <pre>
+ *     {@code
+ *     public class UploadSink implements ContentSink.Provider {
+ *         @Override
+ *         public ContentSink open(HttpPostRequest request,
+ *                                 MultipartFormData part) {
+ *             return ContentSink.of(Path.of("uploads", UUID.randomUUID().toString()));
+ *         }
+ *     }
+ *
+ *     @POST("/upload")
+ *     @SinkContent(UploadSink.class)
+ *     public static HttpResponse upload(HttpPostRequest request,
+ *                                       HttpResponse response) {
+ *         ContentSink sink = (ContentSink) request.getContent().getData();
+ *         // ...
+ *         return response;
+ *     }
+ *     }
+ * </pre>
+ *
+ * @apiNote Provider class must have a public no-argument constructor. A single instance is shared by all requests. Cannot be used together with
+ * {@code @StreamContent}.
+ * @see ContentSink
+ * @see StreamContent
+ * @see Content
+ * @since v1.0.6
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface SinkContent {
+    Class<? extends ContentSink.Provider> value();
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.headers.content;
+
+import java.lang.annotation.*;
+
+/**
+ * Mark annotated endpoint reads the request content as a stream. The content is not read before calling the endpoint, and
+ * {@code HttpPostRequest.getContentStream()} (or {@code getContentChannel()}) gives the remaining content bytes directly from the connection, with
+ * the {@code Content-Length} or {@code Transfer-Encoding: chunked} framing (and {@code Content-Encoding} gzip or deflate) already removed. Any bytes
+ * not read by the endpoint are discarded automatically after the endpoint returns. This annotation can only be used with HTTP request methods
+ * {@code POST}, {@code PATCH}, and {@code PUT}.
+ *
+ * <pre>
+ *     {@code
+ *     @POST("/upload")
+ *     @StreamContent
+ *     public static HttpResponse upload(HttpPostRequest request,
+ *                                       HttpResponse response) throws IOException {
+ *         try (var outputStream = Files.newOutputStream(Path.of("upload.bin"))) {
+ *             request.getContentStream().transferTo(outputStream);
+ *         }
+ *         return response;
+ *     }
+ *     }
+ * </pre>
+ *
+ * @apiNote The content is only available while the endpoint method runs. Content types like {@code multipart/form-data} are not parsed for the
+ * annotated endpoints.
+ * @see Content
+ * @see ExpectContent
+ * @since v1.0.6
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface StreamContent {}
@@ -22,13 +22,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.net.URLDecoder;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
 
 /**
  * Content type {@code application/x-www-form-urlencoded} for <b>incoming content</b>. If request has header
- * {@code Content-Type: application/x-www-form-urlencoded}, then the {@code Content.getData()} type should cast to {@code UrlEncodedData}.
+ * {@code Content-Type: application/x-www-form-urlencoded}, then the {@code Content.getData()} type should cast to {@code UrlEncodedData}. URI query
+ * parameters ({@code HttpRequest.getParameters()}) are also provided as {@code UrlEncodedData}.
  * <pre>
  *     {@code
  *     // 'request' is from endpoint parameter (HttpPostRequest, ...)
@@ -36,20 +39,250 @@ import java.util.HashMap;
  *     if (content.getContentType().equals("application/x-www-form-urlencoded")) {
  *         UrlEncodedData encodedData = (UrlEncodedData) content.getData();
  *         for (String key : encodedData.keySet()) {
- *              // ...
+ *              // first value of the key
+ *              String value = encodedData.get(key);
+ *              // all values of the key (repeated keys like 'a=1&a=2')
+ *              List<String> values = encodedData.getAll(key);
  *         }
  *     }
  *     }
  * </pre>
+ * The data is parsed in one pass over the raw bytes, only recording the positions of the keys and values. Keys are decoded on the first lookup, and
+ * values are decoded when they are accessed. A key without {@code =} (e.g. {@code a&b=1}) has the value {@code null}.
  *
- * @apiNote Since {@code UrlEncodedData} extends {@code HasMap<String, String>}, API users can treat this as a {@code Map<String, String>}.
+ * @apiNote Since {@code UrlEncodedData} implements {@code Map<String, String>} (first value of each key), API users can treat this as a read-only
+ * {@code Map<String, String>}.
  * @see Content
  * @see Content#getData()
+ * @see <a href="https://url.spec.whatwg.org/#application/x-www-form-urlencoded">URL Standard - application/x-www-form-urlencoded</a>
  * @since v1.0.0
  */
-public final class UrlEncodedData extends HashMap<String, String> {
+public final class UrlEncodedData extends AbstractMap<String, String> {
     private static final Logger logger = LoggerFactory.getLogger(UrlEncodedData.class);
 
+    private final byte[] source;
+    // 4 positions per pair: key start, key end, value start (-1 if no '='), value end
+    private final int[] positions;
+    private final int size;
+
+    private String[] values;
+    private Map<String, Integer> index;
+    private int[] next;
+    private Set<Entry<String, String>> entrySet;
+
+    /**
+     * Create an instance of {@code UrlEncodedData}.
+     *
+     * @param source    Raw bytes
+     * @param positions Positions of the keys and values
+     * @param size      Count of key, value pairs
+     * @see UrlEncodedData
+     * @since v1.0.6
+     */
+    private UrlEncodedData(final byte[] source,
+                           final int[] positions,
+                           final int size) {
+        this.source = source;
+        this.positions = positions;
+        this.size = size;
+    }
+
+    /**
+     * Parse {@code application/x-www-form-urlencoded} data (or URI query string) in one pass. The given array is kept (not copied) and decoded
+     * lazily, so it must not be modified afterward.
+     *
+     * @param source Raw bytes
+     * @param from   Start index (inclusive)
+     * @param to     End index (exclusive)
+     * @return New instance of {@code UrlEncodedData}
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see UrlEncodedData
+     * @since v1.0.6
+     */
+    public static UrlEncodedData parse(final byte[] source,
+                                       final int from,
+                                       final int to) {
+        Objects.checkFromToIndex(from, to, source.length);
+        int[] positions = new int[16];
+        int size = 0;
+        int start = from;
+        int equals = -1;
+        for (int i = from; i <= to; i++) {
+            byte b = i == to ? (byte) '&' : source[i];
+            if (b == '=' && equals == -1) {
+                equals = i;
+            } else if (b == '&') {
+                if (i > start) {
+                    if (positions.length < (size + 1) * 4) positions = Arrays.copyOf(positions, positions.length * 2);
+                    positions[size * 4] = start;
+                    positions[size * 4 + 1] = equals == -1 ? i : equals;
+                    positions[size * 4 + 2] = equals == -1 ? -1 : equals + 1;
+                    positions[size * 4 + 3] = i;
+                    size++;
+                }
+                start = i + 1;
+                equals = -1;
+            }
+        }
+        return new UrlEncodedData(source, positions, size);
+    }
+
+    /**
+     * Parse URI query string in one pass.
+     *
+     * @param query Query string (without {@code ?})
+     * @return New instance of {@code UrlEncodedData}
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see #parse(byte[], int, int)
+     * @see UrlEncodedData
+     * @since v1.0.6
+     */
+    public static UrlEncodedData parse(final String query) {
+        byte[] source = query.getBytes(StandardCharsets.UTF_8);
+        return parse(source, 0, source.length);
+    }
+
+    /**
+     * Percent-decode the given range of bytes as UTF-8. {@code +} is decoded as a space. Invalid percent sequences are kept as they are.
+     *
+     * @param source Raw bytes
+     * @param from   Start index (inclusive)
+     * @param to     End index (exclusive)
+     * @return Decoded string
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see UrlEncodedData
+     * @since v1.0.6
+     */
+    public static String decode(final byte[] source,
+                                final int from,
+                                final int to) {
+        Objects.checkFromToIndex(from, to, source.length);
+        int i = from;
+        while (i < to && source[i] != '%' && source[i] != '+') i++;
+        if (i == to) return new String(source, from, to - from, StandardCharsets.UTF_8);
+
+        byte[] decoded = new byte[to - from];
+        int length = i - from;
+        System.arraycopy(source, from, decoded, 0, length);
+        for (; i < to; i++) {
+            byte b = source[i];
+            if (b == '+') {
+                b = ' ';
+            } else if (b == '%' && i + 2 < to) {
+                int high = Character.digit(source[i + 1], 16);
+                int low = Character.digit(source[i + 2], 16);
+                if (high != -1 && low != -1) {
+                    b = (byte) ((high << 4) | low);
+                    i += 2;
+                }
+            }
+            decoded[length++] = b;
+        }
+        return new String(decoded, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get all values of the given key, in the received order.
+     *
+     * @param key Key
+     * @return Values of the key (empty list if the key not available)
+     * @see UrlEncodedData
+     * @since v1.0.6
+     */
+    public List<String> getAll(final String key) {
+        Integer first = index().get(key);
+        if (first == null) return List.of();
+        List<String> all = new ArrayList<>();
+        for (int i = first; i != -1; i = next[i]) all.add(value(i));
+        return all;
+    }
+
+    @Override
+    public String get(final Object key) {
+        Integer first = index().get(key);
+        return first == null ? null : value(first);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return index().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return index().size();
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    Iterator<Entry<String, Integer>> iterator = index().entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            Entry<String, Integer> entry = iterator.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), value(entry.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return index().size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Decode the keys and link the repeated keys. Done once, on the first lookup.
+     *
+     * @return Decoded keys mapped to the index of their first pair
+     * @see UrlEncodedData
+     * @since v1.0.6
+     */
+    private Map<String, Integer> index() {
+        if (index != null) return index;
+        Map<String, Integer> keys = new LinkedHashMap<>(Math.max(16, size * 2));
+        next = new int[size];
+        int[] last = new int[size];
+        for (int i = 0; i < size; i++) {
+            next[i] = -1;
+            Integer first = keys.putIfAbsent(decode(source, positions[i * 4], positions[i * 4 + 1]), i);
+            if (first == null) {
+                last[i] = i;
+            } else {
+                next[last[first]] = i;
+                last[first] = i;
+            }
+        }
+        return index = keys;
+    }
+
+    /**
+     * Decode the value of the given pair. Decoded values are cached.
+     *
+     * @param pair Pair index
+     * @return Decoded value (null if the pair has no {@code =})
+     * @see UrlEncodedData
+     * @since v1.0.6
+     */
+    private String value(final int pair) {
+        if (positions[pair * 4 + 2] == -1) return null;
+        if (values == null) values = new String[size];
+        if (values[pair] == null) values[pair] = decode(source, positions[pair * 4 + 2], positions[pair * 4 + 3]);
+        return values[pair];
+    }
+
     /**
      * Process incoming {@code application/x-www-form-urlencoded} content type request.
      *
@@ -57,7 +290,9 @@ public final class UrlEncodedData extends HashMap<String, String> {
      * @param requestConsumer {@code RequestConsumer} bound to the {@code HttpRequest}
      * @param contentLength   {@code Content-Length}
      * @param chunked         {@code Transfer-Encoding} chunked?
-     * @param gzipped         {@code Content-Encoding} gzipped?
+     * @param contentEncoding {@code Content-Encoding} (gzip, deflate), or null
+     * @param contentLimit    Maximum content length of the endpoint, or null for the server-wide limits
+     * @param contentDigest   Digests to compute and verify, or null
      * @return New instance of {@code Content}
      * @throws IOException Error while reading data from the socket input stream
      * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
@@ -70,22 +305,37 @@ public final class UrlEncodedData extends HashMap<String, String> {
                                   final RequestConsumer requestConsumer,
                                   final Integer contentLength,
                                   final boolean chunked,
-                                  final boolean gzipped) throws IOException {
+                                  final String contentEncoding,
+                                  final Integer contentLimit,
+                                  final ContentDigest contentDigest) throws IOException {
         if (chunked) {
             requestConsumer.dropConnection(requestId, HttpStatusCode.BAD_REQUEST, "transfer encoding not supported", logger);
             return null;
         }
 
-        Content content = Content.ReadOperations.process(requestId, requestConsumer, "application/x-www-form-urlencoded", contentLength, false, gzipped);
+        Content content = Content.ReadOperations.process(requestId, requestConsumer, "application/x-www-form-urlencoded", contentLength, false,
+                contentEncoding, contentLimit, contentDigest);
         if (content == null) return null;
 
-        String[] data = (new String((byte[]) content.getData(), StandardCharsets.UTF_8)).split("&", 0);
-        UrlEncodedData urlEncodedData = new UrlEncodedData();
-        for (String s : data) {
-            String[] keyVal = s.split("=", 2);
-            urlEncodedData.put(URLDecoder.decode(keyVal[0], StandardCharsets.UTF_8), URLDecoder.decode(keyVal[1], StandardCharsets.UTF_8));
+        // content may be spooled beyond the contentMemoryThreshold (or the content memory budget), but form data is parsed in memory
+        byte[] data;
+        switch (content.getData()) {
+            case byte[] bytes -> data = bytes;
+            case ByteBuffer byteBuffer -> {
+                // off-heap content is released after the request, but the parsed data is decoded lazily
+                data = new byte[byteBuffer.remaining()];
+                byteBuffer.get(data);
+            }
+            case Path path -> {
+                // the temporary file is released with the request
+                if (!requestConsumer.reserveContentMemory(Files.size(path))) {
+                    requestConsumer.dropConnection(requestId, HttpStatusCode.SERVICE_UNAVAILABLE, "content memory budget exhausted", logger);
+                    return null;
+                }
+                data = Files.readAllBytes(path);
+            }
+            default -> throw new IllegalStateException("Unexpected value: " + content.getData());
         }
-
-        return new Content("application/x-www-form-urlencoded", urlEncodedData);
+        return new Content("application/x-www-form-urlencoded", parse(data, 0, data.length));
     }
 }
@@ -27,7 +27,7 @@ import java.lang.annotation.*;
  * Mark endpoint method as an HTTP {@code GET} request method endpoint. There are a few points that API users should follow.
  * <ul>
  *     <li>Annotated method must be {@code public} and {@code static}.</li>
- *     <li>Annotated method must use return type as {@code HttpResponse}.</li>
+ *     <li>Annotated method must use return type as {@code HttpResponse}, or {@code CompletionStage<HttpResponse>} for an asynchronous endpoint.</li>
  *     <li>Annotated method must have two parameters. {@code HttpGetRequest} and {@code HttpResponse} respectively.</li>
  *     <li>The class holding the annotated method must be annotated with {@code HttpEndpoint}.</li>
  * </ul>
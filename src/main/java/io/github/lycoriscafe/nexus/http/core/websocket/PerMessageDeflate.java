@@ -0,0 +1,232 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.websocket;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Negotiated {@code permessage-deflate} extension of a single connection. With the context takeover (the default), the LZ77 window is kept between
+ * messages in both directions, so repeated message structures (like the same JSON keys) are compressed into back-references of the earlier
+ * messages.
+ *
+ * @apiNote The JDK {@code Deflater} always uses a 32 KiB window, so offers requesting a smaller {@code server_max_window_bits} are declined.
+ * @see WebSocketSession
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc7692">RFC 7692 - Compression Extensions for WebSocket</a>
+ * @since v1.0.6
+ */
+final class PerMessageDeflate {
+    static final String NAME = "permessage-deflate";
+    // every message is flushed with this empty stored block, which is removed from the sent messages and added back to the received messages
+    static final byte[] TAIL = {0x00, 0x00, (byte) 0xFF, (byte) 0xFF};
+    // smaller messages are sent uncompressed (RSV1 is set per message)
+    private static final int MIN_COMPRESS_SIZE = 64;
+
+    private final boolean serverNoContextTakeover;
+    private final boolean clientNoContextTakeover;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final Inflater inflater = new Inflater(true);
+    private byte[] output = new byte[1_024];
+
+    /**
+     * Create an instance of {@code PerMessageDeflate}.
+     *
+     * @param serverNoContextTakeover Reset the compressor after every sent message
+     * @param clientNoContextTakeover Reset the decompressor after every received message
+     * @see #negotiate(String)
+     * @since v1.0.6
+     */
+    private PerMessageDeflate(final boolean serverNoContextTakeover,
+                              final boolean clientNoContextTakeover) {
+        this.serverNoContextTakeover = serverNoContextTakeover;
+        this.clientNoContextTakeover = clientNoContextTakeover;
+    }
+
+    /**
+     * Accept the first acceptable {@code permessage-deflate} offer of the {@code Sec-WebSocket-Extensions} request header.
+     *
+     * @param extensions {@code Sec-WebSocket-Extensions} request header value (can be null)
+     * @return Negotiated {@code PerMessageDeflate}, or null if no acceptable offer
+     * @see PerMessageDeflate
+     * @since v1.0.6
+     */
+    static PerMessageDeflate negotiate(final String extensions) {
+        if (extensions == null) return null;
+        offers:
+        for (String offer : extensions.split(",", 0)) {
+            String[] parts = offer.split(";", 0);
+            if (!parts[0].trim().equalsIgnoreCase(NAME)) continue;
+
+            Set<String> names = new HashSet<>();
+            boolean serverNoContextTakeover = false;
+            boolean clientNoContextTakeover = false;
+            for (int i = 1; i < parts.length; i++) {
+                String[] parameter = parts[i].split("=", 2);
+                String name = parameter[0].trim().toLowerCase(Locale.US);
+                String value = parameter.length == 2 ? parameter[1].trim().replace("\"", "") : null;
+                if (!names.add(name)) continue offers;
+                switch (name) {
+                    case "server_no_context_takeover" -> {
+                        if (value != null) continue offers;
+                        serverNoContextTakeover = true;
+                    }
+                    case "client_no_context_takeover" -> {
+                        if (value != null) continue offers;
+                        clientNoContextTakeover = true;
+                    }
+                    // the decompressor accepts any window size, so the client limit is only validated
+                    case "client_max_window_bits" -> {
+                        if (value != null && !isWindowBits(value)) continue offers;
+                    }
+                    case "server_max_window_bits" -> {
+                        if (value == null || !isWindowBits(value) || !value.equals("15")) continue offers;
+                    }
+                    default -> {
+                        continue offers;
+                    }
+                }
+            }
+            return new PerMessageDeflate(serverNoContextTakeover, clientNoContextTakeover);
+        }
+        return null;
+    }
+
+    /**
+     * Check the given value is a valid window bits value.
+     *
+     * @param value Parameter value
+     * @return If {@code 8} - {@code 15}, true
+     * @see PerMessageDeflate
+     * @since v1.0.6
+     */
+    private static boolean isWindowBits(final String value) {
+        return value.matches("8|9|1[0-5]");
+    }
+
+    /**
+     * Get the {@code Sec-WebSocket-Extensions} response header value of the accepted offer.
+     *
+     * @return Response header value
+     * @see PerMessageDeflate
+     * @since v1.0.6
+     */
+    String getResponseHeader() {
+        return NAME + (serverNoContextTakeover ? "; server_no_context_takeover" : "") +
+                (clientNoContextTakeover ? "; client_no_context_takeover" : "");
+    }
+
+    /**
+     * Check the given message should be compressed.
+     *
+     * @param length Message length
+     * @return If the message is big enough, true
+     * @see PerMessageDeflate
+     * @since v1.0.6
+     */
+    boolean shouldCompress(final int length) {
+        return length >= MIN_COMPRESS_SIZE;
+    }
+
+    /**
+     * Compress a message. The result is valid until the next call.
+     *
+     * @param data   Message buffer
+     * @param offset Message offset
+     * @param length Message length
+     * @return Length of the compressed message in {@code getOutput()}
+     * @see #getOutput()
+     * @see PerMessageDeflate
+     * @since v1.0.6
+     */
+    int compress(final byte[] data,
+                 final int offset,
+                 final int length) {
+        deflater.setInput(data, offset, length);
+        int outputLength = 0;
+        while (true) {
+            outputLength += deflater.deflate(output, outputLength, output.length - outputLength, Deflater.SYNC_FLUSH);
+            // a full output buffer may hide more pending output
+            if (outputLength < output.length) break;
+            output = Arrays.copyOf(output, output.length * 2);
+        }
+        if (serverNoContextTakeover) deflater.reset();
+        return outputLength - TAIL.length;
+    }
+
+    /**
+     * Decompress a message. The buffer must have {@code TAIL.length} spare bytes after the message for the removed flush block.
+     *
+     * @param data      Message buffer
+     * @param offset    Message offset
+     * @param length    Message length
+     * @param maxLength Maximum decompressed length
+     * @return Decompressed message, or null if bigger than the maximum length
+     * @throws DataFormatException Invalid compressed data
+     * @see PerMessageDeflate
+     * @since v1.0.6
+     */
+    byte[] decompress(final byte[] data,
+                      final int offset,
+                      final int length,
+                      final int maxLength) throws DataFormatException {
+        System.arraycopy(TAIL, 0, data, offset + length, TAIL.length);
+        inflater.setInput(data, offset, length + TAIL.length);
+        byte[] result = new byte[Math.min(Math.max(length * 4, 64), maxLength)];
+        int resultLength = 0;
+        while (true) {
+            int inflated = inflater.inflate(result, resultLength, result.length - resultLength);
+            resultLength += inflated;
+            if (resultLength == result.length) {
+                // one more byte than the limit tells if the message is too big
+                if (result.length > maxLength) return null;
+                result = Arrays.copyOf(result, (int) Math.min((long) result.length * 2, (long) maxLength + 1));
+                continue;
+            }
+            if (inflater.needsInput() || inflater.finished() || inflated == 0) break;
+        }
+        // a final block ends the stream, so the next message starts a new one
+        if (clientNoContextTakeover || inflater.finished()) inflater.reset();
+        return resultLength == result.length ? result : Arrays.copyOf(result, resultLength);
+    }
+
+    /**
+     * Get the output buffer of {@code compress(byte[], int, int)}.
+     *
+     * @return Output buffer
+     * @see PerMessageDeflate
+     * @since v1.0.6
+     */
+    byte[] getOutput() {
+        return output;
+    }
+
+    /**
+     * Release the native memory of the compressor and the decompressor.
+     *
+     * @see PerMessageDeflate
+     * @since v1.0.6
+     */
+    void end() {
+        deflater.end();
+        inflater.end();
+    }
+}
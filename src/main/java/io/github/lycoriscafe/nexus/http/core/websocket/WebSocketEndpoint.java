@@ -0,0 +1,73 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.websocket;
+
+import io.github.lycoriscafe.nexus.http.core.HttpEndpoint;
+import io.github.lycoriscafe.nexus.http.engine.reqResManager.httpReq.HttpGetRequest;
+import io.github.lycoriscafe.nexus.http.engine.reqResManager.httpRes.HttpResponse;
+
+import java.lang.annotation.*;
+
+/**
+ * Mark endpoint method as a WebSocket endpoint. The endpoint receives the opening handshake ({@code GET} request with {@code Upgrade: websocket}),
+ * and decides to accept or reject it. There are a few points that API users should follow.
+ * <ul>
+ *     <li>Annotated method must be {@code public} and {@code static}.</li>
+ *     <li>Annotated method must use return type as {@code Object}.</li>
+ *     <li>Annotated method must have two parameters. {@code HttpGetRequest} and {@code HttpResponse} respectively.</li>
+ *     <li>The class holding the annotated method must be annotated with {@code HttpEndpoint}.</li>
+ * </ul>
+ * Return a {@code WebSocketListener} to accept the connection. Headers and cookies added to the {@code HttpResponse} (like
+ * {@code Sec-WebSocket-Protocol}) are sent with the {@code 101 Switching Protocols} response. Return the {@code HttpResponse} (with an error status
+ * code, like {@code 403 Forbidden}) to reject the connection.
+ * <pre>
+ *     {@code
+ *     @WebSocketEndpoint("/chat")
+ *     public static Object chat(HttpGetRequest request,
+ *                               HttpResponse response) {
+ *         if (request.getParameters() == null) return response.setStatusCode(HttpStatusCode.FORBIDDEN);
+ *         return new WebSocketListener() {
+ *             @Override
+ *             public void onText(WebSocketSession session, String message) throws IOException {
+ *                 session.sendText(message);
+ *             }
+ *         };
+ *     }
+ *     }
+ * </pre>
+ *
+ * @apiNote The endpoint is a {@code GET} endpoint, so a {@code GET} endpoint with the same value cannot be added. Plain {@code GET} requests (without
+ * the upgrade) are responded with {@code 426 Upgrade Required}.
+ * @see WebSocketListener
+ * @see WebSocketSession
+ * @see HttpGetRequest
+ * @see HttpResponse
+ * @see HttpEndpoint
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc6455">RFC 6455 - The WebSocket Protocol</a>
+ * @since v1.0.6
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface WebSocketEndpoint {
+    /**
+     * @return Request endpoint value
+     * @see WebSocketEndpoint
+     * @since v1.0.6
+     */
+    String value();
+}
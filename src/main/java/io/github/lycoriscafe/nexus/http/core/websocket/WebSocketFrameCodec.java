@@ -0,0 +1,274 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.websocket;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * WebSocket frame reader and writer of a single connection. Frame headers are read into the fields of the codec, and the payloads are read
+ * directly into the caller's buffer and unmasked in place. Server frames are never masked.
+ *
+ * @see WebSocketSession
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc6455#section-5.2">RFC 6455 - 5.2. Base Framing Protocol</a>
+ * @since v1.0.6
+ */
+final class WebSocketFrameCodec {
+    static final int CONTINUATION = 0x0;
+    static final int TEXT = 0x1;
+    static final int BINARY = 0x2;
+    static final int CLOSE = 0x8;
+    static final int PING = 0x9;
+    static final int PONG = 0xA;
+
+    // writes a long into a byte[] at any offset, so 8 payload bytes are masked with one XOR
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    // header and payload are sent with one write up to this size
+    private static final int COALESCE_LIMIT = 8_192;
+
+    private final InputStream inputStream;
+    private final OutputStream outputStream;
+    private final byte[] headerBuffer = new byte[14];
+
+    private boolean fin;
+    private boolean rsv1;
+    private boolean otherRsv;
+    private int opcode;
+    private boolean masked;
+    private int maskKey;
+    private long payloadLength;
+
+    /**
+     * Create an instance of {@code WebSocketFrameCodec}.
+     *
+     * @param inputStream  Buffered socket input stream
+     * @param outputStream Socket output stream
+     * @see WebSocketFrameCodec
+     * @since v1.0.6
+     */
+    WebSocketFrameCodec(final InputStream inputStream,
+                        final OutputStream outputStream) {
+        this.inputStream = inputStream;
+        this.outputStream = outputStream;
+    }
+
+    /**
+     * Read the header of the next frame. The payload must be read with {@code readPayload(byte[], int, int)} before reading the next header.
+     *
+     * @throws IOException Error while reading data, or the connection is closed
+     * @see WebSocketFrameCodec
+     * @since v1.0.6
+     */
+    void readHeader() throws IOException {
+        readFully(headerBuffer, 0, 2);
+        fin = (headerBuffer[0] & 0x80) != 0;
+        rsv1 = (headerBuffer[0] & 0x40) != 0;
+        otherRsv = (headerBuffer[0] & 0x30) != 0;
+        opcode = headerBuffer[0] & 0x0F;
+        masked = (headerBuffer[1] & 0x80) != 0;
+
+        payloadLength = headerBuffer[1] & 0x7F;
+        if (payloadLength == 126) {
+            readFully(headerBuffer, 0, 2);
+            payloadLength = ((headerBuffer[0] & 0xFF) << 8) | (headerBuffer[1] & 0xFF);
+        } else if (payloadLength == 127) {
+            readFully(headerBuffer, 0, 8);
+            payloadLength = (long) LONG_VIEW.get(headerBuffer, 0);
+            if (payloadLength < 0) throw new IOException("invalid websocket payload length");
+        }
+
+        if (masked) {
+            readFully(headerBuffer, 0, 4);
+            maskKey = ((headerBuffer[0] & 0xFF) << 24) | ((headerBuffer[1] & 0xFF) << 16) | ((headerBuffer[2] & 0xFF) << 8) |
+                    (headerBuffer[3] & 0xFF);
+        }
+    }
+
+    /**
+     * Read the payload of the current frame and unmask it.
+     *
+     * @param buffer Destination buffer
+     * @param offset Destination offset
+     * @param length Payload length (must be the length of the current frame)
+     * @throws IOException Error while reading data, or the connection is closed
+     * @see #readHeader()
+     * @see WebSocketFrameCodec
+     * @since v1.0.6
+     */
+    void readPayload(final byte[] buffer,
+                     final int offset,
+                     final int length) throws IOException {
+        readFully(buffer, offset, length);
+        if (masked) mask(buffer, offset, length, maskKey);
+    }
+
+    /**
+     * Write a single (final) frame.
+     *
+     * @param opcode     Frame opcode
+     * @param compressed Set the {@code RSV1} bit (compressed message)
+     * @param payload    Payload buffer
+     * @param offset     Payload offset
+     * @param length     Payload length
+     * @throws IOException Error while writing data
+     * @see WebSocketFrameCodec
+     * @since v1.0.6
+     */
+    void writeFrame(final int opcode,
+                    final boolean compressed,
+                    final byte[] payload,
+                    final int offset,
+                    final int length) throws IOException {
+        byte[] frame = length <= COALESCE_LIMIT ? new byte[10 + length] : headerBuffer;
+        frame[0] = (byte) (0x80 | (compressed ? 0x40 : 0) | opcode);
+        int headerLength;
+        if (length < 126) {
+            frame[1] = (byte) length;
+            headerLength = 2;
+        } else if (length <= 0xFFFF) {
+            frame[1] = 126;
+            frame[2] = (byte) (length >>> 8);
+            frame[3] = (byte) length;
+            headerLength = 4;
+        } else {
+            frame[1] = 127;
+            LONG_VIEW.set(frame, 2, (long) length);
+            headerLength = 10;
+        }
+
+        if (frame != headerBuffer) {
+            System.arraycopy(payload, offset, frame, headerLength, length);
+            outputStream.write(frame, 0, headerLength + length);
+        } else {
+            outputStream.write(frame, 0, headerLength);
+            outputStream.write(payload, offset, length);
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * XOR the data with the masking key. Eight bytes are masked at once, and only the remaining tail is masked byte by byte.
+     *
+     * @param data    Data buffer
+     * @param offset  Data offset (the first byte is masked with the first byte of the key)
+     * @param length  Data length
+     * @param maskKey Masking key (big-endian)
+     * @see WebSocketFrameCodec
+     * @since v1.0.6
+     */
+    static void mask(final byte[] data,
+                     final int offset,
+                     final int length,
+                     final int maskKey) {
+        long wideKey = ((long) maskKey << 32) | (maskKey & 0xFFFF_FFFFL);
+        int index = offset;
+        int end = offset + length;
+        for (; index <= end - 8; index += 8) {
+            LONG_VIEW.set(data, index, (long) LONG_VIEW.get(data, index) ^ wideKey);
+        }
+        for (int keyIndex = 0; index < end; index++, keyIndex++) {
+            data[index] ^= (byte) (maskKey >>> (24 - ((keyIndex & 3) << 3)));
+        }
+    }
+
+    /**
+     * Read exactly the given count of bytes.
+     *
+     * @param buffer Destination buffer
+     * @param offset Destination offset
+     * @param length Byte count
+     * @throws IOException Error while reading data, or the connection is closed
+     * @see WebSocketFrameCodec
+     * @since v1.0.6
+     */
+    private void readFully(final byte[] buffer,
+                           final int offset,
+                           final int length) throws IOException {
+        if (inputStream.readNBytes(buffer, offset, length) != length) throw new EOFException("websocket connection closed");
+    }
+
+    /**
+     * Is the current frame the final fragment of a message?
+     *
+     * @return Final fragment status
+     * @see WebSocketFrameCodec
+     * @since v1.0.6
+     */
+    boolean isFin() {
+        return fin;
+    }
+
+    /**
+     * Is the {@code RSV1} bit (compressed message) set on the current frame?
+     *
+     * @return RSV1 status
+     * @see WebSocketFrameCodec
+     * @since v1.0.6
+     */
+    boolean isRsv1() {
+        return rsv1;
+    }
+
+    /**
+     * Are the {@code RSV2} or {@code RSV3} bits set on the current frame? (no extension uses them)
+     *
+     * @return RSV2 or RSV3 status
+     * @see WebSocketFrameCodec
+     * @since v1.0.6
+     */
+    boolean isOtherRsv() {
+        return otherRsv;
+    }
+
+    /**
+     * Get the opcode of the current frame.
+     *
+     * @return Frame opcode
+     * @see WebSocketFrameCodec
+     * @since v1.0.6
+     */
+    int getOpcode() {
+        return opcode;
+    }
+
+    /**
+     * Is the payload of the current frame masked?
+     *
+     * @return Masked status
+     * @see WebSocketFrameCodec
+     * @since v1.0.6
+     */
+    boolean isMasked() {
+        return masked;
+    }
+
+    /**
+     * Get the payload length of the current frame.
+     *
+     * @return Payload length
+     * @see WebSocketFrameCodec
+     * @since v1.0.6
+     */
+    long getPayloadLength() {
+        return payloadLength;
+    }
+}
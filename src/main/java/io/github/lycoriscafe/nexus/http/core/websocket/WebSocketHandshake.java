@@ -0,0 +1,204 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.websocket;
+
+import io.github.lycoriscafe.nexus.http.core.headers.Header;
+import io.github.lycoriscafe.nexus.http.core.statusCodes.HttpStatusCode;
+import io.github.lycoriscafe.nexus.http.engine.RequestConsumer;
+import io.github.lycoriscafe.nexus.http.engine.reqResManager.httpReq.HttpGetRequest;
+import io.github.lycoriscafe.nexus.http.engine.reqResManager.httpRes.HttpResponse;
+import io.github.lycoriscafe.nexus.http.helper.models.ReqEndpoint;
+import io.github.lycoriscafe.nexus.http.helper.util.LogFormatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Opening handshake of the WebSocket endpoints. The handshake request is validated before the endpoint method is called, and the accepted
+ * connection is served on the same connection thread until it's closed.
+ *
+ * @apiNote This class is public but not useful for the API users. Only used for in-API tasks.
+ * @see WebSocketEndpoint
+ * @see WebSocketSession
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc6455#section-4.2">RFC 6455 - 4.2. Server-Side Requirements</a>
+ * @since v1.0.6
+ */
+public final class WebSocketHandshake {
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketHandshake.class);
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    /**
+     * Process the opening handshake of a WebSocket endpoint.
+     *
+     * @param request     Handshake request
+     * @param reqEndpoint Target {@code ReqEndpoint}
+     * @throws InvocationTargetException Error while calling the endpoint method
+     * @throws IllegalAccessException    Error while calling the endpoint method
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see WebSocketHandshake
+     * @since v1.0.6
+     */
+    public static void process(final HttpGetRequest request,
+                               final ReqEndpoint reqEndpoint) throws InvocationTargetException, IllegalAccessException {
+        RequestConsumer requestConsumer = request.getRequestConsumer();
+        if (!containsToken(getHeaderValue(request, "upgrade"), "websocket")) {
+            requestConsumer.send(new HttpResponse(request.getRequestId(), requestConsumer).setStatusCode(HttpStatusCode.UPGRADE_REQUIRED)
+                    .addHeader(new Header("Upgrade", "websocket")));
+            return;
+        }
+
+        if (!containsToken(getHeaderValue(request, "connection"), "upgrade")) {
+            requestConsumer.dropConnection(request.getRequestId(), HttpStatusCode.BAD_REQUEST, "websocket handshake without connection upgrade",
+                    logger);
+            return;
+        }
+
+        String version = getHeaderValue(request, "sec-websocket-version");
+        if (version == null || !version.trim().equals("13")) {
+            requestConsumer.send(new HttpResponse(request.getRequestId(), requestConsumer).setStatusCode(HttpStatusCode.UPGRADE_REQUIRED)
+                    .addHeader(new Header("Sec-WebSocket-Version", "13")));
+            return;
+        }
+
+        String key = getHeaderValue(request, "sec-websocket-key");
+        if (!isValidKey(key)) {
+            requestConsumer.dropConnection(request.getRequestId(), HttpStatusCode.BAD_REQUEST, "invalid websocket key", logger);
+            return;
+        }
+
+        HttpResponse response = new HttpResponse(request.getRequestId(), requestConsumer);
+        switch (reqEndpoint.getMethod().invoke(null, request, response)) {
+            case WebSocketListener listener -> accept(request, response, key.trim(), listener);
+            case HttpResponse httpResponse when httpResponse.getStatusCode() != HttpStatusCode.SWITCHING_PROTOCOLS ->
+                    requestConsumer.send(httpResponse);
+            case null, default -> requestConsumer.dropConnection(request.getRequestId(), HttpStatusCode.INTERNAL_SERVER_ERROR,
+                    "Invalid http response provided", logger);
+        }
+    }
+
+    /**
+     * Send the {@code 101 Switching Protocols} response and serve the connection until it's closed.
+     *
+     * @param request  Handshake request
+     * @param response Response passed to the endpoint method
+     * @param key      {@code Sec-WebSocket-Key} request header value
+     * @param listener Listener returned by the endpoint method
+     * @see WebSocketHandshake
+     * @since v1.0.6
+     */
+    private static void accept(final HttpGetRequest request,
+                               final HttpResponse response,
+                               final String key,
+                               final WebSocketListener listener) {
+        RequestConsumer requestConsumer = request.getRequestConsumer();
+        PerMessageDeflate deflate = requestConsumer.getHttpServerConfiguration().isWebSocketCompression() ?
+                PerMessageDeflate.negotiate(getHeaderValue(request, "sec-websocket-extensions")) : null;
+
+        response.setStatusCode(HttpStatusCode.SWITCHING_PROTOCOLS).setContent(null)
+                .addHeader(new Header("Upgrade", "websocket"))
+                .addHeader(new Header("Sec-WebSocket-Accept", acceptValue(key)));
+        if (deflate != null) response.addHeader(new Header("Sec-WebSocket-Extensions", deflate.getResponseHeader()));
+        requestConsumer.send(response);
+
+        try {
+            if (requestConsumer.getSocket().isClosed()) throw new IOException("connection closed before the upgrade");
+            new WebSocketSession(request, listener, deflate).run();
+        } catch (IOException e) {
+            LogFormatter.log(logger.atDebug(), "WebSocket upgrade failed - " + e.getMessage());
+            if (deflate != null) deflate.end();
+        }
+    }
+
+    /**
+     * Calculate the {@code Sec-WebSocket-Accept} response header value.
+     *
+     * @param key {@code Sec-WebSocket-Key} request header value
+     * @return Base64 encoded SHA-1 of the key and the WebSocket GUID
+     * @see WebSocketHandshake
+     * @since v1.0.6
+     */
+    static String acceptValue(final String key) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1")
+                    .digest((key + ACCEPT_GUID).getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JDK provides SHA-1
+        }
+    }
+
+    /**
+     * Check the {@code Sec-WebSocket-Key} is a base64 encoded 16-byte value.
+     *
+     * @param key {@code Sec-WebSocket-Key} request header value
+     * @return If valid, true
+     * @see WebSocketHandshake
+     * @since v1.0.6
+     */
+    private static boolean isValidKey(final String key) {
+        if (key == null) return false;
+        try {
+            return Base64.getDecoder().decode(key.trim()).length == 16;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Check a comma-separated header value contains the given token (case-insensitive).
+     *
+     * @param value Header value (can be null)
+     * @param token Token
+     * @return If contains, true
+     * @see WebSocketHandshake
+     * @since v1.0.6
+     */
+    private static boolean containsToken(final String value,
+                                         final String token) {
+        if (value == null) return false;
+        for (String part : value.split(",", 0)) {
+            if (part.trim().equalsIgnoreCase(token)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get the value of the request headers with the given name. Values of repeated headers are joined with commas.
+     *
+     * @param request Handshake request
+     * @param name    Header name (lower-case)
+     * @return Header value, or {@code null} if not available
+     * @see WebSocketHandshake
+     * @since v1.0.6
+     */
+    private static String getHeaderValue(final HttpGetRequest request,
+                                         final String name) {
+        if (request.getHeaders() == null) return null;
+        String result = null;
+        for (Header header : request.getHeaders()) {
+            if (!header.getName().toLowerCase(Locale.US).equals(name)) continue;
+            result = result == null ? header.getValue() : result + ", " + header.getValue();
+        }
+        return result;
+    }
+}
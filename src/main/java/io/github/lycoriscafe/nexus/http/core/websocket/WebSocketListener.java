@@ -0,0 +1,104 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.websocket;
+
+import java.io.IOException;
+
+/**
+ * Receiver of the WebSocket connection events. All methods are called on the connection thread (a virtual thread) in the received order, so a
+ * listener serving a single connection does not need synchronization. Methods have empty default implementations, so only the needed ones should
+ * be overridden.
+ * <p>
+ * If a method throws an exception, {@code onError} is called and the connection is closed with the {@code 1011 Internal Error} close code.
+ *
+ * @see WebSocketEndpoint
+ * @see WebSocketSession
+ * @since v1.0.6
+ */
+public interface WebSocketListener {
+    /**
+     * Called when the connection is opened (after the {@code 101 Switching Protocols} response is sent).
+     *
+     * @param session Session of the connection
+     * @throws IOException Error while sending messages
+     * @see WebSocketListener
+     * @since v1.0.6
+     */
+    default void onOpen(final WebSocketSession session) throws IOException {}
+
+    /**
+     * Called when a text message is received.
+     *
+     * @param session Session of the connection
+     * @param message Received message
+     * @throws IOException Error while sending messages
+     * @see WebSocketListener
+     * @since v1.0.6
+     */
+    default void onText(final WebSocketSession session,
+                        final String message) throws IOException {}
+
+    /**
+     * Called when a binary message is received.
+     *
+     * @param session Session of the connection
+     * @param message Received message
+     * @throws IOException Error while sending messages
+     * @see WebSocketListener
+     * @since v1.0.6
+     */
+    default void onBinary(final WebSocketSession session,
+                          final byte[] message) throws IOException {}
+
+    /**
+     * Called when a pong is received (as the response to {@code WebSocketSession.ping(byte[])}, or unsolicited).
+     *
+     * @param session Session of the connection
+     * @param payload Pong payload
+     * @throws IOException Error while sending messages
+     * @see WebSocketSession#ping(byte[])
+     * @see WebSocketListener
+     * @since v1.0.6
+     */
+    default void onPong(final WebSocketSession session,
+                        final byte[] payload) throws IOException {}
+
+    /**
+     * Called once when the connection is closed. Close code is {@code 1006} if the connection is lost without a close frame.
+     *
+     * @param session Session of the connection
+     * @param code    Close code
+     * @param reason  Close reason (can be empty)
+     * @see WebSocketSession#close(int, String)
+     * @see WebSocketListener
+     * @since v1.0.6
+     */
+    default void onClose(final WebSocketSession session,
+                         final int code,
+                         final String reason) {}
+
+    /**
+     * Called when another method of this listener throws an exception. The connection is closed after this call.
+     *
+     * @param session   Session of the connection
+     * @param throwable Thrown exception
+     * @see WebSocketListener
+     * @since v1.0.6
+     */
+    default void onError(final WebSocketSession session,
+                         final Throwable throwable) {}
+}
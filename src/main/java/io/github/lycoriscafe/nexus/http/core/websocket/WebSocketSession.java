@@ -0,0 +1,642 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.core.websocket;
+
+import io.github.lycoriscafe.nexus.http.engine.reqResManager.httpReq.HttpGetRequest;
+import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
+import io.github.lycoriscafe.nexus.http.helper.util.LogFormatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.DataFormatException;
+
+/**
+ * WebSocket connection of an accepted {@code WebSocketEndpoint}. Received frames are read on the connection thread, and fragmented messages are
+ * reassembled (up to the {@code maxWebSocketMessageSize}) before they are passed to the {@code WebSocketListener}. Pings are answered
+ * automatically. Messages can be sent from any thread.
+ *
+ * @see WebSocketEndpoint
+ * @see WebSocketListener
+ * @see HttpServerConfiguration#setMaxWebSocketMessageSize(int)
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc6455">RFC 6455 - The WebSocket Protocol</a>
+ * @since v1.0.6
+ */
+public final class WebSocketSession {
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketSession.class);
+
+    /**
+     * Close code - the purpose of the connection is fulfilled.
+     */
+    public static final int NORMAL_CLOSURE = 1000;
+    /**
+     * Close code - the server or the client is going away.
+     */
+    public static final int GOING_AWAY = 1001;
+    /**
+     * Close code - the peer violated the protocol.
+     */
+    public static final int PROTOCOL_ERROR = 1002;
+    /**
+     * Close code - a message type that cannot be accepted is received.
+     */
+    public static final int UNSUPPORTED_DATA = 1003;
+    /**
+     * Close code (received only) - the close frame does not contain a close code.
+     */
+    public static final int NO_STATUS_RECEIVED = 1005;
+    /**
+     * Close code (received only) - the connection is lost without a close frame.
+     */
+    public static final int ABNORMAL_CLOSURE = 1006;
+    /**
+     * Close code - message data is not consistent with the message type (like invalid UTF-8 in a text message).
+     */
+    public static final int INVALID_PAYLOAD = 1007;
+    /**
+     * Close code - a message violates the policy of the endpoint.
+     */
+    public static final int POLICY_VIOLATION = 1008;
+    /**
+     * Close code - a message is too big to process.
+     */
+    public static final int MESSAGE_TOO_BIG = 1009;
+    /**
+     * Close code - an unexpected condition prevented the request from being fulfilled.
+     */
+    public static final int INTERNAL_ERROR = 1011;
+
+    // time to wait for the close frame of the client after sending one
+    private static final int CLOSE_TIMEOUT = 5_000;
+    private static final int INITIAL_BUFFER_SIZE = 1_024;
+    // message buffers grown bigger than this are not kept for the next message
+    private static final int RETAINED_BUFFER_SIZE = 65_536;
+
+    private final HttpGetRequest request;
+    private final WebSocketListener listener;
+    private final PerMessageDeflate deflate;
+    private final Socket socket;
+    private final HttpServerConfiguration serverConfiguration;
+    private final WebSocketFrameCodec codec;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+    private volatile boolean closeSent = false;
+    private int closeCode = ABNORMAL_CLOSURE;
+    private String closeReason = "";
+
+    /**
+     * Create an instance of {@code WebSocketSession}.
+     *
+     * @param request  Opening handshake request
+     * @param listener Listener returned by the endpoint
+     * @param deflate  Negotiated {@code permessage-deflate}, or null
+     * @throws IOException Error while getting the socket streams
+     * @see WebSocketHandshake
+     * @since v1.0.6
+     */
+    WebSocketSession(final HttpGetRequest request,
+                     final WebSocketListener listener,
+                     final PerMessageDeflate deflate) throws IOException {
+        this.request = Objects.requireNonNull(request);
+        this.listener = Objects.requireNonNull(listener);
+        this.deflate = deflate;
+        socket = request.getRequestConsumer().getSocket();
+        serverConfiguration = request.getRequestConsumer().getHttpServerConfiguration();
+        codec = new WebSocketFrameCodec(new BufferedInputStream(socket.getInputStream(), 16_384), socket.getOutputStream());
+    }
+
+    /**
+     * Get the opening handshake request (headers, cookies, parameters and authorization of the connection).
+     *
+     * @return Opening handshake request
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    public HttpGetRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Get is the {@code permessage-deflate} compression negotiated for this connection.
+     *
+     * @return Compression status
+     * @see HttpServerConfiguration#setWebSocketCompression(boolean)
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    public boolean isCompressed() {
+        return deflate != null;
+    }
+
+    /**
+     * Get is the session open (messages can be sent).
+     *
+     * @return Session open status
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    public boolean isOpen() {
+        return !closeSent && !socket.isClosed();
+    }
+
+    /**
+     * Send a text message.
+     *
+     * @param message Message
+     * @throws IOException Session is closed, or error while writing data
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    public void sendText(final String message) throws IOException {
+        byte[] data = Objects.requireNonNull(message).getBytes(StandardCharsets.UTF_8);
+        sendMessage(WebSocketFrameCodec.TEXT, data, 0, data.length);
+    }
+
+    /**
+     * Send a binary message.
+     *
+     * @param message Message
+     * @throws IOException Session is closed, or error while writing data
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    public void sendBinary(final byte[] message) throws IOException {
+        sendMessage(WebSocketFrameCodec.BINARY, Objects.requireNonNull(message), 0, message.length);
+    }
+
+    /**
+     * Send a ping. The client answers with a pong of the same payload.
+     *
+     * @param payload Ping payload (maximum 125 bytes)
+     * @throws IOException              Session is closed, or error while writing data
+     * @throws IllegalArgumentException Payload is bigger than 125 bytes
+     * @see WebSocketListener#onPong(WebSocketSession, byte[])
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    public void ping(final byte[] payload) throws IOException {
+        if (Objects.requireNonNull(payload).length > 125) throw new IllegalArgumentException("ping payload cannot be bigger than 125 bytes");
+        sendControl(WebSocketFrameCodec.PING, payload);
+    }
+
+    /**
+     * Close the session with the {@code 1000 Normal Closure} close code.
+     *
+     * @throws IOException Error while writing data
+     * @see #close(int, String)
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    public void close() throws IOException {
+        close(NORMAL_CLOSURE, "");
+    }
+
+    /**
+     * Close the session. The connection is closed when the client answers with its close frame. Calling this method on a closed session does nothing.
+     *
+     * @param code   Close code ({@code 1000} - {@code 1003}, {@code 1007} - {@code 1014}, or application codes {@code 3000} - {@code 4999})
+     * @param reason Close reason (maximum 123 bytes in UTF-8)
+     * @throws IOException              Error while writing data
+     * @throws IllegalArgumentException Invalid close code, or the reason is too long
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    public void close(final int code,
+                      final String reason) throws IOException {
+        if (!isValidCloseCode(code)) throw new IllegalArgumentException("invalid close code");
+        byte[] reasonBytes = Objects.requireNonNull(reason).getBytes(StandardCharsets.UTF_8);
+        if (reasonBytes.length > 123) throw new IllegalArgumentException("close reason cannot be bigger than 123 bytes");
+        sendClose(closePayload(code, reasonBytes));
+    }
+
+    /**
+     * Read and dispatch the messages until the connection is closed. The socket is closed when this method returns.
+     *
+     * @see WebSocketHandshake
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    void run() {
+        try {
+            socket.setSoTimeout(serverConfiguration.getWebSocketIdleTimeout());
+            notifyListener(() -> listener.onOpen(this));
+            readMessages();
+        } catch (ProtocolException e) {
+            LogFormatter.log(logger.atDebug(), "WebSocket protocol error - " + e.getMessage());
+            closeCode = e.code;
+            closeReason = e.getMessage();
+            sendCloseQuietly(closePayload(e.code, e.getMessage().getBytes(StandardCharsets.UTF_8)));
+        } catch (ListenerException e) {
+            try {
+                listener.onError(this, e.getCause());
+            } catch (RuntimeException ex) {
+                LogFormatter.log(logger.atDebug(), "WebSocket listener error - " + ex.getMessage());
+            }
+            closeCode = INTERNAL_ERROR;
+            closeReason = "internal error";
+            sendCloseQuietly(closePayload(INTERNAL_ERROR, closeReason.getBytes(StandardCharsets.UTF_8)));
+        } catch (SocketTimeoutException e) {
+            if (!closeSent) {
+                closeCode = GOING_AWAY;
+                closeReason = "idle timeout";
+                sendCloseQuietly(closePayload(GOING_AWAY, closeReason.getBytes(StandardCharsets.UTF_8)));
+            }
+        } catch (IOException e) {
+            LogFormatter.log(logger.atDebug(), "WebSocket connection terminated - " + e.getMessage());
+        } finally {
+            writeLock.lock();
+            try {
+                closeSent = true;
+                socket.close();
+            } catch (IOException ignored) {
+            } finally {
+                if (deflate != null) deflate.end();
+                writeLock.unlock();
+            }
+
+            try {
+                listener.onClose(this, closeCode, closeReason);
+            } catch (RuntimeException e) {
+                LogFormatter.log(logger.atDebug(), "WebSocket listener error - " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Read frames, reassemble the messages, and dispatch them until a close frame is received.
+     *
+     * @throws IOException Error while reading data, protocol error, or a listener error
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    private void readMessages() throws IOException {
+        byte[] control = new byte[125];
+        byte[] message = new byte[INITIAL_BUFFER_SIZE];
+        int messageLength = 0;
+        int messageOpcode = -1;
+        boolean messageCompressed = false;
+        int maxMessageSize = serverConfiguration.getMaxWebSocketMessageSize();
+
+        while (true) {
+            codec.readHeader();
+            int opcode = codec.getOpcode();
+            long length = codec.getPayloadLength();
+            if (!codec.isMasked()) throw new ProtocolException(PROTOCOL_ERROR, "client frames must be masked");
+            if (codec.isOtherRsv()) throw new ProtocolException(PROTOCOL_ERROR, "unexpected reserved bits");
+
+            if (opcode >= WebSocketFrameCodec.CLOSE) {
+                if (!codec.isFin() || length > 125 || codec.isRsv1()) throw new ProtocolException(PROTOCOL_ERROR, "invalid control frame");
+                codec.readPayload(control, 0, (int) length);
+                switch (opcode) {
+                    case WebSocketFrameCodec.CLOSE -> {
+                        processClose(control, (int) length);
+                        return;
+                    }
+                    case WebSocketFrameCodec.PING -> {
+                        byte[] payload = Arrays.copyOf(control, (int) length);
+                        if (!closeSent) sendControl(WebSocketFrameCodec.PONG, payload);
+                    }
+                    case WebSocketFrameCodec.PONG -> {
+                        byte[] payload = Arrays.copyOf(control, (int) length);
+                        notifyListener(() -> listener.onPong(this, payload));
+                    }
+                    default -> throw new ProtocolException(PROTOCOL_ERROR, "unknown opcode");
+                }
+                continue;
+            }
+
+            switch (opcode) {
+                case WebSocketFrameCodec.CONTINUATION -> {
+                    if (messageOpcode == -1 || codec.isRsv1()) throw new ProtocolException(PROTOCOL_ERROR, "unexpected continuation frame");
+                }
+                case WebSocketFrameCodec.TEXT, WebSocketFrameCodec.BINARY -> {
+                    if (messageOpcode != -1) throw new ProtocolException(PROTOCOL_ERROR, "expected continuation frame");
+                    if (codec.isRsv1() && deflate == null) throw new ProtocolException(PROTOCOL_ERROR, "unexpected reserved bits");
+                    messageOpcode = opcode;
+                    messageCompressed = codec.isRsv1();
+                }
+                default -> throw new ProtocolException(PROTOCOL_ERROR, "unknown opcode");
+            }
+
+            // checked before reading, so an oversized frame is never buffered
+            if (length > maxMessageSize - messageLength) throw new ProtocolException(MESSAGE_TOO_BIG, "message too big");
+            int required = messageLength + (int) length + PerMessageDeflate.TAIL.length;
+            if (required > message.length) {
+                message = Arrays.copyOf(message, Math.max(required, (int) Math.min((long) message.length * 2,
+                        (long) maxMessageSize + PerMessageDeflate.TAIL.length)));
+            }
+            codec.readPayload(message, messageLength, (int) length);
+            messageLength += (int) length;
+            if (!codec.isFin()) continue;
+
+            if (!closeSent) dispatch(messageOpcode, messageCompressed, message, messageLength, maxMessageSize);
+            messageOpcode = -1;
+            messageLength = 0;
+            if (message.length > RETAINED_BUFFER_SIZE) message = new byte[INITIAL_BUFFER_SIZE];
+        }
+    }
+
+    /**
+     * Decompress and decode a reassembled message, and pass it to the listener.
+     *
+     * @param opcode         Message opcode (text or binary)
+     * @param compressed     Is the message compressed?
+     * @param message        Message buffer
+     * @param length         Message length
+     * @param maxMessageSize Maximum decompressed length
+     * @throws IOException Invalid message data, or a listener error
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    private void dispatch(final int opcode,
+                          final boolean compressed,
+                          final byte[] message,
+                          final int length,
+                          final int maxMessageSize) throws IOException {
+        byte[] data = message;
+        int dataLength = length;
+        if (compressed) {
+            try {
+                data = deflate.decompress(message, 0, length, maxMessageSize);
+            } catch (DataFormatException e) {
+                throw new ProtocolException(INVALID_PAYLOAD, "invalid compressed data");
+            }
+            if (data == null) throw new ProtocolException(MESSAGE_TOO_BIG, "message too big");
+            dataLength = data.length;
+        }
+
+        if (opcode == WebSocketFrameCodec.TEXT) {
+            String text = decode(data, 0, dataLength);
+            notifyListener(() -> listener.onText(this, text));
+        } else {
+            byte[] binary = data == message ? Arrays.copyOf(message, length) : data;
+            notifyListener(() -> listener.onBinary(this, binary));
+        }
+    }
+
+    /**
+     * Process a received close frame, and answer it if the session is not closed yet.
+     *
+     * @param payload Close frame payload buffer
+     * @param length  Close frame payload length
+     * @throws IOException Invalid close frame
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    private void processClose(final byte[] payload,
+                              final int length) throws IOException {
+        if (length == 1) throw new ProtocolException(PROTOCOL_ERROR, "invalid close frame");
+        if (length == 0) {
+            closeCode = NO_STATUS_RECEIVED;
+            sendCloseQuietly(new byte[0]);
+            return;
+        }
+
+        int code = ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF);
+        if (!isValidCloseCode(code)) throw new ProtocolException(PROTOCOL_ERROR, "invalid close code");
+        closeReason = decode(payload, 2, length - 2);
+        closeCode = code;
+        sendCloseQuietly(closePayload(code, new byte[0]));
+    }
+
+    /**
+     * Decode strict UTF-8 data.
+     *
+     * @param data   Data buffer
+     * @param offset Data offset
+     * @param length Data length
+     * @return Decoded string
+     * @throws ProtocolException Invalid UTF-8 data
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    private String decode(final byte[] data,
+                          final int offset,
+                          final int length) throws ProtocolException {
+        try {
+            return decoder.decode(ByteBuffer.wrap(data, offset, length)).toString();
+        } catch (CharacterCodingException e) {
+            throw new ProtocolException(INVALID_PAYLOAD, "invalid UTF-8 data");
+        }
+    }
+
+    /**
+     * Send a data message as a single frame (compressed if negotiated).
+     *
+     * @param opcode Message opcode
+     * @param data   Message buffer
+     * @param offset Message offset
+     * @param length Message length
+     * @throws IOException Session is closed, or error while writing data
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    private void sendMessage(final int opcode,
+                             final byte[] data,
+                             final int offset,
+                             final int length) throws IOException {
+        writeLock.lock();
+        try {
+            if (closeSent) throw new IOException("websocket session closed");
+            writeMessage(opcode, data, offset, length);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Write a data message frame. Only called while holding the write lock.
+     *
+     * @param opcode Message opcode
+     * @param data   Message buffer
+     * @param offset Message offset
+     * @param length Message length
+     * @throws IOException Error while writing data
+     * @see #sendMessage(int, byte[], int, int)
+     * @since v1.0.6
+     */
+    private void writeMessage(final int opcode,
+                              final byte[] data,
+                              final int offset,
+                              final int length) throws IOException {
+        try {
+            if (deflate != null && deflate.shouldCompress(length)) {
+                codec.writeFrame(opcode, true, deflate.getOutput(), 0, deflate.compress(data, offset, length));
+            } else {
+                codec.writeFrame(opcode, false, data, offset, length);
+            }
+        } catch (IOException e) {
+            // a partly written frame breaks the framing of the connection
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Send a ping or a pong frame.
+     *
+     * @param opcode  Frame opcode
+     * @param payload Frame payload
+     * @throws IOException Session is closed, or error while writing data
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    private void sendControl(final int opcode,
+                             final byte[] payload) throws IOException {
+        writeLock.lock();
+        try {
+            if (closeSent) throw new IOException("websocket session closed");
+            codec.writeFrame(opcode, false, payload, 0, payload.length);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Send a close frame, if not sent already. No frames are sent after it, and the client has the close timeout to answer.
+     *
+     * @param payload Close frame payload
+     * @throws IOException Error while writing data
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    private void sendClose(final byte[] payload) throws IOException {
+        writeLock.lock();
+        try {
+            if (closeSent) return;
+            closeSent = true;
+            codec.writeFrame(WebSocketFrameCodec.CLOSE, false, payload, 0, payload.length);
+            socket.setSoTimeout(CLOSE_TIMEOUT);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Send a close frame while the connection is being closed anyway.
+     *
+     * @param payload Close frame payload
+     * @see #sendClose(byte[])
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    private void sendCloseQuietly(final byte[] payload) {
+        try {
+            sendClose(payload);
+        } catch (IOException e) {
+            LogFormatter.log(logger.atDebug(), "Cannot send WebSocket close frame - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Create a close frame payload.
+     *
+     * @param code   Close code
+     * @param reason Close reason (UTF-8)
+     * @return Close frame payload
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    private static byte[] closePayload(final int code,
+                                       final byte[] reason) {
+        byte[] payload = new byte[2 + Math.min(reason.length, 123)];
+        payload[0] = (byte) (code >>> 8);
+        payload[1] = (byte) code;
+        System.arraycopy(reason, 0, payload, 2, payload.length - 2);
+        return payload;
+    }
+
+    /**
+     * Check the given close code can be sent in a close frame.
+     *
+     * @param code Close code
+     * @return If valid, true
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    private static boolean isValidCloseCode(final int code) {
+        return (code >= 1000 && code <= 1014 && code != 1004 && code != NO_STATUS_RECEIVED && code != ABNORMAL_CLOSURE) ||
+                (code >= 3000 && code <= 4999);
+    }
+
+    /**
+     * Call a listener method. Exceptions are wrapped, so they are not mixed with the connection errors.
+     *
+     * @param call Listener method call
+     * @throws ListenerException Listener method threw an exception
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    private void notifyListener(final ListenerCall call) throws ListenerException {
+        try {
+            call.call();
+        } catch (IOException | RuntimeException e) {
+            throw new ListenerException(e);
+        }
+    }
+
+    /**
+     * Call of a listener method.
+     *
+     * @see #notifyListener(ListenerCall)
+     * @since v1.0.6
+     */
+    @FunctionalInterface
+    private interface ListenerCall {
+        void call() throws IOException;
+    }
+
+    /**
+     * Protocol violation of the client. The connection is closed with the close code.
+     *
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    private static final class ProtocolException extends IOException {
+        private final int code;
+
+        private ProtocolException(final int code,
+                                  final String message) {
+            super(message);
+            this.code = code;
+        }
+    }
+
+    /**
+     * Exception thrown by a listener method. The connection is closed with the {@code 1011 Internal Error} close code.
+     *
+     * @see WebSocketSession
+     * @since v1.0.6
+     */
+    private static final class ListenerException extends IOException {
+        private ListenerException(final Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.engine;
+
+import io.github.lycoriscafe.nexus.http.HttpServer;
+import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-wide byte budget of the in-memory request content. Content readers reserve bytes before allocating memory and wait (up to the
+ * {@code contentMemoryBudgetTimeout}) while the budget is exhausted. Reserved bytes are released after the request is finalized.
+ *
+ * @apiNote This class is public but not useful for the API users. Only used for in-API tasks.
+ * @see HttpServerConfiguration#setContentMemoryBudget(long)
+ * @see RequestConsumer#reserveContentMemory(long)
+ * @see HttpServer#getContentMemoryUsage()
+ * @since v1.0.6
+ */
+public final class ContentMemoryBudget {
+    private final long capacity;
+    private final long timeout;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private long used = 0L;
+
+    /**
+     * Create an instance of {@code ContentMemoryBudget}.
+     *
+     * @param serverConfiguration {@code HttpServerConfiguration} bound to the server
+     * @see ContentMemoryBudget
+     * @since v1.0.6
+     */
+    public ContentMemoryBudget(final HttpServerConfiguration serverConfiguration) {
+        capacity = serverConfiguration.getContentMemoryBudget();
+        timeout = TimeUnit.MILLISECONDS.toNanos(serverConfiguration.getContentMemoryBudgetTimeout());
+    }
+
+    /**
+     * Reserve bytes from the budget. Waits until enough bytes are released, or the timeout elapsed.
+     *
+     * @param bytes Count of bytes
+     * @return Is the bytes reserved?
+     * @see #release(long)
+     * @see ContentMemoryBudget
+     * @since v1.0.6
+     */
+    public boolean reserve(final long bytes) {
+        if (bytes <= 0) return true;
+        if (bytes > capacity) return false;
+
+        lock.lock();
+        try {
+            long remaining = timeout;
+            while (capacity - used < bytes) {
+                if (remaining <= 0) return false;
+                remaining = released.awaitNanos(remaining);
+            }
+            used += bytes;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release reserved bytes back to the budget.
+     *
+     * @param bytes Count of bytes
+     * @see #reserve(long)
+     * @see ContentMemoryBudget
+     * @since v1.0.6
+     */
+    public void release(final long bytes) {
+        if (bytes <= 0) return;
+        lock.lock();
+        try {
+            used = Math.max(0L, used - bytes);
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the count of reserved bytes.
+     *
+     * @return Reserved bytes
+     * @see ContentMemoryBudget
+     * @since v1.0.6
+     */
+    public long getUsed() {
+        lock.lock();
+        try {
+            return used;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
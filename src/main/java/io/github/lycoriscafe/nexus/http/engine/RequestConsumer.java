@@ -17,8 +17,11 @@
 package io.github.lycoriscafe.nexus.http.engine;
 
 import io.github.lycoriscafe.nexus.http.HttpServer;
+import io.github.lycoriscafe.nexus.http.core.headers.content.BufferPool;
 import io.github.lycoriscafe.nexus.http.core.headers.content.Content;
+import io.github.lycoriscafe.nexus.http.core.headers.content.JsonWriter;
 import io.github.lycoriscafe.nexus.http.core.statusCodes.HttpStatusCode;
+import io.github.lycoriscafe.nexus.http.engine.http2.Http2Connection;
 import io.github.lycoriscafe.nexus.http.engine.reqResManager.httpRes.HttpResponse;
 import io.github.lycoriscafe.nexus.http.helper.Database;
 import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
@@ -30,8 +33,18 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Base of the server. This class does the basic request receiving and response sending operations. Every receiving connection will have an
@@ -46,16 +59,37 @@ public final class RequestConsumer implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(RequestConsumer.class);
 
     private static final byte[] lineTerminator = "\r\n".getBytes(StandardCharsets.UTF_8);
+    private static final int CONTENT_BUFFER_SIZE = BufferPool.MEDIUM;
+    // asynchronous responses are written on a new virtual thread, not on the thread that completes the endpoint's stage
+    private static final Executor ASYNC_RESPONSE_EXECUTOR = task -> Thread.ofVirtual().name("AsyncResponse").start(task);
     private final RequestProcessor requestProcessor;
 
     private final HttpServerConfiguration serverConfiguration;
     private final Database database;
+    private final ContentMemoryBudget contentMemoryBudget;
+    private final TempFileManager tempFileManager;
     private final Socket socket;
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private final AtomicInteger pendingAsyncResponses = new AtomicInteger(0);
+    // detached contents are written on their own thread, which takes over the connection
+    private final boolean detachable;
+    private volatile boolean detached = false;
+    // thread that reads the requests, a content is only detached by it (no later request is read yet)
+    private volatile Thread connectionThread;
 
     // readLine() components
     private final byte[] terminatePoint = new byte[2];
     private final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
 
+    // content reading buffer, reused by every request of the connection
+    private byte[] contentBuffer;
+    // bytes reserved from the content memory budget, and direct buffers taken by the current request
+    private long reservedContentMemory = 0L;
+    private final List<ByteBuffer> directBuffers = new ArrayList<>();
+    // temporary files and disk space taken by the current request
+    private long reservedTempFileSpace = 0L;
+    private final List<Path> tempFiles = new ArrayList<>();
+
     private final SortedMap<Long, HttpResponse> responseQue;
     private long requestId = 0L;
     private long responseId = 0L;
@@ -65,6 +99,8 @@ public final class RequestConsumer implements Runnable {
      *
      * @param serverConfiguration {@code HttpServerConfiguration} passed to {@code HttpServer}.
      * @param database            {@code Database} initialized by {@code HttpServer}
+     * @param contentMemoryBudget {@code ContentMemoryBudget} initialized by {@code HttpServer}
+     * @param tempFileManager     {@code TempFileManager} initialized by {@code HttpServer}
      * @param socket              {@code Socket} initialized by {@code HttpServer}
      * @throws IOException Error while setting socket timeout
      * @apiNote Connection timeout specified by {@code HttpServerConfiguration} will handle in here.
@@ -75,11 +111,40 @@ public final class RequestConsumer implements Runnable {
      */
     public RequestConsumer(final HttpServerConfiguration serverConfiguration,
                            final Database database,
+                           final ContentMemoryBudget contentMemoryBudget,
+                           final TempFileManager tempFileManager,
                            final Socket socket) throws IOException {
+        this(serverConfiguration, database, contentMemoryBudget, tempFileManager, socket, true);
+    }
+
+    /**
+     * Create an instance of the {@code RequestConsumer}.
+     *
+     * @param serverConfiguration {@code HttpServerConfiguration} passed to {@code HttpServer}.
+     * @param database            {@code Database} initialized by {@code HttpServer}
+     * @param contentMemoryBudget {@code ContentMemoryBudget} initialized by {@code HttpServer}
+     * @param tempFileManager     {@code TempFileManager} initialized by {@code HttpServer}
+     * @param socket              {@code Socket} initialized by {@code HttpServer}
+     * @param detachable          Can the detached contents release the connection thread? (false if the thread is not pooled, HTTP/2 streams)
+     * @throws IOException Error while setting socket timeout
+     * @apiNote This constructor is public but not useful for the API users. Only used for in-API tasks.
+     * @see Content#isDetached()
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    public RequestConsumer(final HttpServerConfiguration serverConfiguration,
+                           final Database database,
+                           final ContentMemoryBudget contentMemoryBudget,
+                           final TempFileManager tempFileManager,
+                           final Socket socket,
+                           final boolean detachable) throws IOException {
         requestProcessor = new RequestProcessor(this);
+        this.detachable = detachable;
 
         this.serverConfiguration = Objects.requireNonNull(serverConfiguration);
         this.database = Objects.requireNonNull(database);
+        this.contentMemoryBudget = Objects.requireNonNull(contentMemoryBudget);
+        this.tempFileManager = Objects.requireNonNull(tempFileManager);
         this.socket = Objects.requireNonNull(socket);
 
         this.socket.setSoTimeout(serverConfiguration.getConnectionTimeout());
@@ -141,6 +206,174 @@ public final class RequestConsumer implements Runnable {
         return socket;
     }
 
+    /**
+     * Get the reusable buffer for content reading operations of this connection. Requests of a connection are read one after another, so the same
+     * buffer can be shared without allocating a new one for every request. The buffer is taken from the {@code BufferPool} and returned when the
+     * connection ends.
+     *
+     * @return Content reading buffer
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see Content.ReadOperations
+     * @see BufferPool
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    public byte[] getContentBuffer() {
+        if (contentBuffer == null) contentBuffer = BufferPool.acquire(CONTENT_BUFFER_SIZE);
+        return contentBuffer;
+    }
+
+    /**
+     * Reserve bytes from the server-wide content memory budget for the current request. Waits up to the {@code contentMemoryBudgetTimeout} while
+     * the budget is exhausted. Reserved bytes are released after the request is processed.
+     *
+     * @param bytes Count of bytes that will be kept in memory
+     * @return Is the bytes reserved? If not, the content should be moved into a temporary file (or rejected).
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see ContentMemoryBudget
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    public boolean reserveContentMemory(final long bytes) {
+        if (!contentMemoryBudget.reserve(bytes)) return false;
+        reservedContentMemory += Math.max(0L, bytes);
+        return true;
+    }
+
+    /**
+     * Take a pooled direct buffer for the off-heap content of the current request. The buffer is returned to the pool after the request is
+     * processed. Reserve the memory with {@code reserveContentMemory(long)} before.
+     *
+     * @param capacity Required capacity
+     * @return Direct buffer (limit is set to the capacity)
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see BufferPool#acquireDirect(int)
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    public ByteBuffer acquireDirectBuffer(final int capacity) {
+        ByteBuffer byteBuffer = BufferPool.acquireDirect(capacity);
+        directBuffers.add(byteBuffer);
+        return byteBuffer;
+    }
+
+    /**
+     * Return a direct buffer of the current request to the pool before the request is processed (like a replaced buffer that grew).
+     *
+     * @param byteBuffer Direct buffer taken by {@code acquireDirectBuffer(int)}
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see #acquireDirectBuffer(int)
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    public void releaseDirectBuffer(final ByteBuffer byteBuffer) {
+        for (int i = 0; i < directBuffers.size(); i++) {
+            if (directBuffers.get(i) == byteBuffer) {
+                directBuffers.remove(i);
+                BufferPool.releaseDirect(byteBuffer);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Release all bytes reserved by the current request back to the content memory budget, and return its direct buffers to the pool.
+     *
+     * @see #reserveContentMemory(long)
+     * @see #acquireDirectBuffer(int)
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    private void releaseContentMemory() {
+        contentMemoryBudget.release(reservedContentMemory);
+        reservedContentMemory = 0L;
+        for (ByteBuffer byteBuffer : directBuffers) {
+            BufferPool.releaseDirect(byteBuffer);
+        }
+        directBuffers.clear();
+    }
+
+    /**
+     * Take the resources of the current request (content memory, direct buffers, temporary files and disk space) out of the connection, so they
+     * are not released when the request processing returns.
+     *
+     * @return Task that releases the taken resources
+     * @see #sendAsync(long, CompletionStage)
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    private Runnable detachRequestResources() {
+        long contentMemory = reservedContentMemory;
+        List<ByteBuffer> buffers = List.copyOf(directBuffers);
+        long tempFileSpace = reservedTempFileSpace;
+        List<Path> files = List.copyOf(tempFiles);
+        reservedContentMemory = 0L;
+        directBuffers.clear();
+        reservedTempFileSpace = 0L;
+        tempFiles.clear();
+
+        return () -> {
+            contentMemoryBudget.release(contentMemory);
+            for (ByteBuffer byteBuffer : buffers) {
+                BufferPool.releaseDirect(byteBuffer);
+            }
+            tempFileManager.releaseSpace(tempFileSpace);
+            for (Path path : files) {
+                tempFileManager.release(path);
+            }
+        };
+    }
+
+    /**
+     * Take a temporary file for the current request. The file is released (returned to the pool or deleted) after the request is processed.
+     *
+     * @param prefix Prefix of the file name
+     * @return {@code Path} of the empty temporary file
+     * @throws IOException Error while creating the file
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see TempFileManager
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    public Path createTempFile(final String prefix) throws IOException {
+        Path path = tempFileManager.create(prefix);
+        tempFiles.add(path);
+        return path;
+    }
+
+    /**
+     * Reserve disk space for the temporary files of the current request. Reserved space is released after the request is processed.
+     *
+     * @param bytes Count of bytes that will be written into temporary files
+     * @return Is the bytes reserved? If not, the {@code maxTempFileSpace} is exhausted.
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see TempFileManager
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    public boolean reserveTempFileSpace(final long bytes) {
+        if (!tempFileManager.reserveSpace(bytes)) return false;
+        reservedTempFileSpace += Math.max(0L, bytes);
+        return true;
+    }
+
+    /**
+     * Release all temporary files and disk space taken by the current request.
+     *
+     * @see #createTempFile(String)
+     * @see #reserveTempFileSpace(long)
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    private void releaseTempFiles() {
+        tempFileManager.releaseSpace(reservedTempFileSpace);
+        reservedTempFileSpace = 0L;
+        for (Path path : tempFiles) {
+            tempFileManager.release(path);
+        }
+        tempFiles.clear();
+    }
+
     /**
      * Method to read character stream with direct socket input stream. The point is efficient and speed reading of bytes and convert into string. The
      * line terminator always will {@code \r\n}.
@@ -182,7 +415,17 @@ public final class RequestConsumer implements Runnable {
     public void run() {
         LogFormatter.log(logger.atTrace(), "Client connection received - LocalIP:" + socket.getInetAddress().getHostAddress());
         Thread.currentThread().setName("RequestConsumer@" + socket.getInetAddress().getHostAddress());
+        connectionThread = Thread.currentThread();
         try {
+            // the protocol is negotiated with ALPN in the TLS handshake
+            if (socket instanceof TlsSocket tlsSocket) {
+                tlsSocket.startHandshake();
+                if (serverConfiguration.isHttp2() && "h2".equals(tlsSocket.getApplicationProtocol())) {
+                    startHttp2(false);
+                    return;
+                }
+            }
+
             String requestLine = null;
             List<String> headers = new ArrayList<>();
 
@@ -197,7 +440,14 @@ public final class RequestConsumer implements Runnable {
                 }
 
                 if (line.isEmpty()) {
-                    requestProcessor.process(getRequestId(), requestLine, headers);
+                    try {
+                        requestProcessor.process(getRequestId(), requestLine, headers);
+                    } finally {
+                        releaseContentMemory();
+                        releaseTempFiles();
+                    }
+                    // the connection is taken over by the thread of a detached content
+                    if (detached) return;
                     requestLine = null;
                     headers.clear();
                     continue;
@@ -213,9 +463,27 @@ public final class RequestConsumer implements Runnable {
             }
         } catch (IOException e) {
             LogFormatter.log(logger.atDebug(), "Client connection terminated - " + e.getMessage());
+        } finally {
+            BufferPool.release(contentBuffer);
+            contentBuffer = null;
+            BufferPool.checkLeaks();
         }
     }
 
+    /**
+     * Continue the connection as an HTTP/2 connection. Returns when the connection ends.
+     *
+     * @param prefaceStarted Is the first line of the connection preface already read? (prior knowledge)
+     * @throws IOException Error while opening the socket streams
+     * @see Http2Connection
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    void startHttp2(final boolean prefaceStarted) throws IOException {
+        LogFormatter.log(logger.atTrace(), "Switching to HTTP/2 - LocalIP:" + socket.getInetAddress().getHostAddress());
+        new Http2Connection(serverConfiguration, database, contentMemoryBudget, tempFileManager, socket, prefaceStarted).run();
+    }
+
     /**
      * Prepare an HTTP response to drop the connection. This method is used to error reporting in-API exception occurred. The {@code exception}
      * settings can be found in {@code HttpServerConfiguration}.
@@ -235,22 +503,141 @@ public final class RequestConsumer implements Runnable {
         LogFormatter.log(logger.atDebug(), "Connection drop - RequestId:" + requestId + ", StatusCode:" + httpStatusCode + ", Exception:" + exception);
         var httpResponse = new HttpResponse(requestId, this).setStatusCode(httpStatusCode).setDropConnection(true);
         if (getHttpServerConfiguration().isAddErrorMessageToResponseHeaders() && exception != null) {
-            httpResponse.setContent(new Content("application/json", "{\"exception\":\"" + exception + "\"}"));
+            // escaped, the message may contain request data
+            httpResponse.setContent(new Content("application/json",
+                    JsonWriter.write(json -> json.beginObject().name("exception").value(exception).endObject())));
         }
         send(httpResponse);
     }
 
+    /**
+     * Get is the count of incomplete asynchronous responses of this connection at the {@code maxPendingAsyncResponses}.
+     *
+     * @return Asynchronous response limit status
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see HttpServerConfiguration#setMaxPendingAsyncResponses(int)
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    public boolean isAsyncResponseLimitReached() {
+        return pendingAsyncResponses.get() >= serverConfiguration.getMaxPendingAsyncResponses();
+    }
+
+    /**
+     * Get is an asynchronous response of this connection not sent yet.
+     *
+     * @return Pending asynchronous response status
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see #sendAsync(long, CompletionStage)
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    public boolean hasPendingAsyncResponses() {
+        return pendingAsyncResponses.get() > 0;
+    }
+
+    /**
+     * Send the response of an asynchronous endpoint when its stage completes. The connection continues reading the next requests meanwhile, and the
+     * responses are still sent in the request order. The resources of the current request (content memory and temporary files) are released when
+     * the stage completes. If the stage does not complete in the {@code asyncResponseTimeout}, {@code 504 Gateway Timeout} is sent instead.
+     *
+     * @param requestId Request id bound to the asynchronous endpoint
+     * @param stage     Stage returned by the endpoint
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see HttpServerConfiguration#setAsyncResponseTimeout(int)
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    public void sendAsync(final long requestId,
+                          final CompletionStage<?> stage) {
+        Runnable releaseResources = detachRequestResources();
+        pendingAsyncResponses.incrementAndGet();
+
+        // a separate future, so the timeout does not complete the stage of the API user
+        CompletableFuture<Object> response = new CompletableFuture<>();
+        stage.whenComplete((result, throwable) -> {
+            releaseResources.run();
+            if (throwable == null) {
+                response.complete(result);
+            } else {
+                response.completeExceptionally(throwable);
+            }
+        });
+        if (serverConfiguration.getAsyncResponseTimeout() > 0) {
+            response.orTimeout(serverConfiguration.getAsyncResponseTimeout(), TimeUnit.MILLISECONDS);
+        }
+
+        response.whenCompleteAsync((result, throwable) -> {
+            pendingAsyncResponses.decrementAndGet();
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            switch (cause) {
+                case null -> {
+                    if (result instanceof HttpResponse httpResponse) {
+                        send(httpResponse);
+                    } else {
+                        dropConnection(requestId, HttpStatusCode.INTERNAL_SERVER_ERROR, "Invalid http response provided", logger);
+                    }
+                }
+                case TimeoutException ignored -> send(new HttpResponse(requestId, this).setStatusCode(HttpStatusCode.GATEWAY_TIMEOUT));
+                default -> dropConnection(requestId, HttpStatusCode.INTERNAL_SERVER_ERROR, "asynchronous endpoint failed - " + cause.getMessage(),
+                        logger);
+            }
+        }, ASYNC_RESPONSE_EXECUTOR);
+    }
+
     /**
      * Base response writer method. Response headers are written to the socket output stream by this method, but content related write operations are
      * handled by the {@code Content} class. This method is constructed to support {@code HTTP Pipelining}.
      *
      * @param httpResponse {@code HttpResponse} that should be sent
-     * @see Content.WriteOperations#writeContent(RequestConsumer, Content)
+     * @see Content.WriteOperations#writeContent(RequestConsumer, Content, String)
      * @see RequestConsumer
      * @since v1.0.0
      */
-    public synchronized void send(final HttpResponse httpResponse) {
-        if (socket.isClosed()) return;
+    public void send(final HttpResponse httpResponse) {
+        // a lock instead of synchronized, so a virtual thread blocked while writing (read-ahead content) does not pin its carrier thread
+        sendLock.lock();
+        try {
+            sendInOrder(httpResponse);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /**
+     * Write a detached content on its own thread, and close the connection after it.
+     *
+     * @param content         Detached {@code Content}
+     * @param contentEncoding {@code Content-Encoding} negotiated for the response, or null
+     * @see Content#isDetached()
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    private void writeDetached(final Content content,
+                               final String contentEncoding) {
+        try {
+            Content.WriteOperations.writeContent(this, content, contentEncoding);
+            LogFormatter.log(logger.atTrace(), "Detached content sent");
+        } catch (IOException e) {
+            LogFormatter.log(logger.atDebug(), e.getMessage());
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+            BufferPool.checkLeaks();
+        }
+    }
+
+    /**
+     * Send the queued responses in the request order. Only called while holding the send lock.
+     *
+     * @param httpResponse {@code HttpResponse} that should be sent
+     * @see #send(HttpResponse)
+     * @since v1.0.6
+     */
+    private void sendInOrder(final HttpResponse httpResponse) {
+        if (socket.isClosed() || detached) return;
         responseQue.put(httpResponse.getRequestId(), httpResponse);
         LogFormatter.log(logger.atTrace(), "HttpResponse added to the queue - RequestId:" + httpResponse.getRequestId());
 
@@ -262,13 +649,27 @@ public final class RequestConsumer implements Runnable {
             if (response.getRequestId() == responseId) {
                 try {
                     OutputStream outputStream = socket.getOutputStream();
+                    Content content = response.getContent();
+                    // a response completed on another thread (asynchronous endpoints) can have later requests behind it, so it is written here
+                    boolean detach = detachable && content != null && content.isDetached() && Thread.currentThread() == connectionThread;
+                    if (detach) response.setDropConnection(true);
 
                     String headers = response.finalizeResponse();
                     if (headers == null) return;
                     outputStream.write(headers.getBytes(StandardCharsets.UTF_8));
                     outputStream.flush();
 
-                    if (response.getContent() != null) Content.WriteOperations.writeContent(this, response.getContent());
+                    if (detach) {
+                        // no more requests are read from the connection, it is closed after the content
+                        detached = true;
+                        responseQue.remove(key);
+                        responseId++;
+                        String contentEncoding = response.getContentEncoding();
+                        Thread.ofVirtual().name("DetachedContent@" + socket.getInetAddress().getHostAddress())
+                                .start(() -> writeDetached(content, contentEncoding));
+                        return;
+                    }
+                    if (content != null) Content.WriteOperations.writeContent(this, content, response.getContentEncoding());
 
                     if (response.isDropConnection()) {
                         socket.close();
@@ -277,6 +678,11 @@ public final class RequestConsumer implements Runnable {
                     LogFormatter.log(logger.atTrace(), "HttpResponse sent - RequestId:" + httpResponse.getRequestId());
                 } catch (IOException e) {
                     LogFormatter.log(logger.atDebug(), e.getMessage());
+                    // headers (and maybe a part of the content) are already sent, so the response cannot be completed
+                    try {
+                        socket.close();
+                    } catch (IOException ignored) {
+                    }
                 }
 
                 responseQue.remove(key);
@@ -18,6 +18,7 @@ package io.github.lycoriscafe.nexus.http.engine;
 
 import io.github.lycoriscafe.nexus.http.core.headers.Header;
 import io.github.lycoriscafe.nexus.http.core.headers.auth.Authorization;
+import io.github.lycoriscafe.nexus.http.core.headers.content.UrlEncodedData;
 import io.github.lycoriscafe.nexus.http.core.headers.cookies.Cookie;
 import io.github.lycoriscafe.nexus.http.core.headers.cors.CORSRequest;
 import io.github.lycoriscafe.nexus.http.core.requestMethods.HttpRequestMethod;
@@ -27,6 +28,7 @@ import io.github.lycoriscafe.nexus.http.helper.util.LogFormatter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
@@ -74,6 +76,17 @@ public final class RequestProcessor {
         }
         String[] request = requestLine.split(" ");
 
+        // HTTP/2 with prior knowledge, the connection preface starts like a request
+        if (requestId == 0L && headers.isEmpty() && requestLine.equals("PRI * HTTP/2.0") &&
+                requestConsumer.getHttpServerConfiguration().isHttp2()) {
+            try {
+                requestConsumer.startHttp2(true);
+            } catch (IOException e) {
+                LogFormatter.log(logger.atDebug(), "HTTP/2 connection failed - " + e.getMessage());
+            }
+            return;
+        }
+
         if (!request[2].trim().equals("HTTP/1.1")) {
             requestConsumer.dropConnection(requestId, HttpStatusCode.HTTP_VERSION_NOT_SUPPORTED, "http version not supported", logger);
             return;
@@ -94,22 +107,12 @@ public final class RequestProcessor {
         };
         if (httpRequest == null) return;
 
-        String[] uriParts = request[1].split("\\?", 0);
-        switch (uriParts.length) {
-            case 1 -> httpRequest.setEndpoint(decodeUri(uriParts[0]));
-            case 2 -> {
-                httpRequest.setEndpoint(decodeUri(uriParts[0]));
-                var queryParams = decodeQueryParams(uriParts[1]);
-                if (queryParams == null) {
-                    requestConsumer.dropConnection(requestId, HttpStatusCode.BAD_REQUEST, "invalid query parameters provided", logger);
-                    return;
-                }
-                httpRequest.setParameters(decodeQueryParams(uriParts[1]));
-            }
-            default -> {
-                requestConsumer.dropConnection(requestId, HttpStatusCode.BAD_REQUEST, "invalid query parameters provided", logger);
-                return;
-            }
+        int query = request[1].indexOf('?');
+        if (query == -1) {
+            httpRequest.setEndpoint(decodeUri(request[1]));
+        } else {
+            httpRequest.setEndpoint(decodeUri(request[1].substring(0, query)));
+            httpRequest.setParameters(UrlEncodedData.parse(request[1].substring(query + 1)));
         }
 
         boolean hostAvailable = false;
@@ -145,26 +148,6 @@ public final class RequestProcessor {
         httpRequest.finalizeRequest();
     }
 
-    /**
-     * Process URI query parameters.
-     *
-     * @param params Full query string that needs to be processed
-     * @return Map of query's key, value pairs
-     * @see #process(long, String, List)
-     * @see RequestProcessor
-     * @since v1.0.0
-     */
-    private static Map<String, String> decodeQueryParams(final String params) {
-        Map<String, String> decodedParams = new HashMap<>();
-        String[] parts = params.split("&", 0);
-        for (String part : parts) {
-            String[] keyValue = part.split("=", 0);
-            if (keyValue.length > 2) return null;
-            decodedParams.put(decodeUri(keyValue[0]), keyValue.length == 2 ? decodeUri(keyValue[1]) : null);
-        }
-        return decodedParams;
-    }
-
     /**
      * Process received URI to normal string by removing ASCII integers and escapes.
      *
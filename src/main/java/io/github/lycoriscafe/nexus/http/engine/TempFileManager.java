@@ -0,0 +1,166 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.engine;
+
+import io.github.lycoriscafe.nexus.http.HttpServer;
+import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-wide manager of the temporary files in the {@code tempDirectory} (spooled request content, compressed responses, ...). Files are tracked
+ * per request and released after the request is processed. Released files are truncated and kept in a small pool for the next requests, so
+ * spilling content does not create and delete a directory entry every time, and the rest are deleted. Pooled files are reused empty, not
+ * preallocated: the spooled files are given to the API users as the content, so the file length must be the content length. Writers reserve disk
+ * space before writing, and the total space is capped by the {@code maxTempFileSpace}.
+ *
+ * @apiNote This class is public but not useful for the API users. Only used for in-API tasks.
+ * @see HttpServerConfiguration#setMaxTempFileSpace(long)
+ * @see RequestConsumer#createTempFile(String)
+ * @see HttpServer#getTempFileCount()
+ * @see HttpServer#getTempFileSpaceUsage()
+ * @since v1.0.6
+ */
+public final class TempFileManager {
+    private static final Logger logger = LoggerFactory.getLogger(TempFileManager.class);
+    private static final int POOL_SIZE = 16;
+
+    private final Path directory;
+    private final long capacity;
+    private final BlockingQueue<Path> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicLong used = new AtomicLong();
+
+    /**
+     * Create an instance of {@code TempFileManager}.
+     *
+     * @param serverConfiguration {@code HttpServerConfiguration} bound to the server
+     * @see TempFileManager
+     * @since v1.0.6
+     */
+    public TempFileManager(final HttpServerConfiguration serverConfiguration) {
+        directory = Paths.get(serverConfiguration.getTempDirectory());
+        capacity = serverConfiguration.getMaxTempFileSpace();
+    }
+
+    /**
+     * Take an empty temporary file. A pooled file is reused if available, otherwise a new file is created.
+     *
+     * @param prefix Prefix of the new file name
+     * @return {@code Path} of the empty file
+     * @throws IOException Error while creating the file
+     * @see #release(Path)
+     * @see TempFileManager
+     * @since v1.0.6
+     */
+    public Path create(final String prefix) throws IOException {
+        Path path = pool.poll();
+        if (path == null || !Files.exists(path)) path = Files.createTempFile(directory, prefix, null);
+        count.incrementAndGet();
+        return path;
+    }
+
+    /**
+     * Release a temporary file. The file is truncated and returned to the pool, or deleted if the pool is full. Files that are already deleted
+     * (or moved by the API users) are ignored.
+     *
+     * @param path {@code Path} taken by {@code create(String)}
+     * @see #create(String)
+     * @see TempFileManager
+     * @since v1.0.6
+     */
+    public void release(final Path path) {
+        count.decrementAndGet();
+        try {
+            if (pool.remainingCapacity() > 0) {
+                try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    fileChannel.truncate(0L);
+                }
+                if (pool.offer(path)) return;
+            }
+            Files.deleteIfExists(path);
+        } catch (NoSuchFileException e) {
+            // already deleted or moved
+        } catch (IOException e) {
+            logger.atDebug().log("NEXUS-HTTP :: Cannot release temporary file - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reserve disk space for the temporary files. Unlike the content memory budget, this does not wait for the space to be released.
+     *
+     * @param bytes Count of bytes
+     * @return Is the bytes reserved?
+     * @see #releaseSpace(long)
+     * @see TempFileManager
+     * @since v1.0.6
+     */
+    public boolean reserveSpace(final long bytes) {
+        if (bytes <= 0) return true;
+        while (true) {
+            long current = used.get();
+            if (capacity - current < bytes) return false;
+            if (used.compareAndSet(current, current + bytes)) return true;
+        }
+    }
+
+    /**
+     * Release reserved disk space.
+     *
+     * @param bytes Count of bytes
+     * @see #reserveSpace(long)
+     * @see TempFileManager
+     * @since v1.0.6
+     */
+    public void releaseSpace(final long bytes) {
+        if (bytes > 0) used.addAndGet(-bytes);
+    }
+
+    /**
+     * Get the count of temporary files in use.
+     *
+     * @return Live temporary file count
+     * @see TempFileManager
+     * @since v1.0.6
+     */
+    public int getCount() {
+        return count.get();
+    }
+
+    /**
+     * Get the count of reserved bytes of the temporary files in use.
+     *
+     * @return Reserved bytes
+     * @see TempFileManager
+     * @since v1.0.6
+     */
+    public long getUsed() {
+        return used.get();
+    }
+}
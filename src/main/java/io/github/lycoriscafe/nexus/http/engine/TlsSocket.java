@@ -0,0 +1,793 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.lycoriscafe.nexus.http.engine;
+
+import io.github.lycoriscafe.nexus.http.HttpsServer;
+import io.github.lycoriscafe.nexus.http.core.headers.content.BufferPool;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * TLS connection of the {@code HttpsServer}, with an {@code SSLEngine} over an accepted plain socket. Unlike the {@code SSLSocket}, the packet and
+ * application buffers are taken from the {@code BufferPool} only while there is data in them, so an idle keep-alive connection (waiting for the
+ * next request) does not hold any buffer. The CPU-heavy delegated tasks of the handshakes run on a small shared executor (one thread per
+ * processor), so a burst of new connections cannot take the CPU from the connections already serving requests.
+ * <p>
+ * Reading and writing sides are locked separately, so a response can be written while another thread waits for the next request. The socket
+ * timeout applies to the handshake, the same as the reads. TLS 1.2 renegotiation is not supported (the connection is closed), and the TLS 1.3
+ * post-handshake messages (key updates) are answered by the reading side.
+ *
+ * @apiNote This class is public but not useful for the API users. Only used for in-API tasks.
+ * @see HttpsServer
+ * @see RequestConsumer#getSocket()
+ * @since v1.0.6
+ */
+public final class TlsSocket extends Socket {
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+    // delegated handshake tasks (key exchange, certificate operations) of all TLS connections
+    private static final ExecutorService HANDSHAKE_EXECUTOR = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+            Thread.ofPlatform().name("TlsHandshake-", 0).daemon().factory());
+
+    private final Socket socket;
+    private final SSLEngine engine;
+    private final InputStream socketInputStream;
+    private final OutputStream socketOutputStream;
+    private final TlsInputStream inputStream = new TlsInputStream();
+    private final TlsOutputStream outputStream = new TlsOutputStream();
+    private final ReentrantLock readLock = new ReentrantLock();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // inbound buffers are kept in read mode (unread data between the position and the limit), and released when empty
+    private byte[] packetInArray;
+    private ByteBuffer packetIn;
+    private byte[] applicationInArray;
+    private ByteBuffer applicationIn;
+    private volatile boolean handshakeDone = false;
+    private volatile boolean inboundDone = false;
+    private volatile boolean closed = false;
+
+    /**
+     * Create an instance of {@code TlsSocket}. The handshake starts with the first read or write, or {@code startHandshake()}.
+     *
+     * @param socket Accepted plain socket
+     * @param engine Server mode {@code SSLEngine} of the connection
+     * @throws IOException Error while opening the socket streams
+     * @see HttpsServer
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    public TlsSocket(final Socket socket,
+                     final SSLEngine engine) throws IOException {
+        this.socket = Objects.requireNonNull(socket);
+        this.engine = Objects.requireNonNull(engine);
+        socketInputStream = socket.getInputStream();
+        socketOutputStream = socket.getOutputStream();
+    }
+
+    /**
+     * Do the TLS handshake, if it is not done yet.
+     *
+     * @throws IOException Error in the handshake, or the socket timeout is exceeded
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    public void startHandshake() throws IOException {
+        if (handshakeDone) return;
+        readLock.lock();
+        try {
+            writeLock.lock();
+            try {
+                if (handshakeDone) return;
+                engine.beginHandshake();
+                handshake(engine.getHandshakeStatus());
+                handshakeDone = true;
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Get the application protocol negotiated with ALPN.
+     *
+     * @return Application protocol, empty if no protocol is negotiated, or null if the handshake is not done yet
+     * @see SSLEngine#getApplicationProtocol()
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    public String getApplicationProtocol() {
+        return engine.getApplicationProtocol();
+    }
+
+    /**
+     * Get the TLS session of the connection.
+     *
+     * @return TLS session
+     * @see SSLEngine#getSession()
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    public SSLSession getSession() {
+        return engine.getSession();
+    }
+
+    /**
+     * Get the decrypted input stream of the connection.
+     *
+     * @return Input stream
+     * @throws SocketException Socket is closed
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public InputStream getInputStream() throws SocketException {
+        if (closed) throw new SocketException("Socket is closed");
+        return inputStream;
+    }
+
+    /**
+     * Get the encrypting output stream of the connection.
+     *
+     * @return Output stream
+     * @throws SocketException Socket is closed
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public OutputStream getOutputStream() throws SocketException {
+        if (closed) throw new SocketException("Socket is closed");
+        return outputStream;
+    }
+
+    /**
+     * Set the read timeout of the connection (also used for the handshake).
+     *
+     * @param timeout Timeout in milliseconds, or 0 for no timeout
+     * @throws SocketException Error while setting the timeout
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public void setSoTimeout(final int timeout) throws SocketException {
+        socket.setSoTimeout(timeout);
+    }
+
+    /**
+     * Get the read timeout of the connection.
+     *
+     * @return Timeout in milliseconds
+     * @throws SocketException Error while getting the timeout
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public int getSoTimeout() throws SocketException {
+        return socket.getSoTimeout();
+    }
+
+    /**
+     * Enable/disable the {@code TCP_NODELAY} option of the connection.
+     *
+     * @param on Enable the option?
+     * @throws SocketException Error while setting the option
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public void setTcpNoDelay(final boolean on) throws SocketException {
+        socket.setTcpNoDelay(on);
+    }
+
+    /**
+     * Get is the {@code TCP_NODELAY} option enabled.
+     *
+     * @return {@code TCP_NODELAY} status
+     * @throws SocketException Error while getting the option
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public boolean getTcpNoDelay() throws SocketException {
+        return socket.getTcpNoDelay();
+    }
+
+    /**
+     * Get the address of the client.
+     *
+     * @return Client address
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public InetAddress getInetAddress() {
+        return socket.getInetAddress();
+    }
+
+    /**
+     * Get the port of the client.
+     *
+     * @return Client port
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public int getPort() {
+        return socket.getPort();
+    }
+
+    /**
+     * Get the local address of the connection.
+     *
+     * @return Local address
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public InetAddress getLocalAddress() {
+        return socket.getLocalAddress();
+    }
+
+    /**
+     * Get the local port of the connection.
+     *
+     * @return Local port
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public int getLocalPort() {
+        return socket.getLocalPort();
+    }
+
+    /**
+     * Get the socket address of the client.
+     *
+     * @return Client socket address
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public SocketAddress getRemoteSocketAddress() {
+        return socket.getRemoteSocketAddress();
+    }
+
+    /**
+     * Get the local socket address of the connection.
+     *
+     * @return Local socket address
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public SocketAddress getLocalSocketAddress() {
+        return socket.getLocalSocketAddress();
+    }
+
+    /**
+     * Get is the connection bound.
+     *
+     * @return Bound status
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public boolean isBound() {
+        return socket.isBound();
+    }
+
+    /**
+     * Get is the connection connected.
+     *
+     * @return Connected status
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public boolean isConnected() {
+        return socket.isConnected();
+    }
+
+    /**
+     * Get is the connection closed.
+     *
+     * @return Closed status
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public boolean isClosed() {
+        return closed || socket.isClosed();
+    }
+
+    /**
+     * Send the {@code close_notify} alert (if no other thread is writing), and close the connection. Threads blocked on the connection are released
+     * with a {@code SocketException}.
+     *
+     * @throws IOException Error while closing the socket
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (writeLock.tryLock()) {
+                try {
+                    closeOutbound();
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+        } finally {
+            socket.close();
+            if (readLock.tryLock()) {
+                try {
+                    releaseInbound();
+                } finally {
+                    readLock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the string representation of the connection.
+     *
+     * @return String representation
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    @Override
+    public String toString() {
+        return "TlsSocket[" + socket + "]";
+    }
+
+    /**
+     * Continue a handshake until it is finished. Both locks must be held by the current thread.
+     *
+     * @param status Current handshake status
+     * @throws IOException Error in the handshake
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    private void handshake(SSLEngineResult.HandshakeStatus status) throws IOException {
+        while (true) {
+            switch (status) {
+                case NEED_WRAP -> {
+                    SSLEngineResult result = wrap(EMPTY);
+                    if (result.getStatus() == SSLEngineResult.Status.CLOSED) throw new SSLException("connection closed in the TLS handshake");
+                    status = result.getHandshakeStatus();
+                }
+                case NEED_UNWRAP, NEED_UNWRAP_AGAIN -> {
+                    SSLEngineResult result = unwrap();
+                    if (result == null) throw new EOFException("connection closed in the TLS handshake");
+                    if (result.getStatus() == SSLEngineResult.Status.CLOSED) throw new SSLException("connection closed in the TLS handshake");
+                    status = result.getHandshakeStatus();
+                }
+                case NEED_TASK -> {
+                    runDelegatedTasks();
+                    status = engine.getHandshakeStatus();
+                }
+                default -> {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Run the delegated tasks of the engine on the handshake executor, and wait until they are done.
+     *
+     * @throws IOException Task failed, or the socket timeout is exceeded
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    private void runDelegatedTasks() throws IOException {
+        int timeout = socket.getSoTimeout();
+        Runnable task;
+        while ((task = engine.getDelegatedTask()) != null) {
+            Future<?> future = HANDSHAKE_EXECUTOR.submit(task);
+            try {
+                if (timeout == 0) {
+                    future.get();
+                } else {
+                    future.get(timeout, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("TLS handshake interrupted");
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                throw new SSLException("TLS handshake task timed out");
+            } catch (ExecutionException e) {
+                throw new SSLException("TLS handshake task failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Answer the handshake messages received after the handshake (TLS 1.3 key updates). The read lock must be held by the current thread.
+     *
+     * @param status Handshake status after the unwrap
+     * @throws IOException Error while answering, or a renegotiation is requested
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    private void postHandshake(final SSLEngineResult.HandshakeStatus status) throws IOException {
+        if (status == SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING || status == SSLEngineResult.HandshakeStatus.FINISHED) return;
+        if (!"TLSv1.3".equals(engine.getSession().getProtocol())) throw new SSLException("TLS renegotiation is not supported");
+        writeLock.lock();
+        try {
+            handshake(engine.getHandshakeStatus());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Unwrap the next TLS record into the application buffer, reading more packet data when needed. The read lock must be held by the current
+     * thread.
+     *
+     * @return Result of the unwrap, or null if the connection is closed at a record boundary
+     * @throws IOException Error while reading, or an invalid record
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    private SSLEngineResult unwrap() throws IOException {
+        if (packetIn == null && !readPacket()) {
+            releasePacketIn();
+            return null;
+        }
+        if (applicationIn == null) {
+            applicationInArray = BufferPool.acquire(engine.getSession().getApplicationBufferSize());
+            applicationIn = ByteBuffer.wrap(applicationInArray).limit(0);
+        }
+
+        try {
+            while (true) {
+                applicationIn.compact();
+                SSLEngineResult result;
+                try {
+                    result = engine.unwrap(packetIn, applicationIn);
+                } finally {
+                    applicationIn.flip();
+                }
+                switch (result.getStatus()) {
+                    case BUFFER_UNDERFLOW -> {
+                        if (!readPacket()) throw new EOFException("connection closed in the middle of a TLS record");
+                    }
+                    case BUFFER_OVERFLOW -> throw new SSLException("TLS record too large");
+                    default -> {
+                        return result;
+                    }
+                }
+            }
+        } finally {
+            if (packetIn != null && !packetIn.hasRemaining()) releasePacketIn();
+            if (!applicationIn.hasRemaining()) releaseApplicationIn();
+        }
+    }
+
+    /**
+     * Read more packet data from the socket. An empty packet buffer is taken only after the first byte arrives, so no buffer is held while the
+     * connection is idle.
+     *
+     * @return Is more data read? (false on the end of the stream)
+     * @throws IOException Error while reading, or the record does not fit into the buffer
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    private boolean readPacket() throws IOException {
+        if (packetIn == null) {
+            int first = socketInputStream.read();
+            if (first == -1) return false;
+            packetInArray = BufferPool.acquire(engine.getSession().getPacketBufferSize());
+            packetIn = ByteBuffer.wrap(packetInArray).put((byte) first).flip();
+        }
+
+        packetIn.compact();
+        try {
+            if (!packetIn.hasRemaining()) throw new SSLException("TLS record too large");
+            int count = socketInputStream.read(packetInArray, packetIn.position(), packetIn.remaining());
+            if (count == -1) return false;
+            packetIn.position(packetIn.position() + count);
+            return true;
+        } finally {
+            packetIn.flip();
+        }
+    }
+
+    /**
+     * Wrap the given application data (or the handshake messages) and write the records to the socket. The write lock must be held by the current
+     * thread.
+     *
+     * @param source Application data
+     * @return Result of the last wrap
+     * @throws IOException Error while writing
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    private SSLEngineResult wrap(final ByteBuffer source) throws IOException {
+        byte[] packetOutArray = BufferPool.acquire(engine.getSession().getPacketBufferSize());
+        try {
+            ByteBuffer packetOut = ByteBuffer.wrap(packetOutArray);
+            while (true) {
+                SSLEngineResult result = engine.wrap(source, packetOut.clear());
+                if (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) throw new SSLException("TLS record too large");
+                if (packetOut.position() > 0) socketOutputStream.write(packetOutArray, 0, packetOut.position());
+                if (result.getStatus() == SSLEngineResult.Status.CLOSED || !source.hasRemaining()
+                        && result.getHandshakeStatus() != SSLEngineResult.HandshakeStatus.NEED_WRAP) return result;
+                if (result.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_TASK) runDelegatedTasks();
+                if (result.bytesConsumed() == 0 && result.bytesProduced() == 0
+                        && engine.getHandshakeStatus() != SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+                    throw new SSLException("TLS renegotiation is not supported");
+                }
+            }
+        } finally {
+            BufferPool.release(packetOutArray);
+        }
+    }
+
+    /**
+     * Send the {@code close_notify} alert (or a pending alert of a failed handshake). Errors are ignored, since the connection is closing. The write
+     * lock must be held by the current thread.
+     *
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    private void closeOutbound() {
+        engine.closeOutbound();
+        try {
+            wrap(EMPTY);
+            socketOutputStream.flush();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Return the inbound buffers to the pool. The read lock must be held by the current thread.
+     *
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    private void releaseInbound() {
+        releasePacketIn();
+        releaseApplicationIn();
+    }
+
+    /**
+     * Return the packet input buffer to the pool.
+     *
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    private void releasePacketIn() {
+        BufferPool.release(packetInArray);
+        packetInArray = null;
+        packetIn = null;
+    }
+
+    /**
+     * Return the application input buffer to the pool.
+     *
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    private void releaseApplicationIn() {
+        BufferPool.release(applicationInArray);
+        applicationInArray = null;
+        applicationIn = null;
+    }
+
+    /**
+     * Decrypted input stream of the connection.
+     *
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    private final class TlsInputStream extends InputStream {
+        private final byte[] single = new byte[1];
+
+        /**
+         * Read a single byte.
+         *
+         * @return Byte, or -1 on the end of the stream
+         * @throws IOException Error while reading
+         * @see TlsInputStream
+         * @since v1.0.6
+         */
+        @Override
+        public int read() throws IOException {
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        /**
+         * Read decrypted bytes, receiving the next records when the application buffer is empty.
+         *
+         * @param b   Destination
+         * @param off Offset of the destination
+         * @param len Maximum count of bytes
+         * @return Count of bytes read, or -1 on the end of the stream
+         * @throws IOException Error while reading, or the socket timeout is exceeded
+         * @see TlsInputStream
+         * @since v1.0.6
+         */
+        @Override
+        public int read(final byte[] b,
+                        final int off,
+                        final int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0) return 0;
+            startHandshake();
+            readLock.lock();
+            try {
+                while (applicationIn == null) {
+                    if (closed) throw new SocketException("Socket is closed");
+                    if (inboundDone) return -1;
+                    SSLEngineResult result = unwrap();
+                    if (result == null || result.getStatus() == SSLEngineResult.Status.CLOSED) {
+                        inboundDone = true;
+                        continue;
+                    }
+                    postHandshake(result.getHandshakeStatus());
+                }
+                int count = Math.min(len, applicationIn.remaining());
+                applicationIn.get(b, off, count);
+                if (!applicationIn.hasRemaining()) releaseApplicationIn();
+                return count;
+            } catch (IOException e) {
+                // a timed out read can be continued, the partial record is kept
+                if (!(e instanceof SocketTimeoutException)) releaseInbound();
+                throw e;
+            } finally {
+                if (closed) releaseInbound();
+                readLock.unlock();
+            }
+        }
+
+        /**
+         * Get the count of decrypted bytes that can be read without blocking.
+         *
+         * @return Count of bytes in the application buffer, or 0 if another thread is reading
+         * @see TlsInputStream
+         * @since v1.0.6
+         */
+        @Override
+        public int available() {
+            if (!readLock.tryLock()) return 0;
+            try {
+                return applicationIn == null ? 0 : applicationIn.remaining();
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        /**
+         * Close the connection.
+         *
+         * @throws IOException Error while closing
+         * @see TlsSocket#close()
+         * @since v1.0.6
+         */
+        @Override
+        public void close() throws IOException {
+            TlsSocket.this.close();
+        }
+    }
+
+    /**
+     * Encrypting output stream of the connection. Every write is sent as TLS records immediately (the same as the {@code SSLSocket}), so the
+     * callers buffer the small writes.
+     *
+     * @see TlsSocket
+     * @since v1.0.6
+     */
+    private final class TlsOutputStream extends OutputStream {
+        /**
+         * Write a single byte.
+         *
+         * @param b Byte
+         * @throws IOException Error while writing
+         * @see TlsOutputStream
+         * @since v1.0.6
+         */
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        /**
+         * Encrypt and write bytes.
+         *
+         * @param b   Source
+         * @param off Offset of the source
+         * @param len Count of bytes
+         * @throws IOException Error while writing
+         * @see TlsOutputStream
+         * @since v1.0.6
+         */
+        @Override
+        public void write(final byte[] b,
+                          final int off,
+                          final int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0) return;
+            startHandshake();
+            writeLock.lock();
+            try {
+                if (closed) throw new SocketException("Socket is closed");
+                if (wrap(ByteBuffer.wrap(b, off, len)).getStatus() == SSLEngineResult.Status.CLOSED) throw new SocketException("Socket is closed");
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        /**
+         * Flush the socket output stream.
+         *
+         * @throws IOException Error while flushing
+         * @see TlsOutputStream
+         * @since v1.0.6
+         */
+        @Override
+        public void flush() throws IOException {
+            socketOutputStream.flush();
+        }
+
+        /**
+         * Close the connection.
+         *
+         * @throws IOException Error while closing
+         * @see TlsSocket#close()
+         * @since v1.0.6
+         */
+        @Override
+        public void close() throws IOException {
+            TlsSocket.this.close();
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.lycoriscafe.nexus.http.engine.http2;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shared parts of the HPACK header compression: the static table, the Huffman code, and the integer and string representations.
+ *
+ * @see HpackDecoder
+ * @see HpackEncoder
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc7541">HPACK: Header Compression for HTTP/2 (rfc7541)</a>
+ * @since v1.0.6
+ */
+final class Hpack {
+    /**
+     * Size of the dynamic tables (decoder and encoder), the default {@code SETTINGS_HEADER_TABLE_SIZE}.
+     */
+    static final int TABLE_SIZE = 4_096;
+    /**
+     * Count of the static table entries. Dynamic table indexes start after it.
+     */
+    static final int STATIC_TABLE_LENGTH = 61;
+
+    // rfc7541 Appendix A, index 1 is at 0
+    private static final String[][] STATIC_TABLE = {
+            {":authority", ""}, {":method", "GET"}, {":method", "POST"}, {":path", "/"}, {":path", "/index.html"}, {":scheme", "http"},
+            {":scheme", "https"}, {":status", "200"}, {":status", "204"}, {":status", "206"}, {":status", "304"}, {":status", "400"},
+            {":status", "404"}, {":status", "500"}, {"accept-charset", ""}, {"accept-encoding", "gzip, deflate"}, {"accept-language", ""},
+            {"accept-ranges", ""}, {"accept", ""}, {"access-control-allow-origin", ""}, {"age", ""}, {"allow", ""}, {"authorization", ""},
+            {"cache-control", ""}, {"content-disposition", ""}, {"content-encoding", ""}, {"content-language", ""}, {"content-length", ""},
+            {"content-location", ""}, {"content-range", ""}, {"content-type", ""}, {"cookie", ""}, {"date", ""}, {"etag", ""},
+            {"expect", ""}, {"expires", ""}, {"from", ""}, {"host", ""}, {"if-match", ""}, {"if-modified-since", ""}, {"if-none-match", ""},
+            {"if-range", ""}, {"if-unmodified-since", ""}, {"last-modified", ""}, {"link", ""}, {"location", ""}, {"max-forwards", ""},
+            {"proxy-authenticate", ""}, {"proxy-authorization", ""}, {"range", ""}, {"referer", ""}, {"refresh", ""}, {"retry-after", ""},
+            {"server", ""}, {"set-cookie", ""}, {"strict-transport-security", ""}, {"transfer-encoding", ""}, {"user-agent", ""},
+            {"vary", ""}, {"via", ""}, {"www-authenticate", ""}
+    };
+    // rfc7541 Appendix B, symbol 256 is EOS
+    private static final int[] HUFFMAN_CODES = {
+            0x1ff8, 0x7fffd8, 0xfffffe2, 0xfffffe3, 0xfffffe4, 0xfffffe5, 0xfffffe6, 0xfffffe7, 0xfffffe8, 0xffffea,
+            0x3ffffffc, 0xfffffe9, 0xfffffea, 0x3ffffffd, 0xfffffeb, 0xfffffec, 0xfffffed, 0xfffffee, 0xfffffef, 0xffffff0,
+            0xffffff1, 0xffffff2, 0x3ffffffe, 0xffffff3, 0xffffff4, 0xffffff5, 0xffffff6, 0xffffff7, 0xffffff8, 0xffffff9,
+            0xffffffa, 0xffffffb, 0x14, 0x3f8, 0x3f9, 0xffa, 0x1ff9, 0x15, 0xf8, 0x7fa,
+            0x3fa, 0x3fb, 0xf9, 0x7fb, 0xfa, 0x16, 0x17, 0x18, 0x0, 0x1,
+            0x2, 0x19, 0x1a, 0x1b, 0x1c, 0x1d, 0x1e, 0x1f, 0x5c, 0xfb,
+            0x7ffc, 0x20, 0xffb, 0x3fc, 0x1ffa, 0x21, 0x5d, 0x5e, 0x5f, 0x60,
+            0x61, 0x62, 0x63, 0x64, 0x65, 0x66, 0x67, 0x68, 0x69, 0x6a,
+            0x6b, 0x6c, 0x6d, 0x6e, 0x6f, 0x70, 0x71, 0x72, 0xfc, 0x73,
+            0xfd, 0x1ffb, 0x7fff0, 0x1ffc, 0x3ffc, 0x22, 0x7ffd, 0x3, 0x23, 0x4,
+            0x24, 0x5, 0x25, 0x26, 0x27, 0x6, 0x74, 0x75, 0x28, 0x29,
+            0x2a, 0x7, 0x2b, 0x76, 0x2c, 0x8, 0x9, 0x2d, 0x77, 0x78,
+            0x79, 0x7a, 0x7b, 0x7ffe, 0x7fc, 0x3ffd, 0x1ffd, 0xffffffc, 0xfffe6, 0x3fffd2,
+            0xfffe7, 0xfffe8, 0x3fffd3, 0x3fffd4, 0x3fffd5, 0x7fffd9, 0x3fffd6, 0x7fffda, 0x7fffdb, 0x7fffdc,
+            0x7fffdd, 0x7fffde, 0xffffeb, 0x7fffdf, 0xffffec, 0xffffed, 0x3fffd7, 0x7fffe0, 0xffffee, 0x7fffe1,
+            0x7fffe2, 0x7fffe3, 0x7fffe4, 0x1fffdc, 0x3fffd8, 0x7fffe5, 0x3fffd9, 0x7fffe6, 0x7fffe7, 0xffffef,
+            0x3fffda, 0x1fffdd, 0xfffe9, 0x3fffdb, 0x3fffdc, 0x7fffe8, 0x7fffe9, 0x1fffde, 0x7fffea, 0x3fffdd,
+            0x3fffde, 0xfffff0, 0x1fffdf, 0x3fffdf, 0x7fffeb, 0x7fffec, 0x1fffe0, 0x1fffe1, 0x3fffe0, 0x1fffe2,
+            0x7fffed, 0x3fffe1, 0x7fffee, 0x7fffef, 0xfffea, 0x3fffe2, 0x3fffe3, 0x3fffe4, 0x7ffff0, 0x3fffe5,
+            0x3fffe6, 0x7ffff1, 0x3ffffe0, 0x3ffffe1, 0xfffeb, 0x7fff1, 0x3fffe7, 0x7ffff2, 0x3fffe8, 0x1ffffec,
+            0x3ffffe2, 0x3ffffe3, 0x3ffffe4, 0x7ffffde, 0x7ffffdf, 0x3ffffe5, 0xfffff1, 0x1ffffed, 0x7fff2, 0x1fffe3,
+            0x3ffffe6, 0x7ffffe0, 0x7ffffe1, 0x3ffffe7, 0x7ffffe2, 0xfffff2, 0x1fffe4, 0x1fffe5, 0x3ffffe8, 0x3ffffe9,
+            0xffffffd, 0x7ffffe3, 0x7ffffe4, 0x7ffffe5, 0xfffec, 0xfffff3, 0xfffed, 0x1fffe6, 0x3fffe9, 0x1fffe7,
+            0x1fffe8, 0x7ffff3, 0x3fffea, 0x3fffeb, 0x1ffffee, 0x1ffffef, 0xfffff4, 0xfffff5, 0x3ffffea, 0x7ffff4,
+            0x3ffffeb, 0x7ffffe6, 0x3ffffec, 0x3ffffed, 0x7ffffe7, 0x7ffffe8, 0x7ffffe9, 0x7ffffea, 0x7ffffeb, 0xffffffe,
+            0x7ffffec, 0x7ffffed, 0x7ffffee, 0x7ffffef, 0x7fffff0, 0x3ffffee, 0x3fffffff
+    };
+    private static final byte[] HUFFMAN_LENGTHS = {
+            13, 23, 28, 28, 28, 28, 28, 28, 28, 24, 30, 28, 28, 30, 28, 28, 28, 28, 28, 28,
+            28, 28, 30, 28, 28, 28, 28, 28, 28, 28, 28, 28, 6, 10, 10, 12, 13, 6, 8, 11,
+            10, 10, 8, 11, 8, 6, 6, 6, 5, 5, 5, 6, 6, 6, 6, 6, 6, 6, 7, 8,
+            15, 6, 12, 10, 13, 6, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7,
+            7, 7, 7, 7, 7, 7, 7, 7, 8, 7, 8, 13, 19, 13, 14, 6, 15, 5, 6, 5,
+            6, 5, 6, 6, 6, 5, 7, 7, 6, 6, 6, 5, 6, 7, 6, 5, 5, 6, 7, 7,
+            7, 7, 7, 15, 11, 14, 13, 28, 20, 22, 20, 20, 22, 22, 22, 23, 22, 23, 23, 23,
+            23, 23, 24, 23, 24, 24, 22, 23, 24, 23, 23, 23, 23, 21, 22, 23, 22, 23, 23, 24,
+            22, 21, 20, 22, 22, 23, 23, 21, 23, 22, 22, 24, 21, 22, 23, 23, 21, 21, 22, 21,
+            23, 22, 23, 23, 20, 22, 22, 22, 23, 22, 22, 23, 26, 26, 20, 19, 22, 23, 22, 25,
+            26, 26, 26, 27, 27, 26, 24, 25, 19, 21, 26, 27, 27, 26, 27, 24, 21, 21, 26, 26,
+            28, 27, 27, 27, 20, 24, 20, 21, 22, 21, 21, 23, 22, 22, 25, 25, 24, 24, 26, 23,
+            26, 27, 26, 26, 27, 27, 27, 27, 27, 28, 27, 27, 27, 27, 27, 26, 30
+    };
+    private static final int EOS = 256;
+    // binary tree of the Huffman code, children of node n are at 2n (bit 0) and 2n + 1 (bit 1), leaves are stored as -(symbol + 1)
+    private static final int[] HUFFMAN_TREE = buildHuffmanTree();
+    // "name" -> first index of the name, "name\0value" -> index of the entry
+    private static final Map<String, Integer> STATIC_INDEX = buildStaticIndex();
+
+    /**
+     * Header field (name and value) of a header block.
+     *
+     * @param name  Field name (lowercase)
+     * @param value Field value
+     * @see Hpack
+     * @since v1.0.6
+     */
+    record Field(String name, String value) {
+        /**
+         * Get the size of the field in a dynamic table, the length of the name and value octets plus 32.
+         *
+         * @return Entry size
+         * @see HpackDynamicTable
+         * @since v1.0.6
+         */
+        int size() {
+            return utf8Length(name) + utf8Length(value) + 32;
+        }
+    }
+
+    /**
+     * Utility class, no instances.
+     *
+     * @see Hpack
+     * @since v1.0.6
+     */
+    private Hpack() {
+    }
+
+    /**
+     * Get an entry of the static table.
+     *
+     * @param index Index of the entry (1 to 61)
+     * @return Static table entry
+     * @see Hpack
+     * @since v1.0.6
+     */
+    static Field getStatic(final int index) {
+        return new Field(STATIC_TABLE[index - 1][0], STATIC_TABLE[index - 1][1]);
+    }
+
+    /**
+     * Find a field in the static table.
+     *
+     * @param name  Field name
+     * @param value Field value
+     * @return Index of the same field, negative index of the same name, or 0 if the name is not in the static table
+     * @see HpackEncoder
+     * @since v1.0.6
+     */
+    static int findStatic(final String name,
+                          final String value) {
+        Integer index = STATIC_INDEX.get(name + '\0' + value);
+        if (index != null) return index;
+        index = STATIC_INDEX.get(name);
+        return index == null ? 0 : -index;
+    }
+
+    /**
+     * Write an integer with an N-bit prefix.
+     *
+     * @param output     Header block
+     * @param flags      Bits of the first octet above the prefix
+     * @param prefixBits Count of prefix bits (1 to 8)
+     * @param value      Integer value
+     * @see <a href="https://datatracker.ietf.org/doc/html/rfc7541#section-5.1">rfc7541 - 5.1. Integer Representation</a>
+     * @since v1.0.6
+     */
+    static void writeInteger(final ByteArrayOutputStream output,
+                             final int flags,
+                             final int prefixBits,
+                             final int value) {
+        int maxPrefix = (1 << prefixBits) - 1;
+        if (value < maxPrefix) {
+            output.write(flags | value);
+            return;
+        }
+        output.write(flags | maxPrefix);
+        int remaining = value - maxPrefix;
+        while (remaining >= 0x80) {
+            output.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        output.write(remaining);
+    }
+
+    /**
+     * Write a string literal, Huffman encoded when it is shorter.
+     *
+     * @param output Header block
+     * @param value  String value
+     * @see <a href="https://datatracker.ietf.org/doc/html/rfc7541#section-5.2">rfc7541 - 5.2. String Literal Representation</a>
+     * @since v1.0.6
+     */
+    static void writeString(final ByteArrayOutputStream output,
+                            final String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long bits = 0L;
+        for (byte b : bytes) {
+            bits += HUFFMAN_LENGTHS[b & 0xFF];
+        }
+        int huffmanLength = (int) ((bits + 7) >>> 3);
+        if (huffmanLength >= bytes.length) {
+            writeInteger(output, 0x00, 7, bytes.length);
+            output.write(bytes, 0, bytes.length);
+            return;
+        }
+
+        writeInteger(output, 0x80, 7, huffmanLength);
+        long current = 0L;
+        int pending = 0;
+        for (byte b : bytes) {
+            int symbol = b & 0xFF;
+            current = (current << HUFFMAN_LENGTHS[symbol]) | HUFFMAN_CODES[symbol];
+            pending += HUFFMAN_LENGTHS[symbol];
+            while (pending >= 8) {
+                pending -= 8;
+                output.write((int) (current >>> pending));
+            }
+            current &= (1L << pending) - 1;
+        }
+        // padded with the most significant bits of EOS
+        if (pending > 0) output.write((int) ((current << (8 - pending)) | (0xFF >>> pending)));
+    }
+
+    /**
+     * Decode a Huffman encoded string literal.
+     *
+     * @param data   Header block
+     * @param offset Offset of the encoded string
+     * @param length Length of the encoded string
+     * @return Decoded string (UTF-8)
+     * @throws Http2Exception Invalid code, EOS, or invalid padding
+     * @see <a href="https://datatracker.ietf.org/doc/html/rfc7541#section-5.2">rfc7541 - 5.2. String Literal Representation</a>
+     * @since v1.0.6
+     */
+    static String huffmanDecode(final byte[] data,
+                                final int offset,
+                                final int length) throws Http2Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(length * 8 / 5 + 1);
+        int node = 0;
+        int depth = 0;
+        boolean onlyOnes = true;
+        for (int i = offset; i < offset + length; i++) {
+            for (int shift = 7; shift >= 0; shift--) {
+                int bit = (data[i] >>> shift) & 1;
+                int next = HUFFMAN_TREE[node * 2 + bit];
+                depth++;
+                onlyOnes &= bit == 1;
+                if (next >= 0) {
+                    node = next;
+                    continue;
+                }
+                int symbol = -next - 1;
+                if (symbol == EOS) throw new Http2Exception(Http2FrameCodec.COMPRESSION_ERROR, "huffman string contains EOS");
+                output.write(symbol);
+                node = 0;
+                depth = 0;
+                onlyOnes = true;
+            }
+        }
+        if (depth > 7 || !onlyOnes) throw new Http2Exception(Http2FrameCodec.COMPRESSION_ERROR, "invalid huffman padding");
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the length of the UTF-8 octets of a string.
+     *
+     * @param value String value
+     * @return Octet count
+     * @see Field#size()
+     * @since v1.0.6
+     */
+    private static int utf8Length(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) return value.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return value.length();
+    }
+
+    /**
+     * Build the decoding tree of the Huffman code.
+     *
+     * @return Decoding tree
+     * @see #huffmanDecode(byte[], int, int)
+     * @since v1.0.6
+     */
+    private static int[] buildHuffmanTree() {
+        // 257 leaves of a complete code have 256 inner nodes
+        int[] tree = new int[256 * 2];
+        int nodes = 1;
+        for (int symbol = 0; symbol < HUFFMAN_CODES.length; symbol++) {
+            int node = 0;
+            for (int shift = HUFFMAN_LENGTHS[symbol] - 1; shift > 0; shift--) {
+                int child = node * 2 + ((HUFFMAN_CODES[symbol] >>> shift) & 1);
+                if (tree[child] == 0) tree[child] = nodes++;
+                node = tree[child];
+            }
+            tree[node * 2 + (HUFFMAN_CODES[symbol] & 1)] = -(symbol + 1);
+        }
+        return tree;
+    }
+
+    /**
+     * Build the lookup index of the static table.
+     *
+     * @return Static table index
+     * @see #findStatic(String, String)
+     * @since v1.0.6
+     */
+    private static Map<String, Integer> buildStaticIndex() {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = STATIC_TABLE.length; i > 0; i--) {
+            index.put(STATIC_TABLE[i - 1][0], i);
+            if (!STATIC_TABLE[i - 1][1].isEmpty()) index.put(STATIC_TABLE[i - 1][0] + '\0' + STATIC_TABLE[i - 1][1], i);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.lycoriscafe.nexus.http.engine.http2;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HPACK decoder of the header blocks received on a connection. The dynamic table is bounded by the {@code SETTINGS_HEADER_TABLE_SIZE} of the
+ * server (4096 bytes, the default), so a client cannot grow it.
+ *
+ * @see Hpack
+ * @see Http2Connection
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc7541#section-6">rfc7541 - 6. Binary Format</a>
+ * @since v1.0.6
+ */
+final class HpackDecoder {
+    private final HpackDynamicTable dynamicTable = new HpackDynamicTable(Hpack.TABLE_SIZE);
+    private final int maxHeaderListSize;
+
+    private byte[] block;
+    private int position;
+    private int limit;
+
+    /**
+     * Create an instance of {@code HpackDecoder}.
+     *
+     * @param maxHeaderListSize Maximum size of a decoded header list ({@code SETTINGS_MAX_HEADER_LIST_SIZE})
+     * @see HpackDecoder
+     * @since v1.0.6
+     */
+    HpackDecoder(final int maxHeaderListSize) {
+        this.maxHeaderListSize = maxHeaderListSize;
+    }
+
+    /**
+     * Decode a complete header block. The whole block is always decoded to keep the dynamic table in sync with the client, even when the header
+     * list is too large.
+     *
+     * @param block  Header block buffer
+     * @param length Length of the header block
+     * @return Decoded header fields, or null if the header list exceeds the maximum size
+     * @throws Http2Exception Invalid header block ({@code COMPRESSION_ERROR})
+     * @see HpackDecoder
+     * @since v1.0.6
+     */
+    List<Hpack.Field> decode(final byte[] block,
+                             final int length) throws Http2Exception {
+        this.block = block;
+        position = 0;
+        limit = length;
+
+        List<Hpack.Field> fields = new ArrayList<>();
+        long listSize = 0L;
+        boolean fieldDecoded = false;
+        while (position < limit) {
+            int first = block[position] & 0xFF;
+            Hpack.Field field;
+            if ((first & 0x80) != 0) {
+                field = lookup(readInteger(7));
+            } else if ((first & 0xC0) == 0x40) {
+                field = readLiteral(6);
+                dynamicTable.add(field);
+            } else if ((first & 0xE0) == 0x20) {
+                // size updates are only allowed at the beginning of a block
+                if (fieldDecoded) throw new Http2Exception(Http2FrameCodec.COMPRESSION_ERROR, "misplaced dynamic table size update");
+                int maxSize = readInteger(5);
+                if (maxSize > Hpack.TABLE_SIZE) throw new Http2Exception(Http2FrameCodec.COMPRESSION_ERROR, "dynamic table size too large");
+                dynamicTable.setMaxSize(maxSize);
+                continue;
+            } else {
+                // without indexing and never indexed
+                field = readLiteral(4);
+            }
+            fieldDecoded = true;
+            listSize += field.size();
+            if (listSize <= maxHeaderListSize) fields.add(field);
+        }
+        this.block = null;
+        return listSize > maxHeaderListSize ? null : fields;
+    }
+
+    /**
+     * Get a field of the static or the dynamic table.
+     *
+     * @param index Index in the combined index space
+     * @return Table entry
+     * @throws Http2Exception Invalid index
+     * @see HpackDecoder
+     * @since v1.0.6
+     */
+    private Hpack.Field lookup(final int index) throws Http2Exception {
+        if (index == 0) throw new Http2Exception(Http2FrameCodec.COMPRESSION_ERROR, "invalid header index 0");
+        if (index <= Hpack.STATIC_TABLE_LENGTH) return Hpack.getStatic(index);
+        int dynamicIndex = index - Hpack.STATIC_TABLE_LENGTH - 1;
+        if (dynamicIndex >= dynamicTable.length()) throw new Http2Exception(Http2FrameCodec.COMPRESSION_ERROR, "invalid header index " + index);
+        return dynamicTable.get(dynamicIndex);
+    }
+
+    /**
+     * Read a literal field, with an indexed or a literal name.
+     *
+     * @param prefixBits Prefix bits of the name index
+     * @return Read field
+     * @throws Http2Exception Invalid header block
+     * @see HpackDecoder
+     * @since v1.0.6
+     */
+    private Hpack.Field readLiteral(final int prefixBits) throws Http2Exception {
+        int nameIndex = readInteger(prefixBits);
+        String name = nameIndex == 0 ? readString() : lookup(nameIndex).name();
+        return new Hpack.Field(name, readString());
+    }
+
+    /**
+     * Read an integer with an N-bit prefix.
+     *
+     * @param prefixBits Count of prefix bits
+     * @return Integer value
+     * @throws Http2Exception Truncated or too large integer
+     * @see <a href="https://datatracker.ietf.org/doc/html/rfc7541#section-5.1">rfc7541 - 5.1. Integer Representation</a>
+     * @since v1.0.6
+     */
+    private int readInteger(final int prefixBits) throws Http2Exception {
+        int maxPrefix = (1 << prefixBits) - 1;
+        int value = block[position++] & maxPrefix;
+        if (value < maxPrefix) return value;
+
+        long result = value;
+        int shift = 0;
+        while (true) {
+            if (position >= limit) throw new Http2Exception(Http2FrameCodec.COMPRESSION_ERROR, "truncated header integer");
+            int b = block[position++] & 0xFF;
+            result += (long) (b & 0x7F) << shift;
+            if (result > Integer.MAX_VALUE) throw new Http2Exception(Http2FrameCodec.COMPRESSION_ERROR, "header integer too large");
+            if ((b & 0x80) == 0) return (int) result;
+            shift += 7;
+            // redundant zero continuation octets
+            if (shift > 28) throw new Http2Exception(Http2FrameCodec.COMPRESSION_ERROR, "header integer too large");
+        }
+    }
+
+    /**
+     * Read a string literal.
+     *
+     * @return Decoded string (UTF-8)
+     * @throws Http2Exception Truncated string or invalid Huffman code
+     * @see <a href="https://datatracker.ietf.org/doc/html/rfc7541#section-5.2">rfc7541 - 5.2. String Literal Representation</a>
+     * @since v1.0.6
+     */
+    private String readString() throws Http2Exception {
+        if (position >= limit) throw new Http2Exception(Http2FrameCodec.COMPRESSION_ERROR, "truncated header string");
+        boolean huffman = (block[position] & 0x80) != 0;
+        int length = readInteger(7);
+        if (length > limit - position) throw new Http2Exception(Http2FrameCodec.COMPRESSION_ERROR, "truncated header string");
+        String value = huffman ? Hpack.huffmanDecode(block, position, length) : new String(block, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.lycoriscafe.nexus.http.engine.http2;
+
+/**
+ * Dynamic table of the HPACK header compression. The newest entry has the lowest index, and the oldest entries are evicted when the size of the
+ * table exceeds its maximum size.
+ *
+ * @see HpackDecoder
+ * @see HpackEncoder
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc7541#section-4">rfc7541 - 4. Dynamic Table Management</a>
+ * @since v1.0.6
+ */
+final class HpackDynamicTable {
+    // circular buffer, the newest entry is at head
+    private Hpack.Field[] entries = new Hpack.Field[16];
+    private int[] sizes = new int[16];
+    private int head = 0;
+    private int length = 0;
+    private int size = 0;
+    private int maxSize;
+
+    /**
+     * Create an instance of {@code HpackDynamicTable}.
+     *
+     * @param maxSize Maximum size of the table
+     * @see HpackDynamicTable
+     * @since v1.0.6
+     */
+    HpackDynamicTable(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the count of entries.
+     *
+     * @return Entry count
+     * @see HpackDynamicTable
+     * @since v1.0.6
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Get an entry.
+     *
+     * @param index Index of the entry in the dynamic table (0 is the newest)
+     * @return Table entry
+     * @see HpackDynamicTable
+     * @since v1.0.6
+     */
+    Hpack.Field get(final int index) {
+        return entries[(head + index) % entries.length];
+    }
+
+    /**
+     * Find a field in the table.
+     *
+     * @param name  Field name
+     * @param value Field value
+     * @return Index of the same field, negative (index + 1) of the same name, or {@code Integer.MIN_VALUE} if the name is not in the table
+     * @see HpackEncoder
+     * @since v1.0.6
+     */
+    int find(final String name,
+             final String value) {
+        int nameIndex = Integer.MIN_VALUE;
+        for (int i = 0; i < length; i++) {
+            Hpack.Field field = get(i);
+            if (!field.name().equals(name)) continue;
+            if (field.value().equals(value)) return i;
+            if (nameIndex == Integer.MIN_VALUE) nameIndex = -(i + 1);
+        }
+        return nameIndex;
+    }
+
+    /**
+     * Add an entry. Older entries are evicted to make room for it, and an entry bigger than the maximum size empties the table.
+     *
+     * @param field New entry
+     * @see HpackDynamicTable
+     * @since v1.0.6
+     */
+    void add(final Hpack.Field field) {
+        int fieldSize = field.size();
+        evict(maxSize - fieldSize);
+        if (fieldSize > maxSize) return;
+
+        if (length == entries.length) {
+            Hpack.Field[] newEntries = new Hpack.Field[entries.length * 2];
+            int[] newSizes = new int[entries.length * 2];
+            for (int i = 0; i < length; i++) {
+                newEntries[i] = get(i);
+                newSizes[i] = sizes[(head + i) % sizes.length];
+            }
+            entries = newEntries;
+            sizes = newSizes;
+            head = 0;
+        }
+        head = (head - 1 + entries.length) % entries.length;
+        entries[head] = field;
+        sizes[head] = fieldSize;
+        length++;
+        size += fieldSize;
+    }
+
+    /**
+     * Set the maximum size of the table, and evict the entries that do not fit.
+     *
+     * @param maxSize New maximum size
+     * @see HpackDynamicTable
+     * @since v1.0.6
+     */
+    void setMaxSize(final int maxSize) {
+        this.maxSize = maxSize;
+        evict(maxSize);
+    }
+
+    /**
+     * Evict the oldest entries until the size of the table is not more than the given size.
+     *
+     * @param targetSize Size to reach (evicts all entries if negative)
+     * @see HpackDynamicTable
+     * @since v1.0.6
+     */
+    private void evict(final int targetSize) {
+        while (length > 0 && size > targetSize) {
+            int oldest = (head + length - 1) % entries.length;
+            size -= sizes[oldest];
+            entries[oldest] = null;
+            length--;
+        }
+    }
+}
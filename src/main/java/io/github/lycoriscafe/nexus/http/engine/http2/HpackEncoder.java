@@ -0,0 +1,122 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.lycoriscafe.nexus.http.engine.http2;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * HPACK encoder of the header blocks sent on a connection. Repeated fields (like {@code server}, {@code content-type} and {@code vary}) are added
+ * to the dynamic table, so the following responses send them as a single index. Fields that change with almost every response are not indexed,
+ * and sensitive fields are never indexed.
+ *
+ * @apiNote Not thread-safe. Header blocks must be encoded in the order they are sent.
+ * @see Hpack
+ * @see Http2Connection
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc7541#section-6">rfc7541 - 6. Binary Format</a>
+ * @since v1.0.6
+ */
+final class HpackEncoder {
+    private static final Set<String> NEVER_INDEXED = Set.of("set-cookie", "authorization", "proxy-authenticate", "www-authenticate");
+    private static final Set<String> NOT_INDEXED = Set.of("content-length", "content-range", "content-disposition", "date", "expires", "etag",
+            "last-modified", "location", "age");
+
+    private final HpackDynamicTable dynamicTable = new HpackDynamicTable(Hpack.TABLE_SIZE);
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream(512);
+    private int maxTableSize = Hpack.TABLE_SIZE;
+    // smallest size since the previous block, the decoder must see every reduction
+    private int minTableSize = Hpack.TABLE_SIZE;
+    private boolean tableSizeChanged = false;
+
+    /**
+     * Set the maximum dynamic table size allowed by the client ({@code SETTINGS_HEADER_TABLE_SIZE}). The table is not grown above the default size.
+     * The change is signalled at the beginning of the next header block.
+     *
+     * @param tableSize Table size allowed by the client
+     * @see HpackEncoder
+     * @since v1.0.6
+     */
+    void setMaxTableSize(final int tableSize) {
+        int size = Math.min(tableSize, Hpack.TABLE_SIZE);
+        minTableSize = tableSizeChanged ? Math.min(minTableSize, size) : size;
+        maxTableSize = size;
+        tableSizeChanged = true;
+    }
+
+    /**
+     * Encode a header block.
+     *
+     * @param fields Header fields (pseudo-header fields first)
+     * @return Header block
+     * @see HpackEncoder
+     * @since v1.0.6
+     */
+    byte[] encode(final List<Hpack.Field> fields) {
+        output.reset();
+        if (tableSizeChanged) {
+            if (minTableSize < maxTableSize) {
+                Hpack.writeInteger(output, 0x20, 5, minTableSize);
+                dynamicTable.setMaxSize(minTableSize);
+            }
+            Hpack.writeInteger(output, 0x20, 5, maxTableSize);
+            dynamicTable.setMaxSize(maxTableSize);
+            tableSizeChanged = false;
+        }
+
+        for (Hpack.Field field : fields) {
+            encodeField(field);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Encode a single header field.
+     *
+     * @param field Header field
+     * @see #encode(List)
+     * @since v1.0.6
+     */
+    private void encodeField(final Hpack.Field field) {
+        int staticIndex = Hpack.findStatic(field.name(), field.value());
+        if (staticIndex > 0) {
+            Hpack.writeInteger(output, 0x80, 7, staticIndex);
+            return;
+        }
+
+        boolean neverIndexed = NEVER_INDEXED.contains(field.name());
+        int dynamicIndex = neverIndexed ? Integer.MIN_VALUE : dynamicTable.find(field.name(), field.value());
+        if (dynamicIndex >= 0) {
+            Hpack.writeInteger(output, 0x80, 7, Hpack.STATIC_TABLE_LENGTH + 1 + dynamicIndex);
+            return;
+        }
+
+        int nameIndex = staticIndex < 0 ? -staticIndex :
+                dynamicIndex == Integer.MIN_VALUE ? 0 : Hpack.STATIC_TABLE_LENGTH + 1 + (-dynamicIndex - 1);
+        if (neverIndexed) {
+            Hpack.writeInteger(output, 0x10, 4, nameIndex);
+        } else if (NOT_INDEXED.contains(field.name())) {
+            Hpack.writeInteger(output, 0x00, 4, nameIndex);
+        } else {
+            Hpack.writeInteger(output, 0x40, 6, nameIndex);
+            dynamicTable.add(field);
+        }
+        if (nameIndex == 0) Hpack.writeString(output, field.name());
+        Hpack.writeString(output, field.value());
+    }
+}
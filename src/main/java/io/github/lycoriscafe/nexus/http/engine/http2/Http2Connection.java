@@ -0,0 +1,1056 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.lycoriscafe.nexus.http.engine.http2;
+
+import io.github.lycoriscafe.nexus.http.engine.ContentMemoryBudget;
+import io.github.lycoriscafe.nexus.http.engine.RequestConsumer;
+import io.github.lycoriscafe.nexus.http.engine.TempFileManager;
+import io.github.lycoriscafe.nexus.http.helper.Database;
+import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
+import io.github.lycoriscafe.nexus.http.helper.util.LogFormatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * HTTP/2 connection. The connection thread reads the frames, and every stream (request) is processed by its own {@code RequestConsumer} on a new
+ * virtual thread, so the responses are sent as they complete, without the head-of-line blocking of HTTP/1.1. Frames of the streams are written
+ * under a single write lock, and the {@code DATA} frames wait for the flow control windows of the client.
+ * <p>
+ * HTTP/2 is negotiated with ALPN ({@code h2}) on the {@code HttpsServer}, and accepted with prior knowledge (the connection starts with the
+ * HTTP/2 connection preface, {@code h2c}) on the {@code HttpServer}. Server push and stream priorities are not supported.
+ *
+ * @apiNote This class is public but not useful for the API users. Only used for in-API tasks.
+ * @see Http2Stream
+ * @see RequestConsumer
+ * @see HttpServerConfiguration#setHttp2(boolean)
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc9113">HTTP/2 (rfc9113)</a>
+ * @since v1.0.6
+ */
+public final class Http2Connection {
+    private static final Logger logger = LoggerFactory.getLogger(Http2Connection.class);
+
+    private static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    // with prior knowledge, "PRI * HTTP/2.0" and the empty line are read as an HTTP/1.1 request head
+    private static final byte[] PREFACE_REMAINING = "SM\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    // client resets of open streams allowed in a second, more is handled as a rapid reset attack
+    private static final int MAX_RESETS_PER_SECOND = 200;
+    private static final Set<String> CONNECTION_HEADERS = Set.of("connection", "keep-alive", "proxy-connection", "transfer-encoding", "upgrade");
+
+    private final HttpServerConfiguration serverConfiguration;
+    private final Database database;
+    private final ContentMemoryBudget contentMemoryBudget;
+    private final TempFileManager tempFileManager;
+    private final Socket socket;
+    private final boolean prefaceStarted;
+    private final Http2FrameCodec codec;
+    private final int windowSize;
+    private final int maxHeaderListSize;
+    private final Map<Integer, Http2Stream> streams = new ConcurrentHashMap<>();
+    // streams whose processing thread is still running (a reset stream counts until its endpoint returns)
+    private final AtomicInteger processingStreams = new AtomicInteger(0);
+
+    // read by the connection thread only
+    private final byte[] payload = new byte[Http2FrameCodec.DEFAULT_MAX_FRAME_SIZE];
+    private final HpackDecoder decoder;
+    private final ByteArrayOutputStream headerBlock = new ByteArrayOutputStream();
+    private int headerStreamId = 0;
+    private int headerFlags = 0;
+    private int lastStreamId = 0;
+    private int receiveWindow;
+    private int unacknowledgedData = 0;
+    private boolean settingsReceived = false;
+    private int resetCount = 0;
+    private long resetPeriodStart = System.nanoTime();
+
+    // written under the write lock
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final HpackEncoder encoder = new HpackEncoder();
+
+    // send windows, guarded by the flow lock
+    private final ReentrantLock flowLock = new ReentrantLock();
+    private final Condition windowUpdated = flowLock.newCondition();
+    private int sendWindow = Http2FrameCodec.DEFAULT_WINDOW_SIZE;
+    private int peerInitialWindowSize = Http2FrameCodec.DEFAULT_WINDOW_SIZE;
+
+    private volatile int peerMaxFrameSize = Http2FrameCodec.DEFAULT_MAX_FRAME_SIZE;
+    private volatile boolean closed = false;
+
+    /**
+     * Create an instance of {@code Http2Connection}.
+     *
+     * @param serverConfiguration {@code HttpServerConfiguration} passed to {@code HttpServer}
+     * @param database            {@code Database} initialized by {@code HttpServer}
+     * @param contentMemoryBudget {@code ContentMemoryBudget} initialized by {@code HttpServer}
+     * @param tempFileManager     {@code TempFileManager} initialized by {@code HttpServer}
+     * @param socket              Connection socket
+     * @param prefaceStarted      Is the first line of the connection preface already read? (prior knowledge)
+     * @throws IOException Error while opening the socket streams
+     * @apiNote This constructor is public but not useful for the API users. Only used for in-API tasks.
+     * @see Http2Connection
+     * @since v1.0.6
+     */
+    public Http2Connection(final HttpServerConfiguration serverConfiguration,
+                           final Database database,
+                           final ContentMemoryBudget contentMemoryBudget,
+                           final TempFileManager tempFileManager,
+                           final Socket socket,
+                           final boolean prefaceStarted) throws IOException {
+        this.serverConfiguration = Objects.requireNonNull(serverConfiguration);
+        this.database = Objects.requireNonNull(database);
+        this.contentMemoryBudget = Objects.requireNonNull(contentMemoryBudget);
+        this.tempFileManager = Objects.requireNonNull(tempFileManager);
+        this.socket = Objects.requireNonNull(socket);
+        this.prefaceStarted = prefaceStarted;
+
+        windowSize = serverConfiguration.getHttp2InitialWindowSize();
+        receiveWindow = windowSize;
+        maxHeaderListSize = (int) Math.min(Integer.MAX_VALUE,
+                (long) serverConfiguration.getMaxHeaderSize() * (serverConfiguration.getMaxHeadersPerRequest() + 4));
+        decoder = new HpackDecoder(maxHeaderListSize);
+        codec = new Http2FrameCodec(new BufferedInputStream(socket.getInputStream(), Http2FrameCodec.DEFAULT_MAX_FRAME_SIZE),
+                new BufferedOutputStream(socket.getOutputStream(), Http2FrameCodec.DEFAULT_MAX_FRAME_SIZE + 9), () -> !streams.isEmpty());
+    }
+
+    /**
+     * Read and process the frames until the connection ends. The connection ends when the client closes it, on a connection error, or when
+     * the connection is idle (no active streams) for the {@code connectionTimeout}.
+     *
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see Http2Connection
+     * @since v1.0.6
+     */
+    public void run() {
+        LogFormatter.log(logger.atTrace(), "HTTP/2 connection started - LocalIP:" + socket.getInetAddress().getHostAddress());
+        try {
+            codec.readPreface(prefaceStarted ? PREFACE_REMAINING : PREFACE);
+            writeSettings();
+            while (!closed) {
+                codec.readHeader();
+                try {
+                    processFrame();
+                } catch (Http2Exception e) {
+                    if (e.getStreamId() == 0) throw e;
+                    LogFormatter.log(logger.atDebug(), "HTTP/2 stream error - StreamId:" + e.getStreamId() + ", Exception:" + e.getMessage());
+                    resetStream(e.getStreamId(), e.getErrorCode());
+                }
+            }
+        } catch (Http2Exception e) {
+            LogFormatter.log(logger.atDebug(), "HTTP/2 connection error - " + e.getMessage());
+            writeGoAway(e.getErrorCode(), e.getMessage());
+        } catch (SocketTimeoutException e) {
+            LogFormatter.log(logger.atDebug(), "HTTP/2 connection idle timeout");
+            writeGoAway(Http2FrameCodec.NO_ERROR, null);
+        } catch (IOException e) {
+            LogFormatter.log(logger.atDebug(), "HTTP/2 connection terminated - " + e.getMessage());
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Get the address of the client.
+     *
+     * @return Client address
+     * @see Http2Stream
+     * @since v1.0.6
+     */
+    InetAddress getInetAddress() {
+        return socket.getInetAddress();
+    }
+
+    /**
+     * Read the payload of the current frame and process it.
+     *
+     * @throws IOException Error while reading data, or a protocol error
+     * @see Http2Connection
+     * @since v1.0.6
+     */
+    private void processFrame() throws IOException {
+        int length = codec.getLength();
+        int type = codec.getType();
+        int flags = codec.getFlags();
+        int streamId = codec.getStreamId();
+        // larger frames are never allowed by the settings of the server
+        if (length > Http2FrameCodec.DEFAULT_MAX_FRAME_SIZE) throw new Http2Exception(Http2FrameCodec.FRAME_SIZE_ERROR, "frame too large");
+        codec.readPayload(payload, length);
+
+        if (headerStreamId != 0 && (type != Http2FrameCodec.CONTINUATION || streamId != headerStreamId)) {
+            throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "CONTINUATION expected");
+        }
+        if (!settingsReceived && (type != Http2FrameCodec.SETTINGS || (flags & Http2FrameCodec.FLAG_ACK) != 0)) {
+            throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "SETTINGS expected");
+        }
+
+        switch (type) {
+            case Http2FrameCodec.DATA -> processData(streamId, flags, length);
+            case Http2FrameCodec.HEADERS -> processHeaders(streamId, flags, length);
+            case Http2FrameCodec.PRIORITY -> {
+                if (streamId == 0) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "PRIORITY on stream 0");
+                if (length != 5) throw new Http2Exception(Http2FrameCodec.FRAME_SIZE_ERROR, streamId, "invalid PRIORITY length");
+            }
+            case Http2FrameCodec.RST_STREAM -> processRstStream(streamId, length);
+            case Http2FrameCodec.SETTINGS -> processSettings(streamId, flags, length);
+            case Http2FrameCodec.PUSH_PROMISE -> throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "PUSH_PROMISE from client");
+            case Http2FrameCodec.PING -> {
+                if (streamId != 0) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "PING on a stream");
+                if (length != 8) throw new Http2Exception(Http2FrameCodec.FRAME_SIZE_ERROR, "invalid PING length");
+                if ((flags & Http2FrameCodec.FLAG_ACK) == 0) writeFrame(Http2FrameCodec.PING, Http2FrameCodec.FLAG_ACK, 0, payload, 8);
+            }
+            case Http2FrameCodec.GOAWAY -> {
+                if (streamId != 0) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "GOAWAY on a stream");
+                // no new streams are opened by the client, the active streams are completed
+                LogFormatter.log(logger.atTrace(), "HTTP/2 GOAWAY received");
+            }
+            case Http2FrameCodec.WINDOW_UPDATE -> processWindowUpdate(streamId, length);
+            case Http2FrameCodec.CONTINUATION -> processContinuation(streamId, flags, length);
+            // unknown frame types are ignored
+            default -> {}
+        }
+    }
+
+    /**
+     * Process a {@code DATA} frame. The connection window is given back on receipt, the stream windows are given back when the endpoints read the
+     * content.
+     *
+     * @param streamId Stream id
+     * @param flags    Frame flags
+     * @param length   Payload length
+     * @throws IOException Error while writing frames, or a protocol error
+     * @see Http2Stream#receiveData(byte[], int, int, int, boolean)
+     * @since v1.0.6
+     */
+    private void processData(final int streamId,
+                             final int flags,
+                             final int length) throws IOException {
+        if (streamId == 0) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "DATA on stream 0");
+        int offset = 0;
+        int padding = 0;
+        if ((flags & Http2FrameCodec.FLAG_PADDED) != 0) {
+            if (length < 1) throw new Http2Exception(Http2FrameCodec.FRAME_SIZE_ERROR, "invalid DATA length");
+            padding = payload[0] & 0xFF;
+            offset = 1;
+        }
+        if (offset + padding > length) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "invalid DATA padding");
+
+        if (length > receiveWindow) throw new Http2Exception(Http2FrameCodec.FLOW_CONTROL_ERROR, "connection flow control window exceeded");
+        receiveWindow -= length;
+        unacknowledgedData += length;
+        if (unacknowledgedData >= windowSize / 2) {
+            writeWindowUpdate(0, unacknowledgedData);
+            receiveWindow += unacknowledgedData;
+            unacknowledgedData = 0;
+        }
+
+        Http2Stream stream = streams.get(streamId);
+        if (stream == null) {
+            if (streamId > lastStreamId) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "DATA on an idle stream");
+            // closed or reset stream, the frames already sent by the client are ignored
+            return;
+        }
+        stream.receiveData(payload, offset, length - offset - padding, length, (flags & Http2FrameCodec.FLAG_END_STREAM) != 0);
+    }
+
+    /**
+     * Process a {@code HEADERS} frame. The header block is decoded when it's complete (with the {@code CONTINUATION} frames).
+     *
+     * @param streamId Stream id
+     * @param flags    Frame flags
+     * @param length   Payload length
+     * @throws IOException Error while writing frames, or a protocol error
+     * @see #processHeaderBlock(int)
+     * @since v1.0.6
+     */
+    private void processHeaders(final int streamId,
+                                final int flags,
+                                final int length) throws IOException {
+        if (streamId == 0) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "HEADERS on stream 0");
+        int offset = 0;
+        int padding = 0;
+        if ((flags & Http2FrameCodec.FLAG_PADDED) != 0) {
+            if (length < 1) throw new Http2Exception(Http2FrameCodec.FRAME_SIZE_ERROR, "invalid HEADERS length");
+            padding = payload[0] & 0xFF;
+            offset = 1;
+        }
+        // stream priorities are not supported
+        if ((flags & Http2FrameCodec.FLAG_PRIORITY) != 0) offset += 5;
+        if (offset + padding > length) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "invalid HEADERS padding");
+
+        headerBlock.reset();
+        headerBlock.write(payload, offset, length - offset - padding);
+        headerFlags = flags;
+        if ((flags & Http2FrameCodec.FLAG_END_HEADERS) != 0) {
+            processHeaderBlock(streamId);
+        } else {
+            headerStreamId = streamId;
+        }
+    }
+
+    /**
+     * Process a {@code CONTINUATION} frame.
+     *
+     * @param streamId Stream id
+     * @param flags    Frame flags
+     * @param length   Payload length
+     * @throws IOException Error while writing frames, or a protocol error
+     * @see #processHeaderBlock(int)
+     * @since v1.0.6
+     */
+    private void processContinuation(final int streamId,
+                                     final int flags,
+                                     final int length) throws IOException {
+        if (headerStreamId == 0) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "unexpected CONTINUATION");
+        headerBlock.write(payload, 0, length);
+        // the whole block must be decoded to keep the dynamic table, so an endless block ends the connection
+        if (headerBlock.size() > maxHeaderListSize) throw new Http2Exception(Http2FrameCodec.ENHANCE_YOUR_CALM, "header block too large");
+        if ((flags & Http2FrameCodec.FLAG_END_HEADERS) != 0) {
+            headerStreamId = 0;
+            processHeaderBlock(streamId);
+        }
+    }
+
+    /**
+     * Decode a complete header block, and open a new stream or end the request with the trailers.
+     *
+     * @param streamId Stream id
+     * @throws IOException Error while writing frames, or a protocol error
+     * @see #openStream(int, List, boolean)
+     * @since v1.0.6
+     */
+    private void processHeaderBlock(final int streamId) throws IOException {
+        List<Hpack.Field> fields = decoder.decode(headerBlock.toByteArray(), headerBlock.size());
+        boolean endStream = (headerFlags & Http2FrameCodec.FLAG_END_STREAM) != 0;
+
+        Http2Stream stream = streams.get(streamId);
+        if (stream != null) {
+            if (!endStream) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, streamId, "trailers without END_STREAM");
+            stream.receiveTrailers();
+            return;
+        }
+        // closed or reset stream
+        if (streamId <= lastStreamId) return;
+        if ((streamId & 1) == 0) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "stream id of the client must be odd");
+        lastStreamId = streamId;
+
+        int maxConcurrentStreams = serverConfiguration.getHttp2MaxConcurrentStreams();
+        if (streams.size() >= maxConcurrentStreams || processingStreams.get() >= maxConcurrentStreams) {
+            throw new Http2Exception(Http2FrameCodec.REFUSED_STREAM, streamId, "max concurrent streams exceeded");
+        }
+        if (fields == null) {
+            writeHeaders(streamId, List.of(new Hpack.Field(":status", "431")), true);
+            return;
+        }
+        openStream(streamId, fields, endStream);
+    }
+
+    /**
+     * Translate the request headers into an HTTP/1.1 request head, and start processing the stream. Malformed requests (including the values
+     * that cannot be represented in HTTP/1.1) reset the stream.
+     *
+     * @param streamId  Stream id
+     * @param fields    Decoded header fields
+     * @param endStream Is the request complete with the headers?
+     * @throws Http2Exception Malformed request
+     * @see <a href="https://datatracker.ietf.org/doc/html/rfc9113#section-8.2">RFC 9113 - 8.2. HTTP Fields</a>
+     * @since v1.0.6
+     */
+    private void openStream(final int streamId,
+                            final List<Hpack.Field> fields,
+                            final boolean endStream) throws Http2Exception {
+        String method = null;
+        String scheme = null;
+        String authority = null;
+        String path = null;
+        StringBuilder headers = new StringBuilder();
+        StringBuilder cookie = null;
+        long contentLength = -1L;
+        boolean contentType = false;
+        boolean regularField = false;
+
+        for (Hpack.Field field : fields) {
+            String name = field.name();
+            String value = field.value();
+            if (!isValidValue(value)) throw malformed(streamId, "invalid header value");
+            if (name.startsWith(":")) {
+                if (regularField) throw malformed(streamId, "pseudo-header after a regular header");
+                switch (name) {
+                    case ":method" -> method = requireFirst(streamId, method, value);
+                    case ":scheme" -> scheme = requireFirst(streamId, scheme, value);
+                    case ":authority" -> authority = requireFirst(streamId, authority, value);
+                    case ":path" -> path = requireFirst(streamId, path, value);
+                    default -> throw malformed(streamId, "unknown pseudo-header " + name);
+                }
+                continue;
+            }
+
+            regularField = true;
+            if (!isToken(name) || !name.equals(name.toLowerCase(Locale.US))) throw malformed(streamId, "invalid header name");
+            if (CONNECTION_HEADERS.contains(name) || (name.equals("te") && !value.equals("trailers"))) {
+                throw malformed(streamId, "connection-specific header " + name);
+            }
+            switch (name) {
+                case "cookie" -> {
+                    // split cookie fields are joined into a single HTTP/1.1 field
+                    cookie = cookie == null ? new StringBuilder(value) : cookie.append("; ").append(value);
+                    continue;
+                }
+                case "host" -> {
+                    if (authority != null) continue;
+                }
+                case "content-length" -> {
+                    try {
+                        contentLength = Long.parseLong(value);
+                        if (contentLength < 0L) throw new NumberFormatException();
+                    } catch (NumberFormatException e) {
+                        throw malformed(streamId, "invalid content-length");
+                    }
+                }
+                case "content-type" -> contentType = true;
+                default -> {}
+            }
+            headers.append(name).append(": ").append(value).append("\r\n");
+        }
+
+        if (method == null || !isToken(method)) throw malformed(streamId, "invalid :method");
+        if (method.equals("CONNECT")) {
+            path = authority;
+        } else if (scheme == null || path == null) {
+            throw malformed(streamId, "missing pseudo-header");
+        }
+        if (path == null || path.isEmpty() || !isValidTarget(path)) throw malformed(streamId, "invalid :path");
+        if (authority != null && !isValidTarget(authority)) throw malformed(streamId, "invalid :authority");
+        if (endStream && contentLength > 0L) throw malformed(streamId, "content shorter than content-length");
+
+        StringBuilder head = new StringBuilder(256).append(method).append(' ').append(path).append(" HTTP/1.1\r\n");
+        if (authority != null) head.append("host: ").append(authority).append("\r\n");
+        head.append(headers);
+        if (cookie != null) head.append("cookie: ").append(cookie).append("\r\n");
+        boolean chunked = !endStream && contentLength == -1L;
+        if (chunked) {
+            head.append("transfer-encoding: chunked\r\n");
+        } else if (endStream && contentLength == -1L && contentType) {
+            head.append("content-length: 0\r\n");
+        }
+        head.append("\r\n");
+
+        Http2Stream stream;
+        flowLock.lock();
+        try {
+            stream = new Http2Stream(this, streamId, head.toString().getBytes(StandardCharsets.UTF_8), method.equals("HEAD"), contentLength,
+                    chunked, endStream, windowSize, peerInitialWindowSize);
+            streams.put(streamId, stream);
+        } finally {
+            flowLock.unlock();
+        }
+        Thread processor = Thread.ofVirtual().name("Http2Stream").unstarted(() -> processStream(stream));
+        stream.setProcessor(processor);
+        processingStreams.incrementAndGet();
+        processor.start();
+    }
+
+    /**
+     * Process a stream with its own {@code RequestConsumer}.
+     *
+     * @param stream Stream to process
+     * @see Http2Stream
+     * @since v1.0.6
+     */
+    private void processStream(final Http2Stream stream) {
+        try {
+            // the stream already has its own thread, so detached contents are written on it
+            RequestConsumer requestConsumer = new RequestConsumer(serverConfiguration, database, contentMemoryBudget, tempFileManager,
+                    stream.getSocket(), false);
+            requestConsumer.run();
+            // asynchronous responses end the stream when they are sent
+            if (!requestConsumer.hasPendingAsyncResponses()) stream.close();
+        } catch (IOException e) {
+            LogFormatter.log(logger.atDebug(), "HTTP/2 stream failed - " + e.getMessage());
+            stream.close();
+        } finally {
+            processingStreams.decrementAndGet();
+        }
+    }
+
+    /**
+     * Process a {@code RST_STREAM} frame.
+     *
+     * @param streamId Stream id
+     * @param length   Payload length
+     * @throws Http2Exception Protocol error, or too many resets ({@code ENHANCE_YOUR_CALM})
+     * @see Http2Stream#reset()
+     * @see <a href="https://www.cve.org/CVERecord?id=CVE-2023-44487">CVE-2023-44487 (HTTP/2 Rapid Reset)</a>
+     * @since v1.0.6
+     */
+    private void processRstStream(final int streamId,
+                                  final int length) throws Http2Exception {
+        if (streamId == 0) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "RST_STREAM on stream 0");
+        if (length != 4) throw new Http2Exception(Http2FrameCodec.FRAME_SIZE_ERROR, "invalid RST_STREAM length");
+        if (streamId > lastStreamId) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "RST_STREAM on an idle stream");
+        Http2Stream stream = streams.remove(streamId);
+        if (stream != null) {
+            LogFormatter.log(logger.atTrace(), "HTTP/2 stream reset by the client - StreamId:" + streamId);
+            stream.reset();
+            wakeWriters();
+
+            long now = System.nanoTime();
+            if (now - resetPeriodStart > TimeUnit.SECONDS.toNanos(1)) {
+                resetPeriodStart = now;
+                resetCount = 0;
+            }
+            if (++resetCount > MAX_RESETS_PER_SECOND) throw new Http2Exception(Http2FrameCodec.ENHANCE_YOUR_CALM, "too many stream resets");
+        }
+    }
+
+    /**
+     * Process a {@code SETTINGS} frame, and acknowledge it.
+     *
+     * @param streamId Stream id
+     * @param flags    Frame flags
+     * @param length   Payload length
+     * @throws IOException Error while writing frames, or a protocol error
+     * @see <a href="https://datatracker.ietf.org/doc/html/rfc9113#section-6.5">RFC 9113 - 6.5. SETTINGS</a>
+     * @since v1.0.6
+     */
+    private void processSettings(final int streamId,
+                                 final int flags,
+                                 final int length) throws IOException {
+        if (streamId != 0) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "SETTINGS on a stream");
+        if ((flags & Http2FrameCodec.FLAG_ACK) != 0) {
+            if (length != 0) throw new Http2Exception(Http2FrameCodec.FRAME_SIZE_ERROR, "invalid SETTINGS ACK length");
+            return;
+        }
+        if (length % 6 != 0) throw new Http2Exception(Http2FrameCodec.FRAME_SIZE_ERROR, "invalid SETTINGS length");
+
+        for (int i = 0; i < length; i += 6) {
+            int id = ((payload[i] & 0xFF) << 8) | (payload[i + 1] & 0xFF);
+            int value = Http2FrameCodec.readInt(payload, i + 2);
+            switch (id) {
+                case Http2FrameCodec.SETTINGS_HEADER_TABLE_SIZE -> {
+                    writeLock.lock();
+                    try {
+                        encoder.setMaxTableSize(value < 0 ? Integer.MAX_VALUE : value);
+                    } finally {
+                        writeLock.unlock();
+                    }
+                }
+                case Http2FrameCodec.SETTINGS_ENABLE_PUSH -> {
+                    if (value != 0 && value != 1) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "invalid SETTINGS_ENABLE_PUSH");
+                }
+                case Http2FrameCodec.SETTINGS_INITIAL_WINDOW_SIZE -> {
+                    if (value < 0) throw new Http2Exception(Http2FrameCodec.FLOW_CONTROL_ERROR, "invalid SETTINGS_INITIAL_WINDOW_SIZE");
+                    updateInitialWindowSize(value);
+                }
+                case Http2FrameCodec.SETTINGS_MAX_FRAME_SIZE -> {
+                    if (value < Http2FrameCodec.DEFAULT_MAX_FRAME_SIZE || value > 16_777_215) {
+                        throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "invalid SETTINGS_MAX_FRAME_SIZE");
+                    }
+                    peerMaxFrameSize = value;
+                }
+                // unknown settings are ignored, the server does not push
+                default -> {}
+            }
+        }
+        settingsReceived = true;
+        writeFrame(Http2FrameCodec.SETTINGS, Http2FrameCodec.FLAG_ACK, 0, payload, 0);
+    }
+
+    /**
+     * Apply a new {@code SETTINGS_INITIAL_WINDOW_SIZE} of the client to the send windows of all streams.
+     *
+     * @param initialWindowSize New initial window size
+     * @throws Http2Exception A stream window exceeds the maximum window size
+     * @see #processSettings(int, int, int)
+     * @since v1.0.6
+     */
+    private void updateInitialWindowSize(final int initialWindowSize) throws Http2Exception {
+        flowLock.lock();
+        try {
+            int delta = initialWindowSize - peerInitialWindowSize;
+            for (Http2Stream stream : streams.values()) {
+                if ((long) stream.sendWindow + delta > Integer.MAX_VALUE) {
+                    throw new Http2Exception(Http2FrameCodec.FLOW_CONTROL_ERROR, "stream flow control window too large");
+                }
+                stream.sendWindow += delta;
+            }
+            peerInitialWindowSize = initialWindowSize;
+            windowUpdated.signalAll();
+        } finally {
+            flowLock.unlock();
+        }
+    }
+
+    /**
+     * Process a {@code WINDOW_UPDATE} frame.
+     *
+     * @param streamId Stream id, or 0 for the connection window
+     * @param length   Payload length
+     * @throws Http2Exception Protocol error, or the window exceeds the maximum window size
+     * @see #acquireWindow(Http2Stream, int)
+     * @since v1.0.6
+     */
+    private void processWindowUpdate(final int streamId,
+                                     final int length) throws Http2Exception {
+        if (length != 4) throw new Http2Exception(Http2FrameCodec.FRAME_SIZE_ERROR, "invalid WINDOW_UPDATE length");
+        int increment = Http2FrameCodec.readInt(payload, 0) & 0x7FFFFFFF;
+        Http2Stream stream = null;
+        if (streamId != 0) {
+            stream = streams.get(streamId);
+            if (stream == null) {
+                if (streamId > lastStreamId) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, "WINDOW_UPDATE on an idle stream");
+                return;
+            }
+        }
+        if (increment == 0) throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, streamId, "WINDOW_UPDATE increment 0");
+
+        flowLock.lock();
+        try {
+            if (stream == null) {
+                if ((long) sendWindow + increment > Integer.MAX_VALUE) {
+                    throw new Http2Exception(Http2FrameCodec.FLOW_CONTROL_ERROR, "connection flow control window too large");
+                }
+                sendWindow += increment;
+            } else {
+                if ((long) stream.sendWindow + increment > Integer.MAX_VALUE) {
+                    throw new Http2Exception(Http2FrameCodec.FLOW_CONTROL_ERROR, streamId, "stream flow control window too large");
+                }
+                stream.sendWindow += increment;
+            }
+            windowUpdated.signalAll();
+        } finally {
+            flowLock.unlock();
+        }
+    }
+
+    /**
+     * Write a {@code HEADERS} frame (with {@code CONTINUATION} frames when the block is larger than the maximum frame size of the client).
+     *
+     * @param streamId  Stream id
+     * @param fields    Header fields
+     * @param endStream End the stream with the headers
+     * @throws IOException Error while writing frames
+     * @see Http2Stream
+     * @since v1.0.6
+     */
+    void writeHeaders(final int streamId,
+                      final List<Hpack.Field> fields,
+                      final boolean endStream) throws IOException {
+        writeLock.lock();
+        try {
+            if (closed) throw new IOException("connection closed");
+            // encoded under the write lock, the client decodes the blocks in the order they are sent
+            byte[] block = encoder.encode(fields);
+            int maxFrameSize = peerMaxFrameSize;
+            int type = Http2FrameCodec.HEADERS;
+            int offset = 0;
+            do {
+                int length = Math.min(block.length - offset, maxFrameSize);
+                int flags = offset + length == block.length ? Http2FrameCodec.FLAG_END_HEADERS : 0;
+                if (type == Http2FrameCodec.HEADERS && endStream) flags |= Http2FrameCodec.FLAG_END_STREAM;
+                codec.writeFrame(type, flags, streamId, block, offset, length);
+                type = Http2FrameCodec.CONTINUATION;
+                offset += length;
+            } while (offset < block.length);
+            codec.flush();
+        } catch (IOException e) {
+            abort();
+            throw e;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Write {@code DATA} frames. Waits for the flow control windows of the stream and the connection.
+     *
+     * @param stream    Stream of the data
+     * @param data      Data buffer
+     * @param offset    Data offset
+     * @param length    Data length
+     * @param endStream End the stream with the last frame
+     * @throws IOException Stream reset, window timeout, or error while writing frames
+     * @see #acquireWindow(Http2Stream, int)
+     * @since v1.0.6
+     */
+    void writeData(final Http2Stream stream,
+                   final byte[] data,
+                   final int offset,
+                   final int length,
+                   final boolean endStream) throws IOException {
+        int written = 0;
+        do {
+            int count = length == 0 ? 0 : acquireWindow(stream, length - written);
+            boolean last = written + count == length;
+            writeFrame(Http2FrameCodec.DATA, last && endStream ? Http2FrameCodec.FLAG_END_STREAM : 0, stream.getStreamId(), data, offset + written,
+                    count);
+            written += count;
+        } while (written < length);
+    }
+
+    /**
+     * Take bytes from the send windows of the stream and the connection. Waits up to the {@code connectionTimeout} for a window update.
+     *
+     * @param stream Stream of the data
+     * @param wanted Count of bytes to send
+     * @return Count of bytes allowed to send (not more than the maximum frame size)
+     * @throws IOException Stream reset, connection closed, or window timeout
+     * @see #writeData(Http2Stream, byte[], int, int, boolean)
+     * @since v1.0.6
+     */
+    private int acquireWindow(final Http2Stream stream,
+                              final int wanted) throws IOException {
+        flowLock.lock();
+        try {
+            long timeout = TimeUnit.MILLISECONDS.toNanos(serverConfiguration.getConnectionTimeout());
+            while (true) {
+                if (closed || stream.isReset()) throw new IOException("stream reset");
+                int available = Math.min(Math.min(sendWindow, stream.sendWindow), peerMaxFrameSize);
+                if (available > 0) {
+                    int count = Math.min(available, wanted);
+                    sendWindow -= count;
+                    stream.sendWindow -= count;
+                    return count;
+                }
+                if (serverConfiguration.getConnectionTimeout() == 0) {
+                    windowUpdated.await();
+                } else {
+                    if (timeout <= 0L) throw new SocketTimeoutException("flow control window not updated");
+                    timeout = windowUpdated.awaitNanos(timeout);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("flow control wait interrupted");
+        } finally {
+            flowLock.unlock();
+        }
+    }
+
+    /**
+     * Write a {@code WINDOW_UPDATE} frame.
+     *
+     * @param streamId  Stream id, or 0 for the connection window
+     * @param increment Window increment
+     * @throws IOException Error while writing frames
+     * @see Http2Stream
+     * @since v1.0.6
+     */
+    void writeWindowUpdate(final int streamId,
+                           final int increment) throws IOException {
+        byte[] frame = new byte[4];
+        Http2FrameCodec.writeInt(frame, 0, increment);
+        writeFrame(Http2FrameCodec.WINDOW_UPDATE, 0, streamId, frame, 4);
+    }
+
+    /**
+     * Remove a closed stream, and reset it if needed.
+     *
+     * @param stream    Closed stream
+     * @param errorCode Error code to reset the stream with, or -1 to not reset it
+     * @see Http2Stream
+     * @since v1.0.6
+     */
+    void closeStream(final Http2Stream stream,
+                     final int errorCode) {
+        streams.remove(stream.getStreamId(), stream);
+        if (errorCode == -1) return;
+        try {
+            writeRstStream(stream.getStreamId(), errorCode);
+        } catch (IOException e) {
+            LogFormatter.log(logger.atDebug(), "HTTP/2 stream reset failed - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reset a stream because of a stream error.
+     *
+     * @param streamId  Stream id
+     * @param errorCode Error code
+     * @throws IOException Error while writing frames
+     * @see Http2Exception
+     * @since v1.0.6
+     */
+    private void resetStream(final int streamId,
+                             final int errorCode) throws IOException {
+        Http2Stream stream = streams.remove(streamId);
+        if (stream != null) {
+            stream.reset();
+            wakeWriters();
+        }
+        writeRstStream(streamId, errorCode);
+    }
+
+    /**
+     * Write a {@code RST_STREAM} frame.
+     *
+     * @param streamId  Stream id
+     * @param errorCode Error code
+     * @throws IOException Error while writing frames
+     * @see Http2Connection
+     * @since v1.0.6
+     */
+    private void writeRstStream(final int streamId,
+                                final int errorCode) throws IOException {
+        byte[] frame = new byte[4];
+        Http2FrameCodec.writeInt(frame, 0, errorCode);
+        writeFrame(Http2FrameCodec.RST_STREAM, 0, streamId, frame, 4);
+    }
+
+    /**
+     * Write the settings of the server, and enlarge the connection window to the configured window size.
+     *
+     * @throws IOException Error while writing frames
+     * @see HttpServerConfiguration#setHttp2InitialWindowSize(int)
+     * @since v1.0.6
+     */
+    private void writeSettings() throws IOException {
+        int[][] settings = {
+                {Http2FrameCodec.SETTINGS_MAX_CONCURRENT_STREAMS, serverConfiguration.getHttp2MaxConcurrentStreams()},
+                {Http2FrameCodec.SETTINGS_INITIAL_WINDOW_SIZE, windowSize},
+                {Http2FrameCodec.SETTINGS_MAX_HEADER_LIST_SIZE, maxHeaderListSize}
+        };
+        byte[] frame = new byte[settings.length * 6];
+        for (int i = 0; i < settings.length; i++) {
+            frame[i * 6] = (byte) (settings[i][0] >>> 8);
+            frame[i * 6 + 1] = (byte) settings[i][0];
+            Http2FrameCodec.writeInt(frame, i * 6 + 2, settings[i][1]);
+        }
+        writeFrame(Http2FrameCodec.SETTINGS, 0, 0, frame, frame.length);
+        if (windowSize > Http2FrameCodec.DEFAULT_WINDOW_SIZE) writeWindowUpdate(0, windowSize - Http2FrameCodec.DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Write a {@code GOAWAY} frame before closing the connection.
+     *
+     * @param errorCode Error code
+     * @param message   Debug data, or null
+     * @see Http2Connection
+     * @since v1.0.6
+     */
+    private void writeGoAway(final int errorCode,
+                             final String message) {
+        byte[] debugData = message == null || !serverConfiguration.isAddErrorMessageToResponseHeaders() ? new byte[0] :
+                message.getBytes(StandardCharsets.UTF_8);
+        byte[] frame = new byte[8 + debugData.length];
+        Http2FrameCodec.writeInt(frame, 0, lastStreamId);
+        Http2FrameCodec.writeInt(frame, 4, errorCode);
+        System.arraycopy(debugData, 0, frame, 8, debugData.length);
+        try {
+            writeFrame(Http2FrameCodec.GOAWAY, 0, 0, frame, frame.length);
+        } catch (IOException e) {
+            LogFormatter.log(logger.atDebug(), "HTTP/2 GOAWAY failed - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write a single frame and send it.
+     *
+     * @param type     Frame type
+     * @param flags    Frame flags
+     * @param streamId Stream id, or 0 for the connection
+     * @param payload  Payload buffer
+     * @param length   Payload length
+     * @throws IOException Error while writing frames
+     * @see Http2FrameCodec#writeFrame(int, int, int, byte[], int, int)
+     * @since v1.0.6
+     */
+    private void writeFrame(final int type,
+                            final int flags,
+                            final int streamId,
+                            final byte[] payload,
+                            final int length) throws IOException {
+        writeFrame(type, flags, streamId, payload, 0, length);
+    }
+
+    /**
+     * Write a single frame and send it.
+     *
+     * @param type     Frame type
+     * @param flags    Frame flags
+     * @param streamId Stream id, or 0 for the connection
+     * @param payload  Payload buffer
+     * @param offset   Payload offset
+     * @param length   Payload length
+     * @throws IOException Error while writing frames
+     * @see Http2FrameCodec#writeFrame(int, int, int, byte[], int, int)
+     * @since v1.0.6
+     */
+    private void writeFrame(final int type,
+                            final int flags,
+                            final int streamId,
+                            final byte[] payload,
+                            final int offset,
+                            final int length) throws IOException {
+        writeLock.lock();
+        try {
+            if (closed) throw new IOException("connection closed");
+            codec.writeFrame(type, flags, streamId, payload, offset, length);
+            codec.flush();
+        } catch (IOException e) {
+            abort();
+            throw e;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Create a stream error of a malformed request.
+     *
+     * @param streamId Stream id
+     * @param message  Exception message
+     * @return Stream error
+     * @see #openStream(int, List, boolean)
+     * @since v1.0.6
+     */
+    private static Http2Exception malformed(final int streamId,
+                                            final String message) {
+        return new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, streamId, "malformed request - " + message);
+    }
+
+    /**
+     * Check a pseudo-header is not repeated.
+     *
+     * @param streamId Stream id
+     * @param current  Current value of the pseudo-header
+     * @param value    New value
+     * @return New value
+     * @throws Http2Exception Repeated pseudo-header
+     * @see #openStream(int, List, boolean)
+     * @since v1.0.6
+     */
+    private static String requireFirst(final int streamId,
+                                       final String current,
+                                       final String value) throws Http2Exception {
+        if (current != null) throw malformed(streamId, "repeated pseudo-header");
+        return value;
+    }
+
+    /**
+     * Check a value is a token (method or field name).
+     *
+     * @param value Value to check
+     * @return Is the value a token?
+     * @see <a href="https://datatracker.ietf.org/doc/html/rfc9110#section-5.6.2">rfc9110 - 5.6.2. Tokens</a>
+     * @since v1.0.6
+     */
+    private static boolean isToken(final String value) {
+        if (value.isEmpty()) return false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c <= 0x20 || c >= 0x7F || "\"(),/:;<=>?@[\\]{}".indexOf(c) != -1) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check a field value can be written into an HTTP/1.1 header line.
+     *
+     * @param value Value to check
+     * @return Is the value valid?
+     * @see #openStream(int, List, boolean)
+     * @since v1.0.6
+     */
+    private static boolean isValidValue(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\r' || c == '\n' || c == '\0') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check a request target ({@code :path} or {@code :authority}) can be written into an HTTP/1.1 request line.
+     *
+     * @param value Value to check
+     * @return Is the value valid?
+     * @see #openStream(int, List, boolean)
+     * @since v1.0.6
+     */
+    private static boolean isValidTarget(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c <= 0x20 || c == 0x7F) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Wake up the writers waiting for a window, so the writers of a reset stream fail.
+     *
+     * @see #acquireWindow(Http2Stream, int)
+     * @since v1.0.6
+     */
+    private void wakeWriters() {
+        flowLock.lock();
+        try {
+            windowUpdated.signalAll();
+        } finally {
+            flowLock.unlock();
+        }
+    }
+
+    /**
+     * Close the socket after a write error. The connection thread ends when its read fails.
+     *
+     * @see #close()
+     * @since v1.0.6
+     */
+    private void abort() {
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LogFormatter.log(logger.atDebug(), "Connection close failed - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Close the connection, and reset all active streams.
+     *
+     * @see Http2Connection
+     * @since v1.0.6
+     */
+    private void close() {
+        abort();
+        for (Http2Stream stream : streams.values()) {
+            stream.reset();
+        }
+        streams.clear();
+        wakeWriters();
+        LogFormatter.log(logger.atTrace(), "HTTP/2 connection closed");
+    }
+}
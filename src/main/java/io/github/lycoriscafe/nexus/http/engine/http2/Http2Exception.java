@@ -0,0 +1,85 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.lycoriscafe.nexus.http.engine.http2;
+
+import java.io.IOException;
+
+/**
+ * Throw when the HTTP/2 peer violates the protocol. A stream error resets only the stream, and a connection error ends the connection with a
+ * {@code GOAWAY} frame.
+ *
+ * @see Http2Connection
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc9113#section-5.4">RFC 9113 - 5.4. Error Handling</a>
+ * @since v1.0.6
+ */
+final class Http2Exception extends IOException {
+    private final int errorCode;
+    private final int streamId;
+
+    /**
+     * Connection error.
+     *
+     * @param errorCode HTTP/2 error code
+     * @param message   Exception message to throw
+     * @see Http2Exception
+     * @since v1.0.6
+     */
+    Http2Exception(final int errorCode,
+                   final String message) {
+        this(errorCode, 0, message);
+    }
+
+    /**
+     * Stream error, or connection error when the stream id is 0.
+     *
+     * @param errorCode HTTP/2 error code
+     * @param streamId  Stream id of the error
+     * @param message   Exception message to throw
+     * @see Http2Exception
+     * @since v1.0.6
+     */
+    Http2Exception(final int errorCode,
+                   final int streamId,
+                   final String message) {
+        super(message);
+        this.errorCode = errorCode;
+        this.streamId = streamId;
+    }
+
+    /**
+     * Get the HTTP/2 error code.
+     *
+     * @return Error code
+     * @see Http2FrameCodec
+     * @since v1.0.6
+     */
+    int getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * Get the stream id of a stream error.
+     *
+     * @return Stream id, or 0 for a connection error
+     * @see Http2Exception
+     * @since v1.0.6
+     */
+    int getStreamId() {
+        return streamId;
+    }
+}
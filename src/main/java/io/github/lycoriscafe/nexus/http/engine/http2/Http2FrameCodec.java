@@ -0,0 +1,298 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.lycoriscafe.nexus.http.engine.http2;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * HTTP/2 frame reader and writer of a single connection. Frame headers are read into the fields of the codec, and the payloads are read into the
+ * caller's buffer. Frames are only read by the connection thread, and written while holding the write lock of the connection.
+ *
+ * @see Http2Connection
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc9113#section-4">RFC 9113 - 4. HTTP Frames</a>
+ * @since v1.0.6
+ */
+final class Http2FrameCodec {
+    static final int DATA = 0x0;
+    static final int HEADERS = 0x1;
+    static final int PRIORITY = 0x2;
+    static final int RST_STREAM = 0x3;
+    static final int SETTINGS = 0x4;
+    static final int PUSH_PROMISE = 0x5;
+    static final int PING = 0x6;
+    static final int GOAWAY = 0x7;
+    static final int WINDOW_UPDATE = 0x8;
+    static final int CONTINUATION = 0x9;
+
+    static final int FLAG_END_STREAM = 0x1;
+    static final int FLAG_ACK = 0x1;
+    static final int FLAG_END_HEADERS = 0x4;
+    static final int FLAG_PADDED = 0x8;
+    static final int FLAG_PRIORITY = 0x20;
+
+    static final int SETTINGS_HEADER_TABLE_SIZE = 0x1;
+    static final int SETTINGS_ENABLE_PUSH = 0x2;
+    static final int SETTINGS_MAX_CONCURRENT_STREAMS = 0x3;
+    static final int SETTINGS_INITIAL_WINDOW_SIZE = 0x4;
+    static final int SETTINGS_MAX_FRAME_SIZE = 0x5;
+    static final int SETTINGS_MAX_HEADER_LIST_SIZE = 0x6;
+
+    static final int NO_ERROR = 0x0;
+    static final int PROTOCOL_ERROR = 0x1;
+    static final int INTERNAL_ERROR = 0x2;
+    static final int FLOW_CONTROL_ERROR = 0x3;
+    static final int STREAM_CLOSED = 0x5;
+    static final int FRAME_SIZE_ERROR = 0x6;
+    static final int REFUSED_STREAM = 0x7;
+    static final int CANCEL = 0x8;
+    static final int COMPRESSION_ERROR = 0x9;
+    static final int ENHANCE_YOUR_CALM = 0xB;
+
+    /**
+     * Default and minimum {@code SETTINGS_MAX_FRAME_SIZE}. The server never raises it for the received frames.
+     */
+    static final int DEFAULT_MAX_FRAME_SIZE = 16_384;
+    /**
+     * Default {@code SETTINGS_INITIAL_WINDOW_SIZE}, and the initial connection window.
+     */
+    static final int DEFAULT_WINDOW_SIZE = 65_535;
+
+    private final InputStream inputStream;
+    private final OutputStream outputStream;
+    private final BooleanSupplier keepWaiting;
+    private final byte[] headerBuffer = new byte[9];
+
+    private int length;
+    private int type;
+    private int flags;
+    private int streamId;
+
+    /**
+     * Create an instance of {@code Http2FrameCodec}.
+     *
+     * @param inputStream  Buffered socket input stream
+     * @param outputStream Buffered socket output stream
+     * @param keepWaiting  Called when a read times out, continues waiting if true (the connection has active streams)
+     * @see Http2FrameCodec
+     * @since v1.0.6
+     */
+    Http2FrameCodec(final InputStream inputStream,
+                    final OutputStream outputStream,
+                    final BooleanSupplier keepWaiting) {
+        this.inputStream = inputStream;
+        this.outputStream = outputStream;
+        this.keepWaiting = keepWaiting;
+    }
+
+    /**
+     * Read the header of the next frame. The payload must be read with {@code readPayload(byte[], int)} before reading the next header.
+     *
+     * @throws IOException Error while reading data, or the connection is closed
+     * @see Http2FrameCodec
+     * @since v1.0.6
+     */
+    void readHeader() throws IOException {
+        readFully(headerBuffer, 0, 9);
+        length = ((headerBuffer[0] & 0xFF) << 16) | ((headerBuffer[1] & 0xFF) << 8) | (headerBuffer[2] & 0xFF);
+        type = headerBuffer[3] & 0xFF;
+        flags = headerBuffer[4] & 0xFF;
+        streamId = readInt(headerBuffer, 5) & 0x7FFFFFFF;
+    }
+
+    /**
+     * Read the payload of the current frame.
+     *
+     * @param buffer Destination buffer
+     * @param length Payload length (must be the length of the current frame)
+     * @throws IOException Error while reading data, or the connection is closed
+     * @see #readHeader()
+     * @see Http2FrameCodec
+     * @since v1.0.6
+     */
+    void readPayload(final byte[] buffer,
+                     final int length) throws IOException {
+        readFully(buffer, 0, length);
+    }
+
+    /**
+     * Read the connection preface of the client.
+     *
+     * @param expected Expected preface bytes
+     * @throws IOException Error while reading data, or an invalid preface
+     * @see Http2Connection
+     * @since v1.0.6
+     */
+    void readPreface(final byte[] expected) throws IOException {
+        byte[] preface = new byte[expected.length];
+        readFully(preface, 0, preface.length);
+        for (int i = 0; i < expected.length; i++) {
+            if (preface[i] != expected[i]) throw new Http2Exception(PROTOCOL_ERROR, "invalid connection preface");
+        }
+    }
+
+    /**
+     * Write a frame into the output buffer. Written frames are sent with {@code flush()}.
+     *
+     * @param type     Frame type
+     * @param flags    Frame flags
+     * @param streamId Stream id, or 0 for the connection
+     * @param payload  Payload buffer
+     * @param offset   Payload offset
+     * @param length   Payload length
+     * @throws IOException Error while writing data
+     * @see Http2FrameCodec
+     * @since v1.0.6
+     */
+    void writeFrame(final int type,
+                    final int flags,
+                    final int streamId,
+                    final byte[] payload,
+                    final int offset,
+                    final int length) throws IOException {
+        byte[] header = new byte[9];
+        header[0] = (byte) (length >>> 16);
+        header[1] = (byte) (length >>> 8);
+        header[2] = (byte) length;
+        header[3] = (byte) type;
+        header[4] = (byte) flags;
+        writeInt(header, 5, streamId);
+        outputStream.write(header);
+        if (length > 0) outputStream.write(payload, offset, length);
+    }
+
+    /**
+     * Send the written frames.
+     *
+     * @throws IOException Error while writing data
+     * @see Http2FrameCodec
+     * @since v1.0.6
+     */
+    void flush() throws IOException {
+        outputStream.flush();
+    }
+
+    /**
+     * Get the payload length of the current frame.
+     *
+     * @return Payload length
+     * @see Http2FrameCodec
+     * @since v1.0.6
+     */
+    int getLength() {
+        return length;
+    }
+
+    /**
+     * Get the type of the current frame.
+     *
+     * @return Frame type
+     * @see Http2FrameCodec
+     * @since v1.0.6
+     */
+    int getType() {
+        return type;
+    }
+
+    /**
+     * Get the flags of the current frame.
+     *
+     * @return Frame flags
+     * @see Http2FrameCodec
+     * @since v1.0.6
+     */
+    int getFlags() {
+        return flags;
+    }
+
+    /**
+     * Get the stream id of the current frame.
+     *
+     * @return Stream id, or 0 for the connection
+     * @see Http2FrameCodec
+     * @since v1.0.6
+     */
+    int getStreamId() {
+        return streamId;
+    }
+
+    /**
+     * Read a 32-bit integer.
+     *
+     * @param buffer Source buffer
+     * @param offset Source offset
+     * @return Read integer
+     * @see Http2FrameCodec
+     * @since v1.0.6
+     */
+    static int readInt(final byte[] buffer,
+                       final int offset) {
+        return ((buffer[offset] & 0xFF) << 24) | ((buffer[offset + 1] & 0xFF) << 16) | ((buffer[offset + 2] & 0xFF) << 8) |
+                (buffer[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Write a 32-bit integer.
+     *
+     * @param buffer Destination buffer
+     * @param offset Destination offset
+     * @param value  Integer to write
+     * @see Http2FrameCodec
+     * @since v1.0.6
+     */
+    static void writeInt(final byte[] buffer,
+                         final int offset,
+                         final int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Read exactly the given count of bytes. A read timeout is ignored while the connection has active streams, so a long response does not end
+     * the connection.
+     *
+     * @param buffer Destination buffer
+     * @param offset Destination offset
+     * @param length Count of bytes to read
+     * @throws IOException Error while reading data, or the connection is closed
+     * @see Http2FrameCodec
+     * @since v1.0.6
+     */
+    private void readFully(final byte[] buffer,
+                           final int offset,
+                           final int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int c;
+            try {
+                c = inputStream.read(buffer, offset + read, length - read);
+            } catch (SocketTimeoutException e) {
+                if (keepWaiting.getAsBoolean()) continue;
+                throw e;
+            }
+            if (c == -1) throw new EOFException("connection closed");
+            read += c;
+        }
+    }
+}
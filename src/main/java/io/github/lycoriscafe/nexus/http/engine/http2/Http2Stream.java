@@ -0,0 +1,860 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.lycoriscafe.nexus.http.engine.http2;
+
+import io.github.lycoriscafe.nexus.http.engine.RequestConsumer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single HTTP/2 stream (request and response) of a connection. A stream is processed by its own {@code RequestConsumer} through an in-memory
+ * socket: the request headers are translated into an HTTP/1.1 request head and the {@code DATA} frames into its content, and the HTTP/1.1
+ * response written by the {@code RequestConsumer} is translated back into {@code HEADERS} and {@code DATA} frames. So every feature of the
+ * HTTP/1.1 engine (endpoints, content reading, compression, streaming, asynchronous responses) works on HTTP/2 streams too.
+ *
+ * @see Http2Connection
+ * @see RequestConsumer
+ * @see <a href="https://datatracker.ietf.org/doc/html/rfc9113#section-8">RFC 9113 - 8. Expressing HTTP Semantics in HTTP/2</a>
+ * @since v1.0.6
+ */
+final class Http2Stream {
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.US_ASCII);
+    // "\r\n\r\n"
+    private static final int HEAD_END = 0x0D0A0D0A;
+
+    private final Http2Connection connection;
+    private final int streamId;
+    private final boolean headRequest;
+    private final long contentLength;
+    private final boolean chunked;
+    private final int windowSize;
+    private final StreamSocket socket;
+    private final RequestStream requestStream = new RequestStream();
+    private final ResponseStream responseStream = new ResponseStream();
+
+    // request content, guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition dataAvailable = lock.newCondition();
+    private final ArrayDeque<Chunk> chunks = new ArrayDeque<>();
+    private int chunkOffset = 0;
+    private int receiveWindow;
+    private int pendingCredit = 0;
+    private long receivedContent = 0L;
+    private boolean requestEnded = false;
+    private boolean closed = false;
+    private volatile boolean reset = false;
+    private volatile Thread processor;
+
+    // guarded by the flow lock of the connection
+    int sendWindow;
+
+    /**
+     * Create an instance of {@code Http2Stream}.
+     *
+     * @param connection    Connection of the stream
+     * @param streamId      Stream id
+     * @param requestHead   Translated HTTP/1.1 request head
+     * @param headRequest   Is the request method {@code HEAD}? (the response has no content)
+     * @param contentLength {@code content-length} of the request, or -1 if not available
+     * @param chunked       Is the request content translated into the chunked encoding? ({@code content-length} is not available)
+     * @param endStream     Is the request complete with the headers?
+     * @param windowSize    Receive window of the stream
+     * @param sendWindow    Initial send window of the stream
+     * @see Http2Connection
+     * @since v1.0.6
+     */
+    Http2Stream(final Http2Connection connection,
+                final int streamId,
+                final byte[] requestHead,
+                final boolean headRequest,
+                final long contentLength,
+                final boolean chunked,
+                final boolean endStream,
+                final int windowSize,
+                final int sendWindow) {
+        this.connection = connection;
+        this.streamId = streamId;
+        this.headRequest = headRequest;
+        this.contentLength = contentLength;
+        this.chunked = chunked;
+        this.windowSize = windowSize;
+        this.sendWindow = sendWindow;
+        receiveWindow = windowSize;
+        socket = new StreamSocket(connection.getInetAddress());
+
+        chunks.add(new Chunk(requestHead, 0));
+        if (endStream) {
+            if (chunked) chunks.add(new Chunk(LAST_CHUNK, 0));
+            requestEnded = true;
+        }
+    }
+
+    /**
+     * Get the stream id.
+     *
+     * @return Stream id
+     * @see Http2Stream
+     * @since v1.0.6
+     */
+    int getStreamId() {
+        return streamId;
+    }
+
+    /**
+     * Get the in-memory socket of the stream, to process it with a {@code RequestConsumer}.
+     *
+     * @return Stream socket
+     * @see RequestConsumer
+     * @since v1.0.6
+     */
+    Socket getSocket() {
+        return socket;
+    }
+
+    /**
+     * Get is the stream reset (by the client, an error, or the end of the connection).
+     *
+     * @return Reset status
+     * @see Http2Stream
+     * @since v1.0.6
+     */
+    boolean isReset() {
+        return reset;
+    }
+
+    /**
+     * Receive a {@code DATA} frame of the request.
+     *
+     * @param data        Frame payload buffer
+     * @param offset      Data offset (after the padding length)
+     * @param length      Data length (without the padding)
+     * @param frameLength Flow-controlled length of the frame (with the padding)
+     * @param endStream   Is the request complete with this frame?
+     * @throws Http2Exception Stream error (window exceeded, content longer than {@code content-length}, ...)
+     * @see Http2Connection
+     * @since v1.0.6
+     */
+    void receiveData(final byte[] data,
+                     final int offset,
+                     final int length,
+                     final int frameLength,
+                     final boolean endStream) throws Http2Exception {
+        lock.lock();
+        try {
+            if (requestEnded) throw new Http2Exception(Http2FrameCodec.STREAM_CLOSED, streamId, "DATA after END_STREAM");
+            if (frameLength > receiveWindow) {
+                throw new Http2Exception(Http2FrameCodec.FLOW_CONTROL_ERROR, streamId, "stream flow control window exceeded");
+            }
+            receiveWindow -= frameLength;
+            receivedContent += length;
+            if (contentLength != -1L && receivedContent > contentLength) {
+                throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, streamId, "content longer than content-length");
+            }
+
+            byte[] chunk;
+            if (chunked && length > 0) {
+                byte[] prefix = (Integer.toHexString(length) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+                chunk = new byte[prefix.length + length + CRLF.length];
+                System.arraycopy(prefix, 0, chunk, 0, prefix.length);
+                System.arraycopy(data, offset, chunk, prefix.length, length);
+                System.arraycopy(CRLF, 0, chunk, prefix.length + length, CRLF.length);
+            } else {
+                chunk = new byte[length];
+                System.arraycopy(data, offset, chunk, 0, length);
+            }
+            // empty (padding only) frames are queued too, so their window is given back when they are read
+            chunks.add(new Chunk(chunk, frameLength));
+            if (endStream) endRequest();
+            dataAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Receive the trailers of the request. Trailer fields are not passed to the endpoint, but they end the request.
+     *
+     * @throws Http2Exception Request already complete, or content shorter than {@code content-length}
+     * @see Http2Connection
+     * @since v1.0.6
+     */
+    void receiveTrailers() throws Http2Exception {
+        lock.lock();
+        try {
+            if (requestEnded) throw new Http2Exception(Http2FrameCodec.STREAM_CLOSED, streamId, "HEADERS after END_STREAM");
+            endRequest();
+            dataAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Mark the request complete. Only called while holding the lock.
+     *
+     * @throws Http2Exception Content shorter than {@code content-length}
+     * @see #receiveData(byte[], int, int, int, boolean)
+     * @since v1.0.6
+     */
+    private void endRequest() throws Http2Exception {
+        if (contentLength != -1L && receivedContent != contentLength) {
+            throw new Http2Exception(Http2FrameCodec.PROTOCOL_ERROR, streamId, "content shorter than content-length");
+        }
+        if (chunked) chunks.add(new Chunk(LAST_CHUNK, 0));
+        requestEnded = true;
+    }
+
+    /**
+     * Set the thread that processes the stream, to interrupt it when the stream is reset.
+     *
+     * @param processor Processing thread (not started yet)
+     * @see #reset()
+     * @since v1.0.6
+     */
+    void setProcessor(final Thread processor) {
+        this.processor = processor;
+    }
+
+    /**
+     * Reset the stream. Blocked readers and writers of the stream fail, and the processing thread is interrupted, so the endpoint of a reset
+     * stream does not keep running.
+     *
+     * @see Http2Connection
+     * @since v1.0.6
+     */
+    void reset() {
+        reset = true;
+        Thread thread = processor;
+        if (thread != null) thread.interrupt();
+        lock.lock();
+        try {
+            dataAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close the stream after the response is complete (or failed). A client still sending the request content is stopped with
+     * {@code RST_STREAM(NO_ERROR)}.
+     *
+     * @param errorCode Error code to reset the stream with, or -1 if the response is complete
+     * @see Http2Connection#closeStream(Http2Stream, int)
+     * @since v1.0.6
+     */
+    private void finish(final int errorCode) {
+        boolean requestComplete;
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            requestComplete = requestEnded;
+            dataAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        connection.closeStream(this, reset ? -1 : errorCode != -1 ? errorCode : requestComplete ? -1 : Http2FrameCodec.NO_ERROR);
+    }
+
+    /**
+     * Close the stream socket. An incomplete response resets the stream.
+     *
+     * @see StreamSocket#close()
+     * @since v1.0.6
+     */
+    void close() {
+        responseStream.end();
+    }
+
+    /**
+     * Queued request data, and the window to give back when it's read.
+     *
+     * @param data   Request bytes
+     * @param credit Flow-controlled length
+     * @see Http2Stream
+     * @since v1.0.6
+     */
+    private record Chunk(byte[] data, int credit) {
+    }
+
+    /**
+     * In-memory socket of the stream. Only the socket methods used by the {@code RequestConsumer} are supported.
+     *
+     * @see Http2Stream
+     * @since v1.0.6
+     */
+    private final class StreamSocket extends Socket {
+        private final InetAddress inetAddress;
+        private volatile int soTimeout = 0;
+
+        /**
+         * Create an instance of {@code StreamSocket}.
+         *
+         * @param inetAddress Address of the client
+         * @see StreamSocket
+         * @since v1.0.6
+         */
+        private StreamSocket(final InetAddress inetAddress) {
+            this.inetAddress = inetAddress;
+        }
+
+        /**
+         * Get the request stream (translated request head and content).
+         *
+         * @return Request stream
+         * @see RequestStream
+         * @since v1.0.6
+         */
+        @Override
+        public InputStream getInputStream() {
+            return requestStream;
+        }
+
+        /**
+         * Get the response stream (HTTP/1.1 response to translate).
+         *
+         * @return Response stream
+         * @see ResponseStream
+         * @since v1.0.6
+         */
+        @Override
+        public OutputStream getOutputStream() {
+            return responseStream;
+        }
+
+        /**
+         * Set the read timeout of the request stream.
+         *
+         * @param timeout Timeout in milliseconds, or 0 for no timeout
+         * @see StreamSocket
+         * @since v1.0.6
+         */
+        @Override
+        public void setSoTimeout(final int timeout) {
+            soTimeout = timeout;
+        }
+
+        /**
+         * Get the read timeout of the request stream.
+         *
+         * @return Timeout in milliseconds
+         * @see StreamSocket
+         * @since v1.0.6
+         */
+        @Override
+        public int getSoTimeout() {
+            return soTimeout;
+        }
+
+        /**
+         * Get the address of the client.
+         *
+         * @return Client address
+         * @see StreamSocket
+         * @since v1.0.6
+         */
+        @Override
+        public InetAddress getInetAddress() {
+            return inetAddress;
+        }
+
+        /**
+         * Get is the stream socket connected.
+         *
+         * @return Always true
+         * @see StreamSocket
+         * @since v1.0.6
+         */
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        /**
+         * Close the stream.
+         *
+         * @see Http2Stream#close()
+         * @since v1.0.6
+         */
+        @Override
+        public void close() {
+            Http2Stream.this.close();
+        }
+
+        /**
+         * Get is the stream closed (response complete or stream reset).
+         *
+         * @return Closed status
+         * @see StreamSocket
+         * @since v1.0.6
+         */
+        @Override
+        public boolean isClosed() {
+            lock.lock();
+            try {
+                return closed || reset;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Request stream of the stream socket. The read window is given back to the client with {@code WINDOW_UPDATE} as the endpoint reads the
+     * content, so a slow endpoint slows down the client instead of buffering the content.
+     *
+     * @see StreamSocket#getInputStream()
+     * @since v1.0.6
+     */
+    private final class RequestStream extends InputStream {
+        private final byte[] singleByte = new byte[1];
+
+        /**
+         * Read a single byte.
+         *
+         * @return Read byte, or -1 at the end of the request
+         * @throws IOException Stream reset, or read timeout
+         * @see RequestStream
+         * @since v1.0.6
+         */
+        @Override
+        public int read() throws IOException {
+            return read(singleByte, 0, 1) == -1 ? -1 : singleByte[0] & 0xFF;
+        }
+
+        /**
+         * Read the queued request bytes. Blocks until a byte is available, the request is complete, or the socket timeout elapses.
+         *
+         * @param b   Destination buffer
+         * @param off Destination offset
+         * @param len Maximum count of bytes to read
+         * @return Count of read bytes, or -1 at the end of the request
+         * @throws IOException Stream reset, or read timeout
+         * @see RequestStream
+         * @since v1.0.6
+         */
+        @Override
+        public int read(final byte[] b,
+                        final int off,
+                        final int len) throws IOException {
+            if (len == 0) return 0;
+            int read = 0;
+            int credit = 0;
+            lock.lock();
+            try {
+                long timeout = TimeUnit.MILLISECONDS.toNanos(socket.getSoTimeout());
+                while (read == 0) {
+                    while (chunks.isEmpty()) {
+                        if (reset) throw new IOException("stream reset");
+                        if (requestEnded || closed) return -1;
+                        if (socket.getSoTimeout() == 0) {
+                            dataAvailable.await();
+                        } else {
+                            if (timeout <= 0L) throw new SocketTimeoutException("stream read timed out");
+                            timeout = dataAvailable.awaitNanos(timeout);
+                        }
+                    }
+                    while (read < len && !chunks.isEmpty()) {
+                        Chunk chunk = chunks.peek();
+                        int count = Math.min(len - read, chunk.data().length - chunkOffset);
+                        System.arraycopy(chunk.data(), chunkOffset, b, off + read, count);
+                        read += count;
+                        chunkOffset += count;
+                        if (chunkOffset == chunk.data().length) {
+                            chunks.poll();
+                            chunkOffset = 0;
+                            pendingCredit += chunk.credit();
+                        }
+                    }
+                }
+                if (!requestEnded && pendingCredit >= windowSize / 2) {
+                    credit = pendingCredit;
+                    receiveWindow += credit;
+                    pendingCredit = 0;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("stream read interrupted");
+            } finally {
+                lock.unlock();
+            }
+            if (credit > 0) connection.writeWindowUpdate(streamId, credit);
+            return read;
+        }
+    }
+
+    /**
+     * Response stream of the stream socket. The response head is parsed into a {@code HEADERS} frame, and the content (without the HTTP/1.1
+     * framing) is sent in {@code DATA} frames of the maximum frame size. Buffered content is sent when the {@code RequestConsumer} flushes.
+     *
+     * @see StreamSocket#getOutputStream()
+     * @since v1.0.6
+     */
+    private final class ResponseStream extends OutputStream {
+        private final ReentrantLock responseLock = new ReentrantLock();
+        private final ByteArrayOutputStream head = new ByteArrayOutputStream(512);
+        private final byte[] singleByte = new byte[1];
+        // last 4 bytes of the head, to find the empty line
+        private int lastBytes = 0;
+        private Stage stage = Stage.HEAD;
+        private Framing framing;
+        // content of a HEAD response is read to keep the framing, but not sent
+        private boolean discard = false;
+        private long remaining = 0L;
+        private ChunkState chunkState = ChunkState.SIZE;
+        private boolean chunkExtension = false;
+        private int trailerLineLength = 0;
+        private byte[] data;
+        private int dataLength = 0;
+
+        /**
+         * Write a single byte.
+         *
+         * @param b Byte to write
+         * @throws IOException Stream reset, or error while sending frames
+         * @see ResponseStream
+         * @since v1.0.6
+         */
+        @Override
+        public void write(final int b) throws IOException {
+            singleByte[0] = (byte) b;
+            write(singleByte, 0, 1);
+        }
+
+        /**
+         * Write response bytes.
+         *
+         * @param b   Source buffer
+         * @param off Source offset
+         * @param len Count of bytes to write
+         * @throws IOException Stream reset, or error while sending frames
+         * @see ResponseStream
+         * @since v1.0.6
+         */
+        @Override
+        public void write(final byte[] b,
+                          final int off,
+                          final int len) throws IOException {
+            responseLock.lock();
+            try {
+                if (reset) throw new IOException("stream reset");
+                int position = off;
+                int end = off + len;
+                while (position < end) {
+                    switch (stage) {
+                        case HEAD -> {
+                            head.write(b[position]);
+                            lastBytes = (lastBytes << 8) | (b[position++] & 0xFF);
+                            if (lastBytes == HEAD_END) processHead();
+                        }
+                        case BODY -> position = writeBody(b, position, end);
+                        // bytes after the response (content of a 204 or 304 response) are ignored
+                        case DONE -> position = end;
+                    }
+                }
+            } finally {
+                responseLock.unlock();
+            }
+        }
+
+        /**
+         * Send the buffered content.
+         *
+         * @throws IOException Stream reset, or error while sending frames
+         * @see ResponseStream
+         * @since v1.0.6
+         */
+        @Override
+        public void flush() throws IOException {
+            responseLock.lock();
+            try {
+                if (stage == Stage.BODY && dataLength > 0) sendData(false);
+            } finally {
+                responseLock.unlock();
+            }
+        }
+
+        /**
+         * End the response when the stream socket is closed. A response without framing ends here, and an incomplete response resets the stream.
+         *
+         * @see Http2Stream#close()
+         * @since v1.0.6
+         */
+        private void end() {
+            responseLock.lock();
+            try {
+                if (stage == Stage.BODY && framing == Framing.UNTIL_CLOSE) {
+                    try {
+                        complete();
+                        return;
+                    } catch (IOException ignored) {
+                    }
+                }
+                finish(stage == Stage.DONE ? -1 : Http2FrameCodec.INTERNAL_ERROR);
+            } finally {
+                responseLock.unlock();
+            }
+        }
+
+        /**
+         * Translate the HTTP/1.1 response head into a {@code HEADERS} frame. Connection-specific fields are removed.
+         *
+         * @throws IOException Invalid response head, or error while sending frames
+         * @see ResponseStream
+         * @since v1.0.6
+         */
+        private void processHead() throws IOException {
+            String[] lines = head.toString(StandardCharsets.UTF_8).split("\r\n");
+            head.reset();
+            lastBytes = 0;
+            String[] statusLine = lines[0].split(" ", 3);
+            if (statusLine.length < 2) throw new IOException("invalid response status line");
+            int status = Integer.parseInt(statusLine[1].trim());
+
+            List<Hpack.Field> fields = new ArrayList<>();
+            fields.add(new Hpack.Field(":status", Integer.toString(status)));
+            long length = -1L;
+            boolean chunkedResponse = false;
+            for (int i = 1; i < lines.length; i++) {
+                int separator = lines[i].indexOf(':');
+                if (separator <= 0) continue;
+                String name = lines[i].substring(0, separator).trim().toLowerCase(Locale.US);
+                String value = lines[i].substring(separator + 1).trim();
+                switch (name) {
+                    case "connection", "keep-alive", "proxy-connection", "upgrade" -> {
+                        continue;
+                    }
+                    case "transfer-encoding" -> {
+                        chunkedResponse = value.toLowerCase(Locale.US).contains("chunked");
+                        continue;
+                    }
+                    case "content-length" -> length = Long.parseLong(value);
+                    default -> {}
+                }
+                fields.add(new Hpack.Field(name, value));
+            }
+
+            // interim responses are followed by the final response
+            if (status < 200) {
+                connection.writeHeaders(streamId, fields, false);
+                return;
+            }
+            if (status == 204 || status == 304) {
+                connection.writeHeaders(streamId, fields, true);
+                stage = Stage.DONE;
+                finish(-1);
+                return;
+            }
+
+            framing = chunkedResponse ? Framing.CHUNKED : length == -1L ? Framing.UNTIL_CLOSE : Framing.LENGTH;
+            remaining = framing == Framing.LENGTH ? length : 0L;
+            boolean empty = framing == Framing.LENGTH && remaining == 0L;
+            discard = headRequest;
+            connection.writeHeaders(streamId, fields, empty || headRequest);
+            if (empty) {
+                stage = Stage.DONE;
+                finish(-1);
+            } else {
+                stage = Stage.BODY;
+            }
+        }
+
+        /**
+         * Remove the HTTP/1.1 framing of the content.
+         *
+         * @param b        Source buffer
+         * @param position Source position
+         * @param end      Source end
+         * @return New source position
+         * @throws IOException Error while sending frames
+         * @see ResponseStream
+         * @since v1.0.6
+         */
+        private int writeBody(final byte[] b,
+                              final int position,
+                              final int end) throws IOException {
+            switch (framing) {
+                case UNTIL_CLOSE -> {
+                    appendData(b, position, end - position);
+                    return end;
+                }
+                case LENGTH -> {
+                    int count = (int) Math.min(end - position, remaining);
+                    appendData(b, position, count);
+                    remaining -= count;
+                    if (remaining == 0L) complete();
+                    return position + count;
+                }
+                default -> {
+                    return writeChunked(b, position, end);
+                }
+            }
+        }
+
+        /**
+         * Remove the chunked encoding of the content.
+         *
+         * @param b        Source buffer
+         * @param position Source position
+         * @param end      Source end
+         * @return New source position
+         * @throws IOException Invalid chunk size, or error while sending frames
+         * @see ResponseStream
+         * @since v1.0.6
+         */
+        private int writeChunked(final byte[] b,
+                                 final int position,
+                                 final int end) throws IOException {
+            if (chunkState == ChunkState.DATA) {
+                int count = (int) Math.min(end - position, remaining);
+                appendData(b, position, count);
+                remaining -= count;
+                if (remaining == 0L) chunkState = ChunkState.DATA_END;
+                return position + count;
+            }
+
+            int c = b[position];
+            switch (chunkState) {
+                case SIZE -> {
+                    if (c == '\n') {
+                        chunkState = remaining == 0L ? ChunkState.TRAILER : ChunkState.DATA;
+                        chunkExtension = false;
+                        trailerLineLength = 0;
+                    } else if (c == ';') {
+                        chunkExtension = true;
+                    } else if (!chunkExtension && c != '\r') {
+                        int digit = Character.digit(c, 16);
+                        if (digit == -1) throw new IOException("invalid response chunk size");
+                        remaining = remaining * 16 + digit;
+                    }
+                }
+                case DATA_END -> {
+                    if (c == '\n') chunkState = ChunkState.SIZE;
+                }
+                case TRAILER -> {
+                    if (c == '\n') {
+                        if (trailerLineLength == 0) complete();
+                        trailerLineLength = 0;
+                    } else if (c != '\r') {
+                        trailerLineLength++;
+                    }
+                }
+                default -> {}
+            }
+            return position + 1;
+        }
+
+        /**
+         * Append content to the {@code DATA} buffer. A full buffer is sent.
+         *
+         * @param b      Source buffer
+         * @param offset Source offset
+         * @param length Count of bytes
+         * @throws IOException Error while sending frames
+         * @see ResponseStream
+         * @since v1.0.6
+         */
+        private void appendData(final byte[] b,
+                                final int offset,
+                                final int length) throws IOException {
+            if (discard) return;
+            if (data == null) data = new byte[Http2FrameCodec.DEFAULT_MAX_FRAME_SIZE];
+            int position = offset;
+            int end = offset + length;
+            while (position < end) {
+                int count = Math.min(end - position, data.length - dataLength);
+                System.arraycopy(b, position, data, dataLength, count);
+                dataLength += count;
+                position += count;
+                if (dataLength == data.length) sendData(false);
+            }
+        }
+
+        /**
+         * Send the {@code DATA} buffer.
+         *
+         * @param endStream End the stream with this frame
+         * @throws IOException Error while sending frames
+         * @see ResponseStream
+         * @since v1.0.6
+         */
+        private void sendData(final boolean endStream) throws IOException {
+            connection.writeData(Http2Stream.this, data == null ? new byte[0] : data, 0, dataLength, endStream);
+            dataLength = 0;
+        }
+
+        /**
+         * Complete the response.
+         *
+         * @throws IOException Error while sending frames
+         * @see ResponseStream
+         * @since v1.0.6
+         */
+        private void complete() throws IOException {
+            stage = Stage.DONE;
+            if (!discard) sendData(true);
+            finish(-1);
+        }
+    }
+
+    /**
+     * Part of the response being written.
+     *
+     * @see ResponseStream
+     * @since v1.0.6
+     */
+    private enum Stage {
+        HEAD, BODY, DONE
+    }
+
+    /**
+     * Framing of the response content.
+     *
+     * @see ResponseStream
+     * @since v1.0.6
+     */
+    private enum Framing {
+        LENGTH, CHUNKED, UNTIL_CLOSE
+    }
+
+    /**
+     * Position in the chunked response content.
+     *
+     * @see ResponseStream#writeChunked(byte[], int, int)
+     * @since v1.0.6
+     */
+    private enum ChunkState {
+        SIZE, DATA, DATA_END, TRAILER
+    }
+}
@@ -16,17 +16,22 @@
 
 package io.github.lycoriscafe.nexus.http.engine.reqResManager.httpReq;
 
-import io.github.lycoriscafe.nexus.http.core.headers.content.Content;
-import io.github.lycoriscafe.nexus.http.core.headers.content.MultipartFormData;
-import io.github.lycoriscafe.nexus.http.core.headers.content.UrlEncodedData;
+import io.github.lycoriscafe.nexus.http.core.headers.Header;
+import io.github.lycoriscafe.nexus.http.core.headers.content.*;
 import io.github.lycoriscafe.nexus.http.core.requestMethods.HttpRequestMethod;
 import io.github.lycoriscafe.nexus.http.core.requestMethods.annotations.POST;
 import io.github.lycoriscafe.nexus.http.core.statusCodes.HttpStatusCode;
 import io.github.lycoriscafe.nexus.http.engine.RequestConsumer;
+import io.github.lycoriscafe.nexus.http.helper.models.ReqEndpoint;
+import io.github.lycoriscafe.nexus.http.helper.util.LogFormatter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Locale;
 
 /**
@@ -67,49 +72,201 @@ public sealed class HttpPostRequest extends HttpRequest permits HttpPatchRequest
     }
 
     private boolean chunked;
-    private boolean gzipped;
+    private String contentEncoding;
     private Integer contentLength = null;
+    private Header contentTypeHeader;
+    private boolean contentPending;
+    private InputStream rawContentStream;
+    private InputStream contentStream;
 
     /**
-     * Process content reading-related operations.
+     * Get request content as a stream. Only available for the endpoints annotated with {@code @StreamContent}, while the endpoint method runs.
+     *
+     * @return Request content stream, or null if no content
+     * @see StreamContent
+     * @see #getContentChannel()
+     * @see HttpPostRequest
+     * @since v1.0.6
+     */
+    public InputStream getContentStream() {
+        return contentStream;
+    }
+
+    /**
+     * Get request content as a {@code ReadableByteChannel}. Only available for the endpoints annotated with {@code @StreamContent}, while the
+     * endpoint method runs.
+     *
+     * @return Request content channel, or null if no content
+     * @see StreamContent
+     * @see #getContentStream()
+     * @see HttpPostRequest
+     * @since v1.0.6
+     */
+    public ReadableByteChannel getContentChannel() {
+        return contentStream == null ? null : Channels.newChannel(contentStream);
+    }
+
+    /**
+     * Process content framing-related headers, and drain the content that is not read after the request is finalized.
      *
      * @see Content.ReadOperations
+     * @see #readContent(ReqEndpoint)
      * @since v1.0.0
      */
     @Override
     public void finalizeRequest() {
         for (int i = 0; i < getHeaders().size(); i++) {
             if (getHeaders().get(i).getName().equalsIgnoreCase("content-type")) {
+                // encoding/length headers are removed while reading them, so keep the content type header itself
+                contentTypeHeader = getHeaders().get(i);
                 if (!getEncodings()) return;
                 if (!chunked) if (!getContentLength()) return;
+                contentPending = true;
+                break;
+            }
+        }
 
-                String value = getHeaders().get(i).getValue().toLowerCase(Locale.US).trim();
-                try {
-                    content = switch (value) {
-                        case String x when x.startsWith("multipart/form-data") -> {
-                            String[] headerParts = x.split(";", 0);
-                            if (headerParts.length != 2 || !headerParts[1].trim().startsWith("boundary")) {
-                                getRequestConsumer().dropConnection(getRequestId(), HttpStatusCode.BAD_REQUEST, "Invalid content-type", logger);
-                                yield null;
+        try {
+            super.finalizeRequest();
+        } finally {
+            drainContent();
+        }
+    }
+
+    /**
+     * Read the request content of the resolved endpoint. Endpoints annotated with {@code @StreamContent} get a content stream instead, and
+     * endpoints annotated with {@code @SinkContent} get the content written into the provided sinks.
+     *
+     * @param reqEndpoint Target {@code ReqEndpoint}
+     * @return Content read success or fail status
+     * @see StreamContent
+     * @see SinkContent
+     * @see HttpRequest#finalizeRequest()
+     * @since v1.0.6
+     */
+    @Override
+    boolean readContent(final ReqEndpoint reqEndpoint) {
+        if (!contentPending) return true;
+        Integer contentLimit = reqEndpoint.getContentLimit();
+        if (!chunked && contentLength > (contentLimit == null ? getRequestConsumer().getHttpServerConfiguration().getMaxContentLength() :
+                contentLimit)) {
+            // rejected before reading any content, the connection is dropped along with the response
+            contentPending = false;
+            getRequestConsumer().dropConnection(getRequestId(), HttpStatusCode.CONTENT_TOO_LARGE, "content too large", logger);
+            return false;
+        }
+        contentPending = false;
+        String value = contentTypeHeader.getValue().toLowerCase(Locale.US).trim();
+
+        ContentDigest contentDigest;
+        try {
+            contentDigest = ContentDigest.of(getHeaders(), getRequestConsumer().getHttpServerConfiguration().getContentDigestAlgorithms());
+        } catch (IllegalArgumentException e) {
+            getRequestConsumer().dropConnection(getRequestId(), HttpStatusCode.BAD_REQUEST, "invalid content digest", logger);
+            return false;
+        }
+
+        if (reqEndpoint.getMethod().isAnnotationPresent(StreamContent.class)) {
+            try {
+                rawContentStream = Content.ReadOperations.openFramedStream(getRequestConsumer(), contentLength, chunked, contentLimit,
+                        contentDigest);
+                contentStream = Content.ReadOperations.openDecodedStream(getRequestConsumer(), rawContentStream, contentEncoding, contentLimit);
+            } catch (IOException e) {
+                getRequestConsumer().dropConnection(getRequestId(), HttpStatusCode.BAD_REQUEST, "content cannot process", logger);
+                return false;
+            }
+            content = new Content(value, contentStream).setContentDigest(contentDigest);
+        } else {
+            ContentSink.Provider sinkProvider = reqEndpoint.getMethod().isAnnotationPresent(SinkContent.class) ?
+                    ContentSink.getProvider(reqEndpoint.getMethod().getAnnotation(SinkContent.class).value()) : null;
+            try {
+                content = switch (value) {
+                    case String x when x.startsWith("multipart/form-data") -> {
+                        // boundary is case-sensitive, so read it from the original header value
+                        String boundary = null;
+                        for (String parameter : contentTypeHeader.getValue().split(";", 0)) {
+                            String[] parameterParts = parameter.trim().split("=", 2);
+                            if (parameterParts.length == 2 && parameterParts[0].trim().equalsIgnoreCase("boundary")) {
+                                boundary = parameterParts[1].trim().replaceAll("^\"|\"$", "");
                             }
-                            yield MultipartFormData.process(getRequestId(), getRequestConsumer(), "--" + headerParts[1].split("=", 2)[1],
-                                    contentLength, chunked, gzipped);
                         }
-                        case "application/x-www-form-urlencoded" -> UrlEncodedData.process(getRequestId(), getRequestConsumer(), contentLength,
-                                chunked, gzipped);
-                        default -> Content.ReadOperations.process(getRequestId(), getRequestConsumer(), value, contentLength, chunked, gzipped);
-                    };
-                    if (content == null) return;
-                } catch (IOException e) {
-                    return;
-                }
+                        if (boundary == null || boundary.isEmpty() || boundary.length() > 70) {
+                            getRequestConsumer().dropConnection(getRequestId(), HttpStatusCode.BAD_REQUEST, "Invalid content-type", logger);
+                            yield null;
+                        }
+                        yield MultipartFormData.process(getRequestId(), getRequestConsumer(), "--" + boundary, contentLength, chunked, contentEncoding,
+                                contentLimit, contentDigest, this, sinkProvider);
+                    }
+                    case "application/x-www-form-urlencoded" -> UrlEncodedData.process(getRequestId(), getRequestConsumer(), contentLength,
+                            chunked, contentEncoding, contentLimit, contentDigest);
+                    default -> {
+                        ContentSink contentSink = null;
+                        try {
+                            if (sinkProvider != null) contentSink = sinkProvider.open(this, null);
+                        } catch (IOException e) {
+                            getRequestConsumer().dropConnection(getRequestId(), HttpStatusCode.INTERNAL_SERVER_ERROR, "content sink cannot open", logger);
+                            yield null;
+                        }
+                        yield contentSink == null ?
+                                Content.ReadOperations.process(getRequestId(), getRequestConsumer(), value, contentLength, chunked, contentEncoding,
+                                        contentLimit, contentDigest) :
+                                Content.ReadOperations.processToSink(getRequestId(), getRequestConsumer(), value, contentLength, chunked,
+                                        contentEncoding, contentLimit, contentDigest, contentSink);
+                    }
+                };
+            } catch (IOException e) {
+                content = null;
+            }
+            if (content == null) return false;
+            content.setContentDigest(contentDigest);
+        }
 
-                getHeaders().remove(getHeaders().get(i));
-                break;
+        getHeaders().remove(contentTypeHeader);
+        return true;
+    }
+
+    /**
+     * Discard the content bytes that are not read, so the next request on the connection starts at the right position. If that is not possible,
+     * the connection is closed.
+     *
+     * @see #finalizeRequest()
+     * @since v1.0.6
+     */
+    private void drainContent() {
+        if (rawContentStream == null && !contentPending) return;
+        try {
+            if (getRequestConsumer().getSocket().isClosed()) return;
+            if (contentStream != null) contentStream.close();
+            // content of an unresolved request (endpoint not found, ...) is only drained up to the server-wide limit
+            if (rawContentStream == null && !chunked &&
+                    contentLength > getRequestConsumer().getHttpServerConfiguration().getMaxContentLength()) {
+                closeConnection();
+                return;
             }
+            // drain the framed stream, the decoded (gzip, deflate) stream may end before the framing does
+            (rawContentStream != null ? rawContentStream : Content.ReadOperations.openFramedStream(getRequestConsumer(), contentLength, chunked,
+                    null, null)).transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            closeConnection();
+        } finally {
+            contentPending = false;
+            rawContentStream = null;
+            contentStream = null;
         }
+    }
 
-        super.finalizeRequest();
+    /**
+     * Close the connection, when the content cannot be discarded.
+     *
+     * @see #drainContent()
+     * @since v1.0.6
+     */
+    private void closeConnection() {
+        try {
+            getRequestConsumer().getSocket().close();
+        } catch (IOException e) {
+            LogFormatter.log(logger.atDebug(), "Connection close failed - " + e.getMessage());
+        }
     }
 
     private boolean getEncodings() {
@@ -127,16 +284,20 @@ public sealed class HttpPostRequest extends HttpRequest permits HttpPatchRequest
                         }
                     }
                     case "content-encoding" -> {
-                        if (values.length == 1 && values[0].equals("gzip")) {
-                            gzipped = true;
-                        } else {
-                            getRequestConsumer().dropConnection(getRequestId(), HttpStatusCode.BAD_REQUEST, "only gzip content encoding supported", logger);
-                            return false;
+                        switch (values.length == 1 ? values[0].trim() : "") {
+                            case "gzip", "x-gzip" -> contentEncoding = "gzip";
+                            case "deflate" -> contentEncoding = "deflate";
+                            case "identity" -> {}
+                            default -> {
+                                getRequestConsumer().dropConnection(getRequestId(), HttpStatusCode.UNSUPPORTED_MEDIA_TYPE,
+                                        "only gzip/deflate content encodings supported", logger);
+                                return false;
+                            }
                         }
                     }
                     default -> throw new IllegalStateException("Unexpected value: " + headerName);
                 }
-                getHeaders().remove(getHeaders().get(i));
+                getHeaders().remove(i--);
             }
         }
         return true;
@@ -146,11 +307,9 @@ public sealed class HttpPostRequest extends HttpRequest permits HttpPatchRequest
         for (int i = 0; i < getHeaders().size(); i++) {
             if (getHeaders().get(i).getName().equalsIgnoreCase("content-length")) {
                 try {
-                    contentLength = Integer.parseInt(getHeaders().get(i).getValue());
-                    if (contentLength > getRequestConsumer().getHttpServerConfiguration().getMaxContentLength()) {
-                        getRequestConsumer().dropConnection(getRequestId(), HttpStatusCode.CONTENT_TOO_LARGE, "content too large", logger);
-                        return false;
-                    }
+                    // limit is checked after the endpoint is resolved (@ContentLimit)
+                    contentLength = Integer.parseInt(getHeaders().get(i).getValue().trim());
+                    if (contentLength < 0) throw new NumberFormatException();
                     getHeaders().remove(getHeaders().get(i));
                     return true;
                 } catch (NumberFormatException e) {
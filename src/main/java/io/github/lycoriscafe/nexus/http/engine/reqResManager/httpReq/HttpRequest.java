@@ -20,14 +20,18 @@ import io.github.lycoriscafe.nexus.http.core.headers.Header;
 import io.github.lycoriscafe.nexus.http.core.headers.auth.Authorization;
 import io.github.lycoriscafe.nexus.http.core.headers.auth.scheme.bearer.BearerTokenRequest;
 import io.github.lycoriscafe.nexus.http.core.headers.auth.scheme.bearer.BearerTokenResponse;
+import io.github.lycoriscafe.nexus.http.core.headers.content.Content;
 import io.github.lycoriscafe.nexus.http.core.headers.content.ExpectContent;
+import io.github.lycoriscafe.nexus.http.core.headers.content.UrlEncodedData;
 import io.github.lycoriscafe.nexus.http.core.headers.cookies.Cookie;
 import io.github.lycoriscafe.nexus.http.core.headers.cors.CORSRequest;
 import io.github.lycoriscafe.nexus.http.core.requestMethods.HttpRequestMethod;
 import io.github.lycoriscafe.nexus.http.core.statusCodes.HttpStatusCode;
 import io.github.lycoriscafe.nexus.http.core.statusCodes.annotations.*;
+import io.github.lycoriscafe.nexus.http.core.websocket.WebSocketHandshake;
 import io.github.lycoriscafe.nexus.http.engine.reqResManager.httpRes.HttpResponse;
 import io.github.lycoriscafe.nexus.http.engine.RequestConsumer;
+import io.github.lycoriscafe.nexus.http.helper.ClasspathResources;
 import io.github.lycoriscafe.nexus.http.helper.models.ReqEndpoint;
 import io.github.lycoriscafe.nexus.http.helper.models.ReqFile;
 import io.github.lycoriscafe.nexus.http.helper.models.ReqMaster;
@@ -35,12 +39,19 @@ import io.github.lycoriscafe.nexus.http.helper.util.NonDuplicateList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.net.URLConnection;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Parent HTTP request class.
@@ -157,9 +168,11 @@ public sealed class HttpRequest permits HttpGetRequest, HttpPostRequest {
     }
 
     /**
-     * Get URI parameters come along with the request.
+     * Get URI parameters come along with the request. If a key is repeated, the first value is mapped.
      *
-     * @return URI parameters
+     * @return URI parameters ({@code UrlEncodedData} for received requests), or null if the URI has no query
+     * @see #getParameterValues(String)
+     * @see UrlEncodedData
      * @see HttpRequest
      * @since v1.0.0
      */
@@ -167,6 +180,22 @@ public sealed class HttpRequest permits HttpGetRequest, HttpPostRequest {
         return parameters;
     }
 
+    /**
+     * Get all values of a URI parameter, in the received order (e.g. {@code ?tag=a&tag=b}).
+     *
+     * @param name Parameter name
+     * @return Values of the parameter (empty list if not available)
+     * @see #getParameters()
+     * @see UrlEncodedData#getAll(String)
+     * @see HttpRequest
+     * @since v1.0.6
+     */
+    public List<String> getParameterValues(final String name) {
+        if (parameters == null) return List.of();
+        if (parameters instanceof UrlEncodedData urlEncodedData) return urlEncodedData.getAll(name);
+        return parameters.containsKey(name) ? Collections.singletonList(parameters.get(name)) : List.of();
+    }
+
     /**
      * Set non-specific headers come along with the request.
      *
@@ -309,6 +338,7 @@ public sealed class HttpRequest permits HttpGetRequest, HttpPostRequest {
 
             switch (endpointDetails) {
                 case ReqEndpoint reqEndpoint -> {
+                    if (!readContent(reqEndpoint)) return;
                     if (processStatusAnnotation(reqEndpoint)) return;
 
                     if (reqEndpoint.getAuthSchemeAnnotation() != null) {
@@ -324,24 +354,136 @@ public sealed class HttpRequest permits HttpGetRequest, HttpPostRequest {
 
                     if (processExpectContent(reqEndpoint)) return;
 
-                    Object response = reqEndpoint.getMethod().invoke(null, this, new HttpResponse(getRequestId(), getRequestConsumer()));
+                    if (reqEndpoint.isWebSocket()) {
+                        // serves the upgraded connection until it's closed
+                        WebSocketHandshake.process((HttpGetRequest) this, reqEndpoint);
+                        return;
+                    }
+
+                    if (CompletionStage.class.isAssignableFrom(reqEndpoint.getMethod().getReturnType()) &&
+                            getRequestConsumer().isAsyncResponseLimitReached()) {
+                        getRequestConsumer().send(new HttpResponse(getRequestId(), getRequestConsumer())
+                                .setStatusCode(HttpStatusCode.SERVICE_UNAVAILABLE));
+                        return;
+                    }
+
+                    Object response = reqEndpoint.getMethod().invoke(null, this, new HttpResponse(getRequestId(), getRequestConsumer())
+                            .setAcceptEncoding(getHeaderValue("accept-encoding")));
                     if (response instanceof HttpResponse httpResponse) {
                         getRequestConsumer().send(httpResponse);
+                    } else if (response instanceof CompletionStage<?> stage) {
+                        getRequestConsumer().sendAsync(getRequestId(), stage);
                     } else {
                         getRequestConsumer().dropConnection(getRequestId(), HttpStatusCode.INTERNAL_SERVER_ERROR, "Invalid http response provided", logger);
                     }
                 }
-                case ReqFile reqFile -> {
-                    // TODO implement
-                }
+                case ReqFile reqFile -> processStaticFile(reqFile);
                 default -> throw new IllegalStateException("Unexpected value: " + endpointDetails);
             }
-        } catch (SQLException | ClassNotFoundException | NoSuchMethodException | InvocationTargetException | IllegalAccessException e) {
+        } catch (SQLException | ClassNotFoundException | NoSuchMethodException | InvocationTargetException | IllegalAccessException |
+                 IOException e) {
             getRequestConsumer().dropConnection(getRequestId(), HttpStatusCode.INTERNAL_SERVER_ERROR, "Error while processing request/response", logger);
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Read the request content after the target endpoint is resolved. Request methods without content do nothing.
+     *
+     * @param reqEndpoint Target {@code ReqEndpoint}
+     * @return Content read success or fail status
+     * @apiNote Only used for in-API tasks.
+     * @see HttpPostRequest#readContent(ReqEndpoint)
+     * @see HttpRequest
+     * @since v1.0.6
+     */
+    boolean readContent(final ReqEndpoint reqEndpoint) {
+        return true;
+    }
+
+    /**
+     * Serve a static file endpoint. Classpath resources are served from the {@code ClasspathResources} index (deflated JAR entries are sent as gzip
+     * without recompressing, if the client accepts it), others are served from the static files directory.
+     *
+     * @param reqFile {@code ReqFile}
+     * @throws IOException Error while reading the static file
+     * @apiNote Only used for in-API tasks.
+     * @see HttpRequest#finalizeRequest()
+     * @see ReqFile
+     * @see ClasspathResources
+     * @see HttpRequest
+     * @since v1.0.6
+     */
+    private void processStaticFile(final ReqFile reqFile) throws IOException {
+        String eTag = "\"" + reqFile.getETag() + "\"";
+        HttpResponse response = new HttpResponse(getRequestId(), getRequestConsumer())
+                .setAcceptEncoding(getHeaderValue("accept-encoding"))
+                .addHeader(new Header("ETag", eTag))
+                .addHeader(new Header("Last-Modified", reqFile.getLastModified()));
+
+        String ifNoneMatch = getHeaderValue("if-none-match");
+        if (ifNoneMatch != null) {
+            for (String value : ifNoneMatch.split(",", 0)) {
+                String tag = value.trim();
+                if (tag.startsWith("W/")) tag = tag.substring(2);
+                if (tag.equals("*") || tag.equals(eTag)) {
+                    getRequestConsumer().send(response.setStatusCode(HttpStatusCode.NOT_MODIFIED));
+                    return;
+                }
+            }
+        }
+
+        String contentType = Objects.requireNonNullElse(URLConnection.guessContentTypeFromName(reqFile.getRequestEndpoint()),
+                "application/octet-stream");
+        ClasspathResources resources = getRequestConsumer().getDatabase().getClasspathResources();
+        ClasspathResources.Entry entry = resources == null ? null : resources.getEntry(reqFile.getRequestEndpoint());
+        Content content;
+        if (entry != null) {
+            byte[] gzipped = acceptsGzip() ? resources.getGzipped(entry) : null;
+            if (gzipped != null) {
+                content = new Content(contentType, gzipped).setContentEncodingGzipped(true).setPreCompressed(true);
+            } else {
+                content = switch (resources.getData(entry)) {
+                    case byte[] bytes -> new Content(contentType, bytes);
+                    case InputStream inputStream -> new Content(contentType, inputStream);
+                    default -> throw new IllegalStateException("Unexpected value: " + entry.getName());
+                };
+            }
+        } else {
+            content = new Content(contentType, Path.of(getRequestConsumer().getHttpServerConfiguration().getStaticFilesDirectory(),
+                    reqFile.getRequestEndpoint()));
+        }
+        getRequestConsumer().send(response.setContent(content));
+    }
+
+    /**
+     * Get the value of the first request header with the given name.
+     *
+     * @param name Header name (lower-case)
+     * @return Header value, or {@code null} if not available
+     * @see HttpRequest
+     * @since v1.0.6
+     */
+    private String getHeaderValue(final String name) {
+        if (getHeaders() == null) return null;
+        for (Header header : getHeaders()) {
+            if (header.getName().toLowerCase(Locale.US).equals(name)) return header.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Check the {@code Accept-Encoding} request header for gzip acceptance, by the same rules as the response content compression.
+     *
+     * @return If the client accepts gzip, true
+     * @see Content.WriteOperations#isAcceptable(String, String)
+     * @see HttpRequest
+     * @since v1.0.6
+     */
+    private boolean acceptsGzip() {
+        return Content.WriteOperations.isAcceptable(getHeaderValue("accept-encoding"), "gzip");
+    }
+
     /**
      * If any status annotation present for the target endpoint method, the {@code finalizeRequest()} call this method to further processing.
      *
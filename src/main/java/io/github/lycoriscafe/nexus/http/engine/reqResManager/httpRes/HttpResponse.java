@@ -63,6 +63,8 @@ public final class HttpResponse {
     private Content content;
 
     private boolean dropConnection;
+    private String acceptEncoding;
+    private String contentEncoding;
 
     /**
      * Create instance of {@code HttpResponse}
@@ -81,16 +83,32 @@ public final class HttpResponse {
         this.requestId = requestId;
         this.requestConsumer = Objects.requireNonNull(requestConsumer);
 
-        headers = requestConsumer.getHttpServerConfiguration().getDefaultHeaders();
-        cookies = requestConsumer.getHttpServerConfiguration().getDefaultCookies();
-        contentSecurityPolicies = requestConsumer.getHttpServerConfiguration().getDefaultContentSecurityPolicies();
-        contentSecurityPolicyReportOnly = requestConsumer.getHttpServerConfiguration().getDefaultContentSecurityPolicyReportOnly();
+        headers = copyOf(requestConsumer.getHttpServerConfiguration().getDefaultHeaders());
+        cookies = copyOf(requestConsumer.getHttpServerConfiguration().getDefaultCookies());
+        contentSecurityPolicies = copyOf(requestConsumer.getHttpServerConfiguration().getDefaultContentSecurityPolicies());
+        contentSecurityPolicyReportOnly = copyOf(requestConsumer.getHttpServerConfiguration().getDefaultContentSecurityPolicyReportOnly());
         strictTransportSecurity = requestConsumer.getHttpServerConfiguration().getDefaultStrictTransportSecurity();
         xContentTypeOptionsNoSniff = requestConsumer.getHttpServerConfiguration().isDefaultXContentTypeOptionsNoSniff();
         corsResponse = requestConsumer.getHttpServerConfiguration().getDefaultCors();
         cacheControl = requestConsumer.getHttpServerConfiguration().getDefaultCacheControl();
     }
 
+    /**
+     * Copy server default list, so adding values to this response will not modify the defaults shared with other responses.
+     *
+     * @param defaults Default values list
+     * @param <T>      Type of the list element
+     * @return Copy of the list, or {@code null}
+     * @see HttpResponse
+     * @since v1.0.6
+     */
+    private static <T> List<T> copyOf(final List<T> defaults) {
+        if (defaults == null) return null;
+        List<T> copy = new NonDuplicateList<>();
+        copy.addAll(defaults);
+        return copy;
+    }
+
     /**
      * Get provided request id.
      *
@@ -658,6 +676,48 @@ public final class HttpResponse {
         return dropConnection;
     }
 
+    /**
+     * Set the {@code Accept-Encoding} of the request, to negotiate the response content compression.
+     *
+     * @param acceptEncoding {@code Accept-Encoding} request header value, or null
+     * @return Same {@code HttpResponse} instance
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration#setResponseCompression(boolean)
+     * HttpServerConfiguration.setResponseCompression(boolean)
+     * @see HttpResponse
+     * @since v1.0.6
+     */
+    public HttpResponse setAcceptEncoding(final String acceptEncoding) {
+        this.acceptEncoding = acceptEncoding;
+        return this;
+    }
+
+    /**
+     * Get the {@code Accept-Encoding} of the request.
+     *
+     * @return {@code Accept-Encoding} request header value, or null
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see #setAcceptEncoding(String)
+     * @see HttpResponse
+     * @since v1.0.6
+     */
+    public String getAcceptEncoding() {
+        return acceptEncoding;
+    }
+
+    /**
+     * Get the {@code Content-Encoding} negotiated for the content of this response. Available after the response is finalized.
+     *
+     * @return {@code Content-Encoding} applied while writing the content, or null if the content is written as it is
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see #finalizeResponse()
+     * @see HttpResponse
+     * @since v1.0.6
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
     /**
      * Finalize the response. It means assembling status code, header fields and process content-related operations.
      *
@@ -669,9 +729,11 @@ public final class HttpResponse {
      */
     public String finalizeResponse() {
         try {
+            // an upgraded connection has no HTTP content, and does not return to HTTP
+            boolean upgrade = httpStatusCode == HttpStatusCode.SWITCHING_PROTOCOLS;
             StringBuilder output = new StringBuilder().append("HTTP/1.1").append(" ").append(httpStatusCode.getStatusCode())
                     .append("\r\n").append("Server:").append(" ").append("nexus-http/1.0.0").append("\r\n")
-                    .append("Connection:").append(" ").append("keep-alive").append("\r\n")
+                    .append("Connection:").append(" ").append(upgrade ? "Upgrade" : isDropConnection() ? "close" : "keep-alive").append("\r\n")
                     .append(Header.parseOutgoingHeaders(getHeaders()))
                     .append(Cookie.processOutgoingCookies(getCookies()))
                     .append(ReportingEndpoint.processOutgoingReportingEndpoints(getReportingEndpoints()))
@@ -680,8 +742,11 @@ public final class HttpResponse {
                     .append(StrictTransportSecurity.processOutgoingHSTS(getStrictTransportSecurity()))
                     .append(CORSResponse.processOutgoingCORS(getCorsResponse()))
                     .append(Authentication.processOutgoingAuthentications(getAuthentications()))
-                    .append(CacheControl.processOutgoingCacheControl(getCacheControl()))
-                    .append(Content.WriteOperations.processOutgoingContent(getRequestConsumer().getHttpServerConfiguration(), getContent()));
+                    .append(CacheControl.processOutgoingCacheControl(getCacheControl()));
+            if (!upgrade) {
+                contentEncoding = Content.WriteOperations.negotiateOutgoingContentEncoding(getRequestConsumer(), getContent(), getAcceptEncoding());
+                output.append(Content.WriteOperations.processOutgoingContent(getRequestConsumer(), getContent(), contentEncoding));
+            }
             if (isXContentTypeOptionsNoSniff()) output.append("X-Content-Type-Options: nosniff").append("\r\n");
             return output.append("\r\n").toString();
         } catch (Exception e) {
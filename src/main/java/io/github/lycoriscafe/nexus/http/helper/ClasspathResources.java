@@ -0,0 +1,455 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.helper;
+
+import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
+import io.github.lycoriscafe.nexus.http.helper.scanners.ClasspathScanner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * In-memory index of static resources served from the classpath. The index is built once at startup by the {@code ClasspathScanner} (from the JAR
+ * central directory, or from the directory tree when running from exploded classes) and entry bytes are cached on first access, bounded by
+ * {@code HttpServerConfiguration#getStaticFilesCacheSize()}.
+ * <p>
+ * Entries stored {@code DEFLATED} in the JAR are kept in their compressed form. They can be sent as {@code Content-Encoding: gzip} by wrapping the raw
+ * deflate stream with a gzip header and trailer (the CRC-32 and size already come from the central directory), so they are never decompressed and
+ * recompressed by the server.
+ *
+ * @see ClasspathScanner
+ * @see HttpServerConfiguration#setStaticFilesClasspath(String)
+ * @since v1.0.6
+ */
+public final class ClasspathResources {
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int INFLATE_IN_MEMORY_LIMIT = 1_048_576;
+
+    private final FileChannel jarChannel;
+    private final long cacheSize;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> cache = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    /**
+     * Create an instance of {@code ClasspathResources}.
+     *
+     * @param jarChannel {@code FileChannel} of the JAR that holds the resources, or {@code null} if the resources are in a directory
+     * @param cacheSize  Maximum bytes that can be cached in memory
+     * @see ClasspathResources
+     * @since v1.0.6
+     */
+    public ClasspathResources(final FileChannel jarChannel,
+                              final long cacheSize) {
+        this.jarChannel = jarChannel;
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Add an entry to the index.
+     *
+     * @param endpoint Endpoint URI of the entry
+     * @param entry    Index entry
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see ClasspathScanner
+     * @see ClasspathResources
+     * @since v1.0.6
+     */
+    public void addEntry(final String endpoint,
+                         final Entry entry) {
+        entries.put(Objects.requireNonNull(endpoint), Objects.requireNonNull(entry));
+    }
+
+    /**
+     * Get an index entry by its endpoint URI.
+     *
+     * @param endpoint Endpoint URI
+     * @return Index entry, or {@code null} if not found
+     * @see ClasspathResources
+     * @since v1.0.6
+     */
+    public Entry getEntry(final String endpoint) {
+        return entries.get(endpoint);
+    }
+
+    /**
+     * Get the count of indexed entries.
+     *
+     * @return Indexed entries count
+     * @see ClasspathResources
+     * @since v1.0.6
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the bytes currently held by the cache.
+     *
+     * @return Cached bytes
+     * @see ClasspathResources
+     * @since v1.0.6
+     */
+    public long getCachedBytes() {
+        return cachedBytes.get();
+    }
+
+    /**
+     * Get the entry as a gzip member. Only possible for entries stored {@code DEFLATED} in the JAR.
+     *
+     * @param entry Index entry
+     * @return Gzip encoded bytes, or {@code null} if the entry is not stored deflated or too large to load into memory
+     * @throws IOException Error while reading the JAR
+     * @see ClasspathResources
+     * @since v1.0.6
+     */
+    public byte[] getGzipped(final Entry entry) throws IOException {
+        if (!entry.isDeflated()) return null;
+        return load(entry);
+    }
+
+    /**
+     * Get the entry as a stream of decoded (identity) bytes.
+     *
+     * @param entry Index entry
+     * @return Decoded data. {@code byte[]} if the entry fits into the cache (and deflated entries are not larger than 1 MiB), or else
+     * {@code InputStream}.
+     * @throws IOException Error while reading the JAR
+     * @see ClasspathResources
+     * @since v1.0.6
+     */
+    public Object getData(final Entry entry) throws IOException {
+        byte[] bytes = load(entry);
+        if (bytes == null) {
+            if (entry.getPath() != null) return Files.newInputStream(entry.getPath());
+            InputStream raw = new RegionInputStream(jarChannel, dataOffset(entry), entry.getCompressedSize());
+            return entry.isDeflated() ? inflate(raw) : raw;
+        }
+        if (!entry.isDeflated()) return bytes;
+        if (entry.getSize() > INFLATE_IN_MEMORY_LIMIT) {
+            return inflate(new ByteArrayInputStream(bytes, GZIP_HEADER.length, (int) entry.getCompressedSize()));
+        }
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(bytes, GZIP_HEADER.length, (int) entry.getCompressedSize());
+            byte[] inflated = new byte[(int) entry.getSize()];
+            int offset = 0;
+            while (offset < inflated.length && !inflater.finished()) {
+                int c = inflater.inflate(inflated, offset, inflated.length - offset);
+                if (c == 0 && (inflater.needsInput() || inflater.needsDictionary())) throw new IOException("corrupted jar entry - " + entry.getName());
+                offset += c;
+            }
+            return inflated;
+        } catch (DataFormatException e) {
+            throw new IOException("corrupted jar entry - " + entry.getName(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Decode a raw deflate stream. Closing the stream frees the native memory of its {@code Inflater} (a given {@code Inflater} is not ended by the
+     * {@code InflaterInputStream} itself).
+     *
+     * @param raw Raw deflate data
+     * @return Decoded stream
+     * @see ClasspathResources
+     * @since v1.0.6
+     */
+    private static InputStream inflate(final InputStream raw) {
+        return new InflaterInputStream(raw, new Inflater(true)) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inf.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * Load entry bytes into the cache (if there is space). Deflated entries are stored as complete gzip members, others as they are.
+     *
+     * @param entry Index entry
+     * @return Cached bytes, or {@code null} if the entry cannot fit into the cache
+     * @throws IOException Error while reading the JAR
+     * @see ClasspathResources
+     * @since v1.0.6
+     */
+    private byte[] load(final Entry entry) throws IOException {
+        byte[] bytes = cache.get(entry.getName());
+        if (bytes != null) return bytes;
+
+        long length = entry.isDeflated() ? GZIP_HEADER.length + entry.getCompressedSize() + 8 : entry.getCompressedSize();
+        if (length > Integer.MAX_VALUE - 8 || cachedBytes.addAndGet(length) > cacheSize) {
+            cachedBytes.addAndGet(-length);
+            return null;
+        }
+
+        if (entry.getPath() != null) {
+            bytes = Files.readAllBytes(entry.getPath());
+        } else {
+            bytes = new byte[(int) length];
+            int offset = 0;
+            if (entry.isDeflated()) {
+                System.arraycopy(GZIP_HEADER, 0, bytes, 0, GZIP_HEADER.length);
+                offset = GZIP_HEADER.length;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, (int) entry.getCompressedSize());
+            long position = dataOffset(entry);
+            while (buffer.hasRemaining()) {
+                if (jarChannel.read(buffer, position + buffer.position() - offset) == -1) throw new IOException("unexpected end of jar");
+            }
+            if (entry.isDeflated()) {
+                ByteBuffer.wrap(bytes, bytes.length - 8, 8).order(ByteOrder.LITTLE_ENDIAN)
+                        .putInt((int) entry.getCrc()).putInt((int) entry.getSize());
+            }
+        }
+
+        byte[] previous = cache.putIfAbsent(entry.getName(), bytes);
+        if (previous != null) {
+            cachedBytes.addAndGet(-length);
+            return previous;
+        }
+        return bytes;
+    }
+
+    /**
+     * Resolve the data offset of the entry by reading its local file header. The offset is remembered in the entry.
+     *
+     * @param entry Index entry
+     * @return Offset of the entry data in the JAR
+     * @throws IOException Error while reading the JAR
+     * @see ClasspathResources
+     * @since v1.0.6
+     */
+    private long dataOffset(final Entry entry) throws IOException {
+        if (entry.dataOffset >= 0) return entry.dataOffset;
+        ByteBuffer header = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (jarChannel.read(header, entry.getHeaderOffset() + header.position()) == -1) throw new IOException("unexpected end of jar");
+        }
+        if (header.getInt(0) != 0x04034b50) throw new IOException("invalid local file header - " + entry.getName());
+        entry.dataOffset = entry.getHeaderOffset() + 30 + Short.toUnsignedInt(header.getShort(26)) + Short.toUnsignedInt(header.getShort(28));
+        return entry.dataOffset;
+    }
+
+    /**
+     * Single indexed classpath resource.
+     *
+     * @see ClasspathResources
+     * @since v1.0.6
+     */
+    public static final class Entry {
+        private final String name;
+        private final Path path;
+        private final boolean deflated;
+        private final long size;
+        private final long compressedSize;
+        private final long crc;
+        private final long headerOffset;
+        private final String eTag;
+        private final String lastModified;
+        private volatile long dataOffset = -1L;
+
+        /**
+         * Create an instance of {@code Entry}.
+         *
+         * @param name           Entry name inside the JAR (or relative path inside the directory)
+         * @param path           {@code Path} of the resource if it is in a directory, or else {@code null}
+         * @param deflated       Is the entry stored {@code DEFLATED}?
+         * @param size           Uncompressed size
+         * @param compressedSize Stored size
+         * @param crc            CRC-32 of the uncompressed data
+         * @param headerOffset   Local file header offset in the JAR
+         * @param lastModified   Last modified date in HTTP date format
+         * @see Entry
+         * @since v1.0.6
+         */
+        public Entry(final String name,
+                     final Path path,
+                     final boolean deflated,
+                     final long size,
+                     final long compressedSize,
+                     final long crc,
+                     final long headerOffset,
+                     final String lastModified) {
+            this.name = Objects.requireNonNull(name);
+            this.path = path;
+            this.deflated = deflated;
+            this.size = size;
+            this.compressedSize = compressedSize;
+            this.crc = crc;
+            this.headerOffset = headerOffset;
+            this.lastModified = lastModified;
+            eTag = Long.toHexString(crc) + "-" + Long.toHexString(size);
+        }
+
+        /**
+         * Get the entry name.
+         *
+         * @return Entry name
+         * @see Entry
+         * @since v1.0.6
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the {@code Path} of the entry. Only available when resources are served from a directory.
+         *
+         * @return {@code Path} of the entry, or {@code null}
+         * @see Entry
+         * @since v1.0.6
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * Get is the entry stored {@code DEFLATED}.
+         *
+         * @return Deflated status
+         * @see Entry
+         * @since v1.0.6
+         */
+        public boolean isDeflated() {
+            return deflated;
+        }
+
+        /**
+         * Get the uncompressed size of the entry.
+         *
+         * @return Uncompressed size
+         * @see Entry
+         * @since v1.0.6
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Get the stored size of the entry.
+         *
+         * @return Stored size
+         * @see Entry
+         * @since v1.0.6
+         */
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        /**
+         * Get the CRC-32 of the uncompressed data.
+         *
+         * @return CRC-32
+         * @see Entry
+         * @since v1.0.6
+         */
+        public long getCrc() {
+            return crc;
+        }
+
+        /**
+         * Get the local file header offset in the JAR.
+         *
+         * @return Local file header offset
+         * @see Entry
+         * @since v1.0.6
+         */
+        public long getHeaderOffset() {
+            return headerOffset;
+        }
+
+        /**
+         * Get the E-Tag of the entry (built from the CRC-32 and the size).
+         *
+         * @return E-Tag
+         * @see Entry
+         * @since v1.0.6
+         */
+        public String getETag() {
+            return eTag;
+        }
+
+        /**
+         * Get the last modified date in HTTP date format.
+         *
+         * @return Last modified date
+         * @see Entry
+         * @since v1.0.6
+         */
+        public String getLastModified() {
+            return lastModified;
+        }
+    }
+
+    /**
+     * Positional {@code InputStream} over a region of a {@code FileChannel}. Used for entries that are too large for the cache.
+     *
+     * @see ClasspathResources
+     * @since v1.0.6
+     */
+    private static final class RegionInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+        private long remaining;
+
+        private RegionInputStream(final FileChannel channel,
+                                  final long position,
+                                  final long length) {
+            this.channel = channel;
+            this.position = position;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b,
+                        final int off,
+                        final int len) throws IOException {
+            if (remaining <= 0) return -1;
+            int c = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)), position);
+            if (c == -1) throw new IOException("unexpected end of jar");
+            position += c;
+            remaining -= c;
+            return c;
+        }
+    }
+}
@@ -48,6 +48,7 @@ import java.util.Objects;
  */
 public final class Database {
     private final HikariDataSource dataSource;
+    private ClasspathResources classpathResources;
 
     /**
      * Create instance of {@code Database} and initialize connection according to {@code HttpServerConfiguration} settings.
@@ -75,6 +76,31 @@ public final class Database {
         return dataSource.getConnection();
     }
 
+    /**
+     * Set the classpath static resources' index built by the {@code ClasspathScanner}.
+     *
+     * @param classpathResources Classpath resources index
+     * @apiNote This method is public but not useful for the API users. Only used for in-API tasks.
+     * @see ClasspathResources
+     * @see Database
+     * @since v1.0.6
+     */
+    public void setClasspathResources(final ClasspathResources classpathResources) {
+        this.classpathResources = classpathResources;
+    }
+
+    /**
+     * Get the classpath static resources' index.
+     *
+     * @return Classpath resources index, or {@code null} if the classpath static files are not configured
+     * @see ClasspathResources
+     * @see Database
+     * @since v1.0.6
+     */
+    public ClasspathResources getClasspathResources() {
+        return classpathResources;
+    }
+
     /**
      * Initialize database pool using HikariCP.
      *
@@ -129,6 +155,8 @@ public final class Database {
                         className TEXT NOT NULL,
                         methodName TEXT NOT NULL,
                         authSchemeAnnotation TEXT,
+                        contentLimit INTEGER,
+                        webSocket TEXT NOT NULL,
                         UNIQUE (className, methodName),
                         FOREIGN KEY (ROWID) REFERENCES ReqMaster(ROWID)
                             ON UPDATE CASCADE ON DELETE CASCADE
@@ -139,7 +167,7 @@ public final class Database {
                         ROWID INTEGER,
                         lastModified TEXT NOT NULL,
                         eTag TEXT NOT NULL,
-                        FOREIGN KEY (ROWID) REFERENCES ReqMater(ROWID)
+                        FOREIGN KEY (ROWID) REFERENCES ReqMaster(ROWID)
                             ON UPDATE CASCADE ON DELETE CASCADE
                     );"""
             };
@@ -193,12 +221,14 @@ public final class Database {
             switch (model) {
                 case ReqEndpoint endpoint -> {
                     try (PreparedStatement subQuery = databaseConnection.prepareStatement("INSERT INTO ReqEndpoint " +
-                            "(ROWID, className, methodName, authSchemeAnnotation) VALUES (?, ?, ?, ?)")) {
+                            "(ROWID, className, methodName, authSchemeAnnotation, contentLimit, webSocket) VALUES (?, ?, ?, ?, ?, ?)")) {
                         subQuery.setInt(1, rowId);
                         subQuery.setString(2, endpoint.getClazz().getName());
                         subQuery.setString(3, endpoint.getMethod().getName());
                         subQuery.setString(4, endpoint.getAuthSchemeAnnotation() == null ?
                                 null : endpoint.getAuthSchemeAnnotation().toString());
+                        subQuery.setObject(5, endpoint.getContentLimit());
+                        subQuery.setBoolean(6, endpoint.isWebSocket());
                         if (subQuery.executeUpdate() != 1) {
                             throw new ScannerException("Error while inserting data to the database");
                         }
@@ -249,6 +279,8 @@ public final class Database {
                                     Class<?> clazz = Class.forName(subResult.getString(2));
                                     AuthScheme authScheme = (subResult.getString(4) == null ?
                                             null : AuthScheme.valueOf(subResult.getString(4)));
+                                    Integer contentLimit = subResult.getInt(5);
+                                    if (subResult.wasNull()) contentLimit = null;
                                     Class<?> requestParamType = null;
                                     Class<?> responseParamType = null;
                                     if (authScheme == null) {
@@ -272,13 +304,20 @@ public final class Database {
                                     endpoint = new ReqEndpoint(masterResult.getString(2), HttpRequestMethod.valueOf(masterResult.getString(3)),
                                             masterResult.getBoolean(4), clazz,
                                             responseParamType == null ? clazz.getMethod(subResult.getString(3), requestParamType) :
-                                                    clazz.getMethod(subResult.getString(3), requestParamType, responseParamType), authScheme);
+                                                    clazz.getMethod(subResult.getString(3), requestParamType, responseParamType), authScheme, contentLimit,
+                                            subResult.getBoolean(6));
                                 }
                             }
                             endpoints.add(endpoint);
                         }
                         case "file" -> {
-                            // TODO implement for file access
+                            try (PreparedStatement subQuery = databaseConnection.prepareStatement("SELECT * FROM ReqFile WHERE ROWID = ?")) {
+                                subQuery.setInt(1, masterResult.getInt(1));
+                                try (ResultSet subResult = subQuery.executeQuery()) {
+                                    endpoints.add(new ReqFile(masterResult.getString(2), masterResult.getBoolean(4),
+                                            subResult.getString(2), subResult.getString(3)));
+                                }
+                            }
                         }
                     }
                 }
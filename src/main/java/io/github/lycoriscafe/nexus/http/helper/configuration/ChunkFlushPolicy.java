@@ -0,0 +1,52 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.helper.configuration;
+
+/**
+ * When to send the collected chunked response data of {@code InputStream} content to the client. Sending every read as a chunk keeps the latency
+ * low, but turns a producer that writes small pieces into a flood of tiny TCP segments.
+ *
+ * @see HttpServerConfiguration#setChunkFlushPolicy(ChunkFlushPolicy)
+ * @see io.github.lycoriscafe.nexus.http.core.headers.content.ChunkedOutputStream ChunkedOutputStream
+ * @since v1.0.6
+ */
+public enum ChunkFlushPolicy {
+    /**
+     * Send every read of the {@code InputStream} as soon as it is available.
+     *
+     * @see ChunkFlushPolicy
+     * @since v1.0.6
+     */
+    EVERY_CHUNK,
+    /**
+     * Send when the collected data reaches the {@code chunkFlushSize}.
+     *
+     * @see HttpServerConfiguration#setChunkFlushSize(int)
+     * @see ChunkFlushPolicy
+     * @since v1.0.6
+     */
+    SIZE,
+    /**
+     * Send when the {@code chunkFlushInterval} is elapsed since the previous send. The collected data is also sent before a read that would block
+     * (the stream has no data available), so a slow producer does not hold the data already produced until its next write.
+     *
+     * @see HttpServerConfiguration#setChunkFlushInterval(int)
+     * @see ChunkFlushPolicy
+     * @since v1.0.6
+     */
+    INTERVAL
+}
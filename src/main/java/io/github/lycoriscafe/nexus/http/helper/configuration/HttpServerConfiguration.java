@@ -18,6 +18,7 @@ package io.github.lycoriscafe.nexus.http.helper.configuration;
 
 import io.github.lycoriscafe.nexus.http.HttpServer;
 import io.github.lycoriscafe.nexus.http.core.headers.Header;
+import io.github.lycoriscafe.nexus.http.core.headers.content.ContentDigest;
 import io.github.lycoriscafe.nexus.http.core.headers.auth.Authentication;
 import io.github.lycoriscafe.nexus.http.core.headers.cache.CacheControl;
 import io.github.lycoriscafe.nexus.http.core.headers.cookies.Cookie;
@@ -33,8 +34,7 @@ import io.github.lycoriscafe.nexus.http.helper.util.NonDuplicateList;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 
 /**
  * Configurations for {@code HttpServer}.
@@ -53,6 +53,8 @@ public sealed class HttpServerConfiguration permits HttpsServerConfiguration {
     private String tempDirectory;
     private String urlPrefix = "";
     private String staticFilesDirectory;
+    private String staticFilesClasspath;
+    private long staticFilesCacheSize = 16_777_216L;
     private DatabaseType databaseType = DatabaseType.MEMORY;
 
     private int maxHeaderSize = 10_240;
@@ -61,6 +63,32 @@ public sealed class HttpServerConfiguration permits HttpsServerConfiguration {
     private int maxContentLength = 5_242_880;
     private int maxChunkedContentLength = 104_857_600;
     private int maxChunkSize = 5_242_880;
+    private int multipartMemoryThreshold = 65_536;
+    private int contentMemoryThreshold = 1_048_576;
+    private int maxDecodedContentLength = 104_857_600;
+    private int maxContentEncodingRatio = 100;
+    private long contentMemoryBudget = 268_435_456L;
+    private long maxTempFileSpace = Long.MAX_VALUE;
+    private int contentMemoryBudgetTimeout = 1_000;
+    private boolean offHeapContent = false;
+    private Set<ContentDigest.Algorithm> contentDigestAlgorithms = Collections.emptySet();
+    private boolean responseCompression = true;
+    private int compressionMinSize = 1_024;
+    private long parallelCompressionMinSize = 8_388_608L;
+    private ChunkFlushPolicy chunkFlushPolicy = ChunkFlushPolicy.EVERY_CHUNK;
+    private int chunkFlushSize = 16_384;
+    private int chunkFlushInterval = 100;
+    private int readAheadBuffers = 0;
+    private int maxWebSocketMessageSize = 1_048_576;
+    private boolean webSocketCompression = true;
+    private int webSocketIdleTimeout = 0;
+    private int asyncResponseTimeout = 30_000;
+    private int maxPendingAsyncResponses = 16;
+    private boolean http2 = true;
+    private int http2MaxConcurrentStreams = 100;
+    private int http2InitialWindowSize = 262_144;
+    private List<String> compressibleContentTypes = List.of("text/*", "application/json", "application/*+json", "application/javascript",
+            "application/xml", "application/*+xml", "image/svg+xml", "application/wasm");
 
     private List<Header> defaultHeaders = null;
     private List<Authentication> defaultAuthentications = null;
@@ -367,6 +395,75 @@ public sealed class HttpServerConfiguration permits HttpsServerConfiguration {
         return staticFilesDirectory;
     }
 
+    /**
+     * Set static files' classpath root. Resources under this root (inside the application JAR, or the classes directory when running exploded) will
+     * be served as static contents. Default is {@code null}.
+     * <pre>
+     *     {@code
+     *     var serverConfig = new HttpServerConfiguration("org.example")
+     *          .setStaticFilesClasspath("static");
+     *
+     *      application.jar
+     *      |- static
+     *          |- index.html [http://host:port/index.html]
+     *          |- styles
+     *              |- Styles.css [http://host:port/styles/Styles.css]
+     *     }
+     * </pre>
+     *
+     * @param staticFilesClasspath Static files classpath root
+     * @return Same {@code HttpServerConfiguration} instance
+     * @apiNote Entries stored {@code DEFLATED} in the JAR will be sent as {@code Content-Encoding: gzip} (without recompressing) to the clients that
+     * accept gzip.
+     * @see #setStaticFilesCacheSize(long)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setStaticFilesClasspath(final String staticFilesClasspath) {
+        this.staticFilesClasspath = staticFilesClasspath;
+        return this;
+    }
+
+    /**
+     * Get static files' classpath root.
+     *
+     * @return Static files classpath root
+     * @see #setStaticFilesClasspath(String)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public String getStaticFilesClasspath() {
+        return staticFilesClasspath;
+    }
+
+    /**
+     * Set the maximum bytes of classpath static files that can be cached in memory in {@code bytes}. Default is {@code 16,777,216}.
+     *
+     * @param staticFilesCacheSize Maximum cache size
+     * @return Same {@code HttpServerConfiguration} instance
+     * @apiNote Entries that cannot fit into the cache will be streamed from the JAR on each request.
+     * @see #setStaticFilesClasspath(String)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setStaticFilesCacheSize(final long staticFilesCacheSize) {
+        if (staticFilesCacheSize < 0) throw new IllegalStateException("static files cache size cannot be less than 0 (bytes)");
+        this.staticFilesCacheSize = staticFilesCacheSize;
+        return this;
+    }
+
+    /**
+     * Get the maximum bytes of classpath static files that can be cached in memory.
+     *
+     * @return Maximum cache size
+     * @see #setStaticFilesCacheSize(long)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public long getStaticFilesCacheSize() {
+        return staticFilesCacheSize;
+    }
+
     /**
      * Set the database creation type. Default is {@code MEMORY}.
      *
@@ -567,6 +664,730 @@ public sealed class HttpServerConfiguration permits HttpsServerConfiguration {
         return maxChunkSize;
     }
 
+    /**
+     * Set the maximum size of a {@code multipart/form-data} part that keeps in memory in {@code bytes}. Parts larger than this are spooled into
+     * temporary files in the {@code tempDirectory}. Default is {@code 65,536}.
+     *
+     * @param multipartMemoryThreshold Maximum in-memory part size
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see io.github.lycoriscafe.nexus.http.core.headers.content.MultipartFormData MultipartFormData
+     * @see #setTempDirectory(String)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setMultipartMemoryThreshold(final int multipartMemoryThreshold) {
+        if (multipartMemoryThreshold < 0) throw new IllegalStateException("multipart memory threshold cannot be less than 0 (bytes)");
+        this.multipartMemoryThreshold = multipartMemoryThreshold;
+        return this;
+    }
+
+    /**
+     * Get the maximum in-memory {@code multipart/form-data} part size.
+     *
+     * @return Maximum in-memory part size
+     * @see #setMultipartMemoryThreshold(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public int getMultipartMemoryThreshold() {
+        return multipartMemoryThreshold;
+    }
+
+    /**
+     * Set the maximum size of the decoded {@code Transfer-Encoding: chunked} or {@code Content-Encoding: gzip} content that keeps in memory in
+     * {@code bytes}. Larger content is moved into a temporary file in the {@code tempDirectory}. Default is {@code 1,048,576}.
+     *
+     * @param contentMemoryThreshold Maximum in-memory content size
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see io.github.lycoriscafe.nexus.http.core.headers.content.Content#getData() Content.getData()
+     * @see #setTempDirectory(String)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setContentMemoryThreshold(final int contentMemoryThreshold) {
+        if (contentMemoryThreshold < 0) throw new IllegalStateException("content memory threshold cannot be less than 0 (bytes)");
+        this.contentMemoryThreshold = contentMemoryThreshold;
+        return this;
+    }
+
+    /**
+     * Get the maximum in-memory decoded content size.
+     *
+     * @return Maximum in-memory content size
+     * @see #setContentMemoryThreshold(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public int getContentMemoryThreshold() {
+        return contentMemoryThreshold;
+    }
+
+    /**
+     * Set maximum decompressed length of the {@code Content-Encoding} (gzip, deflate) content in {@code bytes}. Default is {@code 104,857,600}.
+     *
+     * @param maxDecodedContentLength Maximum decompressed content length
+     * @return Same {@code HttpServerConfiguration} instance
+     * @apiNote This will only apply to the requests that have {@code Content-Encoding} header. {@code maxContentLength} and
+     * {@code maxChunkedContentLength} still apply to the compressed content.
+     * @see #setMaxContentEncodingRatio(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setMaxDecodedContentLength(final int maxDecodedContentLength) {
+        if (maxDecodedContentLength < 1) throw new IllegalStateException("max decoded content length cannot be less than 1 (bytes)");
+        this.maxDecodedContentLength = maxDecodedContentLength;
+        return this;
+    }
+
+    /**
+     * Get maximum decompressed content length.
+     *
+     * @return Maximum decompressed content length
+     * @see #setMaxDecodedContentLength(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public int getMaxDecodedContentLength() {
+        return maxDecodedContentLength;
+    }
+
+    /**
+     * Set maximum expansion ratio (decompressed length / compressed length) of the {@code Content-Encoding} (gzip, deflate) content. The ratio is
+     * checked after the first {@code 1,048,576} decompressed bytes. Default is {@code 100}.
+     *
+     * @param maxContentEncodingRatio Maximum expansion ratio
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see #setMaxDecodedContentLength(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setMaxContentEncodingRatio(final int maxContentEncodingRatio) {
+        if (maxContentEncodingRatio < 1) throw new IllegalStateException("max content encoding ratio cannot be less than 1");
+        this.maxContentEncodingRatio = maxContentEncodingRatio;
+        return this;
+    }
+
+    /**
+     * Get maximum expansion ratio of the {@code Content-Encoding} content.
+     *
+     * @return Maximum expansion ratio
+     * @see #setMaxContentEncodingRatio(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public int getMaxContentEncodingRatio() {
+        return maxContentEncodingRatio;
+    }
+
+    /**
+     * Set the server-wide memory budget of the request content in {@code bytes}. Every in-memory request content ({@code byte[]} content, the
+     * in-memory part of the decoded content, and in-memory {@code multipart/form-data} parts) is reserved from this budget until the request is
+     * finalized. When the budget is exhausted, the request waits up to the {@code contentMemoryBudgetTimeout}, and then the content is moved into a
+     * temporary file in the {@code tempDirectory} (or rejected with HTTP error {@code 503 Service Unavailable} if it must be in memory). Default is
+     * {@code 268,435,456}.
+     *
+     * @param contentMemoryBudget Server-wide request content memory budget
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see #setContentMemoryBudgetTimeout(int)
+     * @see io.github.lycoriscafe.nexus.http.HttpServer#getContentMemoryUsage() HttpServer.getContentMemoryUsage()
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setContentMemoryBudget(final long contentMemoryBudget) {
+        if (contentMemoryBudget < 0) throw new IllegalStateException("content memory budget cannot be less than 0 (bytes)");
+        this.contentMemoryBudget = contentMemoryBudget;
+        return this;
+    }
+
+    /**
+     * Get the server-wide request content memory budget.
+     *
+     * @return Server-wide request content memory budget
+     * @see #setContentMemoryBudget(long)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public long getContentMemoryBudget() {
+        return contentMemoryBudget;
+    }
+
+    /**
+     * Set the maximum disk space of the temporary files in the {@code tempDirectory} in {@code bytes}. Spooled request content reserves space from
+     * this limit while it is written, and releases it after the request is processed. When the space is exhausted,
+     * the request is rejected with HTTP error {@code 413 Content Too Large}. Default is unlimited.
+     *
+     * @param maxTempFileSpace Maximum temporary file space
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see io.github.lycoriscafe.nexus.http.HttpServer#getTempFileSpaceUsage() HttpServer.getTempFileSpaceUsage()
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setMaxTempFileSpace(final long maxTempFileSpace) {
+        if (maxTempFileSpace < 0) throw new IllegalStateException("max temp file space cannot be less than 0 (bytes)");
+        this.maxTempFileSpace = maxTempFileSpace;
+        return this;
+    }
+
+    /**
+     * Get the maximum disk space of the temporary files.
+     *
+     * @return Maximum temporary file space
+     * @see #setMaxTempFileSpace(long)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public long getMaxTempFileSpace() {
+        return maxTempFileSpace;
+    }
+
+    /**
+     * Set the maximum time to wait for the request content memory budget in {@code milliseconds}. Default is {@code 1,000}.
+     *
+     * @param contentMemoryBudgetTimeout Content memory budget wait timeout
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see #setContentMemoryBudget(long)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setContentMemoryBudgetTimeout(final int contentMemoryBudgetTimeout) {
+        if (contentMemoryBudgetTimeout < 0) throw new IllegalStateException("content memory budget timeout cannot be less than 0 (milliseconds)");
+        this.contentMemoryBudgetTimeout = contentMemoryBudgetTimeout;
+        return this;
+    }
+
+    /**
+     * Get the maximum time to wait for the request content memory budget.
+     *
+     * @return Content memory budget wait timeout
+     * @see #setContentMemoryBudgetTimeout(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public int getContentMemoryBudgetTimeout() {
+        return contentMemoryBudgetTimeout;
+    }
+
+    /**
+     * Set store the in-memory request content in pooled direct {@code ByteBuffer} slabs (outside the Java heap) instead of {@code byte[]}. Slabs
+     * are returned to the pool after the request is processed. Default is {@code false}.
+     *
+     * @param offHeapContent Store request content off-heap?
+     * @return Same {@code HttpServerConfiguration} instance
+     * @apiNote Off-heap content is only valid while the endpoint method runs. Access it through
+     * {@code Content.getDataBuffer()} (or {@code MultipartFormData.getDataBuffer()}).
+     * @see io.github.lycoriscafe.nexus.http.core.headers.content.Content#getDataBuffer() Content.getDataBuffer()
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setOffHeapContent(final boolean offHeapContent) {
+        this.offHeapContent = offHeapContent;
+        return this;
+    }
+
+    /**
+     * Get is the in-memory request content stored off-heap.
+     *
+     * @return Off-heap content status
+     * @see #setOffHeapContent(boolean)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public boolean isOffHeapContent() {
+        return offHeapContent;
+    }
+
+    /**
+     * Set the digest algorithms to compute for every request content, while the content streams in. Algorithms of the {@code Content-Digest},
+     * {@code Digest}, and {@code Content-MD5} request headers are always computed and verified. Default is none.
+     *
+     * @param contentDigestAlgorithms Digest algorithms
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see ContentDigest
+     * @see io.github.lycoriscafe.nexus.http.core.headers.content.Content#getContentDigest() Content.getContentDigest()
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setContentDigestAlgorithms(final ContentDigest.Algorithm... contentDigestAlgorithms) {
+        Objects.requireNonNull(contentDigestAlgorithms);
+        this.contentDigestAlgorithms = contentDigestAlgorithms.length == 0 ? Collections.emptySet() :
+                Collections.unmodifiableSet(EnumSet.copyOf(Arrays.asList(contentDigestAlgorithms)));
+        return this;
+    }
+
+    /**
+     * Get the digest algorithms computed for every request content.
+     *
+     * @return Content digest algorithms
+     * @see #setContentDigestAlgorithms(ContentDigest.Algorithm...)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public Set<ContentDigest.Algorithm> getContentDigestAlgorithms() {
+        return contentDigestAlgorithms;
+    }
+
+    /**
+     * Set compress the response content by the {@code Accept-Encoding} of the request ({@code gzip} or {@code deflate}). Only the content of the
+     * {@code compressibleContentTypes} and not smaller than the {@code compressionMinSize} is compressed. Compressed content is streamed with
+     * {@code Transfer-Encoding: chunked}. Default is {@code true}.
+     *
+     * @param responseCompression Compress the response content?
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see #setCompressionMinSize(int)
+     * @see #setCompressibleContentTypes(String...)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setResponseCompression(final boolean responseCompression) {
+        this.responseCompression = responseCompression;
+        return this;
+    }
+
+    /**
+     * Get is the response content compressed by the {@code Accept-Encoding} of the request.
+     *
+     * @return Response compression status
+     * @see #setResponseCompression(boolean)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public boolean isResponseCompression() {
+        return responseCompression;
+    }
+
+    /**
+     * Set the minimum response content size to compress in {@code bytes}. Smaller content gains little from compression. Content of unknown size
+     * ({@code InputStream}) is always compressed. Default is {@code 1,024}.
+     *
+     * @param compressionMinSize Minimum content size to compress
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see #setResponseCompression(boolean)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setCompressionMinSize(final int compressionMinSize) {
+        if (compressionMinSize < 0) throw new IllegalStateException("compression min size cannot be less than 0 (bytes)");
+        this.compressionMinSize = compressionMinSize;
+        return this;
+    }
+
+    /**
+     * Get the minimum response content size to compress.
+     *
+     * @return Minimum content size to compress
+     * @see #setCompressionMinSize(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public int getCompressionMinSize() {
+        return compressionMinSize;
+    }
+
+    /**
+     * Set the minimum response content size to compress on multiple cores in {@code bytes}. Compressed content not smaller than this (and of known
+     * size) is split into blocks that are compressed concurrently on the common {@code ForkJoinPool}. Default is {@code 8,388,608}.
+     *
+     * @param parallelCompressionMinSize Minimum content size to compress on multiple cores
+     * @return Same {@code HttpServerConfiguration} instance
+     * @apiNote Has no effect if the common {@code ForkJoinPool} has only one thread.
+     * @see #setResponseCompression(boolean)
+     * @see io.github.lycoriscafe.nexus.http.core.headers.content.ParallelDeflatingOutputStream ParallelDeflatingOutputStream
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setParallelCompressionMinSize(final long parallelCompressionMinSize) {
+        if (parallelCompressionMinSize < 0) throw new IllegalStateException("parallel compression min size cannot be less than 0 (bytes)");
+        this.parallelCompressionMinSize = parallelCompressionMinSize;
+        return this;
+    }
+
+    /**
+     * Get the minimum response content size to compress on multiple cores.
+     *
+     * @return Minimum content size to compress on multiple cores
+     * @see #setParallelCompressionMinSize(long)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public long getParallelCompressionMinSize() {
+        return parallelCompressionMinSize;
+    }
+
+    /**
+     * Set when to send the collected chunked response data of {@code InputStream} content. Content of other types is sent in full chunks.
+     * Default is {@code ChunkFlushPolicy.EVERY_CHUNK}.
+     *
+     * @param chunkFlushPolicy Chunk flush policy
+     * @return Same {@code HttpServerConfiguration} instance
+     * @apiNote With {@code SIZE}, the collected data waits until the {@code chunkFlushSize} is reached (or the end of the {@code InputStream}).
+     * With {@code INTERVAL}, it is also sent before a read that would block. Use {@code EVERY_CHUNK} for content that must reach the client as
+     * soon as it is produced.
+     * @see ChunkFlushPolicy
+     * @see #setChunkFlushSize(int)
+     * @see #setChunkFlushInterval(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setChunkFlushPolicy(final ChunkFlushPolicy chunkFlushPolicy) {
+        this.chunkFlushPolicy = Objects.requireNonNull(chunkFlushPolicy);
+        return this;
+    }
+
+    /**
+     * Get when to send the collected chunked response data.
+     *
+     * @return Chunk flush policy
+     * @see #setChunkFlushPolicy(ChunkFlushPolicy)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public ChunkFlushPolicy getChunkFlushPolicy() {
+        return chunkFlushPolicy;
+    }
+
+    /**
+     * Set the collected chunked response data size to send in {@code bytes}, for the {@code ChunkFlushPolicy.SIZE}. Default is {@code 16,384}.
+     *
+     * @param chunkFlushSize Chunk flush size
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see #setChunkFlushPolicy(ChunkFlushPolicy)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setChunkFlushSize(final int chunkFlushSize) {
+        if (chunkFlushSize < 1) throw new IllegalStateException("chunk flush size cannot be less than 1 (bytes)");
+        this.chunkFlushSize = chunkFlushSize;
+        return this;
+    }
+
+    /**
+     * Get the collected chunked response data size to send.
+     *
+     * @return Chunk flush size
+     * @see #setChunkFlushSize(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public int getChunkFlushSize() {
+        return chunkFlushSize;
+    }
+
+    /**
+     * Set the time between two sends of the collected chunked response data in {@code milliseconds}, for the {@code ChunkFlushPolicy.INTERVAL}.
+     * Default is {@code 100}.
+     *
+     * @param chunkFlushInterval Chunk flush interval
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see #setChunkFlushPolicy(ChunkFlushPolicy)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setChunkFlushInterval(final int chunkFlushInterval) {
+        if (chunkFlushInterval < 0) throw new IllegalStateException("chunk flush interval cannot be less than 0 (milliseconds)");
+        this.chunkFlushInterval = chunkFlushInterval;
+        return this;
+    }
+
+    /**
+     * Get the time between two sends of the collected chunked response data.
+     *
+     * @return Chunk flush interval
+     * @see #setChunkFlushInterval(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public int getChunkFlushInterval() {
+        return chunkFlushInterval;
+    }
+
+    /**
+     * Set the count of buffers read ahead for the {@code Path} and {@code InputStream} response content. When this is more than {@code 0}, a
+     * virtual thread reads the content into a ring of pooled buffers while the connection thread writes them to the socket, so slow content
+     * sources (cold disks, network-backed streams) and the socket do not wait for each other. Default is {@code 0} (disabled).
+     *
+     * @param readAheadBuffers Count of read-ahead buffers (0 - 64)
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see io.github.lycoriscafe.nexus.http.core.headers.content.ReadAheadInputStream ReadAheadInputStream
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setReadAheadBuffers(final int readAheadBuffers) {
+        if (readAheadBuffers < 0 || readAheadBuffers > 64) throw new IllegalStateException("read-ahead buffers should be between 0 and 64");
+        this.readAheadBuffers = readAheadBuffers;
+        return this;
+    }
+
+    /**
+     * Get the count of buffers read ahead for the response content.
+     *
+     * @return Count of read-ahead buffers
+     * @see #setReadAheadBuffers(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public int getReadAheadBuffers() {
+        return readAheadBuffers;
+    }
+
+    /**
+     * Set the maximum size of a received WebSocket message (after reassembling the fragments and decompressing). Bigger messages close the
+     * connection with the {@code 1009 Message Too Big} close code. Default is {@code 1048576} (1 MiB).
+     *
+     * @param maxWebSocketMessageSize Maximum WebSocket message size in bytes
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see io.github.lycoriscafe.nexus.http.core.websocket.WebSocketSession WebSocketSession
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setMaxWebSocketMessageSize(final int maxWebSocketMessageSize) {
+        if (maxWebSocketMessageSize < 1) throw new IllegalStateException("max websocket message size cannot be less than 1 (bytes)");
+        this.maxWebSocketMessageSize = maxWebSocketMessageSize;
+        return this;
+    }
+
+    /**
+     * Get the maximum size of a received WebSocket message.
+     *
+     * @return Maximum WebSocket message size
+     * @see #setMaxWebSocketMessageSize(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public int getMaxWebSocketMessageSize() {
+        return maxWebSocketMessageSize;
+    }
+
+    /**
+     * Set the WebSocket message compression ({@code permessage-deflate}) to be accepted when the client offers it. Default is {@code true}.
+     *
+     * @param webSocketCompression WebSocket compression status
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see io.github.lycoriscafe.nexus.http.core.websocket.WebSocketSession WebSocketSession
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setWebSocketCompression(final boolean webSocketCompression) {
+        this.webSocketCompression = webSocketCompression;
+        return this;
+    }
+
+    /**
+     * Get the WebSocket message compression status.
+     *
+     * @return WebSocket compression status
+     * @see #setWebSocketCompression(boolean)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public boolean isWebSocketCompression() {
+        return webSocketCompression;
+    }
+
+    /**
+     * Set the time a WebSocket connection can be idle (nothing received from the client) before it's closed. The {@code connectionTimeout} is not
+     * used for the upgraded connections, since long idle periods are normal for them. Default is {@code 0} (no timeout).
+     *
+     * @param webSocketIdleTimeout WebSocket idle timeout in milliseconds, or 0 for no timeout
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see #setConnectionTimeout(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setWebSocketIdleTimeout(final int webSocketIdleTimeout) {
+        if (webSocketIdleTimeout < 0) throw new IllegalStateException("websocket idle timeout cannot be less than 0");
+        this.webSocketIdleTimeout = webSocketIdleTimeout;
+        return this;
+    }
+
+    /**
+     * Get the WebSocket idle timeout.
+     *
+     * @return WebSocket idle timeout in milliseconds
+     * @see #setWebSocketIdleTimeout(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public int getWebSocketIdleTimeout() {
+        return webSocketIdleTimeout;
+    }
+
+    /**
+     * Set the time an asynchronous endpoint ({@code CompletionStage<HttpResponse>} return type) has to complete its response. When the time is
+     * exceeded, {@code 504 Gateway Timeout} is sent instead, and the later result of the endpoint is discarded. Default is {@code 30000} (30
+     * seconds).
+     *
+     * @param asyncResponseTimeout Asynchronous response timeout in milliseconds, or 0 for no timeout
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setAsyncResponseTimeout(final int asyncResponseTimeout) {
+        if (asyncResponseTimeout < 0) throw new IllegalStateException("async response timeout cannot be less than 0");
+        this.asyncResponseTimeout = asyncResponseTimeout;
+        return this;
+    }
+
+    /**
+     * Get the asynchronous response timeout.
+     *
+     * @return Asynchronous response timeout in milliseconds
+     * @see #setAsyncResponseTimeout(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public int getAsyncResponseTimeout() {
+        return asyncResponseTimeout;
+    }
+
+    /**
+     * Set the maximum count of incomplete asynchronous responses per connection. The connection continues reading the pipelined requests while the
+     * asynchronous endpoints run, and further requests to asynchronous endpoints are responded with {@code 503 Service Unavailable} (without
+     * calling the endpoint) until a response completes. Default is {@code 16}.
+     *
+     * @param maxPendingAsyncResponses Maximum count of incomplete asynchronous responses
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see #setAsyncResponseTimeout(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setMaxPendingAsyncResponses(final int maxPendingAsyncResponses) {
+        if (maxPendingAsyncResponses < 1) throw new IllegalStateException("max pending async responses cannot be less than 1");
+        this.maxPendingAsyncResponses = maxPendingAsyncResponses;
+        return this;
+    }
+
+    /**
+     * Get the maximum count of incomplete asynchronous responses per connection.
+     *
+     * @return Maximum count of incomplete asynchronous responses
+     * @see #setMaxPendingAsyncResponses(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public int getMaxPendingAsyncResponses() {
+        return maxPendingAsyncResponses;
+    }
+
+    /**
+     * Set the HTTP/2 support. When enabled, HTTP/2 is negotiated with ALPN on the {@code HttpsServer}, and accepted with prior knowledge (the
+     * connection starts with the HTTP/2 connection preface) on the {@code HttpServer}. Default is {@code true}.
+     *
+     * @param http2 HTTP/2 support status
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see io.github.lycoriscafe.nexus.http.engine.http2.Http2Connection Http2Connection
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setHttp2(final boolean http2) {
+        this.http2 = http2;
+        return this;
+    }
+
+    /**
+     * Get the HTTP/2 support status.
+     *
+     * @return HTTP/2 support status
+     * @see #setHttp2(boolean)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public boolean isHttp2() {
+        return http2;
+    }
+
+    /**
+     * Set the maximum count of concurrently processed streams (requests) of an HTTP/2 connection. Every stream is processed on its own virtual
+     * thread. Further streams are refused until a stream completes. Default is {@code 100}.
+     *
+     * @param http2MaxConcurrentStreams Maximum count of concurrent streams per connection
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see #setHttp2(boolean)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setHttp2MaxConcurrentStreams(final int http2MaxConcurrentStreams) {
+        if (http2MaxConcurrentStreams < 1) throw new IllegalStateException("http2 max concurrent streams cannot be less than 1");
+        this.http2MaxConcurrentStreams = http2MaxConcurrentStreams;
+        return this;
+    }
+
+    /**
+     * Get the maximum count of concurrent streams of an HTTP/2 connection.
+     *
+     * @return Maximum count of concurrent streams per connection
+     * @see #setHttp2MaxConcurrentStreams(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public int getHttp2MaxConcurrentStreams() {
+        return http2MaxConcurrentStreams;
+    }
+
+    /**
+     * Set the HTTP/2 flow control window of a stream, the count of request content bytes a client can send before the endpoint reads them. The
+     * connection window has the same size. A bigger window speeds up uploads on high-latency connections, but more memory is used for a slow
+     * endpoint. Default is {@code 262144} (256 KiB).
+     *
+     * @param http2InitialWindowSize Flow control window size in bytes
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see #setHttp2(boolean)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setHttp2InitialWindowSize(final int http2InitialWindowSize) {
+        // clients use the default window until the settings are acknowledged, so a smaller window cannot be enforced
+        if (http2InitialWindowSize < 65_535) throw new IllegalStateException("http2 initial window size cannot be less than 65535 (bytes)");
+        this.http2InitialWindowSize = http2InitialWindowSize;
+        return this;
+    }
+
+    /**
+     * Get the HTTP/2 flow control window size.
+     *
+     * @return Flow control window size in bytes
+     * @see #setHttp2InitialWindowSize(int)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public int getHttp2InitialWindowSize() {
+        return http2InitialWindowSize;
+    }
+
+    /**
+     * Set the {@code Content-Type}s of the response content to compress. A type can have one {@code *} wildcard (like {@code text/*} or
+     * {@code application/*+json}). Already compressed types (images, videos, archives) should not be added. Default is text, JSON, JavaScript,
+     * XML, SVG and WebAssembly types.
+     *
+     * @param compressibleContentTypes Compressible content types
+     * @return Same {@code HttpServerConfiguration} instance
+     * @see #setResponseCompression(boolean)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public HttpServerConfiguration setCompressibleContentTypes(final String... compressibleContentTypes) {
+        Objects.requireNonNull(compressibleContentTypes);
+        for (String contentType : compressibleContentTypes) {
+            if (Objects.requireNonNull(contentType).indexOf('*') != contentType.lastIndexOf('*')) {
+                throw new IllegalStateException("compressible content type cannot have more than one wildcard");
+            }
+        }
+        this.compressibleContentTypes = Arrays.stream(compressibleContentTypes).map(contentType -> contentType.trim().toLowerCase(Locale.US))
+                .toList();
+        return this;
+    }
+
+    /**
+     * Get the {@code Content-Type}s of the response content to compress.
+     *
+     * @return Compressible content types
+     * @see #setCompressibleContentTypes(String...)
+     * @see HttpServerConfiguration
+     * @since v1.0.6
+     */
+    public List<String> getCompressibleContentTypes() {
+        return compressibleContentTypes;
+    }
+
     /**
      * Add header one-by-one to send with every response.
      *
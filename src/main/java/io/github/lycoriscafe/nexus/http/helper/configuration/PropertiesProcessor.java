@@ -16,11 +16,14 @@
 
 package io.github.lycoriscafe.nexus.http.helper.configuration;
 
+import io.github.lycoriscafe.nexus.http.core.headers.content.ContentDigest;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetAddress;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.Properties;
 
@@ -62,6 +65,12 @@ public final class PropertiesProcessor {
         String staticFilesDirectory = properties.getProperty("staticFilesDirectory");
         if (staticFilesDirectory != null) httpServerConfiguration.setStaticFilesDirectory(staticFilesDirectory);
 
+        String staticFilesClasspath = properties.getProperty("staticFilesClasspath");
+        if (staticFilesClasspath != null) httpServerConfiguration.setStaticFilesClasspath(staticFilesClasspath);
+
+        String staticFilesCacheSize = properties.getProperty("staticFilesCacheSize");
+        if (staticFilesCacheSize != null) httpServerConfiguration.setStaticFilesCacheSize(Long.parseLong(staticFilesCacheSize));
+
         String databaseType = properties.getProperty("databaseType");
         if (databaseType != null) httpServerConfiguration.setDatabaseType(DatabaseType.valueOf(databaseType));
 
@@ -85,6 +94,91 @@ public final class PropertiesProcessor {
         String maxChunkSize = properties.getProperty("maxChunkSize");
         if (maxChunkSize != null) httpServerConfiguration.setMaxChunkSize(Integer.parseInt(maxChunkSize));
 
+        String multipartMemoryThreshold = properties.getProperty("multipartMemoryThreshold");
+        if (multipartMemoryThreshold != null) httpServerConfiguration.setMultipartMemoryThreshold(Integer.parseInt(multipartMemoryThreshold));
+
+        String contentMemoryThreshold = properties.getProperty("contentMemoryThreshold");
+        if (contentMemoryThreshold != null) httpServerConfiguration.setContentMemoryThreshold(Integer.parseInt(contentMemoryThreshold));
+
+        String maxDecodedContentLength = properties.getProperty("maxDecodedContentLength");
+        if (maxDecodedContentLength != null) httpServerConfiguration.setMaxDecodedContentLength(Integer.parseInt(maxDecodedContentLength));
+
+        String maxContentEncodingRatio = properties.getProperty("maxContentEncodingRatio");
+        if (maxContentEncodingRatio != null) httpServerConfiguration.setMaxContentEncodingRatio(Integer.parseInt(maxContentEncodingRatio));
+
+        String contentMemoryBudget = properties.getProperty("contentMemoryBudget");
+        if (contentMemoryBudget != null) httpServerConfiguration.setContentMemoryBudget(Long.parseLong(contentMemoryBudget));
+
+        String maxTempFileSpace = properties.getProperty("maxTempFileSpace");
+        if (maxTempFileSpace != null) httpServerConfiguration.setMaxTempFileSpace(Long.parseLong(maxTempFileSpace));
+
+        String contentMemoryBudgetTimeout = properties.getProperty("contentMemoryBudgetTimeout");
+        if (contentMemoryBudgetTimeout != null) {
+            httpServerConfiguration.setContentMemoryBudgetTimeout(Integer.parseInt(contentMemoryBudgetTimeout));
+        }
+
+        String offHeapContent = properties.getProperty("offHeapContent");
+        if (offHeapContent != null) httpServerConfiguration.setOffHeapContent(Boolean.parseBoolean(offHeapContent));
+
+        String contentDigestAlgorithms = properties.getProperty("contentDigestAlgorithms");
+        if (contentDigestAlgorithms != null) {
+            httpServerConfiguration.setContentDigestAlgorithms(Arrays.stream(contentDigestAlgorithms.split(",", 0)).map(String::trim)
+                    .filter(algorithm -> !algorithm.isEmpty()).map(ContentDigest.Algorithm::valueOf).toArray(ContentDigest.Algorithm[]::new));
+        }
+
+        String responseCompression = properties.getProperty("responseCompression");
+        if (responseCompression != null) httpServerConfiguration.setResponseCompression(Boolean.parseBoolean(responseCompression));
+
+        String compressionMinSize = properties.getProperty("compressionMinSize");
+        if (compressionMinSize != null) httpServerConfiguration.setCompressionMinSize(Integer.parseInt(compressionMinSize));
+
+        String parallelCompressionMinSize = properties.getProperty("parallelCompressionMinSize");
+        if (parallelCompressionMinSize != null) {
+            httpServerConfiguration.setParallelCompressionMinSize(Long.parseLong(parallelCompressionMinSize));
+        }
+
+        String chunkFlushPolicy = properties.getProperty("chunkFlushPolicy");
+        if (chunkFlushPolicy != null) httpServerConfiguration.setChunkFlushPolicy(ChunkFlushPolicy.valueOf(chunkFlushPolicy));
+
+        String chunkFlushSize = properties.getProperty("chunkFlushSize");
+        if (chunkFlushSize != null) httpServerConfiguration.setChunkFlushSize(Integer.parseInt(chunkFlushSize));
+
+        String chunkFlushInterval = properties.getProperty("chunkFlushInterval");
+        if (chunkFlushInterval != null) httpServerConfiguration.setChunkFlushInterval(Integer.parseInt(chunkFlushInterval));
+
+        String readAheadBuffers = properties.getProperty("readAheadBuffers");
+        if (readAheadBuffers != null) httpServerConfiguration.setReadAheadBuffers(Integer.parseInt(readAheadBuffers));
+
+        String maxWebSocketMessageSize = properties.getProperty("maxWebSocketMessageSize");
+        if (maxWebSocketMessageSize != null) httpServerConfiguration.setMaxWebSocketMessageSize(Integer.parseInt(maxWebSocketMessageSize));
+
+        String webSocketCompression = properties.getProperty("webSocketCompression");
+        if (webSocketCompression != null) httpServerConfiguration.setWebSocketCompression(Boolean.parseBoolean(webSocketCompression));
+
+        String webSocketIdleTimeout = properties.getProperty("webSocketIdleTimeout");
+        if (webSocketIdleTimeout != null) httpServerConfiguration.setWebSocketIdleTimeout(Integer.parseInt(webSocketIdleTimeout));
+
+        String asyncResponseTimeout = properties.getProperty("asyncResponseTimeout");
+        if (asyncResponseTimeout != null) httpServerConfiguration.setAsyncResponseTimeout(Integer.parseInt(asyncResponseTimeout));
+
+        String maxPendingAsyncResponses = properties.getProperty("maxPendingAsyncResponses");
+        if (maxPendingAsyncResponses != null) httpServerConfiguration.setMaxPendingAsyncResponses(Integer.parseInt(maxPendingAsyncResponses));
+
+        String http2 = properties.getProperty("http2");
+        if (http2 != null) httpServerConfiguration.setHttp2(Boolean.parseBoolean(http2));
+
+        String http2MaxConcurrentStreams = properties.getProperty("http2MaxConcurrentStreams");
+        if (http2MaxConcurrentStreams != null) httpServerConfiguration.setHttp2MaxConcurrentStreams(Integer.parseInt(http2MaxConcurrentStreams));
+
+        String http2InitialWindowSize = properties.getProperty("http2InitialWindowSize");
+        if (http2InitialWindowSize != null) httpServerConfiguration.setHttp2InitialWindowSize(Integer.parseInt(http2InitialWindowSize));
+
+        String compressibleContentTypes = properties.getProperty("compressibleContentTypes");
+        if (compressibleContentTypes != null) {
+            httpServerConfiguration.setCompressibleContentTypes(Arrays.stream(compressibleContentTypes.split(",", 0)).map(String::trim)
+                    .filter(contentType -> !contentType.isEmpty()).toArray(String[]::new));
+        }
+
         String addErrorMessageToResponseHeaders = properties.getProperty("addErrorMessageToResponseHeaders");
         if (addErrorMessageToResponseHeaders != null) {
             httpServerConfiguration.setAddErrorMessageToResponseHeaders(Boolean.parseBoolean(addErrorMessageToResponseHeaders));
@@ -36,6 +36,8 @@ public final class ReqEndpoint extends ReqMaster {
     private final Class<?> className;
     private final Method methodName;
     private final AuthScheme authSchemeAnnotation;
+    private final Integer contentLimit;
+    private final boolean webSocket;
 
     /**
      * Create instance of {@code ReqEndpoint}.
@@ -46,6 +48,8 @@ public final class ReqEndpoint extends ReqMaster {
      * @param className             Target class
      * @param methodName            Target method
      * @param authSchemeAnnotation  Available authentication scheme annotation
+     * @param contentLimit          Maximum content length of the endpoint ({@code @ContentLimit}), or null for the server-wide limits
+     * @param webSocket             Is the endpoint a WebSocket endpoint ({@code @WebSocketEndpoint})?
      * @see ReqEndpoint
      * @since v1.0.0
      */
@@ -54,11 +58,15 @@ public final class ReqEndpoint extends ReqMaster {
                        final boolean authenticated,
                        final Class<?> className,
                        final Method methodName,
-                       final AuthScheme authSchemeAnnotation) {
+                       final AuthScheme authSchemeAnnotation,
+                       final Integer contentLimit,
+                       final boolean webSocket) {
         super(requestEndpoint, reqMethod, authenticated);
         this.className = className;
         this.methodName = methodName;
         this.authSchemeAnnotation = authSchemeAnnotation;
+        this.contentLimit = contentLimit;
+        this.webSocket = webSocket;
     }
 
     /**
@@ -93,4 +101,28 @@ public final class ReqEndpoint extends ReqMaster {
     public AuthScheme getAuthSchemeAnnotation() {
         return authSchemeAnnotation;
     }
+
+    /**
+     * Get maximum content length of the endpoint.
+     *
+     * @return Maximum content length, or null if the server-wide limits apply
+     * @see io.github.lycoriscafe.nexus.http.core.headers.content.ContentLimit ContentLimit
+     * @see ReqEndpoint
+     * @since v1.0.6
+     */
+    public Integer getContentLimit() {
+        return contentLimit;
+    }
+
+    /**
+     * Get is the endpoint a WebSocket endpoint.
+     *
+     * @return WebSocket endpoint status
+     * @see io.github.lycoriscafe.nexus.http.core.websocket.WebSocketEndpoint WebSocketEndpoint
+     * @see ReqEndpoint
+     * @since v1.0.6
+     */
+    public boolean isWebSocket() {
+        return webSocket;
+    }
 }
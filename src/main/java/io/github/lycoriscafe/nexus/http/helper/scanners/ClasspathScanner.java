@@ -0,0 +1,271 @@
+/*
+ * Copyright 2025 Lycoris Café
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.lycoriscafe.nexus.http.helper.scanners;
+
+import io.github.lycoriscafe.nexus.http.helper.ClasspathResources;
+import io.github.lycoriscafe.nexus.http.helper.Database;
+import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
+import io.github.lycoriscafe.nexus.http.helper.models.ReqFile;
+import io.github.lycoriscafe.nexus.http.helper.util.LogFormatter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Classpath static resources' scanner. Builds the {@code ClasspathResources} index from the JAR central directory (no entry is decompressed while
+ * scanning), or from the directory tree when the application runs from exploded classes.
+ *
+ * @see ClasspathResources
+ * @see HttpServerConfiguration#setStaticFilesClasspath(String)
+ * @see ReqFile
+ * @see Database
+ * @since v1.0.6
+ */
+public final class ClasspathScanner {
+    private static final Logger logger = LoggerFactory.getLogger(ClasspathScanner.class);
+
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int CENTRAL_DIRECTORY_HEADER = 0x02014b50;
+
+    /**
+     * Locate the configured classpath root and index the resources under it.
+     *
+     * @param serverConfiguration {@code HttpServerConfiguration} instance bound to the server
+     * @param database            {@code Database} instance bound to the server
+     * @throws ScannerException Error while scanning for classpath resources
+     * @throws SQLException     Error while writing data to the database
+     * @see HttpServerConfiguration
+     * @see Database
+     * @see ClasspathScanner
+     * @since v1.0.6
+     */
+    public static void scan(final HttpServerConfiguration serverConfiguration,
+                            final Database database) throws ScannerException, SQLException {
+        if (serverConfiguration.getStaticFilesClasspath() == null) return;
+        String root = serverConfiguration.getStaticFilesClasspath().replaceAll("^/+|/+$", "");
+
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) classLoader = ClasspathScanner.class.getClassLoader();
+        URL url = classLoader.getResource(root);
+        if (url == null) throw new ScannerException("static files classpath cannot be found - " + root);
+
+        LogFormatter.log(logger.atDebug(), "Begin classpath resources scanning @ " + url);
+        try {
+            ClasspathResources resources = switch (url.getProtocol()) {
+                case "jar" -> {
+                    Path jar = Path.of(((JarURLConnection) url.openConnection()).getJarFileURL().toURI());
+                    yield scanJar(jar, root.isEmpty() ? "" : root + "/", serverConfiguration, database);
+                }
+                case "file" -> scanDirectory(Path.of(url.toURI()), serverConfiguration, database);
+                default -> throw new ScannerException("unsupported classpath resource location - " + url);
+            };
+            database.setClasspathResources(resources);
+            LogFormatter.log(logger.atDebug(), "End classpath resources scanning (" + resources.size() + " entries)");
+        } catch (IOException | URISyntaxException e) {
+            throw new ScannerException("error while scanning static files classpath - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Read the central directory of the JAR and index every entry under the root.
+     *
+     * @param jar                 JAR location
+     * @param prefix              Entry name prefix of the root
+     * @param serverConfiguration {@code HttpServerConfiguration} instance bound to the server
+     * @param database            {@code Database} instance bound to the server
+     * @return Built index
+     * @throws IOException      Error while reading the JAR
+     * @throws ScannerException Invalid/unsupported JAR
+     * @throws SQLException     Error while writing data to the database
+     * @see ClasspathScanner
+     * @since v1.0.6
+     */
+    private static ClasspathResources scanJar(final Path jar,
+                                              final String prefix,
+                                              final HttpServerConfiguration serverConfiguration,
+                                              final Database database) throws IOException, ScannerException, SQLException {
+        FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ);
+        try {
+            ClasspathResources resources = new ClasspathResources(channel, serverConfiguration.getStaticFilesCacheSize());
+
+            // find the end of central directory record (comment can be up to 65535 bytes)
+            long size = channel.size();
+            int tailLength = (int) Math.min(size, 22 + 65_535);
+            ByteBuffer tail = read(channel, size - tailLength, tailLength);
+            int eocd = -1;
+            for (int i = tailLength - 22; i >= 0; i--) {
+                if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY) {
+                    eocd = i;
+                    break;
+                }
+            }
+            if (eocd == -1) throw new ScannerException("invalid jar (end of central directory not found) - " + jar);
+
+            long directorySize = Integer.toUnsignedLong(tail.getInt(eocd + 12));
+            long directoryOffset = Integer.toUnsignedLong(tail.getInt(eocd + 16));
+            if (directoryOffset == 0xFFFFFFFFL || directorySize == 0xFFFFFFFFL) throw new ScannerException("zip64 jars are not supported - " + jar);
+
+            ByteBuffer directory = read(channel, directoryOffset, (int) directorySize);
+            while (directory.remaining() >= 46 && directory.getInt(directory.position()) == CENTRAL_DIRECTORY_HEADER) {
+                int base = directory.position();
+                int flags = Short.toUnsignedInt(directory.getShort(base + 8));
+                int method = Short.toUnsignedInt(directory.getShort(base + 10));
+                int dosTime = directory.getInt(base + 12);
+                long crc = Integer.toUnsignedLong(directory.getInt(base + 16));
+                long compressedSize = Integer.toUnsignedLong(directory.getInt(base + 20));
+                long uncompressedSize = Integer.toUnsignedLong(directory.getInt(base + 24));
+                int nameLength = Short.toUnsignedInt(directory.getShort(base + 28));
+                int extraLength = Short.toUnsignedInt(directory.getShort(base + 30));
+                int commentLength = Short.toUnsignedInt(directory.getShort(base + 32));
+                long headerOffset = Integer.toUnsignedLong(directory.getInt(base + 42));
+
+                byte[] nameBytes = new byte[nameLength];
+                directory.get(base + 46, nameBytes);
+                String name = new String(nameBytes, StandardCharsets.UTF_8);
+                directory.position(base + 46 + nameLength + extraLength + commentLength);
+
+                // skip directories, encrypted entries and entries outside the root
+                if (!name.startsWith(prefix) || name.endsWith("/") || (flags & 1) != 0) continue;
+                if (method != 0 && method != 8) continue;
+
+                String endpoint = name.substring(prefix.length());
+                ClasspathResources.Entry entry = new ClasspathResources.Entry(name, null, method == 8, uncompressedSize, compressedSize, crc,
+                        headerOffset, httpDate(dosTime));
+                register(endpoint, entry, resources, database);
+            }
+            return resources;
+        } catch (IOException | ScannerException | SQLException | RuntimeException e) {
+            // the channel is owned by the returned resources only when the scan succeeds
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Index every file under the root directory. Used when the application runs from exploded classes (like in the IDE).
+     *
+     * @param directory           Root directory
+     * @param serverConfiguration {@code HttpServerConfiguration} instance bound to the server
+     * @param database            {@code Database} instance bound to the server
+     * @return Built index
+     * @throws IOException      Error while reading the directory
+     * @throws ScannerException Error while adding endpoint data
+     * @throws SQLException     Error while writing data to the database
+     * @see ClasspathScanner
+     * @since v1.0.6
+     */
+    private static ClasspathResources scanDirectory(final Path directory,
+                                                    final HttpServerConfiguration serverConfiguration,
+                                                    final Database database) throws IOException, ScannerException, SQLException {
+        ClasspathResources resources = new ClasspathResources(null, serverConfiguration.getStaticFilesCacheSize());
+        try (Stream<Path> walker = Files.walk(directory)) {
+            for (Path path : walker.filter(Files::isRegularFile).toList()) {
+                CRC32 crc32 = new CRC32();
+                try (InputStream inputStream = Files.newInputStream(path)) {
+                    int c;
+                    byte[] buffer = new byte[8192];
+                    while ((c = inputStream.read(buffer)) != -1) {
+                        crc32.update(buffer, 0, c);
+                    }
+                }
+                long size = Files.size(path);
+                String endpoint = directory.relativize(path).toString().replaceAll("\\\\", "/");
+                ClasspathResources.Entry entry = new ClasspathResources.Entry(endpoint, path, false, size, size, crc32.getValue(), -1L,
+                        DateTimeFormatter.RFC_1123_DATE_TIME.format(Files.getLastModifiedTime(path).toInstant().atZone(ZoneOffset.UTC)));
+                register(endpoint, entry, resources, database);
+            }
+        }
+        return resources;
+    }
+
+    /**
+     * Add the entry to the index and the endpoint to the database.
+     *
+     * @param endpoint  Endpoint URI relative to the root
+     * @param entry     Index entry
+     * @param resources Index
+     * @param database  {@code Database} instance bound to the server
+     * @throws ScannerException Endpoint with same URI found
+     * @throws SQLException     Error while writing data to the database
+     * @see ClasspathScanner
+     * @since v1.0.6
+     */
+    private static void register(final String endpoint,
+                                 final ClasspathResources.Entry entry,
+                                 final ClasspathResources resources,
+                                 final Database database) throws ScannerException, SQLException {
+        ReqFile reqFile = new ReqFile(endpoint, false, entry.getLastModified(), entry.getETag());
+        resources.addEntry(reqFile.getRequestEndpoint(), entry);
+        database.addEndpointData(reqFile);
+    }
+
+    /**
+     * Read a region of the JAR into a little-endian {@code ByteBuffer}.
+     *
+     * @param channel  JAR channel
+     * @param position Region start
+     * @param length   Region length
+     * @return Read region
+     * @throws IOException Error while reading the JAR
+     * @see ClasspathScanner
+     * @since v1.0.6
+     */
+    private static ByteBuffer read(final FileChannel channel,
+                                   final long position,
+                                   final int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1) throw new IOException("unexpected end of jar");
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Convert MS-DOS date/time of a JAR entry into HTTP date format.
+     *
+     * @param dosTime MS-DOS date (high 16 bits) and time (low 16 bits)
+     * @return HTTP date
+     * @see ClasspathScanner
+     * @since v1.0.6
+     */
+    private static String httpDate(final int dosTime) {
+        try {
+            LocalDateTime localDateTime = LocalDateTime.of(((dosTime >> 25) & 0x7f) + 1980, (dosTime >> 21) & 0x0f, (dosTime >> 16) & 0x1f,
+                    (dosTime >> 11) & 0x1f, (dosTime >> 5) & 0x3f, (dosTime << 1) & 0x3e);
+            return DateTimeFormatter.RFC_1123_DATE_TIME.format(localDateTime.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC));
+        } catch (DateTimeException e) {
+            return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.EPOCH.atZone(ZoneOffset.UTC));
+        }
+    }
+}
@@ -20,9 +20,14 @@ import io.github.lycoriscafe.nexus.http.core.HttpEndpoint;
 import io.github.lycoriscafe.nexus.http.core.headers.auth.AuthScheme;
 import io.github.lycoriscafe.nexus.http.core.headers.auth.Authenticated;
 import io.github.lycoriscafe.nexus.http.core.headers.auth.scheme.bearer.BearerEndpoint;
+import io.github.lycoriscafe.nexus.http.core.headers.content.ContentLimit;
+import io.github.lycoriscafe.nexus.http.core.headers.content.ContentSink;
 import io.github.lycoriscafe.nexus.http.core.headers.content.ExpectContent;
+import io.github.lycoriscafe.nexus.http.core.headers.content.SinkContent;
+import io.github.lycoriscafe.nexus.http.core.headers.content.StreamContent;
 import io.github.lycoriscafe.nexus.http.core.requestMethods.HttpRequestMethod;
 import io.github.lycoriscafe.nexus.http.core.requestMethods.annotations.*;
+import io.github.lycoriscafe.nexus.http.core.websocket.WebSocketEndpoint;
 import io.github.lycoriscafe.nexus.http.helper.Database;
 import io.github.lycoriscafe.nexus.http.helper.configuration.HttpServerConfiguration;
 import io.github.lycoriscafe.nexus.http.helper.models.ReqEndpoint;
@@ -31,10 +36,12 @@ import org.reflections.Reflections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.sql.SQLException;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 
 import static org.reflections.scanners.Scanners.SubTypes;
 import static org.reflections.scanners.Scanners.TypesAnnotated;
@@ -74,8 +81,37 @@ public final class EndpointScanner {
                     throw new ScannerException("Authenticated endpoint found but no default authentications provided");
                 }
 
+                requireContentMethod(clazz, method, StreamContent.class);
+                requireContentMethod(clazz, method, SinkContent.class);
+                requireContentMethod(clazz, method, ContentLimit.class);
+
+                // the content stream reads the connection, so it cannot be read after the endpoint method returns
+                if (method.isAnnotationPresent(StreamContent.class) && CompletionStage.class.isAssignableFrom(method.getReturnType())) {
+                    throw new ScannerException("@StreamContent on asynchronous endpoint - " + clazz.getName() + "#" + method.getName());
+                }
+
+                if (method.isAnnotationPresent(SinkContent.class)) {
+                    if (method.isAnnotationPresent(StreamContent.class)) {
+                        throw new ScannerException("@SinkContent with @StreamContent - " + clazz.getName() + "#" + method.getName());
+                    }
+                    try {
+                        ContentSink.getProvider(method.getAnnotation(SinkContent.class).value());
+                    } catch (IllegalStateException e) {
+                        throw new ScannerException(e.getMessage() + " - " + clazz.getName() + "#" + method.getName());
+                    }
+                }
+
+                Integer contentLimit = null;
+                if (method.isAnnotationPresent(ContentLimit.class)) {
+                    contentLimit = method.getAnnotation(ContentLimit.class).value();
+                    if (contentLimit < 1) {
+                        throw new ScannerException("@ContentLimit cannot be less than 1 (bytes) - " + clazz.getName() + "#" + method.getName());
+                    }
+                }
+
                 String endpointValue;
                 HttpRequestMethod reqMethod;
+                boolean webSocket = false;
                 switch (method) {
                     case Method m when m.isAnnotationPresent(GET.class) && Modifier.isStatic(m.getModifiers()) -> {
                         if (m.isAnnotationPresent(ExpectContent.class)) {
@@ -117,6 +153,14 @@ public final class EndpointScanner {
                         endpointValue = m.getAnnotation(OPTIONS.class).value();
                         reqMethod = HttpRequestMethod.OPTIONS;
                     }
+                    case Method m when m.isAnnotationPresent(WebSocketEndpoint.class) && Modifier.isStatic(m.getModifiers()) -> {
+                        if (m.isAnnotationPresent(ExpectContent.class)) {
+                            throw new ScannerException("@ExpectContent on WebSocket endpoint - " + clazz.getName() + "#" + method.getName());
+                        }
+                        endpointValue = m.getAnnotation(WebSocketEndpoint.class).value();
+                        reqMethod = HttpRequestMethod.GET;
+                        webSocket = true;
+                    }
                     case Method m when m.isAnnotationPresent(BearerEndpoint.class) && Modifier.isStatic(m.getModifiers()) -> {
                         if (m.isAnnotationPresent(ExpectContent.class) &&
                                 !m.getAnnotation(ExpectContent.class).value().equals("application/x-www-form-urlencoded")) {
@@ -133,10 +177,34 @@ public final class EndpointScanner {
                 }
 
                 String endpointUri = serverConfiguration.getUrlPrefix() + "/" + clazz.getAnnotation(HttpEndpoint.class).value() + "/" + endpointValue;
-                database.addEndpointData(new ReqEndpoint(endpointUri, reqMethod, authenticated, clazz, method, authSchemeAnnotation));
+                database.addEndpointData(new ReqEndpoint(endpointUri, reqMethod, authenticated, clazz, method, authSchemeAnnotation,
+                        contentLimit, webSocket));
                 LogFormatter.log(logger.atDebug(), "Endpoint found (" + reqMethod + ") @ " + clazz.getName() + "#" + method.getName());
             }
         }
         LogFormatter.log(logger.atDebug(), "End endpoint scanning");
     }
+
+    /**
+     * Ensure that an endpoint method annotated with a request content annotation can receive content, which means it is a
+     * {@code POST}, {@code PUT} or {@code PATCH} endpoint.
+     *
+     * @param clazz      Endpoint class
+     * @param method     Endpoint method
+     * @param annotation Request content annotation to check
+     * @throws ScannerException Annotation present on an endpoint that cannot receive content
+     * @see StreamContent
+     * @see SinkContent
+     * @see ContentLimit
+     * @see EndpointScanner
+     * @since v1.0.6
+     */
+    private static void requireContentMethod(final Class<?> clazz,
+                                             final Method method,
+                                             final Class<? extends Annotation> annotation) throws ScannerException {
+        if (!method.isAnnotationPresent(annotation) || method.isAnnotationPresent(POST.class) ||
+                method.isAnnotationPresent(PUT.class) || method.isAnnotationPresent(PATCH.class)) return;
+        throw new ScannerException("@" + annotation.getSimpleName() + " on non POST/PUT/PATCH endpoint - " +
+                clazz.getName() + "#" + method.getName());
+    }
 }
@@ -29,6 +29,8 @@ import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.Base64;
 
 /**
@@ -81,8 +83,9 @@ public final class FileScanner {
 
                 String endpointName = Path.of(serverConfiguration.getStaticFilesDirectory()).relativize(path).toString().replaceAll("\\\\", "/");
                 database.addEndpointData(new ReqFile(endpointName, false,
-                        // TODO http date format
-                        Files.getLastModifiedTime(path, LinkOption.NOFOLLOW_LINKS).toString(), calculateETag(path)));
+                        DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                                Files.getLastModifiedTime(path, LinkOption.NOFOLLOW_LINKS).toInstant().atZone(ZoneOffset.UTC)),
+                        calculateETag(path)));
             }
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -21,6 +21,7 @@ module io.github.lycoriscafe.nexus.http {
     exports io.github.lycoriscafe.nexus.http.core.requestMethods.annotations;
     exports io.github.lycoriscafe.nexus.http.core.statusCodes;
     exports io.github.lycoriscafe.nexus.http.core.statusCodes.annotations;
+    exports io.github.lycoriscafe.nexus.http.core.websocket;
     exports io.github.lycoriscafe.nexus.http.engine;
     exports io.github.lycoriscafe.nexus.http.engine.reqResManager.httpReq;
     exports io.github.lycoriscafe.nexus.http.engine.reqResManager.httpRes;